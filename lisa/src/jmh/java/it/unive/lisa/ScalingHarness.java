@@ -0,0 +1,293 @@
+package it.unive.lisa;
+
+import static it.unive.lisa.LiSAFactory.getDefaultFor;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.impl.heap.pointbased.PointBasedHeap;
+import it.unive.lisa.analysis.impl.numeric.Interval;
+import it.unive.lisa.analysis.impl.numeric.Parity;
+import it.unive.lisa.analysis.impl.numeric.Sign;
+import it.unive.lisa.imp.SyntheticProgramGenerator;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.util.datastructures.graph.FixpointMetrics;
+import it.unive.lisa.util.datastructures.graph.InMemoryMetricsSink;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A harness measuring how whole analyses scale with the size of the analyzed
+ * program. Programs are generated through a {@link SyntheticProgramGenerator},
+ * sweeping one of its parameters over a list of values while keeping the
+ * others fixed, and each of them is analyzed with some of the shipped
+ * domains. Each analysis runs in a fresh JVM, forked by this harness, that
+ * first warms up by analyzing the program a configurable number of times, and
+ * then measures a single run of {@link LiSA#run(Program)}, reporting its
+ * time, the number of fixpoint iterations and the peak heap usage. Results are
+ * written as csv, one line for each domain, value and repetition. Analyses
+ * that fail or exceed the timeout are reported with a {@code failed} or
+ * {@code timeout} status, respectively.<br>
+ * <br>
+ * Options are given as {@code key=value} arguments:
+ * <ul>
+ * <li>{@code domains}: comma-separated domains to use, among
+ * {@code interval}, {@code sign}, {@code parity}, {@code pointBasedHeap}
+ * (point-based heap with intervals) and {@code types} (type inference only);
+ * defaults to all of them</li>
+ * <li>{@code sweep}: the parameter of the generator to sweep, among
+ * {@code classes}, {@code methods}, {@code statements}, {@code loopDepth} and
+ * {@code allocations}; defaults to {@code classes}</li>
+ * <li>{@code values}: comma-separated values of the swept parameter; defaults
+ * to {@code 1,2,4,8,16}</li>
+ * <li>{@code classes}, {@code fields}, {@code methods}, {@code statements},
+ * {@code loopDepth}, {@code allocations}, {@code callDensity} and
+ * {@code seed}: the fixed parameters of the generator; default to {@code 4},
+ * {@code 2}, {@code 4}, {@code 20}, {@code 1}, {@code 2}, {@code 0.1} and
+ * {@code 0}, respectively</li>
+ * <li>{@code warmups}: number of unmeasured runs in each JVM; defaults to
+ * {@code 2}</li>
+ * <li>{@code repetitions}: number of JVMs forked for each domain and value;
+ * defaults to {@code 3}</li>
+ * <li>{@code timeout}: maximum time, in seconds, for each JVM; defaults to
+ * {@code 300}</li>
+ * <li>{@code jvmArgs}: space-separated arguments for the forked JVMs;
+ * defaults to {@code -Xmx4g}</li>
+ * <li>{@code output}: the csv file to write; defaults to
+ * {@code build/reports/scaling/scaling.csv}</li>
+ * </ul>
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class ScalingHarness {
+
+	private static final String RESULT = "RESULT,";
+
+	private static final String[] GENERATOR_OPTIONS = { "classes", "fields", "methods", "statements", "loopDepth",
+			"allocations", "callDensity", "seed" };
+
+	private static final String HEADER = "domain,sweep,value,classes,methods,statements,loopDepth,allocations,"
+			+ "callDensity,cfgs,nodes,repetition,status,timeMillis,fixpoints,evaluations,lubs,widenings,"
+			+ "peakHeapBytes";
+
+	/**
+	 * Runs the harness.
+	 *
+	 * @param args the {@code key=value} options
+	 *
+	 * @throws Exception if something goes wrong while forking JVMs or writing
+	 *                       the results
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0 && args[0].equals("--fork")) {
+			fork(args);
+			return;
+		}
+
+		Map<String, String> options = new LinkedHashMap<>();
+		options.put("domains", "interval,sign,parity,pointBasedHeap,types");
+		options.put("sweep", "classes");
+		options.put("values", "1,2,4,8,16");
+		options.put("classes", "4");
+		options.put("fields", "2");
+		options.put("methods", "4");
+		options.put("statements", "20");
+		options.put("loopDepth", "1");
+		options.put("allocations", "2");
+		options.put("callDensity", "0.1");
+		options.put("seed", "0");
+		options.put("warmups", "2");
+		options.put("repetitions", "3");
+		options.put("timeout", "300");
+		options.put("jvmArgs", "-Xmx4g");
+		options.put("output", "build/reports/scaling/scaling.csv");
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (eq < 0 || !options.containsKey(arg.substring(0, eq)))
+				throw new IllegalArgumentException("Unknown option: " + arg);
+			options.put(arg.substring(0, eq), arg.substring(eq + 1));
+		}
+
+		String sweep = options.get("sweep");
+		int repetitions = Integer.parseInt(options.get("repetitions"));
+		long timeout = Long.parseLong(options.get("timeout"));
+		File output = new File(options.get("output"));
+		if (output.getParentFile() != null)
+			output.getParentFile().mkdirs();
+
+		try (PrintWriter writer = new PrintWriter(output)) {
+			writer.println(HEADER);
+			for (String domain : options.get("domains").split(","))
+				for (String value : options.get("values").split(","))
+					for (int rep = 0; rep < repetitions; rep++) {
+						Map<String, String> point = new LinkedHashMap<>(options);
+						point.put(sweep, value);
+						SyntheticProgramGenerator generator = generator(point);
+						String line = domain + "," + sweep + "," + value + "," + generator.getClasses() + ","
+								+ generator.getMethods() + "," + generator.getStatements() + ","
+								+ generator.getLoopDepth() + "," + generator.getAllocations() + ","
+								+ generator.getCallDensity() + "," + shape(generator.generateProgram()) + "," + rep
+								+ "," + run(domain, point, timeout);
+						System.out.println(line);
+						writer.println(line);
+						writer.flush();
+					}
+		}
+	}
+
+	private static SyntheticProgramGenerator generator(Map<String, String> options) {
+		return new SyntheticProgramGenerator()
+				.setClasses(Integer.parseInt(options.get("classes")))
+				.setFields(Integer.parseInt(options.get("fields")))
+				.setMethods(Integer.parseInt(options.get("methods")))
+				.setStatements(Integer.parseInt(options.get("statements")))
+				.setLoopDepth(Integer.parseInt(options.get("loopDepth")))
+				.setAllocations(Integer.parseInt(options.get("allocations")))
+				.setCallDensity(Double.parseDouble(options.get("callDensity")))
+				.setSeed(Long.parseLong(options.get("seed")));
+	}
+
+	private static String shape(Program program) {
+		int cfgs = 0, nodes = 0;
+		for (CFG cfg : program.getAllCFGs()) {
+			cfgs++;
+			nodes += cfg.getNodesCount();
+		}
+		return cfgs + "," + nodes;
+	}
+
+	private static String run(String domain, Map<String, String> options, long timeout)
+			throws IOException, InterruptedException {
+		List<String> command = new ArrayList<>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		for (String arg : options.get("jvmArgs").trim().split("\\s+"))
+			if (!arg.isEmpty())
+				command.add(arg);
+		command.add("-Dlog4j.configurationFile=log4j2-benchmarks.xml");
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(ScalingHarness.class.getName());
+		command.add("--fork");
+		command.add(domain);
+		for (String key : GENERATOR_OPTIONS)
+			command.add(options.get(key));
+		command.add(options.get("warmups"));
+
+		Path log = Files.createTempFile("lisa-scaling", ".log");
+		try {
+			Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile())
+					.start();
+			if (!process.waitFor(timeout, TimeUnit.SECONDS)) {
+				process.destroyForcibly().waitFor();
+				return "timeout,,,,,,";
+			}
+
+			String cause = "no result";
+			for (String line : Files.readAllLines(log))
+				if (line.startsWith(RESULT))
+					return "ok," + line.substring(RESULT.length());
+				else if (line.contains("Exception"))
+					cause = line;
+			System.err.println("Analysis with " + domain + " failed: " + cause);
+			return "failed,,,,,,";
+		} finally {
+			Files.delete(log);
+		}
+	}
+
+	private static void fork(String[] args) throws Exception {
+		// --fork domain <generator options> warmups
+		String domain = args[1];
+		Map<String, String> options = new HashMap<>();
+		for (int i = 0; i < GENERATOR_OPTIONS.length; i++)
+			options.put(GENERATOR_OPTIONS[i], args[i + 2]);
+		int warmups = Integer.parseInt(args[GENERATOR_OPTIONS.length + 2]);
+		SyntheticProgramGenerator generator = generator(options);
+
+		Path workdir = Files.createTempDirectory("lisa-scaling");
+		try {
+			// programs are finalized by the analysis, so each run needs a
+			// new one
+			for (int i = 0; i < warmups; i++)
+				new LiSA(configuration(domain, workdir, new UnsizedMetricsSink())).run(generator.generateProgram());
+
+			Program program = generator.generateProgram();
+			InMemoryMetricsSink sink = new UnsizedMetricsSink();
+			LiSAConfiguration conf = configuration(domain, workdir, sink);
+			System.gc();
+			List<MemoryPoolMXBean> pools = new ArrayList<>();
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+				if (pool.getType() == MemoryType.HEAP) {
+					pool.resetPeakUsage();
+					pools.add(pool);
+				}
+
+			long start = System.nanoTime();
+			new LiSA(conf).run(program);
+			long time = System.nanoTime() - start;
+
+			long peak = 0;
+			for (MemoryPoolMXBean pool : pools)
+				peak += pool.getPeakUsage().getUsed();
+
+			long evaluations = 0, lubs = 0, widenings = 0;
+			List<FixpointMetrics<?>> metrics = sink.getMetrics();
+			for (FixpointMetrics<?> m : metrics) {
+				evaluations += m.getEvaluations();
+				lubs += m.getLubs();
+				widenings += m.getWidenings();
+			}
+
+			System.out.println(RESULT + TimeUnit.NANOSECONDS.toMillis(time) + "," + metrics.size() + ","
+					+ evaluations + "," + lubs + "," + widenings + "," + peak);
+		} finally {
+			FileUtils.deleteQuietly(workdir.toFile());
+		}
+	}
+
+	private static LiSAConfiguration configuration(String domain, Path workdir, InMemoryMetricsSink sink)
+			throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setWorkdir(workdir.toString()).setFixpointMetricsSink(sink);
+		switch (domain) {
+		case "interval":
+			return conf.setAbstractState(
+					getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Interval()));
+		case "sign":
+			return conf.setAbstractState(
+					getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Sign()));
+		case "parity":
+			return conf.setAbstractState(
+					getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Parity()));
+		case "pointBasedHeap":
+			return conf.setAbstractState(getDefaultFor(AbstractState.class, new PointBasedHeap(), new Interval()));
+		case "types":
+			return conf.setInferTypes(true);
+		default:
+			throw new IllegalArgumentException("Unknown domain: " + domain);
+		}
+	}
+
+	private static class UnsizedMetricsSink extends InMemoryMetricsSink {
+
+		@Override
+		public int sizeOf(AnalysisState<?, ?, ?> state) {
+			// state sizes are not reported, and computing them would slow
+			// down the analysis
+			return -1;
+		}
+	}
+}
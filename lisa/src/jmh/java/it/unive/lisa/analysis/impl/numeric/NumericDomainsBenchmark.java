@@ -0,0 +1,168 @@
+package it.unive.lisa.analysis.impl.numeric;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.nonrelational.value.BaseNonRelationalValueDomain;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.types.IntType;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.symbolic.value.Variable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the lattice operations and of the evaluation of arithmetic
+ * expressions of the {@link Interval}, {@link Sign} and {@link Parity}
+ * domains. Each domain is exercised on two abstract values obtained from the
+ * constants {@code 3} and {@code -8}, and on the evaluation of {@code x + y}
+ * and {@code x * y} in an environment where {@code x} and {@code y} are
+ * mapped to those values.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumericDomainsBenchmark {
+
+	private static final ProgramPoint FAKE = new ProgramPoint() {
+
+		@Override
+		public CFG getCFG() {
+			return null;
+		}
+
+		@Override
+		public CodeLocation getLocation() {
+			return null;
+		}
+	};
+
+	private Operands<Interval> interval;
+
+	private Operands<Sign> sign;
+
+	private Operands<Parity> parity;
+
+	private ValueExpression sum;
+
+	private ValueExpression product;
+
+	private static class Operands<T extends BaseNonRelationalValueDomain<T>> {
+
+		private final T left;
+
+		private final T right;
+
+		private final ValueEnvironment<T> env;
+
+		private Operands(T domain, Variable x, Variable y) throws SemanticException {
+			ValueEnvironment<T> empty = new ValueEnvironment<>(domain);
+			left = domain.eval(new Constant(IntType.INSTANCE, 3), empty, FAKE);
+			right = domain.eval(new Constant(IntType.INSTANCE, -8), empty, FAKE);
+			Map<Identifier, T> function = new HashMap<>();
+			function.put(x, left);
+			function.put(y, right);
+			env = new ValueEnvironment<>(domain, function);
+		}
+	}
+
+	@Setup
+	public void setup() throws SemanticException {
+		Variable x = new Variable(Caches.types().mkSingletonSet(IntType.INSTANCE), "x");
+		Variable y = new Variable(Caches.types().mkSingletonSet(IntType.INSTANCE), "y");
+		interval = new Operands<>(new Interval(), x, y);
+		sign = new Operands<>(new Sign(), x, y);
+		parity = new Operands<>(new Parity(), x, y);
+		sum = new BinaryExpression(Caches.types().mkSingletonSet(IntType.INSTANCE), x, y,
+				BinaryOperator.NUMERIC_ADD);
+		product = new BinaryExpression(Caches.types().mkSingletonSet(IntType.INSTANCE), x, y,
+				BinaryOperator.NUMERIC_MUL);
+	}
+
+	@Benchmark
+	public Interval intervalLub() throws SemanticException {
+		return interval.left.lub(interval.right);
+	}
+
+	@Benchmark
+	public Interval intervalWidening() throws SemanticException {
+		return interval.left.widening(interval.right);
+	}
+
+	@Benchmark
+	public boolean intervalLessOrEqual() throws SemanticException {
+		return interval.left.lessOrEqual(interval.right);
+	}
+
+	@Benchmark
+	public Interval intervalSum() {
+		return interval.left.eval(sum, interval.env, FAKE);
+	}
+
+	@Benchmark
+	public Interval intervalProduct() {
+		return interval.left.eval(product, interval.env, FAKE);
+	}
+
+	@Benchmark
+	public Sign signLub() throws SemanticException {
+		return sign.left.lub(sign.right);
+	}
+
+	@Benchmark
+	public boolean signLessOrEqual() throws SemanticException {
+		return sign.left.lessOrEqual(sign.right);
+	}
+
+	@Benchmark
+	public Sign signSum() {
+		return sign.left.eval(sum, sign.env, FAKE);
+	}
+
+	@Benchmark
+	public Sign signProduct() {
+		return sign.left.eval(product, sign.env, FAKE);
+	}
+
+	@Benchmark
+	public Parity parityLub() throws SemanticException {
+		return parity.left.lub(parity.right);
+	}
+
+	@Benchmark
+	public boolean parityLessOrEqual() throws SemanticException {
+		return parity.left.lessOrEqual(parity.right);
+	}
+
+	@Benchmark
+	public Parity paritySum() {
+		return parity.left.eval(sum, parity.env, FAKE);
+	}
+
+	@Benchmark
+	public Parity parityProduct() {
+		return parity.left.eval(product, parity.env, FAKE);
+	}
+}
@@ -0,0 +1,123 @@
+package it.unive.lisa.analysis.nonrelational.value;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.impl.numeric.Interval;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.types.IntType;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.symbolic.value.Variable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the lattice operations of {@link ValueEnvironment}s (and thus
+ * of {@link it.unive.lisa.analysis.lattices.FunctionalLattice}s), with
+ * environments of different sizes mapping variables to {@link Interval}s.
+ * The second environment maps half of the variables to a wider interval, so
+ * that the first one is smaller than the second one and lattice operations
+ * have to inspect all the variables.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueEnvironmentBenchmark {
+
+	private static final ProgramPoint FAKE = new ProgramPoint() {
+
+		@Override
+		public CFG getCFG() {
+			return null;
+		}
+
+		@Override
+		public CodeLocation getLocation() {
+			return null;
+		}
+	};
+
+	@Param({ "8", "64", "512" })
+	private int size;
+
+	private ValueEnvironment<Interval> first;
+
+	private ValueEnvironment<Interval> second;
+
+	private Variable target;
+
+	private ValueExpression increment;
+
+	@Setup
+	public void setup() throws SemanticException {
+		Interval domain = new Interval();
+		ValueEnvironment<Interval> empty = new ValueEnvironment<>(domain);
+		Map<Identifier, Interval> firstMap = new HashMap<>();
+		Map<Identifier, Interval> secondMap = new HashMap<>();
+		Variable previous = null;
+		for (int i = 0; i < size; i++) {
+			Variable x = new Variable(Caches.types().mkSingletonSet(IntType.INSTANCE), "x" + i);
+			Interval low = domain.eval(new Constant(IntType.INSTANCE, 0), empty, FAKE);
+			Interval high = domain.eval(new Constant(IntType.INSTANCE, i), empty, FAKE);
+			Interval higher = domain.eval(new Constant(IntType.INSTANCE, 2 * i), empty, FAKE);
+			firstMap.put(x, low.lub(high));
+			secondMap.put(x, i % 2 == 0 ? low.lub(higher) : low.lub(high));
+			target = previous;
+			previous = x;
+		}
+
+		first = new ValueEnvironment<>(domain, firstMap);
+		second = new ValueEnvironment<>(domain, secondMap);
+		if (target == null)
+			target = previous;
+		increment = new BinaryExpression(Caches.types().mkSingletonSet(IntType.INSTANCE), previous,
+				new Constant(IntType.INSTANCE, 1), BinaryOperator.NUMERIC_ADD);
+	}
+
+	@Benchmark
+	public ValueEnvironment<Interval> lub() throws SemanticException {
+		return first.lub(second);
+	}
+
+	@Benchmark
+	public ValueEnvironment<Interval> widening() throws SemanticException {
+		return first.widening(second);
+	}
+
+	@Benchmark
+	public boolean lessOrEqual() throws SemanticException {
+		return first.lessOrEqual(second);
+	}
+
+	@Benchmark
+	public ValueEnvironment<Interval> assign() throws SemanticException {
+		return first.assign(target, increment, FAKE);
+	}
+
+	@Benchmark
+	public ValueEnvironment<Interval> forgetIdentifier() throws SemanticException {
+		return first.forgetIdentifier(target);
+	}
+}
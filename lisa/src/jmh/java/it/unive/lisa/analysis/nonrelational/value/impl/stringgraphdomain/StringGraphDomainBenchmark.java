@@ -0,0 +1,95 @@
+package it.unive.lisa.analysis.nonrelational.value.impl.stringgraphdomain;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.types.StringType;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the lattice operations of the {@link StringGraphDomain}, and of
+ * the normalization of string graphs that they perform. The benchmarked
+ * graphs are built by concatenating {@code depth} constant strings to an
+ * initial one, so that the size of the graphs grows with {@code depth}.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringGraphDomainBenchmark {
+
+	private static final ProgramPoint FAKE = new ProgramPoint() {
+
+		@Override
+		public CFG getCFG() {
+			return null;
+		}
+
+		@Override
+		public CodeLocation getLocation() {
+			return null;
+		}
+	};
+
+	@Param({ "1", "2", "4" })
+	private int depth;
+
+	private StringGraphDomain first;
+
+	private StringGraphDomain second;
+
+	@Setup
+	public void setup() {
+		first = build("a", "b");
+		second = build("a", "c");
+	}
+
+	private StringGraphDomain build(String prefix, String suffix) {
+		StringGraphDomain domain = new StringGraphDomain();
+		StringGraphDomain result = domain.evalNonNullConstant(new Constant(StringType.INSTANCE, prefix), FAKE);
+		for (int i = 0; i < depth; i++) {
+			StringGraphDomain constant = domain
+					.evalNonNullConstant(new Constant(StringType.INSTANCE, suffix + i), FAKE);
+			result = domain.evalBinaryExpression(BinaryOperator.STRING_CONCAT, result, constant, FAKE);
+		}
+		return result;
+	}
+
+	@Benchmark
+	public StringGraphDomain concat() {
+		return first.evalBinaryExpression(BinaryOperator.STRING_CONCAT, first, second, FAKE);
+	}
+
+	@Benchmark
+	public StringGraphDomain lub() throws SemanticException {
+		return first.lub(second);
+	}
+
+	@Benchmark
+	public StringGraphDomain widening() throws SemanticException {
+		return first.widening(second);
+	}
+
+	@Benchmark
+	public boolean lessOrEqual() throws SemanticException {
+		return first.lessOrEqual(second);
+	}
+}
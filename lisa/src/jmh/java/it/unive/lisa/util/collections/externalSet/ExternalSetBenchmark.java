@@ -0,0 +1,129 @@
+package it.unive.lisa.util.collections.externalSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the operations of {@link BitExternalSet}s and of the lookups
+ * in their {@link ExternalSetCache}, with caches of different sizes. The two
+ * sets used by binary operations contain half of the elements of the cache
+ * each, overlapping on a quarter of them.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExternalSetBenchmark {
+
+	@Param({ "16", "256", "4096" })
+	private int size;
+
+	private ExternalSetCache<String> cache;
+
+	private List<String> elements;
+
+	private ExternalSet<String> first;
+
+	private ExternalSet<String> second;
+
+	private String present;
+
+	private String absent;
+
+	@Setup
+	public void setup() {
+		cache = new ExternalSetCache<>();
+		elements = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+			elements.add("element" + i);
+
+		// first contains [0, size/2), second contains [size/4, 3size/4)
+		first = cache.mkSet(elements.subList(0, size / 2));
+		second = cache.mkSet(elements.subList(size / 4, 3 * size / 4));
+		present = new String(elements.get(size / 3));
+		absent = "missing";
+	}
+
+	@Benchmark
+	public ExternalSet<String> union() {
+		return first.union(second);
+	}
+
+	@Benchmark
+	public ExternalSet<String> intersection() {
+		return first.intersection(second);
+	}
+
+	@Benchmark
+	public ExternalSet<String> difference() {
+		return first.difference(second);
+	}
+
+	@Benchmark
+	public boolean containsAll() {
+		return first.contains(second);
+	}
+
+	@Benchmark
+	public boolean intersects() {
+		return first.intersects(second);
+	}
+
+	@Benchmark
+	public boolean containsElement() {
+		return first.contains(present);
+	}
+
+	@Benchmark
+	public ExternalSet<String> copy() {
+		return first.copy();
+	}
+
+	@Benchmark
+	public void iterate(Blackhole bh) {
+		for (String e : first)
+			bh.consume(e);
+	}
+
+	@Benchmark
+	public ExternalSet<String> mkSet() {
+		return cache.mkSet(elements);
+	}
+
+	@Benchmark
+	public ExternalSet<String> mkSingletonSet() {
+		return cache.mkSingletonSet(present);
+	}
+
+	@Benchmark
+	public int cacheLookupHit() {
+		return cache.indexOf(present);
+	}
+
+	@Benchmark
+	public int cacheLookupMiss() {
+		return cache.indexOf(absent);
+	}
+
+	@Benchmark
+	public String cacheGet() {
+		return cache.get(size / 2);
+	}
+}
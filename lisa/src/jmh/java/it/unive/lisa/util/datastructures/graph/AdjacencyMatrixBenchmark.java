@@ -0,0 +1,90 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CFGDescriptor;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the navigation of an {@link AdjacencyMatrix}, with matrices
+ * of different sizes. The matrix is a chain of nodes where every tenth node
+ * has an additional edge going back to the beginning of its block, to
+ * resemble the structure of cfgs containing loops. Each benchmark visits all
+ * the nodes of the matrix.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdjacencyMatrixBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	private int nodes;
+
+	private AdjacencyMatrix<Statement, Edge, CFG> matrix;
+
+	private List<Statement> statements;
+
+	@Setup
+	public void setup() {
+		CFG cfg = new CFG(new CFGDescriptor(new CompilationUnit(null, "bench", false), false, "bench"));
+		matrix = new AdjacencyMatrix<>();
+		statements = new ArrayList<>(nodes);
+		for (int i = 0; i < nodes; i++) {
+			Statement st = new NoOp(cfg);
+			statements.add(st);
+			matrix.addNode(st);
+		}
+
+		for (int i = 1; i < nodes; i++) {
+			matrix.addEdge(new SequentialEdge(statements.get(i - 1), statements.get(i)));
+			if (i % 10 == 9)
+				matrix.addEdge(new SequentialEdge(statements.get(i), statements.get(i - 9)));
+		}
+	}
+
+	@Benchmark
+	public void followers(Blackhole bh) {
+		for (Statement st : statements)
+			bh.consume(matrix.followersOf(st));
+	}
+
+	@Benchmark
+	public void predecessors(Blackhole bh) {
+		for (Statement st : statements)
+			bh.consume(matrix.predecessorsOf(st));
+	}
+
+	@Benchmark
+	public void edgeConnecting(Blackhole bh) {
+		for (int i = 1; i < nodes; i++)
+			bh.consume(matrix.getEdgeConnecting(statements.get(i - 1), statements.get(i)));
+	}
+
+	@Benchmark
+	public AdjacencyMatrix<Statement, Edge, CFG> copy() {
+		return new AdjacencyMatrix<>(matrix);
+	}
+}
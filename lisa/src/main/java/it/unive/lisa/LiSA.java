@@ -7,20 +7,28 @@ import it.unive.lisa.analysis.AbstractState;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.CFGWithAnalysisResults;
 import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.combination.TypeInferenceProduct;
 import it.unive.lisa.analysis.heap.HeapDomain;
 import it.unive.lisa.analysis.impl.types.InferredTypes;
 import it.unive.lisa.analysis.inference.InferenceSystem;
 import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.AnalysisSession;
 import it.unive.lisa.caches.Caches;
 import it.unive.lisa.callgraph.CallGraph;
 import it.unive.lisa.callgraph.CallGraphConstructionException;
+import it.unive.lisa.checks.Check;
 import it.unive.lisa.checks.ChecksExecutor;
+import it.unive.lisa.checks.StreamingChecksExecution;
+import it.unive.lisa.checks.semantic.SemanticCheck;
 import it.unive.lisa.checks.semantic.CheckToolWithAnalysisResults;
 import it.unive.lisa.checks.syntactic.CheckTool;
 import it.unive.lisa.checks.warnings.Warning;
 import it.unive.lisa.logging.IterationLogger;
 import it.unive.lisa.logging.TimerLogger;
+import it.unive.lisa.outputs.CFGDumper;
+import it.unive.lisa.outputs.JsonMetricsSink;
 import it.unive.lisa.outputs.JsonReport;
+import it.unive.lisa.outputs.JsonReportWriter;
 import it.unive.lisa.program.Program;
 import it.unive.lisa.program.ProgramValidationException;
 import it.unive.lisa.program.cfg.CFG;
@@ -30,7 +38,11 @@ import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.value.Skip;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration.InternalStates;
 import it.unive.lisa.util.datastructures.graph.FixpointException;
+import it.unive.lisa.util.datastructures.graph.FixpointMetrics;
+import it.unive.lisa.util.datastructures.graph.FixpointMetricsSink;
 import it.unive.lisa.util.datastructures.graph.GraphVisitor;
 import it.unive.lisa.util.file.FileManager;
 import java.io.IOException;
@@ -40,6 +52,12 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -73,6 +91,16 @@ public class LiSA {
 	 */
 	private final LiSAConfiguration conf;
 
+	/**
+	 * The {@link CFGDumper} used for dumping cfgs to dot files
+	 */
+	private final CFGDumper dumper;
+
+	/**
+	 * The sink where the metrics of fixpoint computations are reported, if any
+	 */
+	private FixpointMetricsSink metricsSink;
+
 	/**
 	 * Builds a new LiSA instance.
 	 * 
@@ -84,11 +112,20 @@ public class LiSA {
 		// non thread-safe one
 		this.warnings = new ArrayList<>();
 		this.conf = conf;
-		this.fileManager = new FileManager(conf.getWorkdir());
+		this.fileManager = new FileManager(conf.getWorkdir(),
+				conf.isArchiveOutput() ? FileManager.DEFAULT_ARCHIVE : null);
+		int threads = conf.isParallelDump() ? Runtime.getRuntime().availableProcessors() : 1;
+		this.dumper = new CFGDumper(fileManager, conf.getDumpFilter(), threads);
 	}
 
 	/**
-	 * Runs LiSA, executing all the checks that have been added.
+	 * Runs LiSA, executing all the checks that have been added. The analysis
+	 * runs inside a fresh {@link AnalysisSession}, that is closed when this
+	 * method returns: objects built during the analysis that are used
+	 * afterwards (e.g., abstract states retained by a custom
+	 * {@link CallGraph}) are then read in the session of the calling thread,
+	 * and must not be mixed with objects built in it (see
+	 * {@link AnalysisSession}).
 	 * 
 	 * @param program the program to analyze
 	 * 
@@ -97,26 +134,135 @@ public class LiSA {
 	public void run(Program program) throws AnalysisException {
 		printConfig();
 
+		String reportName = conf.isNdjsonOutput() ? "report.ndjson" : "report.json";
+		JsonReportWriter streamingReport = null;
+		if (conf.isJsonOutput() && conf.isStreamingJsonOutput())
+			try {
+				log.info("Streaming reported warnings to '" + reportName + "'");
+				streamingReport = new JsonReportWriter(fileManager.mkUnarchivedFile(reportName),
+						conf.isNdjsonOutput());
+			} catch (IOException e) {
+				log.error("Unable to create report file", e);
+			}
+
+		JsonMetricsSink metricsDump = null;
+		if (conf.isDumpFixpointMetrics())
+			try {
+				log.info("Dumping fixpoint metrics to '" + JsonMetricsSink.FILE_NAME + "'");
+				metricsDump = new JsonMetricsSink(fileManager);
+			} catch (IOException e) {
+				log.error("Unable to create fixpoint metrics file", e);
+			}
+		metricsSink = combine(conf.getFixpointMetricsSink(), metricsDump);
+
+		Consumer<Warning> listener = streamingReport == null ? null : appender(streamingReport);
+		JsonMetricsSink metrics = metricsDump;
+		// each run owns its caches, so that different runs can be executed
+		// concurrently
+		AnalysisSession.Scope scope = new AnalysisSession().enter();
 		try {
-			TimerLogger.execAction(log, "Analysis time", () -> runAux(program));
+			TimerLogger.execAction(log, "Analysis time", () -> {
+				try {
+					runAux(program, listener);
+					dumper.finish();
+				} finally {
+					dumper.close();
+					closeMetrics(metrics);
+					closeFiles();
+				}
+			});
 		} catch (AnalysisExecutionException e) {
 			throw new AnalysisException("LiSA has encountered an exception while executing the analysis", e);
+		} finally {
+			scope.close();
+			// the warnings reported until a failure are still available
+			if (streamingReport != null)
+				completeReport(streamingReport, reportName);
 		}
 
 		printStats();
 
-		if (conf.isJsonOutput()) {
-			log.info("Dumping reported warnings to 'report.json'");
-			JsonReport report = new JsonReport(warnings, fileManager.createdFiles());
-			try (Writer writer = fileManager.mkOutputFile("report.json")) {
-				report.dump(writer);
-				log.info("Report file dumped to report.json");
+		if (conf.isJsonOutput() && streamingReport == null) {
+			log.info("Dumping reported warnings to '" + reportName + "'");
+			JsonReport report = new JsonReport(warnings, fileManager.createdFiles(), fileManager.getArchive());
+			try (Writer writer = fileManager.mkUnarchivedFile(reportName)) {
+				report.dump(writer, conf.isNdjsonOutput());
+				log.info("Report file dumped to " + reportName);
 			} catch (IOException e) {
 				log.error("Unable to dump report file", e);
 			}
 		}
 	}
 
+	private static Consumer<Warning> appender(JsonReportWriter report) {
+		AtomicBoolean failed = new AtomicBoolean();
+		return warning -> {
+			if (!failed.get())
+				try {
+					report.write(warning);
+				} catch (IOException e) {
+					// logged only once, further warnings are just dropped
+					if (!failed.getAndSet(true))
+						log.error("Unable to write warnings to the report file", e);
+				}
+		};
+	}
+
+	private static FixpointMetricsSink combine(FixpointMetricsSink first, FixpointMetricsSink second) {
+		if (first == null)
+			return second;
+		if (second == null)
+			return first;
+		return new FixpointMetricsSink() {
+
+			@Override
+			public void record(FixpointMetrics<?> metrics) {
+				first.record(metrics);
+				second.record(metrics);
+			}
+
+			@Override
+			public int sizeOf(AnalysisState<?, ?, ?> state) {
+				return first.sizeOf(state);
+			}
+		};
+	}
+
+	private static void closeMetrics(JsonMetricsSink metrics) {
+		if (metrics != null)
+			try {
+				metrics.close();
+			} catch (IOException e) {
+				log.error("Unable to dump fixpoint metrics", e);
+			}
+	}
+
+	private FixpointConfiguration mkFixpointConfiguration() {
+		return new FixpointConfiguration(conf).setMetricsSink(metricsSink);
+	}
+
+	private void closeFiles() {
+		try {
+			fileManager.close();
+		} catch (IOException e) {
+			log.error("Unable to complete the archive of generated files", e);
+		}
+	}
+
+	private void completeReport(JsonReportWriter report, String reportName) {
+		// the report itself does not list its own file
+		Collection<String> files = new TreeSet<>(fileManager.createdFiles());
+		files.remove(reportName);
+		// the writer is closed even if the files cannot be written
+		try (JsonReportWriter writer = report) {
+			writer.writeFiles(files, fileManager.getArchive());
+		} catch (IOException e) {
+			log.error("Unable to dump report file", e);
+			return;
+		}
+		log.info("Report file dumped to " + reportName);
+	}
+
 	private void printConfig() {
 		log.info(conf.toString());
 	}
@@ -129,7 +275,7 @@ public class LiSA {
 	@SuppressWarnings("unchecked")
 	private <H extends HeapDomain<H>,
 			V extends ValueDomain<V>,
-			A extends AbstractState<A, H, V>> void runAux(Program program)
+			A extends AbstractState<A, H, V>> void runAux(Program program, Consumer<Warning> listener)
 					throws AnalysisExecutionException {
 		finalizeProgram(program);
 
@@ -139,9 +285,9 @@ public class LiSA {
 			for (CFG cfg : IterationLogger.iterate(log, allCFGs, "Dumping input CFGs", "cfgs"))
 				dumpCFG("", cfg, st -> "");
 
-		CheckTool tool = new CheckTool();
+		CheckTool tool = new CheckTool(listener);
 		if (!conf.getSyntacticChecks().isEmpty())
-			ChecksExecutor.executeAll(tool, program, conf.getSyntacticChecks());
+			executeChecks(tool, program, conf.getSyntacticChecks());
 		else
 			log.warn("Skipping syntactic checks execution since none have been provided");
 
@@ -161,21 +307,32 @@ public class LiSA {
 			throw new AnalysisExecutionException("Exception while building the call graph for the input program", e);
 		}
 
-		if (conf.isInferTypes())
+		if (isFusedTypeInference())
+			log.info("Type inference will be computed together with the analysis");
+		else if (conf.isInferTypes())
 			inferTypes(allCFGs, callGraph);
 		else
 			log.warn("Type inference disabled: dynamic type information will not be available for following analysis");
 
-		if (conf.getState() != null) {
+		if (conf.getState() != null && conf.isLazyAnalysis())
+			tool = analyzeLazily(program, allCFGs, callGraph, tool);
+		else if (conf.getState() != null && conf.isStreamingChecks())
+			tool = analyzeAndCheck(program, allCFGs, callGraph, tool);
+		else if (conf.getState() != null) {
 			analyze(allCFGs, callGraph);
-			Map<CFG, CFGWithAnalysisResults<A, H, V>> results = new IdentityHashMap<>(allCFGs.size());
-			for (CFG cfg : allCFGs)
-				results.put(cfg, callGraph.getAnalysisResultsOf(cfg));
+			// results might have been released by the call graph, and are
+			// thus requested only when needed
+			if (conf.getResidentResults() > 0)
+				tool = new CheckToolWithAnalysisResults<A, H, V>(tool, callGraph::getAnalysisResultsOf);
+			else {
+				Map<CFG, CFGWithAnalysisResults<A, H, V>> results = new IdentityHashMap<>(allCFGs.size());
+				for (CFG cfg : allCFGs)
+					results.put(cfg, callGraph.getAnalysisResultsOf(cfg));
+				tool = new CheckToolWithAnalysisResults<>(tool, results);
+			}
 
-			tool = new CheckToolWithAnalysisResults<>(tool, results);
 			if (!conf.getSemanticChecks().isEmpty())
-				ChecksExecutor.executeAll((CheckToolWithAnalysisResults<A, H, V>) tool, program,
-						conf.getSemanticChecks());
+				executeChecks((CheckToolWithAnalysisResults<A, H, V>) tool, program, conf.getSemanticChecks());
 			else
 				log.warn("Skipping semantic checks execution since none have been provided");
 		} else
@@ -184,14 +341,22 @@ public class LiSA {
 		warnings.addAll(tool.getWarnings());
 	}
 
+	private <C extends Check<T>, T> void executeChecks(T tool, Program program, Collection<C> checks) {
+		if (conf.isParallelChecks())
+			ChecksExecutor.executeAllFused(tool, program, checks, Runtime.getRuntime().availableProcessors());
+		else
+			ChecksExecutor.executeAll(tool, program, checks);
+	}
+
 	@SuppressWarnings("unchecked")
 	private <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void analyze(
 			Collection<CFG> allCFGs, CallGraph callGraph) {
-		A state = (A) conf.getState().top();
+		A state = mkAnalysisState();
+		FixpointConfiguration fixconf = mkFixpointConfiguration();
 		TimerLogger.execAction(log, "Computing fixpoint over the whole program",
 				() -> {
 					try {
-						callGraph.fixpoint(new AnalysisState<>(state, new Skip()));
+						callGraph.fixpoint(new AnalysisState<>(state, new Skip()), fixconf);
 					} catch (FixpointException e) {
 						log.fatal("Exception during fixpoint computation", e);
 						throw new AnalysisExecutionException("Exception during fixpoint computation", e);
@@ -203,11 +368,120 @@ public class LiSA {
 				CFGWithAnalysisResults<A, H, V> result = callGraph.getAnalysisResultsOf(cfg);
 				dumpCFG("analysis___", result, st -> result.getAnalysisStateAt(st).toString());
 			}
+
+		if (isFusedTypeInference() && conf.isDumpTypeInference())
+			for (CFG cfg : IterationLogger.iterate(log, allCFGs, "Dumping type analysis", "cfgs"))
+				dumpFusedTypes(callGraph.<A, H, V>getAnalysisResultsOf(cfg));
 	}
 
 	@SuppressWarnings("unchecked")
-	private <H extends HeapDomain<H>> void inferTypes(Collection<CFG> allCFGs, CallGraph callGraph) {
-		SimpleAbstractState<H, InferenceSystem<InferredTypes>> typesState;
+	private <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> CheckTool analyzeAndCheck(Program program, Collection<CFG> allCFGs,
+					CallGraph callGraph, CheckTool tool) {
+		A state = mkAnalysisState();
+		FixpointConfiguration fixconf = mkFixpointConfiguration();
+		// results are stored only while checks are running on them
+		Map<CFG, CFGWithAnalysisResults<A, H, V>> results = Collections.synchronizedMap(new IdentityHashMap<>());
+		CheckToolWithAnalysisResults<A, H, V> checkTool = new CheckToolWithAnalysisResults<>(tool, results);
+		int threads = conf.isParallelChecks() ? Runtime.getRuntime().availableProcessors() : 1;
+		if (conf.getSemanticChecks().isEmpty())
+			log.warn("Skipping semantic checks execution since none have been provided");
+
+		try (StreamingChecksExecution<SemanticCheck, CheckToolWithAnalysisResults<?, ?, ?>> checks
+				= new StreamingChecksExecution<>(checkTool, program, conf.getSemanticChecks(), threads)) {
+			BiConsumer<CFG, CFGWithAnalysisResults<A, H, V>> consumer = (cfg, result) -> {
+				if (conf.isDumpAnalysis())
+					dumpCFG("analysis___", result, st -> result.getAnalysisStateAt(st).toString());
+				if (isFusedTypeInference() && conf.isDumpTypeInference())
+					dumpFusedTypes(result);
+				results.put(cfg, result);
+				checks.execute(cfg, () -> results.remove(cfg));
+			};
+			TimerLogger.execAction(log, "Computing fixpoint over the whole program and executing semantic checks",
+					() -> {
+						try {
+							callGraph.fixpoint(new AnalysisState<>(state, new Skip()), fixconf, allCFGs, consumer);
+						} catch (FixpointException e) {
+							log.fatal("Exception during fixpoint computation", e);
+							throw new AnalysisExecutionException("Exception during fixpoint computation", e);
+						}
+					});
+			checks.finish();
+		}
+
+		return checkTool;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> CheckTool analyzeLazily(Program program, Collection<CFG> allCFGs,
+					CallGraph callGraph, CheckTool tool) {
+		A state = mkAnalysisState();
+		FixpointConfiguration fixconf = mkFixpointConfiguration();
+		try {
+			callGraph.lazyFixpoint(new AnalysisState<>(state, new Skip()), fixconf);
+		} catch (FixpointException e) {
+			log.fatal("Exception during fixpoint computation", e);
+			throw new AnalysisExecutionException("Exception during fixpoint computation", e);
+		}
+
+		// results are computed only when checks request them
+		Set<CFG> analyzed = ConcurrentHashMap.newKeySet();
+		CheckToolWithAnalysisResults<A, H, V> checkTool = new CheckToolWithAnalysisResults<>(tool, cfg -> {
+			analyzed.add(cfg);
+			return callGraph.getAnalysisResultsOf(cfg);
+		});
+		if (!conf.getSemanticChecks().isEmpty())
+			TimerLogger.execAction(log, "Executing semantic checks and computing the fixpoints they require",
+					() -> executeChecks(checkTool, program, conf.getSemanticChecks()));
+		else
+			log.warn("Skipping semantic checks execution since none have been provided");
+		log.info(analyzed.size() + " out of " + allCFGs.size() + " cfgs have been analyzed");
+
+		Collection<CFG> dumped = new ArrayList<>(analyzed.size());
+		for (CFG cfg : allCFGs)
+			if (analyzed.contains(cfg))
+				dumped.add(cfg);
+
+		if (conf.isDumpAnalysis())
+			for (CFG cfg : IterationLogger.iterate(log, dumped, "Dumping analysis results", "cfgs")) {
+				CFGWithAnalysisResults<A, H, V> result = callGraph.getAnalysisResultsOf(cfg);
+				dumpCFG("analysis___", result, st -> result.getAnalysisStateAt(st).toString());
+			}
+
+		if (isFusedTypeInference() && conf.isDumpTypeInference())
+			for (CFG cfg : IterationLogger.iterate(log, dumped, "Dumping type analysis", "cfgs"))
+				dumpFusedTypes(callGraph.<A, H, V>getAnalysisResultsOf(cfg));
+
+		return checkTool;
+	}
+
+	private boolean isFusedTypeInference() {
+		return conf.isInferTypes() && conf.isFusedTypeInference() && conf.getState() != null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> A mkAnalysisState() {
+		A state = (A) conf.getState().top();
+		if (!isFusedTypeInference())
+			return state;
+		return (A) new TypeInferenceProduct<>(state, this.<H>mkTypesState()).top();
+	}
+
+	private <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> void dumpFusedTypes(CFGWithAnalysisResults<A, H, V> result) {
+		dumpCFG("typing___", result, st -> {
+			AnalysisState<A, H, V> state = result.getAnalysisStateAt(st);
+			TypeInferenceProduct<?, ?, ?> product = (TypeInferenceProduct<?, ?, ?>) state.getState();
+			return new AnalysisState<>(product.getTypeState(), state.getComputedExpressions()).toString();
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private <H extends HeapDomain<H>> SimpleAbstractState<H, InferenceSystem<InferredTypes>> mkTypesState() {
 		try {
 			AbstractState<?, ?, ?> state = conf.getState();
 			HeapDomain<?> heap;
@@ -216,16 +490,25 @@ public class LiSA {
 			else
 				heap = getDefaultFor(HeapDomain.class);
 			// type inference is executed with the simplest abstract state
-			typesState = getInstance(SimpleAbstractState.class, heap, new InferenceSystem<>(new InferredTypes()))
-					.top();
+			return getInstance(SimpleAbstractState.class, heap, new InferenceSystem<>(new InferredTypes())).top();
 		} catch (AnalysisSetupException e) {
 			throw new AnalysisExecutionException("Unable to itialize type inference", e);
 		}
+	}
 
+	private <H extends HeapDomain<H>> void inferTypes(Collection<CFG> allCFGs, CallGraph callGraph) {
+		SimpleAbstractState<H, InferenceSystem<InferredTypes>> typesState = mkTypesState();
+		FixpointConfiguration fixconf = mkFixpointConfiguration();
+		// inferred types are propagated to nested expressions as well
+		if (fixconf.getInternalStates() == InternalStates.NEVER)
+			fixconf.setInternalStates(InternalStates.AFTER_CONVERGENCE);
+		// propagating types modifies the cfgs, so evicted results would be
+		// recomputed over partially typed cfgs: all of them are kept instead
+		fixconf.setResidentResults(0);
 		TimerLogger.execAction(log, "Computing type information",
 				() -> {
 					try {
-						callGraph.fixpoint(new AnalysisState<>(typesState, new Skip()));
+						callGraph.fixpoint(new AnalysisState<>(typesState, new Skip()), fixconf);
 					} catch (FixpointException e) {
 						log.fatal("Exception during fixpoint computation", e);
 						throw new AnalysisExecutionException("Exception during fixpoint computation", e);
@@ -274,7 +557,6 @@ public class LiSA {
 
 	private void finalizeProgram(Program program) {
 		// fill up the types cache by side effect on an external set
-		Caches.types().clear();
 		ExternalSet<Type> types = Caches.types().mkEmptySet();
 		program.getRegisteredTypes().forEach(types::add);
 		types = null;
@@ -282,6 +564,7 @@ public class LiSA {
 		TimerLogger.execAction(log, "Finalizing input program", () -> {
 			try {
 				program.validateAndFinalize();
+				Caches.setTypeHierarchy(program.getTypeHierarchy());
 			} catch (ProgramValidationException e) {
 				throw new AnalysisExecutionException("Unable to finalize target program", e);
 			}
@@ -289,12 +572,7 @@ public class LiSA {
 	}
 
 	private void dumpCFG(String filePrefix, CFG cfg, Function<Statement, String> labelGenerator) {
-		try (Writer file = fileManager.mkDotFile(filePrefix + cfg.getDescriptor().getFullSignatureWithParNames())) {
-			cfg.dump(file, st -> labelGenerator.apply(st));
-		} catch (IOException e) {
-			log.error("Exception while dumping the analysis results on " + cfg.getDescriptor().getFullSignature(),
-					e);
-		}
+		dumper.dump(filePrefix, cfg, labelGenerator);
 	}
 
 	/**
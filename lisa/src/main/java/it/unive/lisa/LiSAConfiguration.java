@@ -1,16 +1,30 @@
 package it.unive.lisa;
 
 import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.combination.TypeInferenceProduct;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.liveness.LiveVariables;
 import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.checks.Check;
+import it.unive.lisa.checks.ChecksExecutor;
 import it.unive.lisa.checks.semantic.SemanticCheck;
 import it.unive.lisa.checks.syntactic.SyntacticCheck;
 import it.unive.lisa.checks.warnings.Warning;
+import it.unive.lisa.outputs.JsonMetricsSink;
+import it.unive.lisa.program.Program;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration.GarbageCollectionPoint;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration.InternalStates;
+import it.unive.lisa.util.datastructures.graph.FixpointMetrics;
+import it.unive.lisa.util.datastructures.graph.FixpointMetricsSink;
+import it.unive.lisa.util.file.FileManager;
 import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 /**
  * A holder for the configuration of a {@link LiSA} analysis.
@@ -44,6 +58,12 @@ public class LiSAConfiguration {
 	 */
 	private boolean inferTypes;
 
+	/**
+	 * Whether or not type inference, if executed, should be computed together
+	 * with the analysis, in a single fixpoint
+	 */
+	private boolean fusedTypeInference;
+
 	/**
 	 * Whether or not the input cfgs should be dumped to dot format. This is
 	 * useful for checking if the inputs that reach LiSA are well formed.
@@ -62,11 +82,39 @@ public class LiSAConfiguration {
 	 */
 	private boolean dumpAnalysis;
 
+	/**
+	 * The filter deciding which cfgs are dumped, if any
+	 */
+	private Predicate<CFG> dumpFilter;
+
+	/**
+	 * Whether or not dot files should be written in background, in parallel
+	 * with the rest of the analysis
+	 */
+	private boolean parallelDump;
+
+	/**
+	 * Whether or not the generated files should be stored into a single zip
+	 * archive
+	 */
+	private boolean archiveOutput;
+
 	/**
 	 * Whether or not the warning list should be dumped to a json file
 	 */
 	private boolean jsonOutput;
 
+	/**
+	 * Whether or not warnings should be appended to the json report as soon
+	 * as they are generated
+	 */
+	private boolean streamingJsonOutput;
+
+	/**
+	 * Whether or not the json report should be dumped in the NDJSON format
+	 */
+	private boolean ndjsonOutput;
+
 	/**
 	 * The workdir that LiSA should use as root for all generated files (log
 	 * files excluded, use the logging configuration for controlling where those
@@ -74,6 +122,77 @@ public class LiSAConfiguration {
 	 */
 	private String workdir;
 
+	/**
+	 * The points where unreachable heap locations are removed from the
+	 * analysis states during fixpoint computations
+	 */
+	private final Collection<GarbageCollectionPoint> gcPoints;
+
+	/**
+	 * Whether or not identifiers should be removed from the analysis states
+	 * as soon as they are dead, during fixpoint computations
+	 */
+	private boolean forgetDeadIdentifiers;
+
+	/**
+	 * Whether or not checks should be executed in parallel, with a single
+	 * traversal of each cfg
+	 */
+	private boolean parallelChecks;
+
+	/**
+	 * Whether or not semantic checks should be executed on each cfg as soon as
+	 * the analysis results on it are available
+	 */
+	private boolean streamingChecks;
+
+	/**
+	 * Whether or not the analysis results of each cfg should be computed only
+	 * when they are first requested
+	 */
+	private boolean lazyAnalysis;
+
+	/**
+	 * Whether or not only the analysis states of some statements should be
+	 * stored, recomputing the other ones on demand
+	 */
+	private boolean sparseResults;
+
+	/**
+	 * How the analysis states of expressions nested in statements are
+	 * computed
+	 */
+	private InternalStates internalStates;
+
+	/**
+	 * The statements whose analysis states should always be stored when
+	 * {@link #sparseResults} is set, if any
+	 */
+	private Predicate<Statement> retainedStatements;
+
+	/**
+	 * Whether or not equal analysis states should be shared among the
+	 * statements of each cfg once its fixpoint has been computed
+	 */
+	private boolean deduplicateStates;
+
+	/**
+	 * The maximum number of cfgs whose analysis results are kept in memory at
+	 * the same time, or a non-positive value to keep all of them
+	 */
+	private int residentResults;
+
+	/**
+	 * The sink where the metrics of fixpoint computations are reported, if any
+	 */
+	private FixpointMetricsSink fixpointMetricsSink;
+
+	/**
+	 * Whether or not the metrics of fixpoint computations should be dumped to
+	 * a json file
+	 */
+	private boolean dumpFixpointMetrics;
+
 	/**
 	 * Builds a new configuration object, with default settings. By default:
 	 * <ul>
@@ -83,15 +202,39 @@ public class LiSAConfiguration {
 	 * <li>the workdir is the one where LiSA was executed</li>
 	 * <li>the input program will not be dumped</li>
 	 * <li>no type inference will be run</li>
+	 * <li>if run, type inference will be computed in a separate fixpoint,
+	 * before the analysis</li>
 	 * <li>the type inference will not be dumped</li>
 	 * <li>the results of the analysis will not be dumped</li>
+	 * <li>if cfgs are dumped, all of them are dumped, one at a time</li>
+	 * <li>each generated file is created separately</li>
 	 * <li>the json report will not be dumped</li>
+	 * <li>if dumped, the json report will be written at the end of the
+	 * analysis, as a single json object</li>
+	 * <li>no garbage collection of unreachable heap locations will be
+	 * performed</li>
+	 * <li>variables will be removed from the analysis states only at the end
+	 * of their scope</li>
+	 * <li>checks will be executed sequentially, one at a time</li>
+	 * <li>semantic checks will be executed after the whole analysis
+	 * ends</li>
+	 * <li>the analysis results of all cfgs will be computed before semantic
+	 * checks are executed</li>
+	 * <li>the analysis states of nested expressions will be tracked at every
+	 * fixpoint iteration</li>
+	 * <li>the analysis states of all statements and expressions will be
+	 * stored</li>
+	 * <li>equal analysis states will be stored as separate objects</li>
+	 * <li>the analysis results of all cfgs will be kept in memory</li>
+	 * <li>no metric of fixpoint computations will be gathered</li>
 	 * </ul>
 	 */
 	public LiSAConfiguration() {
 		this.syntacticChecks = Collections.newSetFromMap(new ConcurrentHashMap<>());
 		this.semanticChecks = Collections.newSetFromMap(new ConcurrentHashMap<>());
 		this.workdir = Paths.get(".").toAbsolutePath().normalize().toString();
+		this.gcPoints = EnumSet.noneOf(GarbageCollectionPoint.class);
+		this.internalStates = InternalStates.EVERY_ITERATION;
 	}
 
 	/**
@@ -188,6 +331,33 @@ public class LiSAConfiguration {
 		return this;
 	}
 
+	/**
+	 * Sets whether or not type inference, if enabled through
+	 * {@link #setInferTypes(boolean)}, should be computed together with the
+	 * semantic analysis, in a single fixpoint over the whole program, instead
+	 * of in a separate fixpoint that precedes it. When fused, the abstract
+	 * state of the analysis is wrapped into a {@link TypeInferenceProduct},
+	 * that replaces the runtime types of the symbolic expressions evaluated by
+	 * the analysis with the ones inferred for them at the same point: this
+	 * avoids one whole-program fixpoint, at the cost of inferring the types
+	 * of each sub-expression before evaluating it. Runtime types are also set
+	 * on expressions as the fixpoint converges, so components that read them
+	 * directly (e.g., call resolution) might see the runtime types of the
+	 * static type of an expression the first time it is evaluated. If no
+	 * abstract state is set, type inference is always computed in a separate
+	 * fixpoint.
+	 * 
+	 * @param fusedTypeInference if {@code true}, type inference will be
+	 *                               computed together with the semantic
+	 *                               analysis
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setFusedTypeInference(boolean fusedTypeInference) {
+		this.fusedTypeInference = fusedTypeInference;
+		return this;
+	}
+
 	/**
 	 * Sets whether or not dot files, named {@code <cfg name>.dot}, should be
 	 * created and dumped in the working directory at the start of the
@@ -252,6 +422,54 @@ public class LiSAConfiguration {
 		return this;
 	}
 
+	/**
+	 * Sets the filter deciding which {@link CFG}s are dumped to dot files,
+	 * when dot files are produced (see {@link #setDumpCFGs(boolean)},
+	 * {@link #setDumpTypeInference(boolean)} and
+	 * {@link #setDumpAnalysis(boolean)}). Only cfgs for which
+	 * {@code filter} returns {@code true} are dumped.
+	 * 
+	 * @param dumpFilter the filter to use, or {@code null} to dump all cfgs
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setDumpFilter(Predicate<CFG> dumpFilter) {
+		this.dumpFilter = dumpFilter;
+		return this;
+	}
+
+	/**
+	 * Sets whether or not dot files should be written in background, by a pool
+	 * with one thread per available processor, while the analysis goes on.
+	 * LiSA waits for all dot files to be written before ending the analysis.
+	 * 
+	 * @param parallelDump if {@code true}, dot files will be written in
+	 *                         parallel with the rest of the analysis
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setParallelDump(boolean parallelDump) {
+		this.parallelDump = parallelDump;
+		return this;
+	}
+
+	/**
+	 * Sets whether or not the files generated by LiSA (e.g., the dot files)
+	 * should be stored as compressed entries of a single zip archive, named
+	 * {@value FileManager#DEFAULT_ARCHIVE}, instead of being created as
+	 * separate files in the working directory. The json report, if dumped, is
+	 * still created as a separate file, and it refers to the archive.
+	 * 
+	 * @param archiveOutput if {@code true}, generated files will be stored
+	 *                          into a zip archive
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setArchiveOutput(boolean archiveOutput) {
+		this.archiveOutput = archiveOutput;
+		return this;
+	}
+
 	/**
 	 * Sets whether or not a json report file, named {@code report.json}, should
 	 * be created and dumped in the working directory at the end of the
@@ -271,6 +489,43 @@ public class LiSAConfiguration {
 		return this;
 	}
 
+	/**
+	 * Sets whether or not the {@link Warning}s should be appended to the json
+	 * report as soon as they are generated, instead of being collected and
+	 * written at the end of the analysis. Warnings are then written in the
+	 * order they are generated, that might differ between executions if
+	 * checks run in parallel, and the report is complete only once the
+	 * analysis ends. This option has no effect if the json report is not
+	 * dumped (see {@link #setJsonOutput(boolean)}).
+	 * 
+	 * @param streamingJsonOutput if {@code true}, warnings will be written to
+	 *                                the json report as soon as they are
+	 *                                generated
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setStreamingJsonOutput(boolean streamingJsonOutput) {
+		this.streamingJsonOutput = streamingJsonOutput;
+		return this;
+	}
+
+	/**
+	 * Sets whether or not the json report should be dumped in the
+	 * <a href="http://ndjson.org/">NDJSON</a> format, that is, one json object
+	 * per line, to a file named {@code report.ndjson} instead of
+	 * {@code report.json}. This option has no effect if the json report is not
+	 * dumped (see {@link #setJsonOutput(boolean)}).
+	 * 
+	 * @param ndjsonOutput if {@code true}, the json report will be dumped in
+	 *                         the NDJSON format
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setNdjsonOutput(boolean ndjsonOutput) {
+		this.ndjsonOutput = ndjsonOutput;
+		return this;
+	}
+
 	/**
 	 * Sets the working directory for this instance of LiSA, that is, the
 	 * directory files will be created, if any. If files need to be created and
@@ -286,6 +541,46 @@ public class LiSAConfiguration {
 		return this;
 	}
 
+	/**
+	 * Sets the points where heap locations that are no longer reachable from
+	 * live identifiers are removed from both the heap and the value states
+	 * during fixpoint computations. Garbage collection reduces the size of the
+	 * states, and thus the cost of lattice operations on them, at the price of
+	 * a reachability computation at each of the given points. Only heap
+	 * domains that implement {@link HeapDomain#unreachableLocations()} benefit
+	 * from this option.
+	 * 
+	 * @param points the points where garbage collection should happen, none
+	 *                   to disable it
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setGarbageCollectionPoints(GarbageCollectionPoint... points) {
+		gcPoints.clear();
+		Collections.addAll(gcPoints, points);
+		return this;
+	}
+
+	/**
+	 * Sets whether or not variables should be removed from the analysis
+	 * states as soon as they are dead, that is, as soon as their value is not
+	 * going to be read anymore, instead of at the end of their scope. Dead
+	 * variables, including the meta-variables holding the values returned by
+	 * calls that are never read, are determined through a liveness analysis
+	 * over each cfg (see {@link LiveVariables}). Forgetting them makes states
+	 * smaller, and thus lattice operations on them cheaper, but also removes
+	 * them from the dumped results.
+	 * 
+	 * @param forgetDeadIdentifiers whether or not dead variables should be
+	 *                                  forgotten
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setForgetDeadIdentifiers(boolean forgetDeadIdentifiers) {
+		this.forgetDeadIdentifiers = forgetDeadIdentifiers;
+		return this;
+	}
+
 	/**
 	 * Yields the {@link CallGraph} for the analysis. Might be {@code null} if
 	 * none was set,
@@ -335,6 +630,16 @@ public class LiSAConfiguration {
 		return inferTypes;
 	}
 
+	/**
+	 * Yields whether or not type inference, if run, should be computed
+	 * together with the semantic analysis.
+	 * 
+	 * @return {@code true} if type inference should be fused with the analysis
+	 */
+	public boolean isFusedTypeInference() {
+		return fusedTypeInference;
+	}
+
 	/**
 	 * Yields whether or not the input program should be dumped in the form of
 	 * dot files representing single {@link CFG}s.
@@ -366,6 +671,36 @@ public class LiSAConfiguration {
 		return dumpAnalysis;
 	}
 
+	/**
+	 * Yields the filter deciding which {@link CFG}s are dumped to dot files.
+	 * Might be {@code null} if all cfgs should be dumped.
+	 * 
+	 * @return the filter of the cfgs to dump
+	 */
+	public Predicate<CFG> getDumpFilter() {
+		return dumpFilter;
+	}
+
+	/**
+	 * Yields whether or not dot files should be written in background, in
+	 * parallel with the rest of the analysis.
+	 * 
+	 * @return {@code true} if dot files should be written in parallel
+	 */
+	public boolean isParallelDump() {
+		return parallelDump;
+	}
+
+	/**
+	 * Yields whether or not the generated files should be stored into a single
+	 * zip archive.
+	 * 
+	 * @return {@code true} if generated files should be archived
+	 */
+	public boolean isArchiveOutput() {
+		return archiveOutput;
+	}
+
 	/**
 	 * Yields whether or not the results a json report file should be dumped at
 	 * the end of the analysis.
@@ -376,6 +711,27 @@ public class LiSAConfiguration {
 		return jsonOutput;
 	}
 
+	/**
+	 * Yields whether or not warnings should be appended to the json report as
+	 * soon as they are generated.
+	 * 
+	 * @return {@code true} if the report should be written while the analysis
+	 *             runs
+	 */
+	public boolean isStreamingJsonOutput() {
+		return streamingJsonOutput;
+	}
+
+	/**
+	 * Yields whether or not the json report should be dumped in the NDJSON
+	 * format.
+	 * 
+	 * @return {@code true} if the report should be dumped as NDJSON
+	 */
+	public boolean isNdjsonOutput() {
+		return ndjsonOutput;
+	}
+
 	/**
 	 * Yields the working directory where LiSA will dump all of its outputs.
 	 * 
@@ -385,16 +741,353 @@ public class LiSAConfiguration {
 		return workdir;
 	}
 
+	/**
+	 * Sets whether or not checks should be executed in parallel. If
+	 * {@code true}, all the checks of the same kind (syntactic or semantic)
+	 * are executed together, traversing each {@link CFG} only once, and
+	 * different cfgs and units are processed in parallel on a pool with one
+	 * thread per available processor (see
+	 * {@link ChecksExecutor#executeAllFused(Object, Program, Collection, int)}).
+	 * Checks must then be thread-safe, as already required by {@link Check}.
+	 * Regardless of this option, the generated warnings are always reported
+	 * in the same order.
+	 * 
+	 * @param parallelChecks if {@code true}, checks will be executed in
+	 *                           parallel
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setParallelChecks(boolean parallelChecks) {
+		this.parallelChecks = parallelChecks;
+		return this;
+	}
+
+	/**
+	 * Yields whether or not checks should be executed in parallel, traversing
+	 * each {@link CFG} only once.
+	 * 
+	 * @return {@code true} if checks should be executed in parallel
+	 */
+	public boolean isParallelChecks() {
+		return parallelChecks;
+	}
+
+	/**
+	 * Sets whether or not semantic checks should be executed in streaming
+	 * mode. If {@code true}, the results of the analysis on each {@link CFG}
+	 * are handed to the semantic checks as soon as they are available, and
+	 * they are released once checks have been executed (unless they are
+	 * needed for analyzing other cfgs). This bounds the number of results
+	 * that are kept in memory at the same time and, if
+	 * {@link #setParallelChecks(boolean)} is also set, overlaps the execution
+	 * of the checks with the analysis. Semantic checks are still able to
+	 * access the results of the cfg that they are visiting, but not the ones
+	 * of other cfgs.
+	 * 
+	 * @param streamingChecks if {@code true}, semantic checks will be executed
+	 *                            in streaming mode
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setStreamingChecks(boolean streamingChecks) {
+		this.streamingChecks = streamingChecks;
+		return this;
+	}
+
+	/**
+	 * Yields whether or not semantic checks should be executed on each cfg as
+	 * soon as the analysis results on it are available.
+	 * 
+	 * @return {@code true} if semantic checks should be executed in streaming
+	 *             mode
+	 */
+	public boolean isStreamingChecks() {
+		return streamingChecks;
+	}
+
+	/**
+	 * Sets whether or not the analysis should be executed lazily. If
+	 * {@code true}, no fixpoint is computed upfront: the results of each
+	 * {@link CFG} are computed the first time they are requested by a
+	 * semantic check (see {@link CallGraph#lazyFixpoint}), and they are then
+	 * kept for further requests. Checks that inspect only a few cfgs thus
+	 * cause the analysis of those cfgs only. If analysis results are dumped,
+	 * only the ones of the cfgs that have been analyzed are dumped. This
+	 * option takes precedence over {@link #setStreamingChecks(boolean)}.
+	 * 
+	 * @param lazyAnalysis if {@code true}, analysis results will be computed
+	 *                         on demand
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setLazyAnalysis(boolean lazyAnalysis) {
+		this.lazyAnalysis = lazyAnalysis;
+		return this;
+	}
+
+	/**
+	 * Yields whether or not the analysis results of each {@link CFG} should be
+	 * computed only when they are first requested.
+	 * 
+	 * @return {@code true} if the analysis should be executed lazily
+	 */
+	public boolean isLazyAnalysis() {
+		return lazyAnalysis;
+	}
+
+	/**
+	 * Sets how the analysis states of the expressions nested in statements
+	 * should be computed (see {@link InternalStates}). Checks that only
+	 * inspect the states of statements can use
+	 * {@link InternalStates#AFTER_CONVERGENCE}, or even
+	 * {@link InternalStates#NEVER}, to avoid tracking the states of nested
+	 * expressions at every fixpoint iteration. Type inference, if executed in
+	 * a separate fixpoint, always computes the states of nested expressions,
+	 * since inferred types are propagated to them.
+	 * 
+	 * @param internalStates the policy to use
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setInternalStates(InternalStates internalStates) {
+		this.internalStates = internalStates;
+		return this;
+	}
+
+	/**
+	 * Yields how the analysis states of the expressions nested in statements
+	 * should be computed.
+	 * 
+	 * @return the policy to use
+	 */
+	public InternalStates getInternalStates() {
+		return internalStates;
+	}
+
+	/**
+	 * Sets whether or not the analysis results of each {@link CFG} should be
+	 * sparse. If {@code true}, analysis states are stored only for the
+	 * entrypoints, the exits and the heads of loops of each cfg (together with
+	 * the expressions they contain), and for the statements selected through
+	 * {@link #setRetainedStatements(Predicate)}. The states of all other
+	 * statements and expressions are recomputed each time they are requested,
+	 * replaying the semantics of the statements that lead to them from the
+	 * closest stored states. Recomputed states might be more precise than the
+	 * ones that would have been stored, since they are not affected by the
+	 * widenings that happened on the statement while computing the fixpoint.
+	 * Only the most recently recomputed states are cached: requesting all the
+	 * states of a long sequence of statements in an order that does not
+	 * follow the cfg can take time quadratic in the length of the sequence.
+	 * 
+	 * @param sparseResults if {@code true}, only some analysis states will be
+	 *                          stored
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setSparseResults(boolean sparseResults) {
+		this.sparseResults = sparseResults;
+		return this;
+	}
+
+	/**
+	 * Yields whether or not the analysis results of each {@link CFG} should be
+	 * sparse.
+	 * 
+	 * @return {@code true} if only some analysis states should be stored
+	 */
+	public boolean isSparseResults() {
+		return sparseResults;
+	}
+
+	/**
+	 * Sets the statements whose analysis states should always be stored when
+	 * results are sparse (see {@link #setSparseResults(boolean)}), e.g., the
+	 * ones that are inspected by semantic checks. Expressions contained in the
+	 * selected statements are retained as well.
+	 * 
+	 * @param retainedStatements the statements to retain, or {@code null} to
+	 *                               retain only the default ones
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setRetainedStatements(Predicate<Statement> retainedStatements) {
+		this.retainedStatements = retainedStatements;
+		return this;
+	}
+
+	/**
+	 * Yields the statements whose analysis states should always be stored
+	 * when results are sparse.
+	 * 
+	 * @return the statements to retain, or {@code null}
+	 */
+	public Predicate<Statement> getRetainedStatements() {
+		return retainedStatements;
+	}
+
+	/**
+	 * Sets whether or not equal analysis states should be shared among the
+	 * statements and expressions of each {@link CFG} once its fixpoint has
+	 * been computed. Many statements have equal post-states (e.g., literals and
+	 * no-ops in straight-line code): if this option is enabled, only one
+	 * instance of each distinct state is kept in the analysis results, and the
+	 * other ones can be reclaimed. If fixpoint metrics are gathered (see
+	 * {@link #setFixpointMetricsSink(FixpointMetricsSink)}), they report how
+	 * many distinct states were found in each cfg and an estimate of the
+	 * memory saved.
+	 * 
+	 * @param deduplicateStates if {@code true}, equal analysis states will be
+	 *                              shared
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setDeduplicateStates(boolean deduplicateStates) {
+		this.deduplicateStates = deduplicateStates;
+		return this;
+	}
+
+	/**
+	 * Yields whether or not equal analysis states should be shared among the
+	 * statements and expressions of each {@link CFG}.
+	 * 
+	 * @return {@code true} if equal analysis states should be shared
+	 */
+	public boolean isDeduplicateStates() {
+		return deduplicateStates;
+	}
+
+	/**
+	 * Sets the maximum number of {@link CFG}s whose analysis results are kept
+	 * in memory at the same time. If a positive value is given, only the
+	 * results of the most recently used cfgs are kept, and the other ones are
+	 * recomputed when they are requested again, by executing the fixpoint
+	 * over the cfg with the same entry state. This bounds the memory required
+	 * to store analysis results at the cost of analysis time, and it is
+	 * transparent to semantic checks and to the dumping of the results.
+	 * Results that are released as soon as they are checked (see
+	 * {@link #setStreamingChecks(boolean)}) are never recomputed.
+	 * 
+	 * @param residentResults the maximum number of cfgs whose results are
+	 *                            kept in memory, or a non-positive value to
+	 *                            keep all of them
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setResidentResults(int residentResults) {
+		this.residentResults = residentResults;
+		return this;
+	}
+
+	/**
+	 * Yields the maximum number of {@link CFG}s whose analysis results are
+	 * kept in memory at the same time.
+	 * 
+	 * @return the maximum number of cfgs, or a non-positive value if the
+	 *             results of all cfgs are kept
+	 */
+	public int getResidentResults() {
+		return residentResults;
+	}
+
+	/**
+	 * Sets the sink where the {@link FixpointMetrics} of every fixpoint
+	 * computation executed by LiSA (including the one of type inference) are
+	 * reported. If no sink is set and
+	 * {@link #setDumpFixpointMetrics(boolean)} is not enabled, no metric is
+	 * gathered, and fixpoint computations do not pay any additional cost.
+	 * 
+	 * @param fixpointMetricsSink the sink, or {@code null}
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setFixpointMetricsSink(FixpointMetricsSink fixpointMetricsSink) {
+		this.fixpointMetricsSink = fixpointMetricsSink;
+		return this;
+	}
+
+	/**
+	 * Yields the sink where the metrics of fixpoint computations are reported.
+	 * 
+	 * @return the sink, or {@code null} if none has been set
+	 */
+	public FixpointMetricsSink getFixpointMetricsSink() {
+		return fixpointMetricsSink;
+	}
+
+	/**
+	 * Sets whether or not the {@link FixpointMetrics} of every fixpoint
+	 * computation executed by LiSA should be dumped to the
+	 * {@value JsonMetricsSink#FILE_NAME} json file in the workdir. Metrics are
+	 * written while the analysis is running, independently from the sink set
+	 * through {@link #setFixpointMetricsSink(FixpointMetricsSink)}, if any.
+	 * 
+	 * @param dumpFixpointMetrics if {@code true}, the metrics will be dumped
+	 * 
+	 * @return the current (modified) configuration
+	 */
+	public LiSAConfiguration setDumpFixpointMetrics(boolean dumpFixpointMetrics) {
+		this.dumpFixpointMetrics = dumpFixpointMetrics;
+		return this;
+	}
+
+	/**
+	 * Yields whether or not the metrics of fixpoint computations should be
+	 * dumped to a json file.
+	 * 
+	 * @return {@code true} if the metrics should be dumped
+	 */
+	public boolean isDumpFixpointMetrics() {
+		return dumpFixpointMetrics;
+	}
+
+	/**
+	 * Yields the points where heap locations that are no longer reachable
+	 * should be removed from the analysis states during fixpoint computations.
+	 * 
+	 * @return the points where garbage collection should happen
+	 */
+	public Collection<GarbageCollectionPoint> getGarbageCollectionPoints() {
+		return gcPoints;
+	}
+
+	/**
+	 * Yields whether or not variables should be removed from the analysis
+	 * states as soon as they are dead.
+	 * 
+	 * @return {@code true} if dead variables should be forgotten
+	 */
+	public boolean isForgetDeadIdentifiers() {
+		return forgetDeadIdentifiers;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
+		result = prime * result + (archiveOutput ? 1231 : 1237);
 		result = prime * result + ((callGraph == null) ? 0 : callGraph.hashCode());
 		result = prime * result + (dumpAnalysis ? 1231 : 1237);
 		result = prime * result + (dumpCFGs ? 1231 : 1237);
+		result = prime * result + ((dumpFilter == null) ? 0 : dumpFilter.hashCode());
+		result = prime * result + (deduplicateStates ? 1231 : 1237);
+		result = prime * result + (dumpFixpointMetrics ? 1231 : 1237);
 		result = prime * result + (dumpTypeInference ? 1231 : 1237);
+		result = prime * result + ((fixpointMetricsSink == null) ? 0 : fixpointMetricsSink.hashCode());
+		result = prime * result + (forgetDeadIdentifiers ? 1231 : 1237);
+		result = prime * result + (fusedTypeInference ? 1231 : 1237);
+		result = prime * result + ((gcPoints == null) ? 0 : gcPoints.hashCode());
 		result = prime * result + (inferTypes ? 1231 : 1237);
+		result = prime * result + ((internalStates == null) ? 0 : internalStates.hashCode());
 		result = prime * result + (jsonOutput ? 1231 : 1237);
+		result = prime * result + (lazyAnalysis ? 1231 : 1237);
+		result = prime * result + (ndjsonOutput ? 1231 : 1237);
+		result = prime * result + (parallelChecks ? 1231 : 1237);
+		result = prime * result + (parallelDump ? 1231 : 1237);
+		result = prime * result + residentResults;
+		result = prime * result + ((retainedStatements == null) ? 0 : retainedStatements.hashCode());
+		result = prime * result + (sparseResults ? 1231 : 1237);
+		result = prime * result + (streamingChecks ? 1231 : 1237);
+		result = prime * result + (streamingJsonOutput ? 1231 : 1237);
 		result = prime * result + ((state == null) ? 0 : state.hashCode());
 		result = prime * result + ((syntacticChecks == null) ? 0 : syntacticChecks.hashCode());
 		result = prime * result + ((semanticChecks == null) ? 0 : semanticChecks.hashCode());
@@ -411,6 +1104,8 @@ public class LiSAConfiguration {
 		if (getClass() != obj.getClass())
 			return false;
 		LiSAConfiguration other = (LiSAConfiguration) obj;
+		if (archiveOutput != other.archiveOutput)
+			return false;
 		if (callGraph == null) {
 			if (other.callGraph != null)
 				return false;
@@ -420,12 +1115,58 @@ public class LiSAConfiguration {
 			return false;
 		if (dumpCFGs != other.dumpCFGs)
 			return false;
+		if (dumpFilter == null) {
+			if (other.dumpFilter != null)
+				return false;
+		} else if (!dumpFilter.equals(other.dumpFilter))
+			return false;
+		if (deduplicateStates != other.deduplicateStates)
+			return false;
+		if (dumpFixpointMetrics != other.dumpFixpointMetrics)
+			return false;
 		if (dumpTypeInference != other.dumpTypeInference)
 			return false;
+		if (fixpointMetricsSink == null) {
+			if (other.fixpointMetricsSink != null)
+				return false;
+		} else if (!fixpointMetricsSink.equals(other.fixpointMetricsSink))
+			return false;
+		if (forgetDeadIdentifiers != other.forgetDeadIdentifiers)
+			return false;
+		if (fusedTypeInference != other.fusedTypeInference)
+			return false;
+		if (gcPoints == null) {
+			if (other.gcPoints != null)
+				return false;
+		} else if (!gcPoints.equals(other.gcPoints))
+			return false;
 		if (inferTypes != other.inferTypes)
 			return false;
+		if (internalStates != other.internalStates)
+			return false;
 		if (jsonOutput != other.jsonOutput)
 			return false;
+		if (lazyAnalysis != other.lazyAnalysis)
+			return false;
+		if (ndjsonOutput != other.ndjsonOutput)
+			return false;
+		if (parallelChecks != other.parallelChecks)
+			return false;
+		if (parallelDump != other.parallelDump)
+			return false;
+		if (retainedStatements == null) {
+			if (other.retainedStatements != null)
+				return false;
+		} else if (!retainedStatements.equals(other.retainedStatements))
+			return false;
+		if (residentResults != other.residentResults)
+			return false;
+		if (sparseResults != other.sparseResults)
+			return false;
+		if (streamingChecks != other.streamingChecks)
+			return false;
+		if (streamingJsonOutput != other.streamingJsonOutput)
+			return false;
 		if (state == null) {
 			if (other.state != null)
 				return false;
@@ -455,9 +1196,28 @@ public class LiSAConfiguration {
 				"\n  workdir: " + String.valueOf(workdir) +
 				"\n  dump input cfgs: " + dumpCFGs +
 				"\n  infer types: " + inferTypes +
+				"\n  fused type inference: " + fusedTypeInference +
 				"\n  dump inferred types: " + dumpTypeInference +
 				"\n  dump analysis results: " + dumpAnalysis +
+				"\n  filter dumped cfgs: " + (dumpFilter != null) +
+				"\n  parallel dump: " + parallelDump +
+				"\n  archive outputs: " + archiveOutput +
 				"\n  dump json report: " + jsonOutput +
+				"\n  streaming json report: " + streamingJsonOutput +
+				"\n  ndjson report: " + ndjsonOutput +
+				"\n  garbage collection at: " + gcPoints +
+				"\n  forget dead variables: " + forgetDeadIdentifiers +
+				"\n  parallel checks: " + parallelChecks +
+				"\n  streaming semantic checks: " + streamingChecks +
+				"\n  lazy analysis: " + lazyAnalysis +
+				"\n  expression states: " + internalStates +
+				"\n  sparse results: " + sparseResults +
+				"\n  retained statements: " + (retainedStatements != null) +
+				"\n  deduplicate states: " + deduplicateStates +
+				"\n  resident results: " + (residentResults > 0 ? residentResults : "all") +
+				"\n  fixpoint metrics sink: "
+				+ (fixpointMetricsSink == null ? "none" : fixpointMetricsSink.getClass().getSimpleName()) +
+				"\n  dump fixpoint metrics: " + dumpFixpointMetrics +
 				"\n  " + syntacticChecks.size() + " syntactic checks to execute"
 				+ (syntacticChecks.isEmpty() ? "" : ":");
 		for (SyntacticCheck check : syntacticChecks)
@@ -9,6 +9,7 @@ import it.unive.lisa.symbolic.value.Skip;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -161,6 +162,24 @@ public class AnalysisState<A extends AbstractState<A, H, V>, H extends HeapDomai
 		return new AnalysisState<>(state.forgetIdentifier(id), computedExpressions);
 	}
 
+	@Override
+	public AnalysisState<A, H, V> forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		return new AnalysisState<>(state.forgetIdentifiersIf(test), computedExpressions);
+	}
+
+	/**
+	 * Removes from this state all the heap locations that cannot be reached
+	 * anymore, as reported by {@link HeapDomain#unreachableLocations()} of the
+	 * heap state, forgetting them in both the heap and the value state.
+	 * 
+	 * @return the analysis state without unreachable locations
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	public AnalysisState<A, H, V> collectGarbage() throws SemanticException {
+		return forgetIdentifiersIf(state.getHeapState().unreachableLocations());
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -5,13 +5,16 @@ import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration;
 import java.util.Map;
 
 /**
  * A control flow graph, that has {@link Statement}s as nodes and {@link Edge}s
  * as edges. It also maps each statement (and its inner expressions) to the
  * result of a fixpoint computation, in the form of an {@link AnalysisState}
- * instance.
+ * instance. If the fixpoint computation was configured to produce sparse
+ * results (see {@link FixpointConfiguration#setSparseResults(boolean)}), the
+ * states of some statements are recomputed each time they are requested.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  * 
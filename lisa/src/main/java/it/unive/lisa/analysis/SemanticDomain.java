@@ -4,6 +4,7 @@ import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import java.util.Collection;
+import java.util.function.Predicate;
 
 /**
  * A domain able to determine how abstract information evolves thanks to the
@@ -97,6 +98,25 @@ public interface SemanticDomain<D extends SemanticDomain<D, E, I>, E extends Sym
 		return result;
 	}
 
+	/**
+	 * Forgets all the {@link Identifier}s that satisfy the given test. This is
+	 * useful when the identifiers to forget cannot be enumerated in advance,
+	 * e.g. when removing all the heap locations that are no longer reachable.
+	 * The default implementation of this method returns this domain unchanged,
+	 * since keeping information about an identifier is always sound.
+	 * 
+	 * @param test the test identifying the identifiers to forget
+	 * 
+	 * @return the semantic domain without information about the identifiers
+	 *             satisfying {@code test}
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@SuppressWarnings("unchecked")
+	public default D forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		return (D) this;
+	}
+
 	/**
 	 * Checks if the given expression is satisfied by the abstract values of
 	 * this domain, returning an instance of {@link Satisfiability}.
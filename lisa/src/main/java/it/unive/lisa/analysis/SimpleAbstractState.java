@@ -10,6 +10,7 @@ import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
 import java.util.Collection;
+import java.util.function.Predicate;
 
 /**
  * An abstract state of the analysis, composed by a heap state modeling the
@@ -152,6 +153,11 @@ public class SimpleAbstractState<H extends HeapDomain<H>, V extends ValueDomain<
 		return new SimpleAbstractState<>(heapState.forgetIdentifier(id), valueState.forgetIdentifier(id));
 	}
 
+	@Override
+	public SimpleAbstractState<H, V> forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		return new SimpleAbstractState<>(heapState.forgetIdentifiersIf(test), valueState.forgetIdentifiersIf(test));
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
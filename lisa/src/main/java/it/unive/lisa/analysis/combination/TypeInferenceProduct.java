@@ -0,0 +1,327 @@
+package it.unive.lisa.analysis.combination;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.impl.types.InferredTypes;
+import it.unive.lisa.analysis.inference.InferenceSystem;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.heap.AccessChild;
+import it.unive.lisa.symbolic.heap.HeapAllocation;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.HeapLocation;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.PushAny;
+import it.unive.lisa.symbolic.value.TernaryExpression;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * An {@link AbstractState} that computes type inference together with another
+ * abstract state, in a single fixpoint. Each operation is applied to both the
+ * main state and to a {@link SimpleAbstractState} running
+ * {@link InferredTypes} over the same {@link HeapDomain} (the types state).
+ * This is a reduced product: statements build their
+ * {@link SymbolicExpression}s from {@link Expression#getRuntimeTypes()}, that
+ * yields all the instances of the static type of an expression until types
+ * are set on it, so the main state receives a copy of each symbolic expression
+ * where the runtime types of the expression, of its sub-expressions and of
+ * the assigned identifier are replaced with the ones inferred for them by the
+ * types state before the operation. Types that cannot be inferred (i.e., top
+ * or bottom) are left unchanged.<br>
+ * <br>
+ * Whenever the types state is updated at a {@link ProgramPoint} that is an
+ * {@link Expression}, the runtime types inferred for the expression are also
+ * set on it through {@link Expression#setRuntimeTypes(ExternalSet)}, so that
+ * they are available to the components that read them directly (e.g., call
+ * resolution). The first time this happens, the inferred types replace all
+ * the instances of the static type of the expression: from then on, they are
+ * the union of the types inferred by all the approximations computed for
+ * it.<br>
+ * <br>
+ * The heap and value states, as well as the textual representation of this
+ * state, are the ones of the main state, so that checks and dumps can inspect
+ * this state as if it was the main state itself.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <A> the type of the main {@link AbstractState}
+ * @param <H> the type of {@link HeapDomain} embedded in the main state
+ * @param <V> the type of {@link ValueDomain} embedded in the main state
+ */
+public class TypeInferenceProduct<A extends AbstractState<A, H, V>,
+		H extends HeapDomain<H>,
+		V extends ValueDomain<V>>
+		implements AbstractState<TypeInferenceProduct<A, H, V>, H, V> {
+
+	private final A mainState;
+
+	private final SimpleAbstractState<H, InferenceSystem<InferredTypes>> typeState;
+
+	/**
+	 * The runtime types set on each expression by all the instances of this
+	 * class that have been derived from the same one
+	 */
+	private final Map<Expression, ExternalSet<Type>> runtimeTypes;
+
+	/**
+	 * Builds the product.
+	 *
+	 * @param mainState the main abstract state
+	 * @param typeState the abstract state used to infer runtime types
+	 */
+	public TypeInferenceProduct(A mainState, SimpleAbstractState<H, InferenceSystem<InferredTypes>> typeState) {
+		this(mainState, typeState, Collections.synchronizedMap(new IdentityHashMap<>()));
+	}
+
+	private TypeInferenceProduct(A mainState, SimpleAbstractState<H, InferenceSystem<InferredTypes>> typeState,
+			Map<Expression, ExternalSet<Type>> runtimeTypes) {
+		this.mainState = mainState;
+		this.typeState = typeState;
+		this.runtimeTypes = runtimeTypes;
+	}
+
+	/**
+	 * Yields the main abstract state.
+	 *
+	 * @return the main state
+	 */
+	public A getMainState() {
+		return mainState;
+	}
+
+	/**
+	 * Yields the abstract state used to infer runtime types.
+	 *
+	 * @return the types state
+	 */
+	public SimpleAbstractState<H, InferenceSystem<InferredTypes>> getTypeState() {
+		return typeState;
+	}
+
+	@Override
+	public H getHeapState() {
+		return mainState.getHeapState();
+	}
+
+	@Override
+	public V getValueState() {
+		return mainState.getValueState();
+	}
+
+	private TypeInferenceProduct<A, H, V> mk(A main, SimpleAbstractState<H, InferenceSystem<InferredTypes>> types) {
+		return new TypeInferenceProduct<>(main, types, runtimeTypes);
+	}
+
+	private SimpleAbstractState<H, InferenceSystem<InferredTypes>> propagate(
+			SimpleAbstractState<H, InferenceSystem<InferredTypes>> types, ProgramPoint pp) {
+		if (!(pp instanceof Expression))
+			return types;
+
+		ExternalSet<Type> inferred = types.getValueState().getInferredValue().getRuntimeTypes();
+		if (inferred.isEmpty())
+			return types;
+
+		Expression expression = (Expression) pp;
+		synchronized (runtimeTypes) {
+			ExternalSet<Type> current = runtimeTypes.get(expression);
+			if (current != null && current.contains(inferred))
+				return types;
+
+			ExternalSet<Type> updated = current == null ? inferred.copy() : current.union(inferred);
+			runtimeTypes.put(expression, updated);
+			expression.setRuntimeTypes(updated);
+		}
+		return types;
+	}
+
+	/**
+	 * Yields the runtime types inferred by {@link #typeState} for the given
+	 * expression, or the ones of the expression itself if no information is
+	 * available.
+	 */
+	private ExternalSet<Type> inferTypes(SymbolicExpression expression, ProgramPoint pp) throws SemanticException {
+		H heap = typeState.getHeapState().smallStepSemantics(expression, pp);
+		InferenceSystem<InferredTypes> types = typeState.getValueState();
+		if (heap.getSubstitution() != null && !heap.getSubstitution().isEmpty())
+			types = types.applySubstitution(heap.getSubstitution(), pp);
+
+		InferredTypes inferred = types.getInferredValue().bottom();
+		for (ValueExpression rewritten : heap.getRewrittenExpressions())
+			inferred = inferred.lub(types.smallStepSemantics(rewritten, pp).getInferredValue());
+		if (inferred.isTop() || inferred.isBottom())
+			return expression.getTypes();
+		return inferred.getRuntimeTypes();
+	}
+
+	/**
+	 * Yields a copy of the given expression where the runtime types of each
+	 * sub-expression are the ones inferred by {@link #typeState}. Constants
+	 * already hold their exact type, and expressions whose class is not part
+	 * of the symbolic language (e.g., identifiers built by heap domains) are
+	 * left unchanged.
+	 */
+	private SymbolicExpression typed(SymbolicExpression expression, ProgramPoint pp) throws SemanticException {
+		Class<?> kind = expression.getClass();
+		if (kind == Variable.class)
+			return new Variable(inferTypes(expression, pp), ((Variable) expression).getName());
+		if (kind == HeapLocation.class) {
+			HeapLocation location = (HeapLocation) expression;
+			return new HeapLocation(inferTypes(location, pp), location.getName(), location.isWeak());
+		}
+		if (kind == PushAny.class)
+			return new PushAny(inferTypes(expression, pp));
+		if (kind == HeapAllocation.class)
+			return new HeapAllocation(inferTypes(expression, pp));
+		if (kind == AccessChild.class) {
+			AccessChild access = (AccessChild) expression;
+			return new AccessChild(inferTypes(access, pp), typed(access.getContainer(), pp),
+					typed(access.getChild(), pp));
+		}
+		if (kind == UnaryExpression.class) {
+			UnaryExpression unary = (UnaryExpression) expression;
+			return new UnaryExpression(inferTypes(unary, pp), typed(unary.getExpression(), pp),
+					unary.getOperator());
+		}
+		if (kind == BinaryExpression.class) {
+			BinaryExpression binary = (BinaryExpression) expression;
+			return new BinaryExpression(inferTypes(binary, pp), typed(binary.getLeft(), pp),
+					typed(binary.getRight(), pp), binary.getOperator());
+		}
+		if (kind == TernaryExpression.class) {
+			TernaryExpression ternary = (TernaryExpression) expression;
+			return new TernaryExpression(inferTypes(ternary, pp), typed(ternary.getLeft(), pp),
+					typed(ternary.getMiddle(), pp), typed(ternary.getRight(), pp), ternary.getOperator());
+		}
+		return expression;
+	}
+
+	private Identifier typed(Identifier id, ProgramPoint pp) throws SemanticException {
+		return (Identifier) typed((SymbolicExpression) id, pp);
+	}
+
+	@Override
+	public TypeInferenceProduct<A, H, V> assign(Identifier id, SymbolicExpression expression, ProgramPoint pp)
+			throws SemanticException {
+		SimpleAbstractState<H, InferenceSystem<InferredTypes>> types = propagate(typeState.assign(id, expression, pp),
+				pp);
+		return mk(mainState.assign(typed(id, pp), typed(expression, pp), pp), types);
+	}
+
+	@Override
+	public TypeInferenceProduct<A, H, V> smallStepSemantics(SymbolicExpression expression, ProgramPoint pp)
+			throws SemanticException {
+		SimpleAbstractState<H, InferenceSystem<InferredTypes>> types = propagate(
+				typeState.smallStepSemantics(expression, pp), pp);
+		return mk(mainState.smallStepSemantics(typed(expression, pp), pp), types);
+	}
+
+	@Override
+	public TypeInferenceProduct<A, H, V> assume(SymbolicExpression expression, ProgramPoint pp)
+			throws SemanticException {
+		SimpleAbstractState<H, InferenceSystem<InferredTypes>> types = typeState.assume(expression, pp);
+		return mk(mainState.assume(typed(expression, pp), pp), types);
+	}
+
+	@Override
+	public Satisfiability satisfies(SymbolicExpression expression, ProgramPoint pp) throws SemanticException {
+		return mainState.satisfies(typed(expression, pp), pp);
+	}
+
+	@Override
+	public TypeInferenceProduct<A, H, V> lub(TypeInferenceProduct<A, H, V> other) throws SemanticException {
+		return mk(mainState.lub(other.mainState), typeState.lub(other.typeState));
+	}
+
+	@Override
+	public TypeInferenceProduct<A, H, V> widening(TypeInferenceProduct<A, H, V> other) throws SemanticException {
+		return mk(mainState.widening(other.mainState), typeState.widening(other.typeState));
+	}
+
+	@Override
+	public boolean lessOrEqual(TypeInferenceProduct<A, H, V> other) throws SemanticException {
+		return mainState.lessOrEqual(other.mainState) && typeState.lessOrEqual(other.typeState);
+	}
+
+	@Override
+	public TypeInferenceProduct<A, H, V> top() {
+		return mk(mainState.top(), typeState.top());
+	}
+
+	@Override
+	public TypeInferenceProduct<A, H, V> bottom() {
+		return mk(mainState.bottom(), typeState.bottom());
+	}
+
+	@Override
+	public boolean isTop() {
+		return mainState.isTop() && typeState.isTop();
+	}
+
+	@Override
+	public boolean isBottom() {
+		return mainState.isBottom() && typeState.isBottom();
+	}
+
+	@Override
+	public TypeInferenceProduct<A, H, V> forgetIdentifier(Identifier id) throws SemanticException {
+		return mk(mainState.forgetIdentifier(id), typeState.forgetIdentifier(id));
+	}
+
+	@Override
+	public TypeInferenceProduct<A, H, V> forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		return mk(mainState.forgetIdentifiersIf(test), typeState.forgetIdentifiersIf(test));
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((mainState == null) ? 0 : mainState.hashCode());
+		result = prime * result + ((typeState == null) ? 0 : typeState.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		TypeInferenceProduct<?, ?, ?> other = (TypeInferenceProduct<?, ?, ?>) obj;
+		if (mainState == null) {
+			if (other.mainState != null)
+				return false;
+		} else if (!mainState.equals(other.mainState))
+			return false;
+		if (typeState == null) {
+			if (other.typeState != null)
+				return false;
+		} else if (!typeState.equals(other.typeState))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String representation() {
+		return mainState.representation();
+	}
+
+	@Override
+	public String toString() {
+		return representation();
+	}
+}
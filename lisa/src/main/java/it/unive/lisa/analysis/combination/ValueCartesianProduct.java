@@ -6,6 +6,7 @@ import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
+import java.util.function.Predicate;
 
 /**
  * A Cartesian product between two non-communicating {@link ValueDomain}s (i.e.,
@@ -41,6 +42,13 @@ public class ValueCartesianProduct<T1 extends ValueDomain<T1>, T2 extends ValueD
 		return new ValueCartesianProduct<T1, T2>(newLeft, newRight);
 	}
 
+	@Override
+	public ValueCartesianProduct<T1, T2> forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		T1 newLeft = left.forgetIdentifiersIf(test);
+		T2 newRight = right.forgetIdentifiersIf(test);
+		return new ValueCartesianProduct<T1, T2>(newLeft, newRight);
+	}
+
 	@Override
 	public ValueCartesianProduct<T1, T2> smallStepSemantics(ValueExpression expression, ProgramPoint pp)
 			throws SemanticException {
@@ -3,11 +3,13 @@ package it.unive.lisa.analysis.heap;
 import it.unive.lisa.DefaultImplementation;
 import it.unive.lisa.analysis.Lattice;
 import it.unive.lisa.analysis.SemanticDomain;
+import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.impl.heap.MonolithicHeap;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.heap.HeapExpression;
 import it.unive.lisa.symbolic.value.HeapLocation;
 import it.unive.lisa.symbolic.value.Identifier;
+import java.util.function.Predicate;
 
 /**
  * A semantic domain that can evaluate the semantic of statements that operate
@@ -22,4 +24,23 @@ import it.unive.lisa.symbolic.value.Identifier;
 @DefaultImplementation(MonolithicHeap.class)
 public interface HeapDomain<D extends HeapDomain<D>>
 		extends SemanticDomain<D, SymbolicExpression, Identifier>, Lattice<D>, HeapSemanticOperation {
+
+	/**
+	 * Yields a test identifying the {@link HeapLocation}s that cannot be
+	 * reached anymore from the live identifiers of the program, that is, the
+	 * ones that are tracked by this domain and that are not heap locations
+	 * themselves (variables that go out of scope, as reported by the variable
+	 * table of their cfg, are forgotten as soon as that happens). Information
+	 * about unreachable locations can be safely forgotten, both in this domain
+	 * and in the value domain, since no program variable can be used to access
+	 * them. The default implementation of this method yields a test that is
+	 * never satisfied, meaning that every location is assumed to be reachable.
+	 * 
+	 * @return the test identifying unreachable heap locations
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	default Predicate<Identifier> unreachableLocations() throws SemanticException {
+		return id -> false;
+	}
 }
@@ -0,0 +1,223 @@
+package it.unive.lisa.analysis.heap;
+
+import it.unive.lisa.analysis.heap.HeapSemanticOperation.HeapReplacement;
+import it.unive.lisa.symbolic.value.Identifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utility methods for building canonical substitutions, that is, lists of
+ * {@link HeapReplacement}s as returned by
+ * {@link HeapSemanticOperation#getSubstitution()}. Heap domains carry their
+ * substitution across program points, and each lattice operation or new
+ * replacement would otherwise make it grow: since the whole substitution is
+ * applied to the value domain after each heap operation, its length directly
+ * determines the cost of the analysis. A canonical substitution is obtained
+ * by:
+ * <ul>
+ * <li>dropping replacements without sources, as they do not assign
+ * anything;</li>
+ * <li>merging a replacement into a previous one with the same sources, as
+ * long as no replacement in between them refers to any of their
+ * identifiers, since applying the two of them is then equivalent to
+ * applying a single one with the union of the targets (this also removes
+ * duplicates);</li>
+ * <li>if the resulting list is still longer than a given bound, merging its
+ * oldest replacements into a single one that assigns each of their targets
+ * the upper bound of all of their sources: this yields an
+ * over-approximation of the original substitution, trading precision for a
+ * bounded size.</li>
+ * </ul>
+ * Replacements are never modified in place, as they might be shared by other
+ * substitutions: merging always builds new instances.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class Substitutions {
+
+	/**
+	 * The default maximum number of replacements of a canonical substitution.
+	 */
+	public static final int DEFAULT_BOUND = 512;
+
+	private Substitutions() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Yields the canonical substitution equivalent to applying {@code first}
+	 * and then {@code second}, bounded to {@link #DEFAULT_BOUND} replacements.
+	 *
+	 * @param first  the first substitution
+	 * @param second the second substitution
+	 *
+	 * @return the canonical concatenation of the given substitutions
+	 */
+	public static List<HeapReplacement> concat(List<HeapReplacement> first, List<HeapReplacement> second) {
+		return concat(first, second, DEFAULT_BOUND);
+	}
+
+	/**
+	 * Yields the canonical substitution equivalent to applying {@code first}
+	 * and then {@code second}, bounded to {@code bound} replacements.
+	 * {@code first} is assumed to be already canonical.
+	 *
+	 * @param first  the first substitution
+	 * @param second the second substitution
+	 * @param bound  the maximum number of replacements in the result
+	 *
+	 * @return the canonical concatenation of the given substitutions
+	 */
+	public static List<HeapReplacement> concat(List<HeapReplacement> first, List<HeapReplacement> second,
+			int bound) {
+		if (second.isEmpty())
+			// first is already canonical
+			return first;
+		if (first.isEmpty())
+			return compact(second, bound);
+
+		List<HeapReplacement> all = new ArrayList<>(first.size() + second.size());
+		all.addAll(first);
+		all.addAll(second);
+		return compact(all, bound);
+	}
+
+	/**
+	 * Yields the canonical form of the given substitution, bounded to
+	 * {@link #DEFAULT_BOUND} replacements.
+	 *
+	 * @param substitution the substitution to compact
+	 *
+	 * @return the canonical substitution
+	 */
+	public static List<HeapReplacement> compact(List<HeapReplacement> substitution) {
+		return compact(substitution, DEFAULT_BOUND);
+	}
+
+	/**
+	 * Yields the canonical form of the given substitution, bounded to
+	 * {@code bound} replacements.
+	 *
+	 * @param substitution the substitution to compact
+	 * @param bound        the maximum number of replacements in the result
+	 *
+	 * @return the canonical substitution
+	 *
+	 * @throws IllegalArgumentException if {@code bound} is not positive
+	 */
+	public static List<HeapReplacement> compact(List<HeapReplacement> substitution, int bound) {
+		if (bound < 1)
+			throw new IllegalArgumentException("The bound of a substitution must be positive");
+
+		if (substitution.isEmpty())
+			return Collections.emptyList();
+
+		List<HeapReplacement> result = new ArrayList<>(substitution.size());
+		// for each set of sources, the position of the last replacement in
+		// result having exactly those sources
+		Map<Set<Identifier>, Integer> bySources = new HashMap<>();
+		// for each identifier, the position of the last replacement in result
+		// referring to it
+		Map<Identifier, Integer> lastMention = new HashMap<>();
+
+		for (HeapReplacement replacement : substitution) {
+			if (replacement.getSources().isEmpty())
+				continue;
+
+			Integer previous = bySources.get(replacement.getSources());
+			if (previous != null && !mentionedAfter(replacement, previous, lastMention)) {
+				HeapReplacement merged = result.get(previous);
+				if (!merged.getTargets().containsAll(replacement.getTargets())) {
+					merged = merge(merged, replacement);
+					result.set(previous, merged);
+				}
+
+				for (Identifier target : replacement.getTargets())
+					lastMention.put(target, previous);
+				continue;
+			}
+
+			int pos = result.size();
+			result.add(replacement);
+			bySources.put(replacement.getSources(), pos);
+			for (Identifier source : replacement.getSources())
+				lastMention.put(source, pos);
+			for (Identifier target : replacement.getTargets())
+				lastMention.put(target, pos);
+		}
+
+		return result.size() > bound ? summarize(result, bound) : result;
+	}
+
+	private static boolean mentionedAfter(HeapReplacement replacement, int pos, Map<Identifier, Integer> lastMention) {
+		for (Identifier source : replacement.getSources())
+			if (lastMention.get(source) > pos)
+				return true;
+
+		for (Identifier target : replacement.getTargets()) {
+			Integer last = lastMention.get(target);
+			if (last != null && last > pos)
+				return true;
+		}
+
+		return false;
+	}
+
+	private static HeapReplacement merge(HeapReplacement first, HeapReplacement second) {
+		HeapReplacement merged = new HeapReplacement();
+		for (Identifier source : first.getSources())
+			merged.addSource(source);
+		for (Identifier source : second.getSources())
+			merged.addSource(source);
+		for (Identifier target : first.getTargets())
+			merged.addTarget(target);
+		for (Identifier target : second.getTargets())
+			merged.addTarget(target);
+		return merged;
+	}
+
+	private static boolean canMerge(Set<Identifier> sources, Set<Identifier> targets, HeapReplacement replacement) {
+		for (Identifier source : replacement.getSources())
+			if (targets.contains(source))
+				return false;
+		for (Identifier target : replacement.getTargets())
+			if (sources.contains(target))
+				return false;
+		return true;
+	}
+
+	private static List<HeapReplacement> summarize(List<HeapReplacement> substitution, int bound) {
+		// the oldest replacements are merged into a single one, stopping
+		// early if a replacement reads an identifier written by a previous
+		// one (or vice versa), as they would not be expressible as a single
+		// replacement
+		int toMerge = substitution.size() - bound + 1;
+		Set<Identifier> sources = new HashSet<>();
+		Set<Identifier> targets = new HashSet<>();
+		int merged = 0;
+		while (merged < toMerge && canMerge(sources, targets, substitution.get(merged))) {
+			sources.addAll(substitution.get(merged).getSources());
+			targets.addAll(substitution.get(merged).getTargets());
+			merged++;
+		}
+
+		if (merged < 2)
+			return substitution;
+
+		HeapReplacement summary = new HeapReplacement();
+		for (Identifier source : sources)
+			summary.addSource(source);
+		for (Identifier target : targets)
+			summary.addTarget(target);
+
+		List<HeapReplacement> result = new ArrayList<>(substitution.size() - merged + 1);
+		result.add(summary);
+		result.addAll(substitution.subList(merged, substitution.size()));
+		return result;
+	}
+}
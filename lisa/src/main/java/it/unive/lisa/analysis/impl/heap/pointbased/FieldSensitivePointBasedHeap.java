@@ -1,6 +1,7 @@
 package it.unive.lisa.analysis.impl.heap.pointbased;
 
 import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.Substitutions;
 import it.unive.lisa.analysis.nonrelational.heap.HeapEnvironment;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.SymbolicExpression;
@@ -66,7 +67,7 @@ public class FieldSensitivePointBasedHeap extends PointBasedHeap {
 			FieldSensitivePointBasedHeap childState = (FieldSensitivePointBasedHeap) containerState.smallStepSemantics(
 					access.getChild(), pp);
 
-			List<HeapReplacement> substitution = new ArrayList<>(childState.getSubstitution());
+			List<HeapReplacement> substitution = new ArrayList<>();
 			Set<ValueExpression> result = new HashSet<>();
 			for (SymbolicExpression containerExp : containerState.getRewrittenExpressions())
 				if (containerExp instanceof Variable) {
@@ -94,6 +95,7 @@ public class FieldSensitivePointBasedHeap extends PointBasedHeap {
 				} else if (containerExp instanceof HeapLocation)
 					result.add((ValueExpression) containerExp);
 
+			substitution = Substitutions.concat(childState.getSubstitution(), substitution);
 			return new FieldSensitivePointBasedHeap(result, applySubstitutions(childState.heapEnv, substitution),
 					substitution);
 		}
@@ -1,11 +1,13 @@
 package it.unive.lisa.analysis.impl.heap.pointbased;
 
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static org.apache.commons.collections.CollectionUtils.union;
 
 import it.unive.lisa.analysis.Lattice;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.heap.BaseHeapDomain;
+import it.unive.lisa.analysis.heap.Substitutions;
 import it.unive.lisa.analysis.nonrelational.heap.HeapEnvironment;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.SymbolicExpression;
@@ -21,13 +23,16 @@ import it.unive.lisa.util.collections.Utils;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -61,6 +66,25 @@ public class PointBasedHeap extends BaseHeapDomain<PointBasedHeap> {
 	 */
 	protected final HeapEnvironment<AllocationSites> heapEnv;
 
+	/**
+	 * An index from the names of the allocation sites tracked by
+	 * {@link #heapEnv} to the sites themselves. This is lazily built by
+	 * {@link #sitesByName()}, and since instances of this class are immutable,
+	 * it never needs to be invalidated. Since instances can be shared among
+	 * threads, the index is published only once it is fully built: threads
+	 * racing to build it compute the same map.
+	 */
+	private volatile Map<String, AllocationSite> sitesByName;
+
+	/**
+	 * An index from the sources of {@link #substitutions} to the replacements
+	 * they appear in, in order. This is lazily built by
+	 * {@link #replacementsBySource()}, and since instances of this class are
+	 * immutable, it never needs to be invalidated. It is published as
+	 * {@link #sitesByName} is.
+	 */
+	private volatile Map<Identifier, List<HeapReplacement>> replacementsBySource;
+
 	/**
 	 * Builds a new instance of field-insensitive point-based heap, with an
 	 * unique rewritten expression {@link Skip}.
@@ -120,6 +144,50 @@ public class PointBasedHeap extends BaseHeapDomain<PointBasedHeap> {
 		return from(new PointBasedHeap(rewritten, heapEnv.forgetIdentifier(id), substitutions));
 	}
 
+	@Override
+	public PointBasedHeap forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		HeapEnvironment<AllocationSites> env = heapEnv.forgetIdentifiersIf(test);
+		if (env == heapEnv)
+			return this;
+		return from(new PointBasedHeap(rewritten, env, substitutions));
+	}
+
+	@Override
+	public Predicate<Identifier> unreachableLocations() throws SemanticException {
+		if (heapEnv.isTop() || heapEnv.isBottom())
+			return id -> false;
+
+		// the sites stored inside each allocation site, indexed by the id of
+		// the container (this way, all the fields of a site are grouped
+		// together in the field-sensitive variant)
+		Map<String, Set<AllocationSite>> contents = new HashMap<>();
+		Deque<AllocationSite> ws = new LinkedList<>();
+		for (Entry<Identifier, AllocationSites> entry : heapEnv) {
+			if (entry.getValue().isTop())
+				// anything might be reachable
+				return id -> false;
+
+			if (entry.getKey() instanceof AllocationSite)
+				contents.computeIfAbsent(((AllocationSite) entry.getKey()).getId(), k -> new HashSet<>())
+						.addAll(entry.getValue().elements());
+			else if (!(entry.getKey() instanceof HeapLocation))
+				ws.addAll(entry.getValue().elements());
+		}
+
+		for (ValueExpression expression : rewritten)
+			if (expression instanceof AllocationSite)
+				ws.add((AllocationSite) expression);
+
+		Set<String> reachable = new HashSet<>();
+		while (!ws.isEmpty()) {
+			String site = ws.pop().getId();
+			if (reachable.add(site) && contents.containsKey(site))
+				ws.addAll(contents.get(site));
+		}
+
+		return id -> id instanceof AllocationSite && !reachable.contains(((AllocationSite) id).getId());
+	}
+
 	@Override
 	public Satisfiability satisfies(SymbolicExpression expression, ProgramPoint pp) throws SemanticException {
 		// we leave the decision to the value domain
@@ -177,10 +245,13 @@ public class PointBasedHeap extends BaseHeapDomain<PointBasedHeap> {
 	public PointBasedHeap mk(PointBasedHeap reference, ValueExpression expression) {
 		Collection<ValueExpression> rewritten = null;
 
-		if (expression instanceof Identifier)
-			for (HeapReplacement r : reference.substitutions)
-				if (r.getSources().contains(expression))
-					rewritten = r.getTargets().stream().map(id -> (ValueExpression) id).collect(Collectors.toSet());
+		if (expression instanceof Identifier) {
+			List<HeapReplacement> replacements = reference.replacementsBySource().get(expression);
+			if (replacements != null)
+				// the last replacement is the one that wins
+				rewritten = replacements.get(replacements.size() - 1).getTargets().stream()
+						.map(id -> (ValueExpression) id).collect(Collectors.toSet());
+		}
 
 		rewritten = rewritten == null ? singleton(expression) : rewritten;
 		return from(new PointBasedHeap(rewritten, reference.heapEnv, reference.substitutions));
@@ -189,11 +260,8 @@ public class PointBasedHeap extends BaseHeapDomain<PointBasedHeap> {
 	@SuppressWarnings("unchecked")
 	@Override
 	protected PointBasedHeap lubAux(PointBasedHeap other) throws SemanticException {
-		ArrayList<HeapReplacement> newSubstitions = new ArrayList<>(substitutions);
-		newSubstitions.addAll(other.substitutions);
-
 		return from(new PointBasedHeap(union(rewritten, other.rewritten),
-				heapEnv.lub(other.heapEnv), newSubstitions));
+				heapEnv.lub(other.heapEnv), Substitutions.concat(substitutions, other.substitutions)));
 	}
 
 	@Override
@@ -243,13 +311,39 @@ public class PointBasedHeap extends BaseHeapDomain<PointBasedHeap> {
 		return true;
 	}
 
-	private AllocationSite alreadyAllocated(HeapEnvironment<AllocationSites> heap, AllocationSite id) {
-		for (AllocationSites set : heap.values())
-			for (AllocationSite site : set)
-				if (site.getName().equals(id.getName()))
-					return site;
+	private AllocationSite alreadyAllocated(AllocationSite id) {
+		return sitesByName().get(id.getName());
+	}
+
+	private Map<String, AllocationSite> sitesByName() {
+		Map<String, AllocationSite> index = sitesByName;
+		if (index == null) {
+			index = new HashMap<>();
+			for (AllocationSites set : heapEnv.values())
+				for (AllocationSite site : set)
+					index.putIfAbsent(site.getName(), site);
+			sitesByName = index;
+		}
 
-		return null;
+		return index;
+	}
+
+	private Map<Identifier, List<HeapReplacement>> replacementsBySource() {
+		Map<Identifier, List<HeapReplacement>> index = replacementsBySource;
+		if (index == null) {
+			index = indexBySource(substitutions);
+			replacementsBySource = index;
+		}
+
+		return index;
+	}
+
+	private static Map<Identifier, List<HeapReplacement>> indexBySource(List<HeapReplacement> substitution) {
+		Map<Identifier, List<HeapReplacement>> index = new HashMap<>();
+		for (HeapReplacement replacement : substitution)
+			for (Identifier source : replacement.getSources())
+				index.computeIfAbsent(source, id -> new ArrayList<>()).add(replacement);
+		return index;
 	}
 
 	/**
@@ -266,18 +360,23 @@ public class PointBasedHeap extends BaseHeapDomain<PointBasedHeap> {
 		if (heap.isTop() || heap.isBottom() || substitution == null || substitution.isEmpty())
 			return heap;
 
+		// a single pass over the heap, joining each site with the
+		// replacements it is a source of
+		Map<Identifier, List<HeapReplacement>> index = substitution == substitutions ? replacementsBySource()
+				: indexBySource(substitution);
 		Map<Identifier, AllocationSites> map = new HashMap<>();
 
 		for (Entry<Identifier, AllocationSites> entry : heap) {
 			Set<AllocationSite> newSites = new HashSet<>();
-			for (AllocationSite l : entry.getValue())
-				if (substitution.stream().noneMatch(t -> t.getSources().contains(l)))
+			for (AllocationSite l : entry.getValue()) {
+				List<HeapReplacement> replacements = index.get(l);
+				if (replacements == null)
 					newSites.add(l);
 				else
-					for (HeapReplacement replacement : substitution)
-						if (replacement.getSources().contains(l))
-							for (Identifier target : replacement.getTargets())
-								newSites.add((AllocationSite) target);
+					for (HeapReplacement replacement : replacements)
+						for (Identifier target : replacement.getTargets())
+							newSites.add((AllocationSite) target);
+			}
 
 			map.put(entry.getKey(), new AllocationSites().mk(newSites));
 		}
@@ -292,7 +391,7 @@ public class PointBasedHeap extends BaseHeapDomain<PointBasedHeap> {
 			PointBasedHeap containerState = smallStepSemantics(access.getContainer(), pp);
 			PointBasedHeap childState = containerState.smallStepSemantics(access.getChild(), pp);
 
-			List<HeapReplacement> substitution = new ArrayList<>(childState.substitutions);
+			List<HeapReplacement> substitution = new ArrayList<>();
 
 			Set<ValueExpression> result = new HashSet<>();
 			for (SymbolicExpression containerExp : containerState.getRewrittenExpressions()) {
@@ -300,7 +399,7 @@ public class PointBasedHeap extends BaseHeapDomain<PointBasedHeap> {
 					AllocationSites expHids = childState.heapEnv.getState((Variable) containerExp);
 					if (!expHids.isBottom())
 						for (AllocationSite hid : expHids) {
-							AllocationSite previousLocation = alreadyAllocated(childState.heapEnv, hid);
+							AllocationSite previousLocation = childState.alreadyAllocated(hid);
 							if (previousLocation == null)
 								result.add(new AllocationSite(access.getTypes(), hid.getId()));
 							else {
@@ -336,13 +435,14 @@ public class PointBasedHeap extends BaseHeapDomain<PointBasedHeap> {
 					result.add((ValueExpression) containerExp);
 			}
 
+			substitution = Substitutions.concat(childState.substitutions, substitution);
 			return from(new PointBasedHeap(result, applySubstitutions(childState.heapEnv, substitution), substitution));
 		}
 
 		if (expression instanceof HeapAllocation) {
 			AllocationSite id = new AllocationSite(expression.getTypes(), pp.getLocation().getCodeLocation());
-			AllocationSite previousLocation = alreadyAllocated(heapEnv, id);
-			List<HeapReplacement> substitution = new ArrayList<>(substitutions);
+			AllocationSite previousLocation = alreadyAllocated(id);
+			List<HeapReplacement> substitution = substitutions;
 
 			if (previousLocation != null) {
 				if (!previousLocation.isWeak()) {
@@ -350,7 +450,7 @@ public class PointBasedHeap extends BaseHeapDomain<PointBasedHeap> {
 					HeapReplacement replacement = new HeapReplacement();
 					replacement.addSource(previousLocation);
 					replacement.addTarget(id);
-					substitution.add(replacement);
+					substitution = Substitutions.concat(substitutions, singletonList(replacement));
 				} else {
 					id = new AllocationSite(expression.getTypes(), previousLocation.getId(), previousLocation.isWeak());
 				}
@@ -358,9 +458,11 @@ public class PointBasedHeap extends BaseHeapDomain<PointBasedHeap> {
 				// Check if the allocation site, at that point, has not been
 				// already allocated but must be rewritten
 				Set<ValueExpression> result = null;
-				for (HeapReplacement r : substitution)
-					if (r.getSources().contains(id))
-						result = r.getTargets().stream().map(e -> (ValueExpression) e).collect(Collectors.toSet());
+				List<HeapReplacement> replacements = replacementsBySource().get(id);
+				if (replacements != null)
+					// the last replacement is the one that wins
+					result = replacements.get(replacements.size() - 1).getTargets().stream()
+							.map(e -> (ValueExpression) e).collect(Collectors.toSet());
 
 				if (result == null)
 					result = singleton(id);
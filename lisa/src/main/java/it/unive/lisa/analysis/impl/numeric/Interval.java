@@ -171,9 +171,23 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 
 	@Override
 	public Interval glbAux(Interval other) {
-		Integer newLow = lowIsMinusInfinity() ? other.low : other.lowIsMinusInfinity() ? low : Math.max(low, other.low);
-		Integer newHigh = highIsPlusInfinity() ? other.high
-				: other.highIsPlusInfinity() ? high : Math.min(high, other.high);
+		// the bounds are not computed through nested conditional expressions
+		// since those would unbox the infinite (that is, null) ones
+		Integer newLow, newHigh;
+		if (lowIsMinusInfinity())
+			newLow = other.low;
+		else if (other.lowIsMinusInfinity())
+			newLow = low;
+		else
+			newLow = Math.max(low, other.low);
+
+		if (highIsPlusInfinity())
+			newHigh = other.high;
+		else if (other.highIsPlusInfinity())
+			newHigh = high;
+		else
+			newHigh = Math.min(high, other.high);
+
 		return new Interval(newLow, newHigh);
 	}
 
@@ -241,28 +255,23 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 	private Interval mul(Interval other) {
 		// this = [l1, h1]
 		// other = [l2, h2]
+		// the result spans the products of all pairs of bounds, where missing
+		// bounds are infinite
+		double l1 = lowIsMinusInfinity() ? Double.NEGATIVE_INFINITY : low;
+		double h1 = highIsPlusInfinity() ? Double.POSITIVE_INFINITY : high;
+		double l2 = other.lowIsMinusInfinity() ? Double.NEGATIVE_INFINITY : other.low;
+		double h2 = other.highIsPlusInfinity() ? Double.POSITIVE_INFINITY : other.high;
+
+		double[] products = { multiplyBounds(l1, l2), multiplyBounds(l1, h2), multiplyBounds(h1, l2),
+				multiplyBounds(h1, h2) };
+		double min = products[0], max = products[0];
+		for (double product : products) {
+			min = Math.min(min, product);
+			max = Math.max(max, product);
+		}
 
-		SortedSet<Integer> boundSet = new TreeSet<>();
-		Integer l1 = low;
-		Integer h1 = high;
-		Integer l2 = other.low;
-		Integer h2 = other.high;
-
-		AtomicBoolean lowInf = new AtomicBoolean(false), highInf = new AtomicBoolean(false);
-
-		// l1 * l2
-		multiplyBounds(boundSet, l1, l2, lowInf, highInf);
-
-		// x1 * y2
-		multiplyBounds(boundSet, l1, h2, lowInf, highInf);
-
-		// x2 * y1
-		multiplyBounds(boundSet, h2, l2, lowInf, highInf);
-
-		// x2 * y2
-		multiplyBounds(boundSet, h1, h2, lowInf, highInf);
-
-		return new Interval(lowInf.get() ? null : boundSet.first(), highInf.get() ? null : boundSet.last());
+		// products that do not fit into an integer are treated as infinite
+		return new Interval(min < Integer.MIN_VALUE ? null : (int) min, max > Integer.MAX_VALUE ? null : (int) max);
 	}
 
 	private Interval div(Interval other) {
@@ -292,33 +301,9 @@ public class Interval extends BaseNonRelationalValueDomain<Interval> {
 		return new Interval(lowInf.get() ? null : boundSet.first(), highInf.get() ? null : boundSet.last());
 	}
 
-	private void multiplyBounds(SortedSet<Integer> boundSet, Integer i, Integer j, AtomicBoolean lowInf,
-			AtomicBoolean highInf) {
-		if (i == null) {
-			if (j == null)
-				// -inf * -inf = +inf
-				highInf.set(true);
-			else {
-				if (j > 0)
-					// -inf * positive
-					lowInf.set(true);
-				else if (j < 0)
-					// -inf * negative
-					highInf.set(true);
-				else
-					boundSet.add(0);
-			}
-		} else if (j == null) {
-			if (i > 0)
-				// -inf * positive
-				lowInf.set(true);
-			else if (i < 0)
-				// -inf * negative
-				highInf.set(true);
-			else
-				boundSet.add(0);
-		} else
-			boundSet.add(i * j);
+	private static double multiplyBounds(double i, double j) {
+		// 0 * inf is 0 when multiplying bounds
+		return i == 0 || j == 0 ? 0 : i * j;
 	}
 
 	private void divideBounds(SortedSet<Integer> boundSet, Integer i, Integer j, AtomicBoolean lowInf,
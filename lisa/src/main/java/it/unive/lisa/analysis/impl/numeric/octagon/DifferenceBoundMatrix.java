@@ -0,0 +1,537 @@
+package it.unive.lisa.analysis.impl.numeric.octagon;
+
+import java.util.Arrays;
+
+/**
+ * A difference-bound matrix encoding the octagonal constraints (that is,
+ * constraints of the form {@code +-x +-y <= c}) over a fixed number of integer
+ * variables. Following Miné's encoding, each variable {@code x_v} is
+ * represented by two signed variables: {@code V_2v = x_v} and
+ * {@code V_2v+1 = -x_v}, and the element {@code m[i][j]} of the matrix is an
+ * upper bound of {@code V_j - V_i}, where {@link Double#POSITIVE_INFINITY}
+ * means that no bound is known. Since the matrix is coherent (that is,
+ * {@code m[i][j] == m[j^1][i^1]}), only its lower half is stored, in a flat
+ * array of primitive {@code double}s: element {@code m[i][j]} is stored
+ * if-and-only-if {@code j <= (i | 1)}.<br>
+ * <br>
+ * Instances of this class are mutable: all the operations that modify the
+ * matrix work in place, and it is up to the owner of the matrix to
+ * {@link #copy()} it before modifying a matrix that is shared. Closure
+ * operations compute the tight closure of the matrix, that is, the most
+ * precise matrix representing the same set of integer points.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @see <a href="https://arxiv.org/abs/cs/0703084">A. Miné, The Octagon
+ *          Abstract Domain</a>
+ */
+public final class DifferenceBoundMatrix {
+
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	private final int variables;
+
+	private final double[] bounds;
+
+	private boolean closed;
+
+	/**
+	 * Builds the matrix without constraints over the given number of
+	 * variables.
+	 *
+	 * @param variables the number of variables
+	 */
+	public DifferenceBoundMatrix(int variables) {
+		this(variables, new double[cells(variables)], true);
+		Arrays.fill(bounds, INF);
+		for (int i = 0; i < 2 * variables; i++)
+			bounds[index(i, i)] = 0;
+	}
+
+	private DifferenceBoundMatrix(int variables, double[] bounds, boolean closed) {
+		this.variables = variables;
+		this.bounds = bounds;
+		this.closed = closed;
+	}
+
+	private static int cells(int variables) {
+		return 2 * variables * (variables + 1);
+	}
+
+	private static int rowStart(int i) {
+		return ((i + 1) * (i + 1)) / 2;
+	}
+
+	private static int index(int i, int j) {
+		if (j > (i | 1))
+			// the element is stored through its coherent one
+			return rowStart(j ^ 1) + (i ^ 1);
+		return rowStart(i) + j;
+	}
+
+	/**
+	 * Yields the number of variables of this matrix.
+	 *
+	 * @return the number of variables
+	 */
+	public int getVariables() {
+		return variables;
+	}
+
+	/**
+	 * Yields whether or not this matrix is known to be closed. Operations that
+	 * add constraints make the matrix not closed, until {@link #close()} or
+	 * {@link #closeIncrementally(int)} is invoked.
+	 *
+	 * @return {@code true} if this matrix is closed
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Yields a copy of this matrix, that can be modified without affecting
+	 * this one.
+	 *
+	 * @return the copy
+	 */
+	public DifferenceBoundMatrix copy() {
+		return new DifferenceBoundMatrix(variables, bounds.clone(), closed);
+	}
+
+	/**
+	 * Yields the upper bound of {@code V_j - V_i}.
+	 *
+	 * @param i the index of the subtracted signed variable
+	 * @param j the index of the other signed variable
+	 *
+	 * @return the bound, possibly {@link Double#POSITIVE_INFINITY}
+	 */
+	public double get(int i, int j) {
+		return bounds[index(i, j)];
+	}
+
+	/**
+	 * Adds the constraint {@code V_j - V_i <= bound}, keeping the most precise
+	 * between the given bound and the existing one.
+	 *
+	 * @param i     the index of the subtracted signed variable
+	 * @param j     the index of the other signed variable
+	 * @param bound the bound
+	 */
+	public void meet(int i, int j, double bound) {
+		int index = index(i, j);
+		if (bound < bounds[index]) {
+			bounds[index] = bound;
+			closed = false;
+		}
+	}
+
+	/**
+	 * Yields the upper bound of the {@code v}-th variable.
+	 *
+	 * @param v the variable
+	 *
+	 * @return the bound, possibly {@link Double#POSITIVE_INFINITY}
+	 */
+	public double getUpperBound(int v) {
+		return bounds[index(2 * v + 1, 2 * v)] / 2;
+	}
+
+	/**
+	 * Yields the lower bound of the {@code v}-th variable.
+	 *
+	 * @param v the variable
+	 *
+	 * @return the bound, possibly {@link Double#NEGATIVE_INFINITY}
+	 */
+	public double getLowerBound(int v) {
+		return -bounds[index(2 * v, 2 * v + 1)] / 2;
+	}
+
+	/**
+	 * Yields the upper bound of {@code vSign * x_v + wSign * x_w}, where
+	 * {@code v != w}.
+	 *
+	 * @param v     the first variable
+	 * @param vSign the sign of the first variable, either {@code 1} or
+	 *                  {@code -1}
+	 * @param w     the second variable
+	 * @param wSign the sign of the second variable, either {@code 1} or
+	 *                  {@code -1}
+	 *
+	 * @return the bound, possibly {@link Double#POSITIVE_INFINITY}
+	 */
+	public double getUpperBound(int v, int vSign, int w, int wSign) {
+		return bounds[index(wSign > 0 ? 2 * w + 1 : 2 * w, vSign > 0 ? 2 * v : 2 * v + 1)];
+	}
+
+	/**
+	 * Adds the constraint {@code sign * x_v <= bound}.
+	 *
+	 * @param v     the variable
+	 * @param sign  the sign of the variable, either {@code 1} or {@code -1}
+	 * @param bound the bound
+	 */
+	public void meetUnary(int v, int sign, double bound) {
+		int p = sign > 0 ? 2 * v : 2 * v + 1;
+		meet(p ^ 1, p, 2 * bound);
+	}
+
+	/**
+	 * Adds the constraint {@code vSign * x_v + wSign * x_w <= bound}, where
+	 * {@code v != w}.
+	 *
+	 * @param v     the first variable
+	 * @param vSign the sign of the first variable, either {@code 1} or
+	 *                  {@code -1}
+	 * @param w     the second variable
+	 * @param wSign the sign of the second variable, either {@code 1} or
+	 *                  {@code -1}
+	 * @param bound the bound
+	 */
+	public void meetBinary(int v, int vSign, int w, int wSign, double bound) {
+		meet(wSign > 0 ? 2 * w + 1 : 2 * w, vSign > 0 ? 2 * v : 2 * v + 1, bound);
+	}
+
+	/**
+	 * Computes the tight closure of this matrix, in {@code O(n^3)} time. If
+	 * this method returns {@code false}, the constraints of this matrix are
+	 * unsatisfiable and its contents are unspecified.
+	 *
+	 * @return {@code false} if this matrix has no solution
+	 */
+	public boolean close() {
+		for (int k = 0; k < variables; k++)
+			relax(k);
+		return tighten();
+	}
+
+	/**
+	 * Shortens all the paths of this matrix through the two signed variables
+	 * of the {@code k}-th variable. Both signed variables must be used as a
+	 * single step of the algorithm, since the half-matrix updates paths
+	 * through a signed variable together with the coherent ones through its
+	 * opposite.
+	 */
+	private void relax(int k) {
+		int size = 2 * variables, pos = 2 * k, neg = 2 * k + 1;
+		double posToNeg = bounds[index(pos, neg)], negToPos = bounds[index(neg, pos)];
+		for (int i = 0; i < size; i++) {
+			double iPos = bounds[index(i, pos)], iNeg = bounds[index(i, neg)];
+			if (iPos == INF && iNeg == INF)
+				continue;
+			double viaPos = Math.min(iPos, iNeg + negToPos), viaNeg = Math.min(iNeg, iPos + posToNeg);
+			int start = rowStart(i);
+			for (int j = 0; j <= (i | 1); j++) {
+				double path = Math.min(viaPos + bounds[index(pos, j)], viaNeg + bounds[index(neg, j)]);
+				if (path < bounds[start + j])
+					bounds[start + j] = path;
+			}
+		}
+	}
+
+	/**
+	 * Computes the tight closure of this matrix, in {@code O(n^2)} time,
+	 * assuming that the matrix was closed before adding constraints over the
+	 * {@code v}-th variable only. If this method returns {@code false}, the
+	 * constraints of this matrix are unsatisfiable and its contents are
+	 * unspecified.
+	 *
+	 * @param v the only variable whose constraints changed since the last
+	 *              closure
+	 *
+	 * @return {@code false} if this matrix has no solution
+	 */
+	public boolean closeIncrementally(int v) {
+		int size = 2 * variables;
+		// shortest paths from the two signed variables of v, that also give
+		// the ones towards them by coherence
+		for (int k = 0; k < size; k++)
+			for (int i = 2 * v; i <= 2 * v + 1; i++) {
+				double ik = bounds[index(i, k)];
+				if (ik == INF)
+					continue;
+				for (int j = 0; j < size; j++) {
+					double path = ik + bounds[index(k, j)];
+					int index = index(i, j);
+					if (path < bounds[index])
+						bounds[index] = path;
+				}
+			}
+
+		// the bounds of v might be given by paths that leave from a signed
+		// variable of v and reach the opposite one, that are available only
+		// after all the rows of v have been computed
+		for (int i = 2 * v; i <= 2 * v + 1; i++) {
+			int index = index(i, i ^ 1);
+			for (int k = 0; k < size; k++) {
+				double path = bounds[index(i, k)] + bounds[index(k, i ^ 1)];
+				if (path < bounds[index])
+					bounds[index] = path;
+			}
+		}
+
+		// shortest paths passing through v
+		relax(v);
+		return tighten();
+	}
+
+	private boolean tighten() {
+		int size = 2 * variables;
+		for (int i = 0; i < size; i++)
+			if (bounds[index(i, i)] < 0)
+				return false;
+
+		// bounds on 2 * x_v must be even, since variables are integers
+		for (int i = 0; i < size; i++) {
+			int index = index(i, i ^ 1);
+			bounds[index] = 2 * Math.floor(bounds[index] / 2);
+		}
+
+		for (int i = 0; i < size; i += 2)
+			if (bounds[index(i, i + 1)] + bounds[index(i + 1, i)] < 0)
+				return false;
+
+		strengthen();
+		for (int i = 0; i < size; i++)
+			bounds[index(i, i)] = 0;
+		closed = true;
+		return true;
+	}
+
+	private void strengthen() {
+		int size = 2 * variables;
+		for (int i = 0; i < size; i++) {
+			double unary = bounds[index(i, i ^ 1)];
+			if (unary == INF)
+				continue;
+			int start = rowStart(i);
+			for (int j = 0; j <= (i | 1); j++) {
+				double bound = (unary + bounds[index(j ^ 1, j)]) / 2;
+				if (bound < bounds[start + j])
+					bounds[start + j] = bound;
+			}
+		}
+	}
+
+	/**
+	 * Removes all the constraints over the {@code v}-th variable. If this
+	 * matrix is closed, all the constraints over the other variables that are
+	 * implied by the ones over {@code v} are retained, and the matrix is still
+	 * closed.
+	 *
+	 * @param v the variable
+	 */
+	public void forget(int v) {
+		int size = 2 * variables;
+		for (int i = 2 * v; i <= 2 * v + 1; i++)
+			for (int j = 0; j < size; j++)
+				bounds[index(i, j)] = i == j ? 0 : INF;
+	}
+
+	/**
+	 * Applies the assignment {@code x_v = x_v + c}, where {@code c} is any
+	 * integer in {@code [low, high]}. This preserves the closure of the
+	 * matrix.
+	 *
+	 * @param v    the variable
+	 * @param low  the lower bound of the increment, possibly
+	 *                 {@link Double#NEGATIVE_INFINITY}
+	 * @param high the upper bound of the increment, possibly
+	 *                 {@link Double#POSITIVE_INFINITY}
+	 */
+	public void shift(int v, double low, double high) {
+		int size = 2 * variables;
+		for (int i = 0; i < size; i++) {
+			int start = rowStart(i);
+			for (int j = 0; j <= (i | 1); j++) {
+				if (i == j)
+					continue;
+				// V_j - V_i increases at most by max(delta_j) - min(delta_i)
+				double delta = maxShift(j, v, low, high) - minShift(i, v, low, high);
+				if (delta != 0)
+					bounds[start + j] += delta;
+			}
+		}
+	}
+
+	private static double maxShift(int i, int v, double low, double high) {
+		if (i / 2 != v)
+			return 0;
+		return i % 2 == 0 ? high : -low;
+	}
+
+	private static double minShift(int i, int v, double low, double high) {
+		if (i / 2 != v)
+			return 0;
+		return i % 2 == 0 ? low : -high;
+	}
+
+	/**
+	 * Yields a new matrix containing a new, unconstrained variable after the
+	 * ones of this matrix.
+	 *
+	 * @return the new matrix
+	 */
+	public DifferenceBoundMatrix addVariable() {
+		// the layout of the smaller matrix is a prefix of the bigger one
+		double[] result = Arrays.copyOf(bounds, cells(variables + 1));
+		Arrays.fill(result, bounds.length, result.length, INF);
+		result[index(2 * variables, 2 * variables)] = 0;
+		result[index(2 * variables + 1, 2 * variables + 1)] = 0;
+		return new DifferenceBoundMatrix(variables + 1, result, closed);
+	}
+
+	/**
+	 * Yields a new matrix without the {@code v}-th variable, where the
+	 * following variables are shifted by one position. To retain the
+	 * constraints implied by the ones over {@code v}, this matrix should be
+	 * closed.
+	 *
+	 * @param v the variable to remove
+	 *
+	 * @return the new matrix
+	 */
+	public DifferenceBoundMatrix removeVariable(int v) {
+		double[] result = new double[cells(variables - 1)];
+		int size = 2 * (variables - 1);
+		int pos = 0;
+		for (int i = 0; i < size; i++) {
+			int oldI = i < 2 * v ? i : i + 2;
+			for (int j = 0; j <= (i | 1); j++)
+				result[pos++] = bounds[index(oldI, j < 2 * v ? j : j + 2)];
+		}
+		return new DifferenceBoundMatrix(variables - 1, result, closed);
+	}
+
+	/**
+	 * Copies all the constraints of the given matrix into this one, where the
+	 * {@code v}-th variable of {@code source} becomes the
+	 * {@code positions[v]}-th variable of this matrix. The constraints of
+	 * this matrix are overwritten. If this matrix and {@code source} contain
+	 * disjoint sets of constraints and are both closed,
+	 * {@link #strengthenCopies()} yields the closure of the result.
+	 *
+	 * @param source    the matrix to copy
+	 * @param positions the position of each variable of {@code source} in
+	 *                      this matrix
+	 */
+	public void copyFrom(DifferenceBoundMatrix source, int[] positions) {
+		int size = 2 * source.variables;
+		for (int i = 0; i < size; i++) {
+			int newI = 2 * positions[i / 2] + (i & 1);
+			int start = rowStart(i);
+			for (int j = 0; j <= (i | 1); j++)
+				bounds[index(newI, 2 * positions[j / 2] + (j & 1))] = source.bounds[start + j];
+		}
+		closed = false;
+	}
+
+	/**
+	 * Closes a matrix built by copying, through
+	 * {@link #copyFrom(DifferenceBoundMatrix, int[])}, closed matrices over
+	 * disjoint sets of variables, in {@code O(n^2)} time.
+	 */
+	public void strengthenCopies() {
+		strengthen();
+		closed = true;
+	}
+
+	/**
+	 * Joins this matrix with the given one, keeping the greatest bound for
+	 * each constraint. If both matrices are closed, the result is closed.
+	 *
+	 * @param other the other matrix, with the same number of variables
+	 */
+	public void join(DifferenceBoundMatrix other) {
+		for (int i = 0; i < bounds.length; i++)
+			if (other.bounds[i] > bounds[i])
+				bounds[i] = other.bounds[i];
+		closed = closed && other.closed;
+	}
+
+	/**
+	 * Widens this matrix with the given one, dropping each constraint that is
+	 * not satisfied by {@code other}. The result is not closed, and should not
+	 * be closed before being widened again to guarantee termination.
+	 *
+	 * @param other the other matrix, with the same number of variables
+	 */
+	public void widen(DifferenceBoundMatrix other) {
+		for (int i = 0; i < bounds.length; i++)
+			if (other.bounds[i] > bounds[i])
+				bounds[i] = INF;
+		closed = false;
+	}
+
+	/**
+	 * Yields whether or not each constraint of this matrix is at least as
+	 * strict as the corresponding one in {@code other}. If this matrix is
+	 * closed, this corresponds to the inclusion of the sets of points they
+	 * represent.
+	 *
+	 * @param other the other matrix, with the same number of variables
+	 *
+	 * @return {@code true} if this matrix is included in the other one
+	 */
+	public boolean lessOrEqual(DifferenceBoundMatrix other) {
+		for (int i = 0; i < bounds.length; i++)
+			if (bounds[i] > other.bounds[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Yields whether or not the {@code v}-th variable is not constrained.
+	 *
+	 * @param v the variable
+	 *
+	 * @return {@code true} if there are no constraints over {@code v}
+	 */
+	public boolean isUnconstrained(int v) {
+		int size = 2 * variables;
+		for (int i = 2 * v; i <= 2 * v + 1; i++)
+			for (int j = 0; j < size; j++)
+				if (i != j && bounds[index(i, j)] != INF)
+					return false;
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Arrays.hashCode(bounds);
+		result = prime * result + variables;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		DifferenceBoundMatrix other = (DifferenceBoundMatrix) obj;
+		if (variables != other.variables)
+			return false;
+		if (!Arrays.equals(bounds, other.bounds))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		int size = 2 * variables;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++)
+				result.append(j == 0 ? "" : " ").append(get(i, j));
+			result.append("\n");
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,212 @@
+package it.unive.lisa.analysis.impl.numeric.octagon;
+
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.UnaryOperator;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Function;
+
+/**
+ * A linear form {@code c_1 * x_1 + ... + c_n * x_n + [low, high]} with integer
+ * coefficients, approximating a {@link ValueExpression}. Sub-expressions that
+ * are not linear are approximated by the interval of their possible values,
+ * computed from the bounds of the variables they contain.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+final class LinearForm {
+
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	private final Map<Identifier, Long> coefficients;
+
+	private final double low, high;
+
+	private LinearForm(Map<Identifier, Long> coefficients, double low, double high) {
+		this.coefficients = coefficients;
+		this.low = low;
+		this.high = high;
+	}
+
+	private static LinearForm constant(double low, double high) {
+		return new LinearForm(Collections.emptyMap(), low, high);
+	}
+
+	private static LinearForm unknown() {
+		return constant(-INF, INF);
+	}
+
+	/**
+	 * Linearizes the given expression.
+	 *
+	 * @param expression the expression
+	 * @param bounds     the function yielding the lower and upper bounds of
+	 *                       each variable
+	 *
+	 * @return the linear form of the expression
+	 */
+	static LinearForm of(ValueExpression expression, Function<Identifier, double[]> bounds) {
+		if (expression instanceof Identifier)
+			return new LinearForm(Collections.singletonMap((Identifier) expression, 1L), 0, 0);
+
+		if (expression instanceof Constant) {
+			Object value = ((Constant) expression).getValue();
+			if (value instanceof Integer)
+				return constant((Integer) value, (Integer) value);
+			return unknown();
+		}
+
+		if (expression instanceof UnaryExpression) {
+			UnaryExpression unary = (UnaryExpression) expression;
+			if (unary.getOperator() == UnaryOperator.NUMERIC_NEG)
+				return of((ValueExpression) unary.getExpression(), bounds).scale(-1);
+			return unknown();
+		}
+
+		if (expression instanceof BinaryExpression) {
+			BinaryExpression binary = (BinaryExpression) expression;
+			ValueExpression left = (ValueExpression) binary.getLeft();
+			switch (binary.getOperator()) {
+			case NUMERIC_ADD:
+				return of(left, bounds).add(of((ValueExpression) binary.getRight(), bounds));
+			case NUMERIC_SUB:
+				return of(left, bounds).add(of((ValueExpression) binary.getRight(), bounds).scale(-1));
+			case NUMERIC_MUL:
+				return of(left, bounds).multiply(of((ValueExpression) binary.getRight(), bounds), bounds);
+			case TYPE_CAST:
+			case TYPE_CONV:
+				return binary.getTypes().isEmpty() ? unknown() : of(left, bounds);
+			default:
+				return unknown();
+			}
+		}
+
+		return unknown();
+	}
+
+	/**
+	 * Yields the coefficients of the variables of this form. Coefficients are
+	 * never zero.
+	 *
+	 * @return the coefficients
+	 */
+	Map<Identifier, Long> getCoefficients() {
+		return coefficients;
+	}
+
+	/**
+	 * Yields the lower bound of the constant part of this form.
+	 *
+	 * @return the lower bound, possibly {@link Double#NEGATIVE_INFINITY}
+	 */
+	double getLow() {
+		return low;
+	}
+
+	/**
+	 * Yields the upper bound of the constant part of this form.
+	 *
+	 * @return the upper bound, possibly {@link Double#POSITIVE_INFINITY}
+	 */
+	double getHigh() {
+		return high;
+	}
+
+	/**
+	 * Yields the sum of this form and the given one.
+	 *
+	 * @param other the other form
+	 *
+	 * @return the sum
+	 */
+	LinearForm add(LinearForm other) {
+		Map<Identifier, Long> result = new LinkedHashMap<>(coefficients);
+		for (Entry<Identifier, Long> entry : other.coefficients.entrySet()) {
+			long coefficient = result.getOrDefault(entry.getKey(), 0L) + entry.getValue();
+			if (coefficient == 0)
+				result.remove(entry.getKey());
+			else
+				result.put(entry.getKey(), coefficient);
+		}
+		return new LinearForm(result, low + other.low, high + other.high);
+	}
+
+	/**
+	 * Yields this form multiplied by the given factor.
+	 *
+	 * @param factor the factor
+	 *
+	 * @return the scaled form
+	 */
+	LinearForm scale(long factor) {
+		if (factor == 0)
+			return constant(0, 0);
+
+		Map<Identifier, Long> result = new LinkedHashMap<>();
+		for (Entry<Identifier, Long> entry : coefficients.entrySet())
+			result.put(entry.getKey(), entry.getValue() * factor);
+		double l = multiplyBounds(low, factor), h = multiplyBounds(high, factor);
+		return new LinearForm(result, Math.min(l, h), Math.max(l, h));
+	}
+
+	private LinearForm multiply(LinearForm other, Function<Identifier, double[]> bounds) {
+		if (other.isSingleton())
+			return scale((long) other.low);
+		if (isSingleton())
+			return other.scale((long) low);
+
+		double[] left = range(bounds), right = other.range(bounds);
+		double[] products = { multiplyBounds(left[0], right[0]), multiplyBounds(left[0], right[1]),
+				multiplyBounds(left[1], right[0]), multiplyBounds(left[1], right[1]) };
+		double min = products[0], max = products[0];
+		for (double product : products) {
+			min = Math.min(min, product);
+			max = Math.max(max, product);
+		}
+		return constant(min, max);
+	}
+
+	private boolean isSingleton() {
+		return coefficients.isEmpty() && low == high;
+	}
+
+	private static double multiplyBounds(double i, double j) {
+		// 0 * inf is 0 when multiplying bounds
+		return i == 0 || j == 0 ? 0 : i * j;
+	}
+
+	/**
+	 * Yields the interval of the values that this form can assume, given the
+	 * bounds of its variables.
+	 *
+	 * @param bounds the function yielding the lower and upper bounds of each
+	 *                   variable
+	 *
+	 * @return the lower and upper bounds of this form
+	 */
+	double[] range(Function<Identifier, double[]> bounds) {
+		double l = low, h = high;
+		for (Entry<Identifier, Long> entry : coefficients.entrySet()) {
+			double[] variable = bounds.apply(entry.getKey());
+			double first = multiplyBounds(variable[0], entry.getValue());
+			double second = multiplyBounds(variable[1], entry.getValue());
+			l += Math.min(first, second);
+			h += Math.max(first, second);
+		}
+		return new double[] { l, h };
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		for (Entry<Identifier, Long> entry : coefficients.entrySet())
+			result.append(entry.getValue()).append("*").append(entry.getKey()).append(" + ");
+		return result.append("[").append(low).append(", ").append(high).append("]").toString();
+	}
+}
@@ -0,0 +1,813 @@
+package it.unive.lisa.analysis.impl.numeric.octagon;
+
+import it.unive.lisa.analysis.BaseLattice;
+import it.unive.lisa.analysis.Lattice;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.UnaryOperator;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * The octagon abstract domain, tracking constraints of the form
+ * {@code +-x +-y <= c} between integer variables. Constraints are stored in
+ * {@link DifferenceBoundMatrix}es, each one over a pack of variables: two
+ * variables are in the same pack only if a relation between them has been
+ * introduced by an assignment or a condition, while variables in different
+ * packs are only related through their bounds. This way, the cost of closure
+ * operations, that is cubic in the number of variables, is paid on each pack
+ * instead of on all the variables of the state. Packs are merged when a
+ * relation between them is introduced, and variables are removed from their
+ * pack when they are forgotten or assigned a value that is not related to
+ * other variables.<br>
+ * <br>
+ * Matrices stored in an instance of this class are never modified: each
+ * operation copies the matrices it changes once, and then works in place on
+ * the copies. Matrices are kept closed, with the exception of the results of
+ * {@link #widening(Octagon)}, that are closed only when needed.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @see <a href="https://arxiv.org/abs/cs/0703084">A. Miné, The Octagon
+ *          Abstract Domain</a>
+ */
+public class Octagon extends BaseLattice<Octagon> implements ValueDomain<Octagon> {
+
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	private static final Octagon TOP = new Octagon(Collections.emptyMap(), false);
+
+	private static final Octagon BOTTOM = new Octagon(Collections.emptyMap(), true);
+
+	/**
+	 * The pack containing each tracked identifier
+	 */
+	private final Map<Identifier, Pack> packs;
+
+	private final boolean isBottom;
+
+	/**
+	 * Builds the top octagon.
+	 */
+	public Octagon() {
+		this(Collections.emptyMap(), false);
+	}
+
+	private Octagon(Map<Identifier, Pack> packs, boolean isBottom) {
+		this.packs = packs;
+		this.isBottom = isBottom;
+	}
+
+	@Override
+	public Octagon top() {
+		return TOP;
+	}
+
+	@Override
+	public Octagon bottom() {
+		return BOTTOM;
+	}
+
+	@Override
+	public boolean isTop() {
+		return !isBottom && packs.isEmpty();
+	}
+
+	@Override
+	public boolean isBottom() {
+		return isBottom;
+	}
+
+	/**
+	 * Yields the number of variables that are in the same pack of the given
+	 * identifier, including the identifier itself.
+	 *
+	 * @param id the identifier
+	 *
+	 * @return the size of the pack, or {@code 0} if {@code id} is not tracked
+	 */
+	public int getPackSize(Identifier id) {
+		Pack pack = packs.get(id);
+		return pack == null ? 0 : pack.variables.size();
+	}
+
+	/**
+	 * Yields the lower and upper bounds of the given identifier.
+	 *
+	 * @param id the identifier
+	 *
+	 * @return an array containing the lower bound, possibly
+	 *             {@link Double#NEGATIVE_INFINITY}, and the upper bound,
+	 *             possibly {@link Double#POSITIVE_INFINITY}
+	 */
+	public double[] getBounds(Identifier id) {
+		Pack pack = packs.get(id);
+		DifferenceBoundMatrix matrix = pack == null ? null : pack.closed();
+		if (matrix == null)
+			return new double[] { -INF, INF };
+		int v = pack.positions.get(id);
+		return new double[] { matrix.getLowerBound(v), matrix.getUpperBound(v) };
+	}
+
+	private boolean tracks(SymbolicExpression expression) {
+		return !expression.getDynamicType().isPointerType();
+	}
+
+	@Override
+	public Octagon assign(Identifier id, ValueExpression expression, ProgramPoint pp) throws SemanticException {
+		if (isBottom() || !tracks(id) || !tracks(expression))
+			return this;
+
+		Octagon result = assignStrong(id, LinearForm.of(expression, this::getBounds));
+		if (id.isWeak())
+			return lub(result);
+		return result;
+	}
+
+	private Octagon assignStrong(Identifier id, LinearForm form) {
+		Map<Identifier, Long> coefficients = form.getCoefficients();
+		if (coefficients.size() == 1) {
+			Entry<Identifier, Long> entry = coefficients.entrySet().iterator().next();
+			Identifier other = entry.getKey();
+			long coefficient = entry.getValue();
+
+			if (other.equals(id) && coefficient == 1) {
+				// x = x + c
+				Pack pack = packs.get(id);
+				if (pack == null)
+					return this;
+				DifferenceBoundMatrix matrix = pack.closedCopy();
+				if (matrix == null)
+					return bottom();
+				matrix.shift(pack.positions.get(id), form.getLow(), form.getHigh());
+				return replace(Collections.singleton(pack), new Pack(pack.variables, matrix));
+			}
+
+			if (!other.equals(id) && Math.abs(coefficient) == 1) {
+				// x = +-y + c
+				Octagon result = remove(id);
+				if (result.isBottom())
+					return result;
+				int sign = (int) coefficient;
+				return result.constrain(id, -sign, other, form.getHigh(), form.getLow());
+			}
+		}
+
+		double[] range = form.range(this::getBounds);
+		Octagon result = remove(id);
+		if (result.isBottom() || range[0] == -INF && range[1] == INF)
+			return result;
+
+		DifferenceBoundMatrix matrix = new DifferenceBoundMatrix(1);
+		matrix.meetUnary(0, 1, range[1]);
+		matrix.meetUnary(0, -1, -range[0]);
+		if (!matrix.close())
+			return bottom();
+		return result.replace(Collections.emptySet(), new Pack(Collections.singletonList(id), matrix));
+	}
+
+	/**
+	 * Adds the constraints {@code low <= x + sign * y <= high}, moving
+	 * {@code x} and {@code y} in the same pack.
+	 */
+	private Octagon constrain(Identifier x, int sign, Identifier y, double high, double low) {
+		Octagon result = this;
+		Pack xPack = result.packs.get(x), yPack = result.packs.get(y);
+		if (xPack == null) {
+			xPack = new Pack(Collections.singletonList(x), new DifferenceBoundMatrix(1));
+			result = result.replace(Collections.emptySet(), xPack);
+		}
+		if (yPack == null) {
+			yPack = new Pack(Collections.singletonList(y), new DifferenceBoundMatrix(1));
+			result = result.replace(Collections.emptySet(), yPack);
+		}
+
+		Pack target;
+		DifferenceBoundMatrix matrix;
+		if (xPack == yPack) {
+			target = xPack;
+			matrix = xPack.closedCopy();
+		} else {
+			List<Identifier> variables = new ArrayList<>(xPack.variables);
+			variables.addAll(yPack.variables);
+			target = new Pack(variables, null);
+			matrix = target.merge(xPack, yPack);
+		}
+		if (matrix == null)
+			return bottom();
+
+		int xPos = target.positions.get(x), yPos = target.positions.get(y);
+		if (high != INF)
+			matrix.meetBinary(xPos, 1, yPos, sign, high);
+		if (low != -INF)
+			matrix.meetBinary(xPos, -1, yPos, -sign, -low);
+		if (!matrix.closeIncrementally(xPos))
+			return bottom();
+
+		Set<Pack> replaced = new LinkedHashSet<>();
+		replaced.add(xPack);
+		replaced.add(yPack);
+		return result.replace(replaced, new Pack(target.variables, matrix));
+	}
+
+	/**
+	 * Adds the constraint {@code sign * x <= bound}.
+	 */
+	private Octagon constrain(Identifier x, int sign, double bound) {
+		if (bound == INF)
+			return this;
+
+		Pack pack = packs.get(x);
+		if (pack == null)
+			pack = new Pack(Collections.singletonList(x), new DifferenceBoundMatrix(1));
+		DifferenceBoundMatrix matrix = pack.closedCopy();
+		if (matrix == null)
+			return bottom();
+
+		int pos = pack.positions.get(x);
+		matrix.meetUnary(pos, sign, bound);
+		if (!matrix.closeIncrementally(pos))
+			return bottom();
+		return replace(packs.containsKey(x) ? Collections.singleton(pack) : Collections.emptySet(),
+				new Pack(pack.variables, matrix));
+	}
+
+	private Octagon remove(Identifier id) {
+		Pack pack = packs.get(id);
+		if (pack == null)
+			return this;
+		if (pack.variables.size() == 1)
+			return replace(Collections.singleton(pack));
+
+		DifferenceBoundMatrix matrix = pack.closed();
+		if (matrix == null)
+			return bottom();
+		List<Identifier> variables = new ArrayList<>(pack.variables);
+		variables.remove(id);
+		return replace(Collections.singleton(pack),
+				new Pack(variables, matrix.removeVariable(pack.positions.get(id))));
+	}
+
+	private Octagon replace(Collection<Pack> removed, Pack... added) {
+		Map<Identifier, Pack> result = new LinkedHashMap<>(packs);
+		for (Pack pack : removed)
+			for (Identifier id : pack.variables)
+				result.remove(id);
+		for (Pack pack : added)
+			for (Identifier id : pack.variables)
+				result.put(id, pack);
+		return result.isEmpty() ? top() : new Octagon(result, false);
+	}
+
+	@Override
+	public Octagon smallStepSemantics(ValueExpression expression, ProgramPoint pp) throws SemanticException {
+		return this;
+	}
+
+	@Override
+	public Octagon assume(ValueExpression expression, ProgramPoint pp) throws SemanticException {
+		if (isBottom())
+			return this;
+
+		if (expression instanceof UnaryExpression) {
+			UnaryExpression unary = (UnaryExpression) expression;
+			if (unary.getOperator() == UnaryOperator.LOGICAL_NOT) {
+				ValueExpression rewritten = unary.removeNegations();
+				// the rewritten expression is different only if negations
+				// have been removed
+				if (rewritten != unary)
+					return assume(rewritten, pp);
+			}
+			return this;
+		}
+
+		if (!(expression instanceof BinaryExpression))
+			return this;
+
+		BinaryExpression binary = (BinaryExpression) expression;
+		ValueExpression left = (ValueExpression) binary.getLeft();
+		ValueExpression right = (ValueExpression) binary.getRight();
+		switch (binary.getOperator()) {
+		case LOGICAL_AND:
+			return assume(left, pp).assume(right, pp);
+		case LOGICAL_OR:
+			return assume(left, pp).lub(assume(right, pp));
+		case COMPARISON_LE:
+			return constrain(difference(left, right), 0);
+		case COMPARISON_LT:
+			return constrain(difference(left, right), -1);
+		case COMPARISON_GE:
+			return constrain(difference(right, left), 0);
+		case COMPARISON_GT:
+			return constrain(difference(right, left), -1);
+		case COMPARISON_EQ:
+			return constrain(difference(left, right), 0).constrain(difference(right, left), 0);
+		default:
+			return this;
+		}
+	}
+
+	private LinearForm difference(ValueExpression left, ValueExpression right) {
+		return LinearForm.of(left, this::getBounds).add(LinearForm.of(right, this::getBounds).scale(-1));
+	}
+
+	/**
+	 * Adds the constraint {@code form <= bound}.
+	 */
+	private Octagon constrain(LinearForm form, double bound) {
+		if (isBottom())
+			return this;
+
+		// the variables must be lower than the bound for some value of the
+		// constant part
+		double limit = bound - form.getLow();
+		if (limit == INF)
+			return this;
+
+		Map<Identifier, Long> coefficients = form.getCoefficients();
+		if (coefficients.isEmpty())
+			return limit < 0 ? bottom() : this;
+
+		List<Entry<Identifier, Long>> terms = new ArrayList<>(coefficients.entrySet());
+		if (terms.size() == 1 && Math.abs(terms.get(0).getValue()) == 1)
+			return constrain(terms.get(0).getKey(), (int) (long) terms.get(0).getValue(), limit);
+
+		if (terms.size() == 2 && Math.abs(terms.get(0).getValue()) == 1 && Math.abs(terms.get(1).getValue()) == 1) {
+			// +-(x + sign * y) <= limit
+			long first = terms.get(0).getValue();
+			int sign = (int) (first * terms.get(1).getValue());
+			if (first > 0)
+				return constrain(terms.get(0).getKey(), sign, terms.get(1).getKey(), limit, -INF);
+			return constrain(terms.get(0).getKey(), sign, terms.get(1).getKey(), INF, -limit);
+		}
+
+		// non-octagonal constraint: each variable is bounded using the bounds
+		// of the other ones
+		Octagon result = this;
+		for (Entry<Identifier, Long> term : terms) {
+			double others = 0;
+			for (Entry<Identifier, Long> other : terms)
+				if (other != term) {
+					double[] bounds = getBounds(other.getKey());
+					long c = other.getValue();
+					others += c > 0 ? c * bounds[0] : c * bounds[1];
+				}
+			double residual = limit - others;
+			if (residual == INF || Double.isNaN(residual))
+				continue;
+			long c = term.getValue();
+			if (c > 0)
+				result = result.constrain(term.getKey(), 1, Math.floor(residual / c));
+			else
+				result = result.constrain(term.getKey(), -1, Math.floor(residual / -c));
+		}
+		return result;
+	}
+
+	@Override
+	public Satisfiability satisfies(ValueExpression expression, ProgramPoint pp) throws SemanticException {
+		if (isBottom())
+			return Satisfiability.BOTTOM;
+
+		if (expression instanceof UnaryExpression) {
+			UnaryExpression unary = (UnaryExpression) expression;
+			if (unary.getOperator() == UnaryOperator.LOGICAL_NOT)
+				return satisfies((ValueExpression) unary.getExpression(), pp).negate();
+			return Satisfiability.UNKNOWN;
+		}
+
+		if (!(expression instanceof BinaryExpression))
+			return Satisfiability.UNKNOWN;
+
+		BinaryExpression binary = (BinaryExpression) expression;
+		ValueExpression left = (ValueExpression) binary.getLeft();
+		ValueExpression right = (ValueExpression) binary.getRight();
+		BinaryOperator operator = binary.getOperator();
+		if (operator == BinaryOperator.LOGICAL_AND)
+			return satisfies(left, pp).and(satisfies(right, pp));
+		if (operator == BinaryOperator.LOGICAL_OR)
+			return satisfies(left, pp).or(satisfies(right, pp));
+
+		switch (operator) {
+		case COMPARISON_LE:
+		case COMPARISON_LT:
+		case COMPARISON_GE:
+		case COMPARISON_GT:
+		case COMPARISON_EQ:
+		case COMPARISON_NE:
+			break;
+		default:
+			return Satisfiability.UNKNOWN;
+		}
+
+		// the range of left - right
+		double[] range = range(difference(left, right));
+		double low = range[0], high = range[1];
+		switch (operator) {
+		case COMPARISON_LE:
+			return high <= 0 ? Satisfiability.SATISFIED
+					: low > 0 ? Satisfiability.NOT_SATISFIED : Satisfiability.UNKNOWN;
+		case COMPARISON_LT:
+			return high < 0 ? Satisfiability.SATISFIED
+					: low >= 0 ? Satisfiability.NOT_SATISFIED : Satisfiability.UNKNOWN;
+		case COMPARISON_GE:
+			return low >= 0 ? Satisfiability.SATISFIED
+					: high < 0 ? Satisfiability.NOT_SATISFIED : Satisfiability.UNKNOWN;
+		case COMPARISON_GT:
+			return low > 0 ? Satisfiability.SATISFIED
+					: high <= 0 ? Satisfiability.NOT_SATISFIED : Satisfiability.UNKNOWN;
+		case COMPARISON_EQ:
+			return low == 0 && high == 0 ? Satisfiability.SATISFIED
+					: low > 0 || high < 0 ? Satisfiability.NOT_SATISFIED : Satisfiability.UNKNOWN;
+		default:
+			return low == 0 && high == 0 ? Satisfiability.NOT_SATISFIED
+					: low > 0 || high < 0 ? Satisfiability.SATISFIED : Satisfiability.UNKNOWN;
+		}
+	}
+
+	/**
+	 * Yields the range of the given form, using the relational constraints
+	 * when it is octagonal.
+	 */
+	private double[] range(LinearForm form) {
+		double[] range = form.range(this::getBounds);
+		List<Entry<Identifier, Long>> terms = new ArrayList<>(form.getCoefficients().entrySet());
+		if (terms.size() != 2 || Math.abs(terms.get(0).getValue()) != 1 || Math.abs(terms.get(1).getValue()) != 1)
+			return range;
+
+		Identifier x = terms.get(0).getKey(), y = terms.get(1).getKey();
+		Pack pack = packs.get(x);
+		if (pack == null || pack != packs.get(y))
+			return range;
+		DifferenceBoundMatrix matrix = pack.closed();
+		if (matrix == null)
+			return range;
+
+		int xSign = (int) (long) terms.get(0).getValue(), ySign = (int) (long) terms.get(1).getValue();
+		int xPos = pack.positions.get(x), yPos = pack.positions.get(y);
+		double high = matrix.getUpperBound(xPos, xSign, yPos, ySign) + form.getHigh();
+		double low = -matrix.getUpperBound(xPos, -xSign, yPos, -ySign) + form.getLow();
+		return new double[] { Math.max(low, range[0]), Math.min(high, range[1]) };
+	}
+
+	@Override
+	public Octagon forgetIdentifier(Identifier id) throws SemanticException {
+		if (isBottom())
+			return this;
+		return remove(id);
+	}
+
+	@Override
+	public Octagon forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		if (isBottom())
+			return this;
+
+		Octagon result = this;
+		for (Identifier id : packs.keySet())
+			if (test.test(id))
+				result = result.remove(id);
+		return result;
+	}
+
+	@Override
+	protected Octagon lubAux(Octagon other) throws SemanticException {
+		return combine(other, true, (left, right) -> left.join(right));
+	}
+
+	@Override
+	protected Octagon wideningAux(Octagon other) throws SemanticException {
+		// the left-hand side must not be closed to guarantee termination
+		return combine(other, false, (left, right) -> left.widen(right));
+	}
+
+	@Override
+	protected boolean lessOrEqualAux(Octagon other) throws SemanticException {
+		for (List<Identifier> block : blocks(this, other)) {
+			DifferenceBoundMatrix left = align(this, block, true);
+			if (left == null)
+				return true;
+			if (!left.lessOrEqual(align(other, block, false)))
+				return false;
+		}
+		return true;
+	}
+
+	@FunctionalInterface
+	private interface MatrixOperation {
+		void apply(DifferenceBoundMatrix left, DifferenceBoundMatrix right);
+	}
+
+	private Octagon combine(Octagon other, boolean closeLeft, MatrixOperation operation) {
+		Map<Identifier, Pack> result = new LinkedHashMap<>();
+		for (List<Identifier> block : blocks(this, other)) {
+			DifferenceBoundMatrix left = align(this, block, closeLeft);
+			if (left == null)
+				return other;
+			DifferenceBoundMatrix right = align(other, block, true);
+			if (right == null)
+				return this;
+
+			left = left.copy();
+			operation.apply(left, right);
+
+			// variables that are not constrained anymore are not tracked
+			List<Identifier> variables = new ArrayList<>(block);
+			for (int v = block.size() - 1; v >= 0; v--)
+				if (left.isUnconstrained(v)) {
+					left = left.removeVariable(v);
+					variables.remove(v);
+				}
+
+			if (!variables.isEmpty()) {
+				Pack pack = new Pack(variables, left);
+				for (Identifier id : variables)
+					result.put(id, pack);
+			}
+		}
+		return result.isEmpty() ? top() : new Octagon(result, false);
+	}
+
+	/**
+	 * Yields the smallest partition of the variables of the given octagons
+	 * such that each pack of the octagons is contained in a block of the
+	 * partition.
+	 */
+	private static Collection<List<Identifier>> blocks(Octagon first, Octagon second) {
+		Map<Identifier, Identifier> parents = new HashMap<>();
+		for (Octagon octagon : new Octagon[] { first, second })
+			for (Identifier id : octagon.packs.keySet()) {
+				Identifier leader = octagon.packs.get(id).variables.get(0);
+				parents.putIfAbsent(id, id);
+				parents.putIfAbsent(leader, leader);
+				Identifier a = find(parents, id), b = find(parents, leader);
+				if (!a.equals(b))
+					parents.put(a, b);
+			}
+
+		Map<Identifier, List<Identifier>> blocks = new LinkedHashMap<>();
+		for (Octagon octagon : new Octagon[] { first, second })
+			for (Identifier id : octagon.packs.keySet()) {
+				List<Identifier> block = blocks.computeIfAbsent(find(parents, id), k -> new ArrayList<>());
+				if (!block.contains(id))
+					block.add(id);
+			}
+		return blocks.values();
+	}
+
+	private static Identifier find(Map<Identifier, Identifier> parents, Identifier id) {
+		Identifier current = id;
+		while (!parents.get(current).equals(current))
+			current = parents.get(current);
+		parents.put(id, current);
+		return current;
+	}
+
+	/**
+	 * Yields a matrix over the variables of the given block, containing the
+	 * constraints of the packs of {@code octagon}. The matrix might be shared
+	 * with {@code octagon}, and must not be modified. If {@code close} is
+	 * {@code true}, the matrix is closed, and {@code null} is returned if it
+	 * has no solutions.
+	 */
+	private static DifferenceBoundMatrix align(Octagon octagon, List<Identifier> block, boolean close) {
+		Map<Pack, Boolean> sources = new IdentityHashMap<>();
+		for (Identifier id : block) {
+			Pack pack = octagon.packs.get(id);
+			if (pack != null)
+				sources.put(pack, true);
+		}
+
+		if (sources.size() == 1) {
+			Pack pack = sources.keySet().iterator().next();
+			if (pack.variables.equals(block))
+				return close ? pack.closed() : pack.matrix;
+		}
+
+		DifferenceBoundMatrix result = new DifferenceBoundMatrix(block.size());
+		boolean closed = true;
+		for (Pack pack : sources.keySet()) {
+			DifferenceBoundMatrix matrix = close ? pack.closed() : pack.matrix;
+			if (matrix == null)
+				return null;
+			closed &= matrix.isClosed();
+			int[] positions = new int[pack.variables.size()];
+			for (int v = 0; v < positions.length; v++)
+				positions[v] = block.indexOf(pack.variables.get(v));
+			result.copyFrom(matrix, positions);
+		}
+
+		if (closed)
+			result.strengthenCopies();
+		return result;
+	}
+
+	@Override
+	public String representation() {
+		if (isTop())
+			return Lattice.TOP_STRING;
+		if (isBottom())
+			return Lattice.BOTTOM_STRING;
+
+		Set<String> constraints = new TreeSet<>();
+		for (Pack pack : new LinkedHashSet<>(packs.values())) {
+			DifferenceBoundMatrix matrix = pack.closed();
+			if (matrix == null)
+				return Lattice.BOTTOM_STRING;
+
+			int size = pack.variables.size();
+			for (int v = 0; v < size; v++) {
+				String name = pack.variables.get(v).getName();
+				double low = matrix.getLowerBound(v), high = matrix.getUpperBound(v);
+				if (low != -INF || high != INF)
+					constraints.add(name + " in [" + format(low) + ", " + format(high) + "]");
+
+				for (int w = v + 1; w < size; w++) {
+					String other = pack.variables.get(w).getName();
+					double otherLow = matrix.getLowerBound(w), otherHigh = matrix.getUpperBound(w);
+					// constraints implied by the bounds of the variables are
+					// not shown
+					binary(constraints, name + " - " + other, matrix.getUpperBound(v, 1, w, -1),
+							high - otherLow);
+					binary(constraints, other + " - " + name, matrix.getUpperBound(v, -1, w, 1),
+							otherHigh - low);
+					binary(constraints, name + " + " + other, matrix.getUpperBound(v, 1, w, 1), high + otherHigh);
+					binary(constraints, "-" + name + " - " + other, matrix.getUpperBound(v, -1, w, -1),
+							-low - otherLow);
+				}
+			}
+		}
+		return String.join("\n", constraints);
+	}
+
+	private static void binary(Set<String> constraints, String constraint, double bound, double implied) {
+		if (bound != INF && bound < implied)
+			constraints.add(constraint + " <= " + format(bound));
+	}
+
+	private static String format(double bound) {
+		if (bound == INF)
+			return "+Inf";
+		if (bound == -INF)
+			return "-Inf";
+		return String.valueOf((long) bound);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (isBottom ? 1231 : 1237);
+		result = prime * result + ((packs == null) ? 0 : packs.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Octagon other = (Octagon) obj;
+		if (isBottom != other.isBottom)
+			return false;
+		if (packs == null) {
+			if (other.packs != null)
+				return false;
+		} else if (!packs.equals(other.packs))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return representation();
+	}
+
+	/**
+	 * A set of variables whose relations are tracked by a single matrix.
+	 */
+	private static final class Pack {
+
+		private final List<Identifier> variables;
+
+		private final Map<Identifier, Integer> positions;
+
+		private final DifferenceBoundMatrix matrix;
+
+		/**
+		 * The closure of {@link #matrix}, computed lazily
+		 */
+		private DifferenceBoundMatrix closure;
+
+		/**
+		 * Whether or not {@link #closure} has been computed
+		 */
+		private boolean closureComputed;
+
+		private Pack(List<Identifier> variables, DifferenceBoundMatrix matrix) {
+			this.variables = variables;
+			this.matrix = matrix;
+			this.positions = new HashMap<>(variables.size());
+			for (int v = 0; v < variables.size(); v++)
+				positions.put(variables.get(v), v);
+		}
+
+		/**
+		 * Yields the closure of the matrix of this pack, that must not be
+		 * modified, or {@code null} if it has no solutions.
+		 */
+		private synchronized DifferenceBoundMatrix closed() {
+			if (matrix.isClosed())
+				return matrix;
+			if (!closureComputed) {
+				DifferenceBoundMatrix copy = matrix.copy();
+				closure = copy.close() ? copy : null;
+				closureComputed = true;
+			}
+			return closure;
+		}
+
+		/**
+		 * Yields a copy of the closure of the matrix of this pack, or
+		 * {@code null} if it has no solutions.
+		 */
+		private DifferenceBoundMatrix closedCopy() {
+			DifferenceBoundMatrix closed = closed();
+			return closed == null ? null : closed.copy();
+		}
+
+		/**
+		 * Yields the closed matrix over the variables of this pack containing
+		 * the constraints of both the given packs, whose variables must be the
+		 * ones of this pack, in the same order.
+		 */
+		private DifferenceBoundMatrix merge(Pack first, Pack second) {
+			DifferenceBoundMatrix left = first.closed(), right = second.closed();
+			if (left == null || right == null)
+				return null;
+
+			DifferenceBoundMatrix result = new DifferenceBoundMatrix(variables.size());
+			int[] positions = new int[left.getVariables()];
+			for (int v = 0; v < positions.length; v++)
+				positions[v] = v;
+			result.copyFrom(left, positions);
+			positions = new int[right.getVariables()];
+			for (int v = 0; v < positions.length; v++)
+				positions[v] = left.getVariables() + v;
+			result.copyFrom(right, positions);
+			result.strengthenCopies();
+			return result;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((matrix == null) ? 0 : matrix.hashCode());
+			result = prime * result + ((variables == null) ? 0 : variables.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			Pack other = (Pack) obj;
+			if (matrix == null) {
+				if (other.matrix != null)
+					return false;
+			} else if (!matrix.equals(other.matrix))
+				return false;
+			if (variables == null) {
+				if (other.variables != null)
+					return false;
+			} else if (!variables.equals(other.variables))
+				return false;
+			return true;
+		}
+	}
+}
@@ -6,6 +6,7 @@ import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.inference.BaseInferredValue;
 import it.unive.lisa.analysis.inference.InferenceSystem;
 import it.unive.lisa.analysis.inference.InferredValue;
+import it.unive.lisa.caches.AnalysisSession;
 import it.unive.lisa.caches.Caches;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.program.cfg.statement.Expression;
@@ -23,6 +24,7 @@ import it.unive.lisa.symbolic.value.UnaryOperator;
 import it.unive.lisa.type.NullType;
 import it.unive.lisa.type.NumericType;
 import it.unive.lisa.type.Type;
+import it.unive.lisa.type.TypeHierarchy;
 import it.unive.lisa.type.TypeTokenType;
 import it.unive.lisa.type.Untyped;
 import it.unive.lisa.util.collections.Utils;
@@ -38,9 +40,11 @@ import java.util.TreeSet;
  */
 public class InferredTypes extends BaseInferredValue<InferredTypes> {
 
-	private static final InferredTypes TOP = new InferredTypes(Caches.types().mkUniversalSet());
+	// top and bottom are built over the types cache, and must thus be unique
+	// within each analysis session instead of being global singletons
+	private static final Object TOP_KEY = new Object();
 
-	private static final InferredTypes BOTTOM = new InferredTypes(Caches.types().mkEmptySet());
+	private static final Object BOTTOM_KEY = new Object();
 
 	private final ExternalSet<Type> elements;
 
@@ -83,12 +87,14 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 
 	@Override
 	public InferredTypes top() {
-		return TOP;
+		AnalysisSession session = AnalysisSession.current();
+		return session.memoize(TOP_KEY, () -> new InferredTypes(session.types().mkUniversalSet()));
 	}
 
 	@Override
 	public InferredTypes bottom() {
-		return BOTTOM;
+		AnalysisSession session = AnalysisSession.current();
+		return session.memoize(BOTTOM_KEY, () -> new InferredTypes(session.types().mkEmptySet()));
 	}
 
 	@Override
@@ -343,11 +349,10 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 	 * @return the set of possible types after the cast
 	 */
 	ExternalSet<Type> cast(ExternalSet<Type> types, ExternalSet<Type> tokens) {
+		TypeHierarchy hierarchy = Caches.typeHierarchy();
 		ExternalSet<Type> result = Caches.types().mkEmptySet();
 		for (Type token : tokens.filter(Type::isTypeTokenType).multiTransform(t -> t.asTypeTokenType().getTypes()))
-			for (Type t : types)
-				if (t.canBeAssignedTo(token))
-					result.add(t);
+			result.addAll(hierarchy.assignableTo(types, token));
 
 		return result;
 	}
@@ -367,11 +372,11 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 	 * @return the set of possible types after the type conversion
 	 */
 	ExternalSet<Type> convert(ExternalSet<Type> types, ExternalSet<Type> tokens) {
+		TypeHierarchy hierarchy = Caches.typeHierarchy();
 		ExternalSet<Type> result = Caches.types().mkEmptySet();
 		for (Type token : tokens.filter(Type::isTypeTokenType).multiTransform(t -> t.asTypeTokenType().getTypes()))
-			for (Type t : types)
-				if (t.canBeAssignedTo(token))
-					result.add(token);
+			if (hierarchy.anyAssignableTo(types, token))
+				result.add(token);
 
 		return result;
 	}
@@ -415,6 +420,7 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 			// we cannot really compute the
 			return Caches.types().mkEmptySet();
 
+		TypeHierarchy hierarchy = Caches.typeHierarchy();
 		ExternalSet<Type> result = Caches.types().mkEmptySet();
 		for (Type t1 : left.filter(type -> type.isNumericType() || type.isUntyped()))
 			for (Type t2 : right.filter(type -> type.isNumericType() || type.isUntyped()))
@@ -425,7 +431,7 @@ public class InferredTypes extends BaseInferredValue<InferredTypes> {
 				else if (t2.isUntyped())
 					result.add(t1);
 				else
-					result.add(t1.commonSupertype(t2));
+					result.add(hierarchy.commonSupertype(t1, t2));
 
 		return result;
 	}
@@ -0,0 +1,197 @@
+package it.unive.lisa.analysis.liveness;
+
+import it.unive.lisa.caches.AnalysisSession;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.VariableTableEntry;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.util.datastructures.graph.GraphVisitor;
+import it.unive.lisa.util.workset.FIFOWorkingSet;
+import it.unive.lisa.util.workset.WorkingSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The results of a backward liveness analysis over the variables of a
+ * {@link CFG}. A variable is live before a statement if its current value
+ * might be read by the statement itself or by the ones that follow it,
+ * before being overwritten. The variables considered by this analysis are
+ * the ones referenced through {@link VariableRef}s and the ones in the
+ * variable table of the cfg.<br>
+ * <br>
+ * These results are used to forget variables as soon as they stop being live
+ * (see {@link #getDeadAfter(Statement, Statement)}), instead of waiting for
+ * the end of their scope.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class LiveVariables {
+
+	/**
+	 * The variables that are live before each statement
+	 */
+	private final Map<Statement, Set<Identifier>> liveBefore;
+
+	/**
+	 * The variables that are dead when traversing each edge, indexed by
+	 * source and destination. Edges with no dead variables are not stored.
+	 */
+	private final Map<Statement, Map<Statement, Collection<Identifier>>> dead;
+
+	private LiveVariables(Map<Statement, Set<Identifier>> liveBefore,
+			Map<Statement, Map<Statement, Collection<Identifier>>> dead) {
+		this.liveBefore = liveBefore;
+		this.dead = dead;
+	}
+
+	/**
+	 * Yields the live variables of the given cfg. The analysis is executed
+	 * once for each cfg within the current {@link AnalysisSession}.
+	 *
+	 * @param cfg the cfg
+	 *
+	 * @return the live variables of {@code cfg}
+	 */
+	public static LiveVariables of(CFG cfg) {
+		return AnalysisSession.current().memoize(LiveVariables.class, cfg, LiveVariables::compute);
+	}
+
+	/**
+	 * Computes the live variables of the given cfg, without caching the
+	 * result.
+	 *
+	 * @param cfg the cfg
+	 *
+	 * @return the live variables of {@code cfg}
+	 */
+	public static LiveVariables compute(CFG cfg) {
+		Set<Identifier> all = new HashSet<>();
+		for (VariableTableEntry entry : cfg.getDescriptor().getVariables())
+			all.add(entry.createReference(cfg).getVariable());
+
+		Map<Statement, Set<Identifier>> uses = new HashMap<>();
+		Map<Statement, Set<Identifier>> defs = new HashMap<>();
+		for (Statement node : cfg.getNodes()) {
+			Set<Identifier> used = new HashSet<>();
+			node.accept(new VariableCollector(), used);
+			all.addAll(used);
+
+			Set<Identifier> defined = new HashSet<>();
+			if (node instanceof Assignment && ((Assignment) node).getLeft() instanceof VariableRef) {
+				VariableRef target = (VariableRef) ((Assignment) node).getLeft();
+				defined.add(target.getVariable());
+				// the target is read only if it appears in the right-hand side
+				used.clear();
+				((Assignment) node).getRight().accept(new VariableCollector(), used);
+			}
+
+			uses.put(node, used);
+			defs.put(node, defined);
+		}
+
+		// backward propagation until the fixpoint is reached
+		Map<Statement, Set<Identifier>> liveBefore = new HashMap<>();
+		WorkingSet<Statement> ws = FIFOWorkingSet.mk();
+		for (Statement node : cfg.getNodes()) {
+			liveBefore.put(node, new HashSet<>(uses.get(node)));
+			ws.push(node);
+		}
+		while (!ws.isEmpty()) {
+			Statement node = ws.pop();
+			Set<Identifier> live = new HashSet<>(uses.get(node));
+			for (Statement follower : cfg.followersOf(node))
+				for (Identifier id : liveBefore.get(follower))
+					if (!defs.get(node).contains(id))
+						live.add(id);
+			if (!live.equals(liveBefore.get(node))) {
+				liveBefore.put(node, live);
+				for (Statement pred : cfg.predecessorsOf(node))
+					ws.push(pred);
+			}
+		}
+
+		// a state flowing out of a statement can only contain the variables
+		// that were live before it, or that it defined, while entrypoints
+		// might receive any variable
+		Map<Statement, Map<Statement, Collection<Identifier>>> dead = new HashMap<>();
+		Collection<Statement> entrypoints = cfg.getEntrypoints();
+		for (Edge edge : cfg.getEdges()) {
+			Statement source = edge.getSource();
+			Set<Identifier> available;
+			if (entrypoints.contains(source))
+				available = new HashSet<>(all);
+			else {
+				available = new HashSet<>(liveBefore.get(source));
+				available.addAll(defs.get(source));
+			}
+			available.removeAll(liveBefore.get(edge.getDestination()));
+			if (!available.isEmpty())
+				dead.computeIfAbsent(source, s -> new HashMap<>()).put(edge.getDestination(), available);
+		}
+
+		return new LiveVariables(liveBefore, dead);
+	}
+
+	/**
+	 * Yields the variables that are live before the given statement.
+	 *
+	 * @param node the statement
+	 *
+	 * @return the live variables
+	 */
+	public Set<Identifier> getLiveBefore(Statement node) {
+		return Collections.unmodifiableSet(liveBefore.getOrDefault(node, Collections.emptySet()));
+	}
+
+	/**
+	 * Yields the variables that might be contained in the state flowing out of
+	 * {@code source} and that are not live before {@code destination}, and
+	 * can thus be forgotten when traversing the edge connecting them.
+	 *
+	 * @param source      the source of the edge
+	 * @param destination the destination of the edge
+	 *
+	 * @return the dead variables
+	 */
+	public Collection<Identifier> getDeadAfter(Statement source, Statement destination) {
+		Map<Statement, Collection<Identifier>> edges = dead.get(source);
+		if (edges == null)
+			return Collections.emptySet();
+		return edges.getOrDefault(destination, Collections.emptySet());
+	}
+
+	@Override
+	public String toString() {
+		return liveBefore.toString();
+	}
+
+	/**
+	 * Collects the variables referenced by the visited statements.
+	 */
+	private static class VariableCollector implements GraphVisitor<CFG, Statement, Edge, Set<Identifier>> {
+
+		@Override
+		public boolean visit(Set<Identifier> tool, CFG graph) {
+			return true;
+		}
+
+		@Override
+		public boolean visit(Set<Identifier> tool, CFG graph, Statement node) {
+			if (node instanceof VariableRef)
+				tool.add(((VariableRef) node).getVariable());
+			return true;
+		}
+
+		@Override
+		public boolean visit(Set<Identifier> tool, CFG graph, Edge edge) {
+			return true;
+		}
+	}
+}
@@ -15,6 +15,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.function.Predicate;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -183,6 +184,17 @@ public abstract class Environment<M extends Environment<M, E, T>,
 		return result;
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public final M forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		if (isTop() || isBottom() || function == null || function.keySet().stream().noneMatch(test))
+			return (M) this;
+
+		M result = copy();
+		result.function.keySet().removeIf(test);
+		return result;
+	}
+
 	@Override
 	public final String toString() {
 		return representation();
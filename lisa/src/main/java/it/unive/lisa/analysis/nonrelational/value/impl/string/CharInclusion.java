@@ -0,0 +1,262 @@
+package it.unive.lisa.analysis.nonrelational.value.impl.string;
+
+import it.unive.lisa.analysis.BaseLattice;
+import it.unive.lisa.analysis.Lattice;
+import it.unive.lisa.analysis.SemanticDomain.Satisfiability;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.nonrelational.value.BaseNonRelationalValueDomain;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import java.util.BitSet;
+
+/**
+ * The character inclusion abstract domain, approximating string values with
+ * the set of characters that are certainly contained in all of them and the
+ * set of characters that might be contained in any of them. Both sets are
+ * stored as {@link BitSet}s indexed by character code. It is implemented as a
+ * {@link BaseNonRelationalValueDomain}, handling top and bottom values for the
+ * expression evaluation and bottom values for the expression satisfiability.
+ * Top and bottom cases for least upper bounds, widening and less or equals
+ * operations are handled by {@link BaseLattice} in {@link BaseLattice#lub},
+ * {@link BaseLattice#widening} and {@link BaseLattice#lessOrEqual} methods,
+ * respectively.<br>
+ * <br>
+ * This is one of the finite, cheap abstractions used by
+ * {@link TieredStringDomain}, but it can be used on its own inside a
+ * {@link it.unive.lisa.analysis.nonrelational.value.ValueEnvironment}.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class CharInclusion extends BaseNonRelationalValueDomain<CharInclusion> {
+
+	private static final CharInclusion TOP = new CharInclusion(new BitSet(), null, false);
+	private static final CharInclusion BOTTOM = new CharInclusion(null, null, true);
+
+	/**
+	 * The characters that are certainly contained in all strings
+	 */
+	private final BitSet certainly;
+
+	/**
+	 * The characters that might be contained in any string, {@code null}
+	 * meaning any character
+	 */
+	private final BitSet maybe;
+
+	private final boolean isBottom;
+
+	/**
+	 * Builds the top abstract value.
+	 */
+	public CharInclusion() {
+		this(new BitSet(), null, false);
+	}
+
+	private CharInclusion(BitSet certainly, BitSet maybe, boolean isBottom) {
+		this.certainly = certainly;
+		this.maybe = maybe;
+		this.isBottom = isBottom;
+	}
+
+	/**
+	 * Yields the abstract element representing exactly the characters of the
+	 * given string.
+	 *
+	 * @param string the string
+	 *
+	 * @return the abstract element
+	 */
+	public static CharInclusion of(String string) {
+		BitSet chars = new BitSet();
+		for (int i = 0; i < string.length(); i++)
+			chars.set(string.charAt(i));
+		return new CharInclusion(chars, (BitSet) chars.clone(), false);
+	}
+
+	/**
+	 * Yields {@code true} if and only if the given character is contained in
+	 * all the concrete strings represented by this element.
+	 *
+	 * @param c the character
+	 *
+	 * @return whether or not {@code c} is certainly contained
+	 */
+	public boolean certainlyContains(char c) {
+		return !isBottom && certainly.get(c);
+	}
+
+	/**
+	 * Yields {@code true} if and only if the given character might be
+	 * contained in some of the concrete strings represented by this element.
+	 *
+	 * @param c the character
+	 *
+	 * @return whether or not {@code c} is possibly contained
+	 */
+	public boolean maybeContains(char c) {
+		return !isBottom && (maybe == null || maybe.get(c));
+	}
+
+	@Override
+	public CharInclusion top() {
+		return TOP;
+	}
+
+	@Override
+	public boolean isTop() {
+		return !isBottom && maybe == null && certainly.isEmpty();
+	}
+
+	@Override
+	public CharInclusion bottom() {
+		return BOTTOM;
+	}
+
+	@Override
+	public boolean isBottom() {
+		return isBottom;
+	}
+
+	@Override
+	public String representation() {
+		if (isTop())
+			return Lattice.TOP_STRING;
+		else if (isBottom())
+			return Lattice.BOTTOM_STRING;
+
+		return "(" + toString(certainly) + ", " + (maybe == null ? Lattice.TOP_STRING : toString(maybe)) + ")";
+	}
+
+	private static String toString(BitSet chars) {
+		StringBuilder res = new StringBuilder("[");
+		for (int i = chars.nextSetBit(0); i >= 0; i = chars.nextSetBit(i + 1))
+			res.append((char) i);
+		return res.append("]").toString();
+	}
+
+	@Override
+	protected CharInclusion evalNonNullConstant(Constant constant, ProgramPoint pp) {
+		if (constant.getValue() instanceof String)
+			return of((String) constant.getValue());
+
+		return top();
+	}
+
+	@Override
+	protected CharInclusion evalBinaryExpression(BinaryOperator operator, CharInclusion left, CharInclusion right,
+			ProgramPoint pp) {
+		switch (operator) {
+		case STRING_CONCAT:
+			BitSet c = (BitSet) left.certainly.clone();
+			c.or(right.certainly);
+			BitSet m = null;
+			if (left.maybe != null && right.maybe != null) {
+				m = (BitSet) left.maybe.clone();
+				m.or(right.maybe);
+			}
+			return new CharInclusion(c, m, false);
+		default:
+			return top();
+		}
+	}
+
+	@Override
+	protected Satisfiability satisfiesBinaryExpression(BinaryOperator operator, CharInclusion left,
+			CharInclusion right, ProgramPoint pp) {
+		switch (operator) {
+		case STRING_CONTAINS:
+		case STRING_STARTS_WITH:
+		case STRING_ENDS_WITH:
+			// right surely has a character that left cannot have
+			return left.excludesSome(right.certainly) ? Satisfiability.NOT_SATISFIED : Satisfiability.UNKNOWN;
+		case STRING_EQUALS:
+			return left.excludesSome(right.certainly) || right.excludesSome(left.certainly)
+					? Satisfiability.NOT_SATISFIED
+					: Satisfiability.UNKNOWN;
+		default:
+			return Satisfiability.UNKNOWN;
+		}
+	}
+
+	private boolean excludesSome(BitSet chars) {
+		if (maybe == null)
+			return false;
+		BitSet missing = (BitSet) chars.clone();
+		missing.andNot(maybe);
+		return !missing.isEmpty();
+	}
+
+	@Override
+	protected CharInclusion lubAux(CharInclusion other) throws SemanticException {
+		BitSet c = (BitSet) certainly.clone();
+		c.and(other.certainly);
+		BitSet m = null;
+		if (maybe != null && other.maybe != null) {
+			m = (BitSet) maybe.clone();
+			m.or(other.maybe);
+		}
+		return new CharInclusion(c, m, false);
+	}
+
+	@Override
+	protected CharInclusion wideningAux(CharInclusion other) throws SemanticException {
+		BitSet c = (BitSet) certainly.clone();
+		c.and(other.certainly);
+		// the set of possible characters can grow for a long time: as soon as
+		// it grows, we give up on it
+		BitSet m = maybe;
+		if (m != null && (other.maybe == null || excludesSome(other.maybe)))
+			m = null;
+		return new CharInclusion(c, m, false);
+	}
+
+	@Override
+	protected boolean lessOrEqualAux(CharInclusion other) throws SemanticException {
+		BitSet c = (BitSet) other.certainly.clone();
+		c.andNot(certainly);
+		if (!c.isEmpty())
+			return false;
+
+		if (other.maybe == null)
+			return true;
+		if (maybe == null)
+			return false;
+
+		return !other.excludesSome(maybe);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((certainly == null) ? 0 : certainly.hashCode());
+		result = prime * result + (isBottom ? 1231 : 1237);
+		result = prime * result + ((maybe == null) ? 0 : maybe.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		CharInclusion other = (CharInclusion) obj;
+		if (certainly == null) {
+			if (other.certainly != null)
+				return false;
+		} else if (!certainly.equals(other.certainly))
+			return false;
+		if (isBottom != other.isBottom)
+			return false;
+		if (maybe == null) {
+			if (other.maybe != null)
+				return false;
+		} else if (!maybe.equals(other.maybe))
+			return false;
+		return true;
+	}
+}
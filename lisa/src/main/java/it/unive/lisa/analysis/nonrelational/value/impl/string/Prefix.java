@@ -0,0 +1,194 @@
+package it.unive.lisa.analysis.nonrelational.value.impl.string;
+
+import it.unive.lisa.analysis.BaseLattice;
+import it.unive.lisa.analysis.Lattice;
+import it.unive.lisa.analysis.SemanticDomain.Satisfiability;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.nonrelational.value.BaseNonRelationalValueDomain;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+
+/**
+ * The prefix abstract domain, approximating string values with the longest
+ * prefix that all of them share. It is implemented as a
+ * {@link BaseNonRelationalValueDomain}, handling top and bottom values for the
+ * expression evaluation and bottom values for the expression satisfiability.
+ * Top and bottom cases for least upper bounds, widening and less or equals
+ * operations are handled by {@link BaseLattice} in {@link BaseLattice#lub},
+ * {@link BaseLattice#widening} and {@link BaseLattice#lessOrEqual} methods,
+ * respectively.<br>
+ * <br>
+ * This is one of the finite, cheap abstractions used by
+ * {@link TieredStringDomain}, but it can be used on its own inside a
+ * {@link it.unive.lisa.analysis.nonrelational.value.ValueEnvironment}.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class Prefix extends BaseNonRelationalValueDomain<Prefix> {
+
+	private static final Prefix TOP = new Prefix("");
+	private static final Prefix BOTTOM = new Prefix(null);
+
+	/**
+	 * The prefix shared by all the concrete strings, {@code null} for bottom
+	 */
+	private final String prefix;
+
+	/**
+	 * Builds the top prefix, that is, the empty one.
+	 */
+	public Prefix() {
+		this("");
+	}
+
+	private Prefix(String prefix) {
+		this.prefix = prefix;
+	}
+
+	/**
+	 * Yields the prefix abstracting all the strings starting with
+	 * {@code prefix}.
+	 *
+	 * @param prefix the prefix
+	 *
+	 * @return the abstract element
+	 */
+	public static Prefix of(String prefix) {
+		return prefix.isEmpty() ? TOP : new Prefix(prefix);
+	}
+
+	/**
+	 * Yields the prefix that is shared by all the concrete strings represented
+	 * by this element. This is {@code null} if and only if this element is
+	 * bottom.
+	 *
+	 * @return the prefix
+	 */
+	public String getPrefix() {
+		return prefix;
+	}
+
+	@Override
+	public Prefix top() {
+		return TOP;
+	}
+
+	@Override
+	public boolean isTop() {
+		return prefix != null && prefix.isEmpty();
+	}
+
+	@Override
+	public Prefix bottom() {
+		return BOTTOM;
+	}
+
+	@Override
+	public boolean isBottom() {
+		return prefix == null;
+	}
+
+	@Override
+	public String representation() {
+		if (isTop())
+			return Lattice.TOP_STRING;
+		else if (isBottom())
+			return Lattice.BOTTOM_STRING;
+
+		return prefix + "*";
+	}
+
+	@Override
+	protected Prefix evalNonNullConstant(Constant constant, ProgramPoint pp) {
+		if (constant.getValue() instanceof String)
+			return of((String) constant.getValue());
+
+		return top();
+	}
+
+	@Override
+	protected Prefix evalBinaryExpression(BinaryOperator operator, Prefix left, Prefix right, ProgramPoint pp) {
+		switch (operator) {
+		case STRING_CONCAT:
+			// the concatenation starts with whatever the left operand starts
+			// with
+			return left;
+		default:
+			return top();
+		}
+	}
+
+	@Override
+	protected Satisfiability satisfiesBinaryExpression(BinaryOperator operator, Prefix left, Prefix right,
+			ProgramPoint pp) {
+		switch (operator) {
+		case STRING_STARTS_WITH:
+		case STRING_EQUALS:
+			// if the two prefixes diverge, no string represented by right can
+			// be a prefix of (or be equal to) a string represented by left
+			return diverge(left.prefix, right.prefix) ? Satisfiability.NOT_SATISFIED : Satisfiability.UNKNOWN;
+		default:
+			return Satisfiability.UNKNOWN;
+		}
+	}
+
+	/**
+	 * Yields {@code true} if and only if neither {@code first} is a prefix of
+	 * {@code second} nor vice versa.
+	 *
+	 * @param first  the first string
+	 * @param second the second string
+	 *
+	 * @return {@code true} if the two strings diverge
+	 */
+	static boolean diverge(String first, String second) {
+		int len = Math.min(first.length(), second.length());
+		return !first.regionMatches(0, second, 0, len);
+	}
+
+	@Override
+	protected Prefix lubAux(Prefix other) throws SemanticException {
+		int len = Math.min(prefix.length(), other.prefix.length());
+		int i = 0;
+		while (i < len && prefix.charAt(i) == other.prefix.charAt(i))
+			i++;
+		return of(prefix.substring(0, i));
+	}
+
+	@Override
+	protected Prefix wideningAux(Prefix other) throws SemanticException {
+		// lub always yields a strictly shorter prefix, hence chains are finite
+		return lubAux(other);
+	}
+
+	@Override
+	protected boolean lessOrEqualAux(Prefix other) throws SemanticException {
+		return prefix.startsWith(other.prefix);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((prefix == null) ? 0 : prefix.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Prefix other = (Prefix) obj;
+		if (prefix == null) {
+			if (other.prefix != null)
+				return false;
+		} else if (!prefix.equals(other.prefix))
+			return false;
+		return true;
+	}
+}
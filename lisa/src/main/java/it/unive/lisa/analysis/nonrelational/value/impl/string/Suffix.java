@@ -0,0 +1,194 @@
+package it.unive.lisa.analysis.nonrelational.value.impl.string;
+
+import it.unive.lisa.analysis.BaseLattice;
+import it.unive.lisa.analysis.Lattice;
+import it.unive.lisa.analysis.SemanticDomain.Satisfiability;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.nonrelational.value.BaseNonRelationalValueDomain;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+
+/**
+ * The suffix abstract domain, approximating string values with the longest
+ * suffix that all of them share. It is implemented as a
+ * {@link BaseNonRelationalValueDomain}, handling top and bottom values for the
+ * expression evaluation and bottom values for the expression satisfiability.
+ * Top and bottom cases for least upper bounds, widening and less or equals
+ * operations are handled by {@link BaseLattice} in {@link BaseLattice#lub},
+ * {@link BaseLattice#widening} and {@link BaseLattice#lessOrEqual} methods,
+ * respectively.<br>
+ * <br>
+ * This is one of the finite, cheap abstractions used by
+ * {@link TieredStringDomain}, but it can be used on its own inside a
+ * {@link it.unive.lisa.analysis.nonrelational.value.ValueEnvironment}.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class Suffix extends BaseNonRelationalValueDomain<Suffix> {
+
+	private static final Suffix TOP = new Suffix("");
+	private static final Suffix BOTTOM = new Suffix(null);
+
+	/**
+	 * The suffix shared by all the concrete strings, {@code null} for bottom
+	 */
+	private final String suffix;
+
+	/**
+	 * Builds the top suffix, that is, the empty one.
+	 */
+	public Suffix() {
+		this("");
+	}
+
+	private Suffix(String suffix) {
+		this.suffix = suffix;
+	}
+
+	/**
+	 * Yields the suffix abstracting all the strings ending with
+	 * {@code suffix}.
+	 *
+	 * @param suffix the suffix
+	 *
+	 * @return the abstract element
+	 */
+	public static Suffix of(String suffix) {
+		return suffix.isEmpty() ? TOP : new Suffix(suffix);
+	}
+
+	/**
+	 * Yields the suffix that is shared by all the concrete strings represented
+	 * by this element. This is {@code null} if and only if this element is
+	 * bottom.
+	 *
+	 * @return the suffix
+	 */
+	public String getSuffix() {
+		return suffix;
+	}
+
+	@Override
+	public Suffix top() {
+		return TOP;
+	}
+
+	@Override
+	public boolean isTop() {
+		return suffix != null && suffix.isEmpty();
+	}
+
+	@Override
+	public Suffix bottom() {
+		return BOTTOM;
+	}
+
+	@Override
+	public boolean isBottom() {
+		return suffix == null;
+	}
+
+	@Override
+	public String representation() {
+		if (isTop())
+			return Lattice.TOP_STRING;
+		else if (isBottom())
+			return Lattice.BOTTOM_STRING;
+
+		return "*" + suffix;
+	}
+
+	@Override
+	protected Suffix evalNonNullConstant(Constant constant, ProgramPoint pp) {
+		if (constant.getValue() instanceof String)
+			return of((String) constant.getValue());
+
+		return top();
+	}
+
+	@Override
+	protected Suffix evalBinaryExpression(BinaryOperator operator, Suffix left, Suffix right, ProgramPoint pp) {
+		switch (operator) {
+		case STRING_CONCAT:
+			// the concatenation ends with whatever the right operand ends with
+			return right;
+		default:
+			return top();
+		}
+	}
+
+	@Override
+	protected Satisfiability satisfiesBinaryExpression(BinaryOperator operator, Suffix left, Suffix right,
+			ProgramPoint pp) {
+		switch (operator) {
+		case STRING_ENDS_WITH:
+		case STRING_EQUALS:
+			// if the two suffixes diverge, no string represented by right can
+			// be a suffix of (or be equal to) a string represented by left
+			return diverge(left.suffix, right.suffix) ? Satisfiability.NOT_SATISFIED : Satisfiability.UNKNOWN;
+		default:
+			return Satisfiability.UNKNOWN;
+		}
+	}
+
+	/**
+	 * Yields {@code true} if and only if neither {@code first} is a suffix of
+	 * {@code second} nor vice versa.
+	 *
+	 * @param first  the first string
+	 * @param second the second string
+	 *
+	 * @return {@code true} if the two strings diverge
+	 */
+	static boolean diverge(String first, String second) {
+		int len = Math.min(first.length(), second.length());
+		return !first.regionMatches(first.length() - len, second, second.length() - len, len);
+	}
+
+	@Override
+	protected Suffix lubAux(Suffix other) throws SemanticException {
+		int mine = suffix.length() - 1, theirs = other.suffix.length() - 1;
+		int len = Math.min(suffix.length(), other.suffix.length());
+		int i = 0;
+		while (i < len && suffix.charAt(mine - i) == other.suffix.charAt(theirs - i))
+			i++;
+		return of(suffix.substring(suffix.length() - i));
+	}
+
+	@Override
+	protected Suffix wideningAux(Suffix other) throws SemanticException {
+		// lub always yields a strictly shorter suffix, hence chains are finite
+		return lubAux(other);
+	}
+
+	@Override
+	protected boolean lessOrEqualAux(Suffix other) throws SemanticException {
+		return suffix.endsWith(other.suffix);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((suffix == null) ? 0 : suffix.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Suffix other = (Suffix) obj;
+		if (suffix == null) {
+			if (other.suffix != null)
+				return false;
+		} else if (!suffix.equals(other.suffix))
+			return false;
+		return true;
+	}
+}
@@ -0,0 +1,415 @@
+package it.unive.lisa.analysis.nonrelational.value.impl.string;
+
+import it.unive.lisa.AnalysisExecutionException;
+import it.unive.lisa.analysis.Lattice;
+import it.unive.lisa.analysis.SemanticDomain.Satisfiability;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.nonrelational.value.BaseNonRelationalValueDomain;
+import it.unive.lisa.analysis.nonrelational.value.impl.stringgraphdomain.StringGraphDomain;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import java.util.function.BiPredicate;
+
+/**
+ * A string abstract domain organized in two tiers. The first tier is the
+ * product of cheap, finite abstractions (the exact string when it is known,
+ * {@link Prefix}, {@link Suffix} and {@link CharInclusion}), that is always
+ * computed. The second tier is a {@link StringGraphDomain}, that is computed
+ * lazily: the string graph of a value is built only when it is needed, that
+ * is, when the first tier cannot decide the satisfiability of an expression
+ * (returning {@link Satisfiability#UNKNOWN}) or when the first tier is not
+ * enough to compare two values during the fixpoint computation (see
+ * {@link #lessOrEqualAux(TieredStringDomain)}). Values flowing through
+ * acyclic code and checked only through prefixes, suffixes or contained
+ * characters thus never pay the cost of the string graph.<br>
+ * <br>
+ * Whether or not an element is top, and whether or not two elements are
+ * equal, never depends on string graphs that have not been computed yet.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class TieredStringDomain extends BaseNonRelationalValueDomain<TieredStringDomain> {
+
+	/**
+	 * The singleton used to retrieve string graph values and to evaluate
+	 * operations on them
+	 */
+	private static final GraphSemantics GRAPHS = new GraphSemantics();
+
+	/**
+	 * The top string graph, shared by all elements whose string graph is
+	 * known to be top without computing it
+	 */
+	private static final LazyGraph TOP_GRAPH = new LazyGraph(GRAPHS.top());
+
+	private static final TieredStringDomain TOP = new TieredStringDomain(null, new Prefix(), new Suffix(),
+			new CharInclusion(), TOP_GRAPH);
+	private static final TieredStringDomain BOTTOM = new TieredStringDomain(null, new Prefix().bottom(),
+			new Suffix().bottom(), new CharInclusion().bottom(), new LazyGraph(GRAPHS.bottom()));
+
+	/**
+	 * The exact string represented by this element, if known, {@code null}
+	 * otherwise
+	 */
+	private final String constant;
+
+	private final Prefix prefix;
+
+	private final Suffix suffix;
+
+	private final CharInclusion chars;
+
+	private final LazyGraph graph;
+
+	/**
+	 * Builds the top abstract value.
+	 */
+	public TieredStringDomain() {
+		this(null, new Prefix(), new Suffix(), new CharInclusion(), TOP_GRAPH);
+	}
+
+	private TieredStringDomain(String constant, Prefix prefix, Suffix suffix, CharInclusion chars,
+			LazyGraph graph) {
+		this.constant = constant;
+		this.prefix = prefix;
+		this.suffix = suffix;
+		this.chars = chars;
+		this.graph = graph;
+	}
+
+	/**
+	 * Yields the {@link StringGraphDomain} instance abstracting the same
+	 * strings as this element, computing it if it has not been computed yet.
+	 *
+	 * @return the string graph
+	 *
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	public StringGraphDomain getStringGraph() throws SemanticException {
+		return graph.get();
+	}
+
+	/**
+	 * Yields whether or not the {@link StringGraphDomain} instance of this
+	 * element has already been computed, that is, if it has been needed at
+	 * least once.
+	 *
+	 * @return {@code true} if the string graph has been computed
+	 */
+	public boolean isStringGraphComputed() {
+		return graph.isComputed();
+	}
+
+	@Override
+	public TieredStringDomain top() {
+		return TOP;
+	}
+
+	@Override
+	public boolean isTop() {
+		// elements whose string graph is derived from other ones are not
+		// considered top, even if the graph turns out to be top once computed
+		return constant == null && prefix.isTop() && suffix.isTop() && chars.isTop() && graph == TOP_GRAPH;
+	}
+
+	@Override
+	public TieredStringDomain bottom() {
+		return BOTTOM;
+	}
+
+	@Override
+	public boolean isBottom() {
+		return prefix.isBottom();
+	}
+
+	@Override
+	public String representation() {
+		if (isTop())
+			return Lattice.TOP_STRING;
+		else if (isBottom())
+			return Lattice.BOTTOM_STRING;
+
+		if (constant != null)
+			return "\"" + constant + "\"";
+
+		String res = "(" + prefix.representation() + ", " + suffix.representation() + ", "
+				+ chars.representation() + ")";
+		if (graph.isComputed())
+			res += " " + graph.value.representation();
+		return res;
+	}
+
+	@Override
+	protected TieredStringDomain evalNonNullConstant(Constant constant, ProgramPoint pp) {
+		if (!(constant.getValue() instanceof String))
+			return top();
+
+		String value = (String) constant.getValue();
+		return new TieredStringDomain(value, Prefix.of(value), Suffix.of(value), CharInclusion.of(value),
+				new LazyGraph(() -> GRAPHS.constant(constant, pp)));
+	}
+
+	@Override
+	protected TieredStringDomain evalBinaryExpression(BinaryOperator operator, TieredStringDomain left,
+			TieredStringDomain right, ProgramPoint pp) {
+		if (operator != BinaryOperator.STRING_CONCAT)
+			return top();
+
+		String c = left.constant != null && right.constant != null ? left.constant + right.constant : null;
+		Prefix p = left.constant != null ? Prefix.of(left.constant + right.prefix.getPrefix()) : left.prefix;
+		Suffix s = right.constant != null ? Suffix.of(left.suffix.getSuffix() + right.constant) : right.suffix;
+		CharInclusion ch = left.chars.evalBinaryExpression(operator, left.chars, right.chars, pp);
+		LazyGraph l = left.graph, r = right.graph;
+		return new TieredStringDomain(c, p, s, ch,
+				new LazyGraph(() -> GRAPHS.concat(l.get(), r.get(), pp)));
+	}
+
+	@Override
+	protected Satisfiability satisfiesBinaryExpression(BinaryOperator operator, TieredStringDomain left,
+			TieredStringDomain right, ProgramPoint pp) {
+		Satisfiability cheap = satisfiesFirstTier(operator, left, right, pp);
+		if (cheap != Satisfiability.UNKNOWN)
+			return cheap;
+
+		switch (operator) {
+		case STRING_CONTAINS:
+			// this is the only operation where string graphs can be more
+			// precise
+			try {
+				return GRAPHS.contains(left.graph.get(), right.graph.get(), pp);
+			} catch (SemanticException e) {
+				throw new AnalysisExecutionException("Unable to compute the string graphs of " + left + " and "
+						+ right, e);
+			}
+		default:
+			return Satisfiability.UNKNOWN;
+		}
+	}
+
+	private static Satisfiability satisfiesFirstTier(BinaryOperator operator, TieredStringDomain left,
+			TieredStringDomain right, ProgramPoint pp) {
+		Satisfiability sat;
+		switch (operator) {
+		case STRING_CONTAINS:
+			sat = known(left, right, String::contains);
+			if (sat != Satisfiability.UNKNOWN)
+				return sat;
+			if (right.constant != null && (right.constant.isEmpty()
+					|| left.prefix.getPrefix().contains(right.constant)
+					|| left.suffix.getSuffix().contains(right.constant)
+					|| (right.constant.length() == 1 && left.chars.certainlyContains(right.constant.charAt(0)))))
+				return Satisfiability.SATISFIED;
+			return left.chars.satisfiesBinaryExpression(operator, left.chars, right.chars, pp);
+		case STRING_STARTS_WITH:
+			sat = known(left, right, String::startsWith);
+			if (sat != Satisfiability.UNKNOWN)
+				return sat;
+			if (right.constant != null && left.prefix.getPrefix().startsWith(right.constant))
+				return Satisfiability.SATISFIED;
+			return left.prefix.satisfiesBinaryExpression(operator, left.prefix, right.prefix, pp)
+					.glb(left.chars.satisfiesBinaryExpression(operator, left.chars, right.chars, pp));
+		case STRING_ENDS_WITH:
+			sat = known(left, right, String::endsWith);
+			if (sat != Satisfiability.UNKNOWN)
+				return sat;
+			if (right.constant != null && left.suffix.getSuffix().endsWith(right.constant))
+				return Satisfiability.SATISFIED;
+			return left.suffix.satisfiesBinaryExpression(operator, left.suffix, right.suffix, pp)
+					.glb(left.chars.satisfiesBinaryExpression(operator, left.chars, right.chars, pp));
+		case STRING_EQUALS:
+			sat = known(left, right, String::equals);
+			if (sat != Satisfiability.UNKNOWN)
+				return sat;
+			return left.prefix.satisfiesBinaryExpression(operator, left.prefix, right.prefix, pp)
+					.glb(left.suffix.satisfiesBinaryExpression(operator, left.suffix, right.suffix, pp))
+					.glb(left.chars.satisfiesBinaryExpression(operator, left.chars, right.chars, pp));
+		default:
+			return Satisfiability.UNKNOWN;
+		}
+	}
+
+	private static Satisfiability known(TieredStringDomain left, TieredStringDomain right,
+			BiPredicate<String, String> test) {
+		if (left.constant == null || right.constant == null)
+			return Satisfiability.UNKNOWN;
+		return Satisfiability.fromBoolean(test.test(left.constant, right.constant));
+	}
+
+	@Override
+	protected TieredStringDomain lubAux(TieredStringDomain other) throws SemanticException {
+		String c = constant != null && constant.equals(other.constant) ? constant : null;
+		LazyGraph l = graph, r = other.graph;
+		LazyGraph g = l == TOP_GRAPH || r == TOP_GRAPH ? TOP_GRAPH : new LazyGraph(() -> l.get().lub(r.get()));
+		return new TieredStringDomain(c, prefix.lub(other.prefix), suffix.lub(other.suffix),
+				chars.lub(other.chars), g);
+	}
+
+	@Override
+	protected TieredStringDomain wideningAux(TieredStringDomain other) throws SemanticException {
+		String c = constant != null && constant.equals(other.constant) ? constant : null;
+		LazyGraph l = graph, r = other.graph;
+		LazyGraph g = l == TOP_GRAPH || r == TOP_GRAPH ? TOP_GRAPH
+				: new LazyGraph(() -> l.get().widening(r.get()));
+		return new TieredStringDomain(c, prefix.widening(other.prefix), suffix.widening(other.suffix),
+				chars.widening(other.chars), g);
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * An element abstracts the strings that are abstracted by all of its
+	 * components, and it is thus smaller or equal than another one if each of
+	 * its components is. The first tier decides without computing the string
+	 * graphs when:
+	 * <ul>
+	 * <li>one of its components is not smaller or equal than the one of the
+	 * other element, since then neither is this element;</li>
+	 * <li>the string graph of the other element is top, or the one of this
+	 * element is the same, since the string graph of this element is then
+	 * smaller or equal;</li>
+	 * <li>both elements represent the same constant string, since then both
+	 * abstract exactly that string, regardless of their string graphs.</li>
+	 * </ul>
+	 * In all other cases the string graphs are compared, computing them if
+	 * needed: answering from the first tier alone could stop a fixpoint
+	 * computation before the string graphs stabilized, leaving them unsound.
+	 */
+	@Override
+	protected boolean lessOrEqualAux(TieredStringDomain other) throws SemanticException {
+		if (other.constant != null && !other.constant.equals(constant))
+			return false;
+
+		if (!prefix.lessOrEqual(other.prefix) || !suffix.lessOrEqual(other.suffix)
+				|| !chars.lessOrEqual(other.chars))
+			return false;
+
+		if (graph == other.graph || other.graph == TOP_GRAPH || other.constant != null)
+			return true;
+
+		// the first tier is not enough to decide
+		return graph.get().lessOrEqual(other.graph.get());
+	}
+
+	@Override
+	public int hashCode() {
+		// the string graph is deliberately left out: it would force its
+		// computation, and equal values have equal first tiers anyway
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((chars == null) ? 0 : chars.hashCode());
+		result = prime * result + ((constant == null) ? 0 : constant.hashCode());
+		result = prime * result + ((prefix == null) ? 0 : prefix.hashCode());
+		result = prime * result + ((suffix == null) ? 0 : suffix.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		TieredStringDomain other = (TieredStringDomain) obj;
+		if (chars == null) {
+			if (other.chars != null)
+				return false;
+		} else if (!chars.equals(other.chars))
+			return false;
+		if (constant == null) {
+			if (other.constant != null)
+				return false;
+		} else if (!constant.equals(other.constant))
+			return false;
+		if (prefix == null) {
+			if (other.prefix != null)
+				return false;
+		} else if (!prefix.equals(other.prefix))
+			return false;
+		if (suffix == null) {
+			if (other.suffix != null)
+				return false;
+		} else if (!suffix.equals(other.suffix))
+			return false;
+		// string graphs are not computed to compare elements: the ones that
+		// have not been computed yet are equal only if they are shared
+		if (graph == other.graph)
+			return true;
+		return graph.isComputed() && other.graph.isComputed() && graph.value.equals(other.graph.value);
+	}
+
+	/**
+	 * The {@link StringGraphDomain} used to evaluate operations on string
+	 * graphs, that gives access to the semantics of the domain.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class GraphSemantics extends StringGraphDomain {
+
+		private StringGraphDomain constant(Constant constant, ProgramPoint pp) {
+			return evalNonNullConstant(constant, pp);
+		}
+
+		private StringGraphDomain concat(StringGraphDomain left, StringGraphDomain right, ProgramPoint pp) {
+			return evalBinaryExpression(BinaryOperator.STRING_CONCAT, left, right, pp);
+		}
+
+		private Satisfiability contains(StringGraphDomain left, StringGraphDomain right, ProgramPoint pp) {
+			return satisfiesBinaryExpression(BinaryOperator.STRING_CONTAINS, left, right, pp);
+		}
+	}
+
+	/**
+	 * A computation producing a {@link StringGraphDomain} instance.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	@FunctionalInterface
+	private interface GraphComputation {
+
+		/**
+		 * Computes the string graph.
+		 *
+		 * @return the string graph
+		 *
+		 * @throws SemanticException if an error occurs during the computation
+		 */
+		StringGraphDomain compute() throws SemanticException;
+	}
+
+	/**
+	 * A memoizing holder of a {@link StringGraphDomain} instance, that computes
+	 * it the first time it is requested.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class LazyGraph {
+
+		private GraphComputation computation;
+
+		private StringGraphDomain value;
+
+		private LazyGraph(StringGraphDomain value) {
+			this.value = value;
+		}
+
+		private LazyGraph(GraphComputation computation) {
+			this.computation = computation;
+		}
+
+		private synchronized boolean isComputed() {
+			return value != null;
+		}
+
+		private synchronized StringGraphDomain get() throws SemanticException {
+			if (value == null) {
+				value = computation.compute();
+				// let the operands be garbage collected
+				computation = null;
+			}
+			return value;
+		}
+	}
+}
@@ -0,0 +1,396 @@
+package it.unive.lisa.analysis.packing;
+
+import it.unive.lisa.analysis.BaseLattice;
+import it.unive.lisa.analysis.Lattice;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * A {@link ValueDomain} that runs a relational value domain separately on
+ * each pack of identifiers of a {@link VariablePacking}, so that relations
+ * are tracked only between identifiers of the same pack, and the cost of the
+ * operations of the domain depends on the size of the packs instead of on the
+ * number of tracked identifiers. Packs are the ones of the cfg containing the
+ * {@link ProgramPoint} where identifiers are first assigned or assumed: each
+ * identifier is then tracked by the state of its pack until it is forgotten
+ * or reassigned in a cfg where it belongs to another pack.<br>
+ * <br>
+ * Whenever an operation on a pack involves identifiers of other packs, the
+ * state of the pack is updated with no knowledge about them, and they are
+ * forgotten from it right after.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <D> the type of the domain running on each pack
+ */
+public class PackedValueDomain<D extends ValueDomain<D>> extends BaseLattice<PackedValueDomain<D>>
+		implements ValueDomain<PackedValueDomain<D>> {
+
+	/**
+	 * The top element of the domain running on each pack
+	 */
+	private final D domain;
+
+	/**
+	 * The state of each pack, identified by its representative. Packs not in
+	 * this map are top.
+	 */
+	private final Map<Identifier, D> states;
+
+	/**
+	 * The representative of the pack tracking each identifier
+	 */
+	private final Map<Identifier, Identifier> locations;
+
+	private final boolean isBottom;
+
+	/**
+	 * Builds the top packed domain.
+	 *
+	 * @param domain an instance of the domain to run on each pack
+	 */
+	public PackedValueDomain(D domain) {
+		this(domain.top(), Collections.emptyMap(), Collections.emptyMap(), false);
+	}
+
+	private PackedValueDomain(D domain, Map<Identifier, D> states, Map<Identifier, Identifier> locations,
+			boolean isBottom) {
+		this.domain = domain;
+		this.states = states;
+		this.locations = locations;
+		this.isBottom = isBottom;
+	}
+
+	/**
+	 * Yields the states of the packs that are not top, each one identified by
+	 * the representative of its pack.
+	 *
+	 * @return the states of the packs
+	 */
+	public Map<Identifier, D> getStates() {
+		return Collections.unmodifiableMap(states);
+	}
+
+	@Override
+	public PackedValueDomain<D> top() {
+		return new PackedValueDomain<>(domain, Collections.emptyMap(), Collections.emptyMap(), false);
+	}
+
+	@Override
+	public PackedValueDomain<D> bottom() {
+		return new PackedValueDomain<>(domain, Collections.emptyMap(), Collections.emptyMap(), true);
+	}
+
+	@Override
+	public boolean isTop() {
+		return !isBottom && states.isEmpty();
+	}
+
+	@Override
+	public boolean isBottom() {
+		return isBottom;
+	}
+
+	private static Identifier home(Identifier id, ProgramPoint pp) {
+		if (pp == null || pp.getCFG() == null)
+			return id;
+		return VariablePacking.of(pp.getCFG()).getLeader(id);
+	}
+
+	@FunctionalInterface
+	private interface PackOperation<D> {
+		D apply(D state) throws SemanticException;
+	}
+
+	/**
+	 * The mutable copy of a {@link PackedValueDomain} used while applying an
+	 * operation.
+	 */
+	private class Update {
+
+		private final Map<Identifier, D> states = new HashMap<>(PackedValueDomain.this.states);
+
+		private final Map<Identifier, Identifier> locations = new HashMap<>(PackedValueDomain.this.locations);
+
+		private boolean bottom;
+
+		private Identifier locate(Identifier id, ProgramPoint pp) {
+			Identifier location = locations.get(id);
+			return location == null ? home(id, pp) : location;
+		}
+
+		private void forget(Identifier id) throws SemanticException {
+			Identifier location = locations.remove(id);
+			D state = location == null ? null : states.get(location);
+			if (state != null)
+				store(location, state.forgetIdentifier(id));
+		}
+
+		private void apply(Identifier leader, ValueExpression expression, ProgramPoint pp,
+				PackOperation<D> operation) throws SemanticException {
+			D result = operation.apply(states.getOrDefault(leader, domain));
+
+			// identifiers of other packs must not be tracked by this one
+			List<Identifier> foreign = new ArrayList<>();
+			for (Identifier id : VariablePacking.identifiers(expression)) {
+				Identifier location = locations.get(id);
+				if (location == null && home(id, pp).equals(leader))
+					locations.put(id, leader);
+				else if (location == null || !location.equals(leader))
+					foreign.add(id);
+			}
+			if (!foreign.isEmpty())
+				result = result.forgetIdentifiers(foreign);
+
+			store(leader, result);
+		}
+
+		private void store(Identifier leader, D state) {
+			if (state.isBottom())
+				bottom = true;
+			else if (state.isTop())
+				states.remove(leader);
+			else
+				states.put(leader, state);
+		}
+
+		private PackedValueDomain<D> build() {
+			if (bottom)
+				return bottom();
+			if (states.isEmpty())
+				return top();
+			// identifiers tracked by packs that became top are not tracked
+			// anymore
+			locations.values().removeIf(leader -> !states.containsKey(leader));
+			return new PackedValueDomain<>(domain, states, locations, false);
+		}
+	}
+
+	private Set<Identifier> leaders(ValueExpression expression, ProgramPoint pp) {
+		Set<Identifier> result = new LinkedHashSet<>();
+		for (Identifier id : VariablePacking.identifiers(expression)) {
+			Identifier location = locations.get(id);
+			result.add(location == null ? home(id, pp) : location);
+		}
+		return result;
+	}
+
+	@Override
+	public PackedValueDomain<D> assign(Identifier id, ValueExpression expression, ProgramPoint pp)
+			throws SemanticException {
+		if (isBottom())
+			return this;
+
+		Update update = new Update();
+		Identifier leader = home(id, pp);
+		Identifier location = update.locate(id, pp);
+		if (!location.equals(leader))
+			update.forget(id);
+		update.apply(leader, expression, pp, state -> state.assign(id, expression, pp));
+		update.locations.put(id, leader);
+		return update.build();
+	}
+
+	@Override
+	public PackedValueDomain<D> smallStepSemantics(ValueExpression expression, ProgramPoint pp)
+			throws SemanticException {
+		if (isBottom())
+			return this;
+
+		Set<Identifier> leaders = leaders(expression, pp);
+		if (leaders.isEmpty())
+			return this;
+
+		Update update = new Update();
+		for (Identifier leader : leaders)
+			update.apply(leader, expression, pp, state -> state.smallStepSemantics(expression, pp));
+		return update.build();
+	}
+
+	@Override
+	public PackedValueDomain<D> assume(ValueExpression expression, ProgramPoint pp) throws SemanticException {
+		if (isBottom())
+			return this;
+
+		Set<Identifier> leaders = leaders(expression, pp);
+		if (leaders.isEmpty())
+			return domain.assume(expression, pp).isBottom() ? bottom() : this;
+
+		Update update = new Update();
+		for (Identifier leader : leaders)
+			update.apply(leader, expression, pp, state -> state.assume(expression, pp));
+		return update.build();
+	}
+
+	@Override
+	public Satisfiability satisfies(ValueExpression expression, ProgramPoint pp) throws SemanticException {
+		if (isBottom())
+			return Satisfiability.BOTTOM;
+
+		Set<Identifier> leaders = leaders(expression, pp);
+		if (leaders.isEmpty())
+			return domain.satisfies(expression, pp);
+
+		// each pack yields a sound answer
+		Satisfiability result = Satisfiability.UNKNOWN;
+		for (Identifier leader : leaders)
+			result = result.glb(states.getOrDefault(leader, domain).satisfies(expression, pp));
+		return result;
+	}
+
+	@Override
+	public PackedValueDomain<D> forgetIdentifier(Identifier id) throws SemanticException {
+		if (isBottom() || !locations.containsKey(id))
+			return this;
+
+		Update update = new Update();
+		update.forget(id);
+		return update.build();
+	}
+
+	@Override
+	public PackedValueDomain<D> forgetIdentifiersIf(Predicate<Identifier> test) throws SemanticException {
+		if (isBottom())
+			return this;
+
+		Update update = new Update();
+		for (Entry<Identifier, D> entry : states.entrySet())
+			update.store(entry.getKey(), entry.getValue().forgetIdentifiersIf(test));
+		update.locations.keySet().removeIf(test);
+		return update.build();
+	}
+
+	/**
+	 * Yields the identifiers that are tracked by different packs in this
+	 * domain and in the given one.
+	 */
+	private Collection<Identifier> moved(PackedValueDomain<D> other) {
+		Set<Identifier> result = new HashSet<>();
+		for (Entry<Identifier, Identifier> entry : locations.entrySet()) {
+			Identifier location = other.locations.get(entry.getKey());
+			if (location != null && !location.equals(entry.getValue()))
+				result.add(entry.getKey());
+		}
+		return result;
+	}
+
+	@Override
+	protected PackedValueDomain<D> lubAux(PackedValueDomain<D> other) throws SemanticException {
+		return combine(other, (left, right) -> left.lub(right));
+	}
+
+	@Override
+	protected PackedValueDomain<D> wideningAux(PackedValueDomain<D> other) throws SemanticException {
+		return combine(other, (left, right) -> left.widening(right));
+	}
+
+	@FunctionalInterface
+	private interface PackCombination<D> {
+		D apply(D left, D right) throws SemanticException;
+	}
+
+	private PackedValueDomain<D> combine(PackedValueDomain<D> other, PackCombination<D> combination)
+			throws SemanticException {
+		// identifiers tracked by different packs are forgotten, so that
+		// packs can be combined one by one
+		Collection<Identifier> moved = moved(other);
+		PackedValueDomain<D> left = moved.isEmpty() ? this : forgetIdentifiers(moved);
+		PackedValueDomain<D> right = moved.isEmpty() ? other : other.forgetIdentifiers(moved);
+
+		Update update = left.new Update();
+		update.states.clear();
+		update.locations.putAll(right.locations);
+		// packs that are top on one side are top in the result
+		for (Entry<Identifier, D> entry : left.states.entrySet()) {
+			D state = right.states.get(entry.getKey());
+			if (state != null)
+				update.store(entry.getKey(), combination.apply(entry.getValue(), state));
+		}
+		return update.build();
+	}
+
+	@Override
+	protected boolean lessOrEqualAux(PackedValueDomain<D> other) throws SemanticException {
+		if (!moved(other).isEmpty())
+			return false;
+
+		for (Entry<Identifier, D> entry : other.states.entrySet())
+			if (!states.getOrDefault(entry.getKey(), domain).lessOrEqual(entry.getValue()))
+				return false;
+		return true;
+	}
+
+	@Override
+	public String representation() {
+		if (isTop())
+			return Lattice.TOP_STRING;
+		if (isBottom())
+			return Lattice.BOTTOM_STRING;
+
+		List<Identifier> leaders = new ArrayList<>(states.keySet());
+		leaders.sort((l, r) -> l.getName().compareTo(r.getName()));
+		List<String> result = new ArrayList<>(leaders.size());
+		for (Identifier leader : leaders)
+			result.add(states.get(leader).representation());
+		return String.join("\n", result);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((domain == null) ? 0 : domain.hashCode());
+		result = prime * result + (isBottom ? 1231 : 1237);
+		result = prime * result + ((locations == null) ? 0 : locations.hashCode());
+		result = prime * result + ((states == null) ? 0 : states.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		PackedValueDomain<?> other = (PackedValueDomain<?>) obj;
+		if (domain == null) {
+			if (other.domain != null)
+				return false;
+		} else if (!domain.equals(other.domain))
+			return false;
+		if (isBottom != other.isBottom)
+			return false;
+		if (locations == null) {
+			if (other.locations != null)
+				return false;
+		} else if (!locations.equals(other.locations))
+			return false;
+		if (states == null) {
+			if (other.states != null)
+				return false;
+		} else if (!states.equals(other.states))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return representation();
+	}
+}
@@ -0,0 +1,215 @@
+package it.unive.lisa.analysis.packing;
+
+import it.unive.lisa.caches.AnalysisSession;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.MetaVariableCreator;
+import it.unive.lisa.program.cfg.statement.Return;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.heap.AccessChild;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.TernaryExpression;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.util.datastructures.graph.GraphVisitor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A partition of the {@link Identifier}s of a {@link CFG} into packs, such
+ * that identifiers that appear together in an assignment, in a return or in
+ * the condition of a branch are in the same pack. Relational domains can
+ * then track relations only between identifiers of the same pack (see
+ * {@link PackedValueDomain}), making their cost depend on the size of the
+ * packs instead of on the number of variables of the cfg.<br>
+ * <br>
+ * Packs are computed syntactically, collecting the variables referenced by
+ * {@link VariableRef}s and the meta-variables of the
+ * {@link MetaVariableCreator}s contained in each statement. Identifiers that
+ * are not mentioned in the cfg form a pack by themselves.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class VariablePacking {
+
+	/**
+	 * The representative of the pack of each identifier that is not alone in
+	 * its pack
+	 */
+	private final Map<Identifier, Identifier> leaders;
+
+	private VariablePacking(Map<Identifier, Identifier> leaders) {
+		this.leaders = leaders;
+	}
+
+	/**
+	 * Yields the packing of the given cfg. Packings are computed once for each
+	 * cfg within the current {@link AnalysisSession}.
+	 *
+	 * @param cfg the cfg
+	 *
+	 * @return the packing of the identifiers of {@code cfg}
+	 */
+	public static VariablePacking of(CFG cfg) {
+		return AnalysisSession.current().memoize(VariablePacking.class, cfg, VariablePacking::compute);
+	}
+
+	/**
+	 * Computes the packing of the given cfg, without caching the result.
+	 *
+	 * @param cfg the cfg
+	 *
+	 * @return the packing of the identifiers of {@code cfg}
+	 */
+	public static VariablePacking compute(CFG cfg) {
+		Set<Statement> conditions = new HashSet<>();
+		for (Edge edge : cfg.getEdges())
+			if (edge instanceof TrueEdge || edge instanceof FalseEdge)
+				conditions.add(edge.getSource());
+
+		Map<Identifier, Identifier> parents = new HashMap<>();
+		for (Statement node : cfg.getNodes())
+			if (node instanceof Assignment || node instanceof Return || conditions.contains(node)) {
+				Set<Identifier> ids = new LinkedHashSet<>();
+				node.accept(new IdentifierCollector(), ids);
+				union(parents, ids);
+			}
+
+		Map<Identifier, Integer> sizes = new HashMap<>();
+		for (Identifier id : parents.keySet())
+			sizes.merge(find(parents, id), 1, Integer::sum);
+
+		Map<Identifier, Identifier> leaders = new HashMap<>();
+		for (Identifier id : parents.keySet()) {
+			Identifier leader = find(parents, id);
+			if (sizes.get(leader) > 1)
+				leaders.put(id, leader);
+		}
+		return new VariablePacking(leaders);
+	}
+
+	/**
+	 * Yields the representative of the pack containing the given identifier.
+	 * Two identifiers are in the same pack if and only if they have the same
+	 * representative.
+	 *
+	 * @param id the identifier
+	 *
+	 * @return the representative of the pack of {@code id}, that is
+	 *             {@code id} itself if it is alone in its pack
+	 */
+	public Identifier getLeader(Identifier id) {
+		return leaders.getOrDefault(id, id);
+	}
+
+	/**
+	 * Yields the packs containing more than one identifier.
+	 *
+	 * @return the packs
+	 */
+	public Collection<Set<Identifier>> getPacks() {
+		Map<Identifier, Set<Identifier>> packs = new LinkedHashMap<>();
+		for (Map.Entry<Identifier, Identifier> entry : leaders.entrySet())
+			packs.computeIfAbsent(entry.getValue(), k -> new HashSet<>()).add(entry.getKey());
+		return packs.values();
+	}
+
+	/**
+	 * Yields the {@link Identifier}s appearing in the given expression.
+	 *
+	 * @param expression the expression
+	 *
+	 * @return the identifiers contained in {@code expression}
+	 */
+	public static Collection<Identifier> identifiers(SymbolicExpression expression) {
+		if (expression instanceof Identifier)
+			return Collections.singleton((Identifier) expression);
+
+		List<Identifier> result = new ArrayList<>();
+		collect(expression, result);
+		return result;
+	}
+
+	private static void collect(SymbolicExpression expression, Collection<Identifier> result) {
+		if (expression instanceof Identifier)
+			result.add((Identifier) expression);
+		else if (expression instanceof UnaryExpression)
+			collect(((UnaryExpression) expression).getExpression(), result);
+		else if (expression instanceof BinaryExpression) {
+			collect(((BinaryExpression) expression).getLeft(), result);
+			collect(((BinaryExpression) expression).getRight(), result);
+		} else if (expression instanceof TernaryExpression) {
+			collect(((TernaryExpression) expression).getLeft(), result);
+			collect(((TernaryExpression) expression).getMiddle(), result);
+			collect(((TernaryExpression) expression).getRight(), result);
+		} else if (expression instanceof AccessChild) {
+			collect(((AccessChild) expression).getContainer(), result);
+			collect(((AccessChild) expression).getChild(), result);
+		}
+	}
+
+	private static void union(Map<Identifier, Identifier> parents, Collection<Identifier> ids) {
+		Identifier first = null;
+		for (Identifier id : ids) {
+			parents.putIfAbsent(id, id);
+			if (first == null)
+				first = find(parents, id);
+			else {
+				Identifier root = find(parents, id);
+				if (!root.equals(first))
+					parents.put(root, first);
+			}
+		}
+	}
+
+	private static Identifier find(Map<Identifier, Identifier> parents, Identifier id) {
+		Identifier current = id;
+		while (!parents.get(current).equals(current))
+			current = parents.get(current);
+		parents.put(id, current);
+		return current;
+	}
+
+	@Override
+	public String toString() {
+		return getPacks().toString();
+	}
+
+	/**
+	 * Collects the identifiers referenced by the visited statements.
+	 */
+	private static class IdentifierCollector implements GraphVisitor<CFG, Statement, Edge, Set<Identifier>> {
+
+		@Override
+		public boolean visit(Set<Identifier> tool, CFG graph) {
+			return true;
+		}
+
+		@Override
+		public boolean visit(Set<Identifier> tool, CFG graph, Statement node) {
+			if (node instanceof VariableRef)
+				tool.addAll(identifiers(((VariableRef) node).getVariable()));
+			if (node instanceof MetaVariableCreator)
+				tool.addAll(identifiers(((MetaVariableCreator) node).getMetaVariable()));
+			return true;
+		}
+
+		@Override
+		public boolean visit(Set<Identifier> tool, CFG graph, Edge edge) {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package it.unive.lisa.caches;
+
+import it.unive.lisa.type.Type;
+import it.unive.lisa.type.TypeHierarchy;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The context of a single analysis, owning all the caches and memo tables that
+ * are shared by the objects built during that analysis (e.g., the
+ * {@link ExternalSetCache} of {@link Type}s and the {@link TypeHierarchy}).
+ * Different sessions share nothing mutable, so that different analyses can
+ * run concurrently in the same JVM.<br>
+ * <br>
+ * A session becomes the <i>current</i> one of a thread through
+ * {@link #enter()}, and stays such until the returned {@link Scope} is closed.
+ * {@link Caches} always refers to the current session of the calling thread,
+ * or to a global default session if the thread did not enter any. Work that
+ * is handed to other threads should be wrapped through
+ * {@link #wrap(Runnable)} or {@link #wrap(Callable)} to run in the same
+ * session.<br>
+ * <br>
+ * Objects built in different sessions must not be mixed: {@link ExternalSet}s
+ * are only comparable and combinable with sets built over the same cache, and
+ * operations between sets of different sessions silently ignore the other
+ * set (e.g., {@link ExternalSet#addAll(ExternalSet)} adds nothing, and
+ * {@link Object#equals(Object)} yields {@code false}).
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class AnalysisSession {
+
+	/**
+	 * The session used by threads that did not enter any
+	 */
+	private static final AnalysisSession DEFAULT = new AnalysisSession();
+
+	/**
+	 * The session that each thread is currently in
+	 */
+	private static final ThreadLocal<AnalysisSession> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * The cache of types
+	 */
+	private final ExternalSetCache<Type> types;
+
+	/**
+	 * The hierarchy of the types of the program under analysis
+	 */
+	private volatile TypeHierarchy hierarchy;
+
+	/**
+	 * Generic memo tables, indexed by a key chosen by their owner
+	 */
+	private final Map<Object, Object> memo;
+
+	/**
+	 * Builds a new session, with empty caches.
+	 */
+	public AnalysisSession() {
+		types = new ExternalSetCache<>();
+		hierarchy = new TypeHierarchy(types);
+		memo = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Yields the session that the calling thread is currently in, that is,
+	 * the last one entered through {@link #enter()} whose scope has not been
+	 * closed yet, or the default session if no such session exists.
+	 *
+	 * @return the current session
+	 */
+	public static AnalysisSession current() {
+		AnalysisSession session = CURRENT.get();
+		return session == null ? DEFAULT : session;
+	}
+
+	/**
+	 * Yields the cache for {@link ExternalSet}s containing {@link Type}s of
+	 * this session.
+	 *
+	 * @return the types cache
+	 */
+	public ExternalSetCache<Type> types() {
+		return types;
+	}
+
+	/**
+	 * Yields the {@link TypeHierarchy} of this session. If no hierarchy has
+	 * been set through {@link #setTypeHierarchy(TypeHierarchy)}, the returned
+	 * one contains no types, and thus falls back to the methods of
+	 * {@link Type}.
+	 *
+	 * @return the type hierarchy
+	 */
+	public TypeHierarchy typeHierarchy() {
+		return hierarchy;
+	}
+
+	/**
+	 * Sets the {@link TypeHierarchy} of this session. The given hierarchy must
+	 * be built over {@link #types()}. Passing {@code null} resets the
+	 * hierarchy to an empty one.
+	 *
+	 * @param hierarchy the new type hierarchy
+	 */
+	public void setTypeHierarchy(TypeHierarchy hierarchy) {
+		this.hierarchy = hierarchy == null ? new TypeHierarchy(types) : hierarchy;
+	}
+
+	/**
+	 * Yields the value associated with the given key in this session, building
+	 * it through {@code factory} the first time it is requested. This can be
+	 * used for objects that should be unique within an analysis, but that
+	 * depend on the caches of the session (e.g., the top element of a lattice
+	 * built over sets of types).
+	 *
+	 * @param <T>     the type of the value
+	 * @param key     the key identifying the value
+	 * @param factory the factory used to build the value
+	 *
+	 * @return the value associated with {@code key}
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T memoize(Object key, Supplier<T> factory) {
+		return (T) memo.computeIfAbsent(key, k -> factory.get());
+	}
+
+	/**
+	 * Yields the value associated with the given element in the memo table
+	 * identified by {@code table}, building it through {@code factory} the
+	 * first time it is requested. Elements are compared by identity, so that
+	 * values can be associated with objects whose equality is expensive to
+	 * compute (e.g., the results of a pre-analysis on each cfg).
+	 *
+	 * @param <K>     the type of the element
+	 * @param <T>     the type of the value
+	 * @param table   the key identifying the memo table
+	 * @param element the element
+	 * @param factory the factory used to build the value for the element
+	 *
+	 * @return the value associated with {@code element}
+	 */
+	public <K, T> T memoize(Object table, K element, Function<K, T> factory) {
+		Map<K, T> values = memoize(table, () -> Collections.synchronizedMap(new IdentityHashMap<>()));
+		return values.computeIfAbsent(element, factory);
+	}
+
+	/**
+	 * Makes this session the current one of the calling thread, until the
+	 * returned scope is closed.
+	 *
+	 * @return the scope of this session
+	 */
+	public Scope enter() {
+		Scope scope = new Scope(CURRENT.get());
+		CURRENT.set(this);
+		return scope;
+	}
+
+	/**
+	 * Yields a {@link Runnable} that executes {@code task} inside this session,
+	 * independently of the thread that runs it.
+	 *
+	 * @param task the task to wrap
+	 *
+	 * @return the wrapped task
+	 */
+	public Runnable wrap(Runnable task) {
+		return () -> {
+			Scope scope = enter();
+			try {
+				task.run();
+			} finally {
+				scope.close();
+			}
+		};
+	}
+
+	/**
+	 * Yields a {@link Callable} that executes {@code task} inside this session,
+	 * independently of the thread that runs it.
+	 *
+	 * @param <T>  the type of the result of the task
+	 * @param task the task to wrap
+	 *
+	 * @return the wrapped task
+	 */
+	public <T> Callable<T> wrap(Callable<T> task) {
+		return () -> {
+			Scope scope = enter();
+			try {
+				return task.call();
+			} finally {
+				scope.close();
+			}
+		};
+	}
+
+	/**
+	 * The scope of an {@link AnalysisSession} in a thread. Closing the scope
+	 * restores the session that was current before the scope was opened.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public static final class Scope implements AutoCloseable {
+
+		private final AnalysisSession previous;
+
+		private Scope(AnalysisSession previous) {
+			this.previous = previous;
+		}
+
+		@Override
+		public void close() {
+			if (previous == null)
+				CURRENT.remove();
+			else
+				CURRENT.set(previous);
+		}
+	}
+}
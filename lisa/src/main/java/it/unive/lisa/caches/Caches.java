@@ -1,30 +1,52 @@
 package it.unive.lisa.caches;
 
 import it.unive.lisa.type.Type;
+import it.unive.lisa.type.TypeHierarchy;
 import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
 
 /**
  * A holder of {@link ExternalSetCache}s, to ensure that all
  * {@link ExternalSet}s built to hold a given element type will share the same
- * <i>unique</i> cache.
+ * <i>unique</i> cache. Caches are not global: they are owned by the
+ * {@link AnalysisSession} that is current for the calling thread (see
+ * {@link AnalysisSession#current()}), so that concurrent analyses do not
+ * interfere with each other.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
 public class Caches {
 
 	/**
-	 * The cache of types
+	 * Yields the cache for {@link ExternalSet}s containing {@link Type}s of the
+	 * current {@link AnalysisSession}.
+	 * 
+	 * @return the types cache
 	 */
-	private static final ExternalSetCache<Type> types = new ExternalSetCache<>();
+	public static ExternalSetCache<Type> types() {
+		return AnalysisSession.current().types();
+	}
 
 	/**
-	 * Yields the globally defined cache for {@link ExternalSet}s containing
-	 * {@link Type}s.
+	 * Yields the {@link TypeHierarchy} of the current {@link AnalysisSession},
+	 * that is the one of the program under analysis. If no hierarchy has been
+	 * set through {@link #setTypeHierarchy(TypeHierarchy)}, the returned one
+	 * contains no types, and thus falls back to the methods of {@link Type}.
 	 * 
-	 * @return the types cache
+	 * @return the type hierarchy
 	 */
-	public static ExternalSetCache<Type> types() {
-		return types;
+	public static TypeHierarchy typeHierarchy() {
+		return AnalysisSession.current().typeHierarchy();
+	}
+
+	/**
+	 * Sets the {@link TypeHierarchy} of the current {@link AnalysisSession}.
+	 * The given hierarchy must be built over {@link #types()}. Passing
+	 * {@code null} resets the hierarchy to an empty one.
+	 * 
+	 * @param hierarchy the new type hierarchy
+	 */
+	public static void setTypeHierarchy(TypeHierarchy hierarchy) {
+		AnalysisSession.current().setTypeHierarchy(hierarchy);
 	}
 }
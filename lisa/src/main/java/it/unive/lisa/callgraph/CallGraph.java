@@ -16,8 +16,10 @@ import it.unive.lisa.program.cfg.statement.OpenCall;
 import it.unive.lisa.program.cfg.statement.UnresolvedCall;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration;
 import it.unive.lisa.util.datastructures.graph.FixpointException;
 import java.util.Collection;
+import java.util.function.BiConsumer;
 
 /**
  * A callgraph of the program to analyze, that knows how to resolve dynamic
@@ -80,6 +82,98 @@ public interface CallGraph {
 			AnalysisState<A, H, V> entryState)
 			throws FixpointException;
 
+	/**
+	 * Computes a fixpoint over the whole control flow graph, as
+	 * {@link #fixpoint(AnalysisState)} does, tuning the computation of each
+	 * {@link CFG} with the options contained in the given
+	 * {@link FixpointConfiguration}.<br>
+	 * <br>
+	 * The default implementation ignores {@code conf} and delegates to
+	 * {@link #fixpoint(AnalysisState)}.
+	 * 
+	 * @param <A>        the type of {@link AbstractState} to compute
+	 * @param <H>        the type of {@link HeapDomain} to compute
+	 * @param <V>        the type of {@link ValueDomain} to compute
+	 * @param entryState the entry state for the {@link CFG}s that are the
+	 *                       entrypoints of the computation
+	 * @param conf       the options of the fixpoint computations
+	 * 
+	 * @throws FixpointException if something goes wrong while evaluating the
+	 *                               fixpoint
+	 */
+	default <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(
+			AnalysisState<A, H, V> entryState, FixpointConfiguration conf)
+			throws FixpointException {
+		fixpoint(entryState);
+	}
+
+	/**
+	 * Computes a fixpoint over the whole control flow graph, as
+	 * {@link #fixpoint(AnalysisState, FixpointConfiguration)} does, streaming
+	 * the results to the given consumer. {@code consumer} is invoked once for
+	 * each of the given {@link CFG}s, passing the cfg and its results, as soon
+	 * as those results are final. After the consumer returns,
+	 * the callgraph is free to release the results of a cfg as long as they
+	 * are not needed for computing the ones of other cfgs: in that case,
+	 * {@link #getAnalysisResultsOf(CFG)} will yield {@code null} for it. This
+	 * bounds the number of results that are alive at the same time, and lets
+	 * the consumer process them while the computation is still ongoing.<br>
+	 * <br>
+	 * The default implementation computes the results of all cfgs through
+	 * {@link #fixpoint(AnalysisState, FixpointConfiguration)}, and then feeds
+	 * them to {@code consumer} one at a time, without releasing them.
+	 * 
+	 * @param <A>        the type of {@link AbstractState} to compute
+	 * @param <H>        the type of {@link HeapDomain} to compute
+	 * @param <V>        the type of {@link ValueDomain} to compute
+	 * @param entryState the entry state for the {@link CFG}s that are the
+	 *                       entrypoints of the computation
+	 * @param conf       the options of the fixpoint computations
+	 * @param cfgs       the cfgs whose results are passed to
+	 *                       {@code consumer}, that is, all the cfgs of the
+	 *                       program this callgraph has been built for
+	 * @param consumer   the consumer of the results
+	 * 
+	 * @throws FixpointException if something goes wrong while evaluating the
+	 *                               fixpoint
+	 */
+	default <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(
+			AnalysisState<A, H, V> entryState, FixpointConfiguration conf, Collection<CFG> cfgs,
+			BiConsumer<CFG, CFGWithAnalysisResults<A, H, V>> consumer)
+			throws FixpointException {
+		fixpoint(entryState, conf);
+		for (CFG cfg : cfgs)
+			consumer.accept(cfg, getAnalysisResultsOf(cfg));
+	}
+
+	/**
+	 * Prepares a fixpoint over the whole control flow graph, as
+	 * {@link #fixpoint(AnalysisState, FixpointConfiguration)} does, without
+	 * computing it. The results of each {@link CFG} are instead computed the
+	 * first time they are requested through {@link #getAnalysisResultsOf(CFG)}
+	 * (together with the ones needed to compute them), and they are then
+	 * stored for further requests. The cost of the analysis thus depends only
+	 * on the cfgs whose results are actually inspected.<br>
+	 * <br>
+	 * The default implementation eagerly computes the results of all cfgs
+	 * through {@link #fixpoint(AnalysisState, FixpointConfiguration)}.
+	 * 
+	 * @param <A>        the type of {@link AbstractState} to compute
+	 * @param <H>        the type of {@link HeapDomain} to compute
+	 * @param <V>        the type of {@link ValueDomain} to compute
+	 * @param entryState the entry state for the {@link CFG}s that are the
+	 *                       entrypoints of the computation
+	 * @param conf       the options of the fixpoint computations
+	 * 
+	 * @throws FixpointException if something goes wrong while evaluating the
+	 *                               fixpoint
+	 */
+	default <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void lazyFixpoint(
+			AnalysisState<A, H, V> entryState, FixpointConfiguration conf)
+			throws FixpointException {
+		fixpoint(entryState, conf);
+	}
+
 	/**
 	 * Yields the results of the given analysis, identified by its class, on the
 	 * given {@link CFG}. Results are provided as
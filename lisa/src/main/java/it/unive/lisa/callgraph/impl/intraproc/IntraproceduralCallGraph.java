@@ -1,5 +1,6 @@
 package it.unive.lisa.callgraph.impl.intraproc;
 
+import it.unive.lisa.AnalysisExecutionException;
 import it.unive.lisa.analysis.AbstractState;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.CFGWithAnalysisResults;
@@ -26,12 +27,19 @@ import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.PushAny;
 import it.unive.lisa.symbolic.value.Variable;
 import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.LeastRecentlyUsed;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration;
 import it.unive.lisa.util.datastructures.graph.FixpointException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -55,17 +63,42 @@ public class IntraproceduralCallGraph implements CallGraph {
 	 * The cash of the fixpoints' results. {@link Map#keySet()} will contain all
 	 * the cfgs that have been added. If a key's values's
 	 * {@link Optional#isEmpty()} yields true, then the fixpoint for that key
-	 * has not be computed yet.
+	 * has not be computed yet. If the number of resident results is bounded
+	 * (see {@link FixpointConfiguration#setResidentResults(int)}), this only
+	 * contains the most recently used results.
 	 */
-	private final Map<CFG, Optional<CFGWithAnalysisResults<?, ?, ?>>> results;
+	private volatile Map<CFG, Optional<CFGWithAnalysisResults<?, ?, ?>>> results;
 
 	private Program program;
 
+	/**
+	 * The entry state used to compute the results that are not in
+	 * {@link #results} when they are requested, that is set if a lazy fixpoint
+	 * computation has been started through
+	 * {@link #lazyFixpoint(AnalysisState, FixpointConfiguration)} or if the
+	 * number of resident results is bounded
+	 */
+	private AnalysisState<?, ?, ?> lazyEntryState;
+
+	/**
+	 * The options used to compute the results that are not in {@link #results}
+	 * when they are requested, set together with {@link #lazyEntryState}
+	 */
+	private FixpointConfiguration lazyConf;
+
+	/**
+	 * The computations of results that are not in {@link #results} and that
+	 * are currently running, used to let threads requesting the same results
+	 * wait for a single computation without locking {@link #results}
+	 */
+	private final Map<CFG, CompletableFuture<Optional<CFGWithAnalysisResults<?, ?, ?>>>> computing;
+
 	/**
 	 * Builds the call graph.
 	 */
 	public IntraproceduralCallGraph() {
 		this.results = new ConcurrentHashMap<>();
+		this.computing = new ConcurrentHashMap<>();
 	}
 
 	@Override
@@ -76,6 +109,8 @@ public class IntraproceduralCallGraph implements CallGraph {
 	@Override
 	public void clear() {
 		results.clear();
+		lazyEntryState = null;
+		lazyConf = null;
 	}
 
 	@Override
@@ -126,36 +161,155 @@ public class IntraproceduralCallGraph implements CallGraph {
 	@Override
 	public <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(
 			AnalysisState<A, H, V> entryState) throws FixpointException {
-		for (CFG cfg : IterationLogger.iterate(log, program.getAllCFGs(), "Computing fixpoint over the whole program",
-				"cfgs"))
+		fixpoint(entryState, new FixpointConfiguration());
+	}
+
+	@Override
+	public <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(
+			AnalysisState<A, H, V> entryState, FixpointConfiguration conf) throws FixpointException {
+		fixpoint(entryState, conf, program.getAllCFGs(), null);
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * Since this callgraph does not use the results of a cfg while computing
+	 * the ones of the others, only the fixpoints of {@code cfgs} are computed,
+	 * and the results of each cfg are released as soon as {@code consumer}
+	 * returns.
+	 */
+	@Override
+	public <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void fixpoint(
+			AnalysisState<A, H, V> entryState, FixpointConfiguration conf, Collection<CFG> cfgs,
+			BiConsumer<CFG, CFGWithAnalysisResults<A, H, V>> consumer) throws FixpointException {
+		lazyEntryState = null;
+		lazyConf = null;
+		// results released after being consumed are never recomputed, while
+		// evicted ones are recomputed on demand
+		if (consumer != null)
+			results = new ConcurrentHashMap<>();
+		else {
+			results = mkResults(conf);
+			if (conf.getResidentResults() > 0) {
+				lazyEntryState = entryState;
+				lazyConf = conf;
+			}
+		}
+		for (CFG cfg : IterationLogger.iterate(log, cfgs, "Computing fixpoint over the whole program", "cfgs"))
 			try {
-				results.put(cfg, Optional.of(cfg.fixpoint(prepare(entryState, cfg), this)));
+				CFGWithAnalysisResults<A, H, V> result = cfg.fixpoint(prepare(entryState, cfg), this, conf);
+				if (consumer == null)
+					results.put(cfg, Optional.of(result));
+				else {
+					consumer.accept(cfg, result);
+					results.put(cfg, Optional.empty());
+				}
 			} catch (SemanticException e) {
 				throw new FixpointException("Error while creating the entrystate for " + cfg, e);
 			}
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * Since this callgraph does not use the results of a cfg while computing
+	 * the ones of the others, requesting the results of a cfg causes the
+	 * computation of a fixpoint over that cfg only.
+	 */
+	@Override
+	public <A extends AbstractState<A, H, V>, H extends HeapDomain<H>, V extends ValueDomain<V>> void lazyFixpoint(
+			AnalysisState<A, H, V> entryState, FixpointConfiguration conf) throws FixpointException {
+		results = mkResults(conf);
+		lazyEntryState = entryState;
+		lazyConf = conf;
+	}
+
+	private static Map<CFG, Optional<CFGWithAnalysisResults<?, ?, ?>>> mkResults(FixpointConfiguration conf) {
+		if (conf.getResidentResults() <= 0)
+			return new ConcurrentHashMap<>();
+		return Collections.synchronizedMap(new LeastRecentlyUsed<>(conf.getResidentResults()));
+	}
+
+	/**
+	 * Computes the results of the given cfg, that are not in {@link #results},
+	 * and stores them there. The fixpoint is computed without holding any lock
+	 * on {@link #results}, so that results of other cfgs can be accessed and
+	 * computed in the meantime, while threads requesting the results of the
+	 * same cfg wait for the one that is computing them.
+	 */
+	private Optional<CFGWithAnalysisResults<?, ?, ?>> computeLazily(CFG cfg) {
+		CompletableFuture<Optional<CFGWithAnalysisResults<?, ?, ?>>> future = new CompletableFuture<>();
+		CompletableFuture<Optional<CFGWithAnalysisResults<?, ?, ?>>> running = computing.putIfAbsent(cfg, future);
+		if (running != null)
+			try {
+				return running.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw e;
+			}
+
+		try {
+			// the results might have been stored after the last check
+			Optional<CFGWithAnalysisResults<?, ?, ?>> result = results.get(cfg);
+			if (result == null) {
+				log.debug("Computing the analysis results of " + cfg + " on demand");
+				result = computeFixpoint(cfg);
+				results.put(cfg, result);
+			}
+			future.complete(result);
+			return result;
+		} catch (RuntimeException e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			computing.remove(cfg, future);
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Optional<CFGWithAnalysisResults<?, ?, ?>> computeFixpoint(CFG cfg) {
+		try {
+			return Optional.of(cfg.fixpoint(prepare((AnalysisState) lazyEntryState, cfg), this, lazyConf));
+		} catch (SemanticException e) {
+			throw new AnalysisExecutionException("Error while creating the entrystate for " + cfg, e);
+		} catch (FixpointException e) {
+			throw new AnalysisExecutionException("Exception during fixpoint computation on " + cfg, e);
+		}
+	}
+
 	private <A extends AbstractState<A, H, V>,
 			H extends HeapDomain<H>,
 			V extends ValueDomain<V>> AnalysisState<A, H, V> prepare(
 					AnalysisState<A, H, V> entryState, CFG cfg) throws SemanticException {
 		AnalysisState<A, H, V> prepared = entryState;
 		for (Parameter arg : cfg.getDescriptor().getArgs()) {
-			Collection<Type> all = arg.getStaticType().allInstances();
-			Variable id = new Variable(Caches.types().mkSet(all), arg.getName());
-			prepared = prepared.assign(id, new PushAny(Caches.types().mkSet(all)),
+			ExternalSet<Type> all = Caches.typeHierarchy().allInstances(arg.getStaticType());
+			Variable id = new Variable(all, arg.getName());
+			prepared = prepared.assign(id, new PushAny(all.copy()),
 					cfg.getGenericProgramPoint());
 		}
 		return prepared;
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * If the number of resident results is bounded (see
+	 * {@link FixpointConfiguration#setResidentResults(int)}) and the results
+	 * of {@code cfg} have been evicted, they are recomputed by executing the
+	 * fixpoint over {@code cfg} again.
+	 */
 	@Override
 	@SuppressWarnings("unchecked")
 	public <A extends AbstractState<A, H, V>,
 			H extends HeapDomain<H>,
 			V extends ValueDomain<V>> CFGWithAnalysisResults<A, H, V> getAnalysisResultsOf(
 					CFG cfg) {
-		return (CFGWithAnalysisResults<A, H, V>) results.get(cfg).orElse(null);
+		Optional<CFGWithAnalysisResults<?, ?, ?>> result = results.get(cfg);
+		if (result == null && lazyEntryState != null)
+			result = computeLazily(cfg);
+		return (CFGWithAnalysisResults<A, H, V>) result.orElse(null);
 	}
 
 	@Override
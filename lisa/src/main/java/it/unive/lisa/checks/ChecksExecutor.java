@@ -2,11 +2,20 @@ package it.unive.lisa.checks;
 
 import static it.unive.lisa.logging.IterationLogger.iterate;
 
+import it.unive.lisa.AnalysisExecutionException;
+import it.unive.lisa.caches.AnalysisSession;
+import it.unive.lisa.logging.jfr.CheckEvent;
 import it.unive.lisa.program.CompilationUnit;
 import it.unive.lisa.program.Global;
 import it.unive.lisa.program.Program;
 import it.unive.lisa.program.cfg.CFG;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -36,10 +45,26 @@ public class ChecksExecutor {
 			checks.forEach(c -> c.visitGlobal(tool, program, global, false));
 
 		for (CFG cfg : iterate(log, program.getCFGs(), "Analyzing program cfgs...", "CFGs"))
-			checks.forEach(c -> cfg.accept(c, tool));
+			checks.forEach(c -> {
+				CheckEvent event = new CheckEvent();
+				event.begin();
+				try {
+					cfg.accept(c, tool);
+				} finally {
+					event.complete(c, cfg);
+				}
+			});
 
 		for (CompilationUnit unit : iterate(log, program.getUnits(), "Analyzing compilation units...", "Units"))
-			checks.forEach(c -> visitUnit(tool, unit, c));
+			checks.forEach(c -> {
+				CheckEvent event = new CheckEvent();
+				event.begin();
+				try {
+					visitUnit(tool, unit, c);
+				} finally {
+					event.complete(c, unit);
+				}
+			});
 
 		checks.forEach(c -> c.afterExecution(tool));
 	}
@@ -60,4 +85,129 @@ public class ChecksExecutor {
 		for (CFG cfg : unit.getInstanceCFGs(false))
 			cfg.accept(c, tool);
 	}
+
+	/**
+	 * Executes all the given checks on the given inputs cfgs, fusing them
+	 * together. Each {@link CFG} is traversed only once, dispatching each
+	 * visited element to all the checks (see {@link FusedVisitor}). Globals,
+	 * cfgs and compilation units are processed in parallel on a pool of
+	 * {@code parallelism} threads, while
+	 * {@link Check#beforeExecution(Object)} and
+	 * {@link Check#afterExecution(Object)} are still invoked on the calling
+	 * thread. Checks and tool must thus be thread-safe.
+	 * 
+	 * @param <C>         the type of the checks to execute
+	 * @param <T>         the type of the auxiliary tool used by the check
+	 * @param tool        the auxiliary tool to be used during the checks
+	 *                        execution
+	 * @param program     the program to analyze
+	 * @param checks      the checks to execute
+	 * @param parallelism the number of threads to use
+	 * 
+	 * @throws IllegalArgumentException   if {@code parallelism} is not positive
+	 * @throws AnalysisExecutionException if one of the checks fails with a
+	 *                                        checked exception, or if the
+	 *                                        execution gets interrupted
+	 */
+	public static <C extends Check<T>, T> void executeAllFused(T tool, Program program,
+			Collection<C> checks, int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("The number of threads used to execute checks must be positive");
+
+		List<C> all = new ArrayList<>(checks);
+		all.forEach(c -> c.beforeExecution(tool));
+
+		// units are filtered on the calling thread: this is a cheap
+		// operation, and it lets all the members of all units be processed
+		// by independent tasks
+		List<Runnable> tasks = new ArrayList<>();
+		for (Global global : program.getGlobals())
+			tasks.add(() -> all.forEach(c -> c.visitGlobal(tool, program, global, false)));
+		for (CFG cfg : program.getCFGs())
+			tasks.add(() -> visitFused(tool, cfg, all));
+		for (CompilationUnit unit : program.getUnits()) {
+			List<C> accepting = new ArrayList<>(all.size());
+			for (C c : all)
+				if (c.visitCompilationUnit(tool, unit))
+					accepting.add(c);
+			if (accepting.isEmpty())
+				continue;
+
+			for (Global global : unit.getGlobals())
+				tasks.add(() -> accepting.forEach(c -> c.visitGlobal(tool, unit, global, false)));
+			for (Global global : unit.getInstanceGlobals(false))
+				tasks.add(() -> accepting.forEach(c -> c.visitGlobal(tool, unit, global, true)));
+			for (CFG cfg : unit.getCFGs())
+				tasks.add(() -> visitFused(tool, cfg, accepting));
+			for (CFG cfg : unit.getInstanceCFGs(false))
+				tasks.add(() -> visitFused(tool, cfg, accepting));
+		}
+
+		log.info("Executing " + all.size() + " checks on " + tasks.size() + " program members with " + parallelism
+				+ " threads");
+		if (parallelism == 1)
+			tasks.forEach(Runnable::run);
+		else
+			runAll(tasks, parallelism);
+
+		all.forEach(c -> c.afterExecution(tool));
+	}
+
+	/**
+	 * Visits the given cfg with all the given checks at once, through a
+	 * {@link FusedVisitor}.
+	 * 
+	 * @param <C>    the type of the checks to execute
+	 * @param <T>    the type of the auxiliary tool used by the check
+	 * @param tool   the auxiliary tool to be used during the checks execution
+	 * @param cfg    the cfg to visit
+	 * @param checks the checks to execute
+	 */
+	static <C extends Check<T>, T> void visitFused(T tool, CFG cfg, List<C> checks) {
+		CheckEvent event = new CheckEvent();
+		event.begin();
+		try {
+			cfg.accept(new FusedVisitor<>(checks), tool);
+		} finally {
+			event.complete(checks, cfg);
+		}
+	}
+
+	private static void runAll(List<Runnable> tasks, int parallelism) {
+		AnalysisSession session = AnalysisSession.current();
+		ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+		try {
+			List<Future<?>> futures = new ArrayList<>(tasks.size());
+			for (Runnable task : tasks)
+				futures.add(pool.submit(session.wrap(task)));
+
+			for (Future<?> future : futures)
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AnalysisExecutionException("Interrupted while executing checks", e);
+		} catch (ExecutionException e) {
+			throw unwrap(e);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Yields the exception to be rethrown when a check executed by another
+	 * thread fails.
+	 * 
+	 * @param e the exception raised when retrieving the result of the check
+	 * 
+	 * @return the unchecked cause of {@code e}, or an
+	 *             {@link AnalysisExecutionException} wrapping it
+	 */
+	static RuntimeException unwrap(ExecutionException e) {
+		Throwable cause = e.getCause();
+		if (cause instanceof Error)
+			throw (Error) cause;
+		if (cause instanceof RuntimeException)
+			return (RuntimeException) cause;
+		return new AnalysisExecutionException("Exception while executing checks", cause);
+	}
 }
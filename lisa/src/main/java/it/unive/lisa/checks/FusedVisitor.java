@@ -0,0 +1,69 @@
+package it.unive.lisa.checks;
+
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.GraphVisitor;
+import java.util.List;
+
+/**
+ * A {@link GraphVisitor} that dispatches each callback to a list of
+ * {@link Check}s, so that all of them can be executed with a single traversal
+ * of a {@link CFG}. Each check is dispatched callbacks until it asks to stop
+ * the traversal (by returning {@code false}), exactly as if it was visiting
+ * the cfg alone. The traversal stops when all checks asked to stop it.
+ * Instances of this class hold the state of a traversal, and should thus be
+ * used to visit a single cfg.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <T> the type of tool used by the checks
+ */
+class FusedVisitor<T> implements GraphVisitor<CFG, Statement, Edge, T> {
+
+	private final List<? extends Check<T>> checks;
+
+	private final boolean[] stopped;
+
+	private int active;
+
+	/**
+	 * Builds the visitor.
+	 *
+	 * @param checks the checks to execute
+	 */
+	FusedVisitor(List<? extends Check<T>> checks) {
+		this.checks = checks;
+		this.stopped = new boolean[checks.size()];
+		this.active = checks.size();
+	}
+
+	@Override
+	public boolean visit(T tool, CFG graph) {
+		for (int i = 0; i < stopped.length; i++)
+			if (!stopped[i] && !checks.get(i).visit(tool, graph))
+				stop(i);
+		return active > 0;
+	}
+
+	@Override
+	public boolean visit(T tool, CFG graph, Statement node) {
+		for (int i = 0; i < stopped.length; i++)
+			if (!stopped[i] && !checks.get(i).visit(tool, graph, node))
+				stop(i);
+		return active > 0;
+	}
+
+	@Override
+	public boolean visit(T tool, CFG graph, Edge edge) {
+		for (int i = 0; i < stopped.length; i++)
+			if (!stopped[i] && !checks.get(i).visit(tool, graph, edge))
+				stop(i);
+		return active > 0;
+	}
+
+	private void stop(int i) {
+		stopped[i] = true;
+		active--;
+	}
+}
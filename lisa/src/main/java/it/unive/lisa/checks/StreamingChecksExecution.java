@@ -0,0 +1,197 @@
+package it.unive.lisa.checks;
+
+import it.unive.lisa.AnalysisExecutionException;
+import it.unive.lisa.caches.AnalysisSession;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.Global;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * An execution of {@link Check}s where {@link CFG}s are not known all at
+ * once, but are instead provided one at a time through
+ * {@link #execute(CFG, Runnable)} (e.g., as soon as the results of the
+ * analysis on each of them are available). Creating the execution invokes
+ * {@link Check#beforeExecution(Object)}, visits all globals, and determines
+ * what checks will visit each cfg (according to
+ * {@link Check#visitCompilationUnit(Object, CompilationUnit)}). Each cfg is
+ * then traversed only once, dispatching each visited element to all its
+ * checks (see {@link FusedVisitor}). If the execution runs with more than one
+ * thread, cfgs are visited in background while the caller keeps producing
+ * new ones, with a bounded number of cfgs being visited or waiting to be
+ * visited at the same time. {@link #finish()} waits for all visits to
+ * complete and invokes {@link Check#afterExecution(Object)}, while
+ * {@link #close()} releases the threads in case the execution has to be
+ * aborted.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <C> the type of the checks to execute
+ * @param <T> the type of the auxiliary tool used by the check
+ */
+public class StreamingChecksExecution<C extends Check<T>, T> implements AutoCloseable {
+
+	private final T tool;
+
+	private final List<C> checks;
+
+	private final Map<CFG, List<C>> targets;
+
+	private final ExecutorService pool;
+
+	private final Semaphore pending;
+
+	private final List<Future<?>> futures;
+
+	private final AnalysisSession session;
+
+	/**
+	 * Starts the execution of the given checks.
+	 *
+	 * @param tool        the auxiliary tool to be used during the checks
+	 *                        execution
+	 * @param program     the program to analyze
+	 * @param checks      the checks to execute
+	 * @param parallelism the number of threads to use for visiting cfgs: if
+	 *                        {@code 1}, each cfg is visited by the thread
+	 *                        invoking {@link #execute(CFG, Runnable)}
+	 *
+	 * @throws IllegalArgumentException if {@code parallelism} is not positive
+	 */
+	public StreamingChecksExecution(T tool, Program program, Collection<C> checks, int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("The number of threads used to execute checks must be positive");
+
+		this.tool = tool;
+		this.checks = new ArrayList<>(checks);
+		this.targets = new IdentityHashMap<>();
+		this.futures = new ArrayList<>();
+		this.session = AnalysisSession.current();
+		if (parallelism == 1) {
+			this.pool = null;
+			this.pending = null;
+		} else {
+			this.pool = Executors.newFixedThreadPool(parallelism);
+			// at most two cfgs per thread can be waiting, so that the
+			// number of results kept alive is bounded
+			this.pending = new Semaphore(2 * parallelism);
+		}
+
+		this.checks.forEach(c -> c.beforeExecution(tool));
+
+		for (Global global : program.getGlobals())
+			this.checks.forEach(c -> c.visitGlobal(tool, program, global, false));
+		for (CFG cfg : program.getCFGs())
+			targets.put(cfg, this.checks);
+
+		for (CompilationUnit unit : program.getUnits()) {
+			List<C> accepting = new ArrayList<>(this.checks.size());
+			for (C c : this.checks)
+				if (c.visitCompilationUnit(tool, unit))
+					accepting.add(c);
+			if (accepting.isEmpty())
+				continue;
+
+			for (Global global : unit.getGlobals())
+				accepting.forEach(c -> c.visitGlobal(tool, unit, global, false));
+			for (Global global : unit.getInstanceGlobals(false))
+				accepting.forEach(c -> c.visitGlobal(tool, unit, global, true));
+			for (CFG cfg : unit.getCFGs())
+				targets.put(cfg, accepting);
+			for (CFG cfg : unit.getInstanceCFGs(false))
+				targets.put(cfg, accepting);
+		}
+	}
+
+	/**
+	 * Executes the checks on the given cfg, possibly in background. If the
+	 * maximum number of pending cfgs has been reached, this method blocks
+	 * until one of them has been visited.
+	 *
+	 * @param cfg        the cfg to visit
+	 * @param onComplete a callback to invoke once the visit of {@code cfg}
+	 *                       ends (e.g., to release the analysis results on
+	 *                       it), even if the visit fails
+	 *
+	 * @throws AnalysisExecutionException if the execution gets interrupted
+	 */
+	public void execute(CFG cfg, Runnable onComplete) {
+		List<C> cs = targets.get(cfg);
+		Runnable task = () -> {
+			try {
+				if (cs != null)
+					ChecksExecutor.visitFused(tool, cfg, cs);
+			} finally {
+				onComplete.run();
+			}
+		};
+
+		if (pool == null) {
+			task.run();
+			return;
+		}
+
+		try {
+			pending.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			onComplete.run();
+			throw new AnalysisExecutionException("Interrupted while executing checks", e);
+		}
+
+		Runnable wrapped = session.wrap(task);
+		futures.add(pool.submit(() -> {
+			try {
+				wrapped.run();
+			} finally {
+				pending.release();
+			}
+		}));
+	}
+
+	/**
+	 * Waits for all the visits started through {@link #execute(CFG, Runnable)}
+	 * to complete, and then ends the execution of the checks.
+	 *
+	 * @throws AnalysisExecutionException if one of the checks fails with a
+	 *                                        checked exception, or if the
+	 *                                        execution gets interrupted
+	 */
+	public void finish() {
+		if (pool != null)
+			try {
+				for (Future<?> future : futures)
+					future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new AnalysisExecutionException("Interrupted while executing checks", e);
+			} catch (ExecutionException e) {
+				throw ChecksExecutor.unwrap(e);
+			} finally {
+				pool.shutdownNow();
+			}
+
+		checks.forEach(c -> c.afterExecution(tool));
+	}
+
+	/**
+	 * Stops the threads used by this execution, if any, without waiting for
+	 * pending visits. This has no effect if {@link #finish()} has already been
+	 * invoked.
+	 */
+	@Override
+	public void close() {
+		if (pool != null)
+			pool.shutdownNow();
+	}
+}
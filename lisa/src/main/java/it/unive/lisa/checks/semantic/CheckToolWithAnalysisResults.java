@@ -7,6 +7,7 @@ import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.checks.syntactic.CheckTool;
 import it.unive.lisa.program.cfg.CFG;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * An extension of {@link CheckTool} that also contains the results of the
@@ -22,7 +23,7 @@ public class CheckToolWithAnalysisResults<A extends AbstractState<A, H, V>,
 		H extends HeapDomain<H>,
 		V extends ValueDomain<V>> extends CheckTool {
 
-	private final Map<CFG, CFGWithAnalysisResults<A, H, V>> results;
+	private final Function<CFG, CFGWithAnalysisResults<A, H, V>> results;
 
 	/**
 	 * Builds the tool, storing the given results.
@@ -31,7 +32,7 @@ public class CheckToolWithAnalysisResults<A extends AbstractState<A, H, V>,
 	 */
 	public CheckToolWithAnalysisResults(Map<CFG, CFGWithAnalysisResults<A, H, V>> results) {
 		super();
-		this.results = results;
+		this.results = results::get;
 	}
 
 	/**
@@ -41,6 +42,20 @@ public class CheckToolWithAnalysisResults<A extends AbstractState<A, H, V>,
 	 * @param results the results to store
 	 */
 	public CheckToolWithAnalysisResults(CheckTool other, Map<CFG, CFGWithAnalysisResults<A, H, V>> results) {
+		super(other);
+		this.results = results::get;
+	}
+
+	/**
+	 * Builds the tool, copying the given tool and retrieving the results of
+	 * each {@link CFG} through the given function, that is invoked every time
+	 * the results of a cfg are requested. This allows results to be computed
+	 * on demand.
+	 * 
+	 * @param other   the tool to copy
+	 * @param results the function yielding the results of each cfg
+	 */
+	public CheckToolWithAnalysisResults(CheckTool other, Function<CFG, CFGWithAnalysisResults<A, H, V>> results) {
 		super(other);
 		this.results = results;
 	}
@@ -54,6 +69,6 @@ public class CheckToolWithAnalysisResults<A extends AbstractState<A, H, V>,
 	 * @return the results on the given cfg
 	 */
 	public CFGWithAnalysisResults<A, H, V> getResultOf(CFG cfg) {
-		return results.get(cfg);
+		return results.apply(cfg);
 	}
 }
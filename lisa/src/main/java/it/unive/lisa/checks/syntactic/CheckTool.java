@@ -9,9 +9,15 @@ import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.CFGDescriptor;
 import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * An auxiliary tool that can be used by checks during their execution. It
@@ -23,25 +29,98 @@ import java.util.concurrent.ConcurrentHashMap;
 public class CheckTool {
 
 	/**
-	 * The collection of generated warnings
+	 * The number of shards of the warnings sink. Must be a power of two.
 	 */
-	private final Collection<Warning> warnings;
+	private static final int SHARDS = 16;
+
+	/**
+	 * The order in which warnings are returned by {@link #getWarnings()}:
+	 * warnings of different classes are not comparable through
+	 * {@link Warning#compareTo(Warning)}, so they are first sorted by class
+	 */
+	private static final Comparator<Warning> ORDER = Comparator
+			.<Warning, String>comparing(w -> w.getClass().getName())
+			.thenComparing(Comparator.naturalOrder())
+			.thenComparing(Warning::toString);
+
+	/**
+	 * The generated warnings, split in shards that are independently locked
+	 * to let checks running in parallel report warnings without contention.
+	 * Each warning always ends up in the same shard, so that no duplicates are
+	 * stored.
+	 */
+	private final List<Set<Warning>> warnings;
+
+	/**
+	 * The number of warnings stored in {@link #warnings}, incremented after
+	 * each new warning has been added to its shard
+	 */
+	private final AtomicInteger count;
+
+	/**
+	 * The last result of {@link #getWarnings()}, that is still valid if it
+	 * contains {@link #count} warnings (warnings are never removed)
+	 */
+	private volatile List<Warning> sorted;
+
+	/**
+	 * The consumer notified of each new warning, if any
+	 */
+	private final Consumer<Warning> listener;
 
 	/**
 	 * Build the tool.
 	 */
 	public CheckTool() {
-		warnings = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		this((Consumer<Warning>) null);
+	}
+
+	/**
+	 * Build the tool, notifying each warning to the given listener as soon as
+	 * it is reported (e.g., to write it to a report without waiting for the
+	 * analysis to end). Each warning is notified once, even if it is reported
+	 * multiple times, but warnings reported by checks running in parallel can
+	 * be notified concurrently.
+	 * 
+	 * @param listener the consumer of the reported warnings, or {@code null}
+	 *                     if no listener should be notified
+	 */
+	public CheckTool(Consumer<Warning> listener) {
+		this.listener = listener;
+		warnings = new ArrayList<>(SHARDS);
+		for (int i = 0; i < SHARDS; i++)
+			warnings.add(new HashSet<>());
+		count = new AtomicInteger();
 	}
 
 	/**
 	 * Build the tool, shallow-copying the set of warnings from the given one.
+	 * Warnings reported to the new tool are notified to the same listener of
+	 * {@code other}, if any.
 	 * 
 	 * @param other the original tool to copy
 	 */
 	protected CheckTool(CheckTool other) {
-		this();
-		warnings.addAll(other.warnings);
+		this(other.listener);
+		for (int i = 0; i < SHARDS; i++)
+			synchronized (other.warnings.get(i)) {
+				warnings.get(i).addAll(other.warnings.get(i));
+				count.addAndGet(warnings.get(i).size());
+			}
+	}
+
+	private void report(Warning warning) {
+		int hash = warning.hashCode();
+		Set<Warning> shard = warnings.get((hash ^ (hash >>> 16)) & (SHARDS - 1));
+		boolean added;
+		synchronized (shard) {
+			added = shard.add(warning);
+		}
+		if (!added)
+			return;
+		count.incrementAndGet();
+		if (listener != null)
+			listener.accept(warning);
 	}
 
 	/**
@@ -53,7 +132,7 @@ public class CheckTool {
 	 * @param message the message of the warning
 	 */
 	public void warn(String message) {
-		warnings.add(new Warning(message));
+		report(new Warning(message));
 	}
 
 	/**
@@ -64,7 +143,7 @@ public class CheckTool {
 	 * @param message the message of the warning
 	 */
 	public void warnOn(CFG cfg, String message) {
-		warnings.add(new CFGWarning(cfg, message));
+		report(new CFGWarning(cfg, message));
 	}
 
 	/**
@@ -75,7 +154,7 @@ public class CheckTool {
 	 * @param message    the message of the warning
 	 */
 	public void warnOn(CFGDescriptor descriptor, String message) {
-		warnings.add(new CFGDescriptorWarning(descriptor, message));
+		report(new CFGDescriptorWarning(descriptor, message));
 	}
 
 	/**
@@ -90,7 +169,7 @@ public class CheckTool {
 		if (statement instanceof Expression)
 			warnOn((Expression) statement, message);
 		else
-			warnings.add(new StatementWarning(statement, message));
+			report(new StatementWarning(statement, message));
 	}
 
 	/**
@@ -100,16 +179,32 @@ public class CheckTool {
 	 * @param message    the message of the warning
 	 */
 	public void warnOn(Expression expression, String message) {
-		warnings.add(new ExpressionWarning(expression, message));
+		report(new ExpressionWarning(expression, message));
 	}
 
 	/**
-	 * Returns an <b>unmodifiable</b> view of the warnings that have been
-	 * generated up to now using this tool.
+	 * Returns an <b>unmodifiable</b> collection containing the warnings that
+	 * have been generated up to now using this tool. Warnings are sorted by
+	 * class and then by their natural ordering, so that the result does not
+	 * depend on the order (or the thread) in which warnings have been
+	 * reported. The sorted collection is computed once, and then returned
+	 * again until new warnings are reported.
 	 * 
-	 * @return a view of the warnings
+	 * @return the warnings
 	 */
 	public Collection<Warning> getWarnings() {
-		return Collections.unmodifiableCollection(warnings);
+		List<Warning> cached = sorted;
+		if (cached != null && cached.size() == count.get())
+			return cached;
+
+		List<Warning> result = new ArrayList<>();
+		for (Set<Warning> shard : warnings)
+			synchronized (shard) {
+				result.addAll(shard);
+			}
+		result.sort(ORDER);
+		cached = Collections.unmodifiableList(result);
+		sorted = cached;
+		return cached;
 	}
 }
@@ -0,0 +1,74 @@
+package it.unive.lisa.logging;
+
+import it.unive.lisa.util.datastructures.graph.FixpointMetrics;
+import it.unive.lisa.util.datastructures.graph.FixpointMetrics.NodeMetrics;
+import it.unive.lisa.util.datastructures.graph.FixpointMetricsSink;
+import java.util.Comparator;
+import java.util.Map.Entry;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A {@link FixpointMetricsSink} that logs a summary of each recorded
+ * {@link FixpointMetrics}, followed by the metrics of the nodes whose
+ * semantics took the longest time to compute. Times are formatted with
+ * {@link TimeFormat#UP_TO_MINUTES}.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class LoggingMetricsSink implements FixpointMetricsSink {
+
+	private final Logger logger;
+
+	private final Level level;
+
+	private final int hottest;
+
+	/**
+	 * Builds the sink, logging only the summary of each fixpoint computation
+	 * at {@link Level#DEBUG} level.
+	 *
+	 * @param logger the logger to log onto
+	 */
+	public LoggingMetricsSink(Logger logger) {
+		this(logger, Level.DEBUG, 0);
+	}
+
+	/**
+	 * Builds the sink.
+	 *
+	 * @param logger  the logger to log onto
+	 * @param level   the level to log at
+	 * @param hottest the number of nodes, among the ones whose semantics took
+	 *                    the longest time to compute, whose metrics are logged
+	 *                    after the summary of each fixpoint computation
+	 */
+	public LoggingMetricsSink(Logger logger, Level level, int hottest) {
+		this.logger = logger;
+		this.level = level;
+		this.hottest = hottest;
+	}
+
+	@Override
+	public void record(FixpointMetrics<?> metrics) {
+		if (!logger.isEnabled(level))
+			return;
+
+		TimeFormat format = TimeFormat.UP_TO_MINUTES;
+		logger.log(level, "Fixpoint over " + metrics.getGraph() + (metrics.isCompleted() ? "" : " (interrupted)")
+				+ " took " + format.format(metrics.getTotalNanos()) + ": " + metrics.getNodes().size() + " nodes, "
+				+ metrics.getEvaluations() + " evaluations, " + metrics.getLubs() + " lubs, "
+				+ metrics.getWidenings() + " widenings, " + format.format(metrics.getSemanticsNanos())
+				+ " in semantics, " + format.format(metrics.getEntryStateNanos()) + " computing entry states");
+
+		if (hottest > 0)
+			metrics.getNodes().entrySet().stream()
+					.sorted(Comparator.comparingLong(
+							(Entry<?, NodeMetrics> e) -> e.getValue().getSemanticsNanos()).reversed())
+					.limit(hottest)
+					.forEach(e -> logger.log(level, "  " + e.getKey() + ": " + e.getValue().getEvaluations()
+							+ " evaluations, " + format.format(e.getValue().getSemanticsNanos()) + " in semantics, "
+							+ format.format(e.getValue().getEntryStateNanos()) + " computing the entry state, "
+							+ "state size " + e.getValue().getStateSize()));
+	}
+}
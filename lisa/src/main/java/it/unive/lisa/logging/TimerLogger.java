@@ -1,5 +1,6 @@
 package it.unive.lisa.logging;
 
+import it.unive.lisa.logging.jfr.PhaseEvent;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -877,9 +878,15 @@ public class TimerLogger {
 
 	private static void execAux(Logger logger, Level logLevel, TimeFormat formatter, String message,
 			LoggableAction action) {
+		PhaseEvent event = new PhaseEvent();
+		event.begin();
 		long startTime = System.nanoTime();
 		logger.log(logLevel, message + " [start]");
-		action.run();
+		try {
+			action.run();
+		} finally {
+			event.complete(message);
+		}
 		logger.log(logLevel,
 				message + " [stop] [completed in " + formatter.format(System.nanoTime() - startTime) + "]");
 	}
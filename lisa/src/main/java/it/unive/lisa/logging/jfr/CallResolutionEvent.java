@@ -0,0 +1,54 @@
+package it.unive.lisa.logging.jfr;
+
+import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.program.cfg.statement.Call;
+import it.unive.lisa.program.cfg.statement.UnresolvedCall;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event spanning the resolution of an
+ * {@link UnresolvedCall} through {@link CallGraph#resolve(UnresolvedCall)}.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@Name("it.unive.lisa.CallResolution")
+@Label("Call Resolution")
+@Category({ "LiSA" })
+@Description("The resolution of a call to its targets")
+@StackTrace(false)
+public class CallResolutionEvent extends Event {
+
+	@Label("Call")
+	@Description("The unresolved call")
+	private String call;
+
+	@Label("Location")
+	@Description("The location of the call in the program")
+	private String location;
+
+	@Label("Resolved To")
+	@Description("The kind of call produced by the resolution, empty if the resolution failed")
+	private String resolved;
+
+	/**
+	 * Ends the event and commits it, if it should be recorded.
+	 *
+	 * @param call     the call that has been resolved
+	 * @param resolved the result of the resolution, or {@code null} if the
+	 *                     resolution failed
+	 */
+	public void complete(UnresolvedCall call, Call resolved) {
+		end();
+		if (shouldCommit()) {
+			this.call = call.toString();
+			this.location = call.getLocation() == null ? null : call.getLocation().getCodeLocation();
+			this.resolved = resolved == null ? "" : resolved.getClass().getSimpleName();
+			commit();
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package it.unive.lisa.logging.jfr;
+
+import it.unive.lisa.checks.Check;
+import it.unive.lisa.checks.ChecksExecutor;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event spanning the execution of {@link Check}s,
+ * through {@link ChecksExecutor}, on a single element of the program. When
+ * checks are fused together, a single event is produced for all of them.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@Name("it.unive.lisa.Check")
+@Label("Check Execution")
+@Category({ "LiSA" })
+@Description("The execution of checks on a single element of the program")
+@StackTrace(false)
+public class CheckEvent extends Event {
+
+	@Label("Checks")
+	@Description("The simple names of the classes of the executed checks")
+	private String checks;
+
+	@Label("Target")
+	@Description("The program element visited by the checks")
+	private String target;
+
+	/**
+	 * Ends the event and commits it, if it should be recorded.
+	 *
+	 * @param check  the executed check
+	 * @param target the visited program element
+	 */
+	public void complete(Check<?> check, Object target) {
+		end();
+		if (shouldCommit()) {
+			this.checks = check.getClass().getSimpleName();
+			this.target = String.valueOf(target);
+			commit();
+		}
+	}
+
+	/**
+	 * Ends the event and commits it, if it should be recorded.
+	 *
+	 * @param checks the checks that have been executed together
+	 * @param target the visited program element
+	 */
+	public void complete(Collection<? extends Check<?>> checks, Object target) {
+		end();
+		if (shouldCommit()) {
+			this.checks = checks.stream().map(c -> c.getClass().getSimpleName()).collect(Collectors.joining(", "));
+			this.target = String.valueOf(target);
+			commit();
+		}
+	}
+}
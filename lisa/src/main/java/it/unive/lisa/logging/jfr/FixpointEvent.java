@@ -0,0 +1,59 @@
+package it.unive.lisa.logging.jfr;
+
+import it.unive.lisa.util.datastructures.graph.FixpointGraph;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event spanning a fixpoint computation over a
+ * {@link FixpointGraph} (e.g., a cfg).
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@Name("it.unive.lisa.Fixpoint")
+@Label("Fixpoint")
+@Category({ "LiSA" })
+@Description("A fixpoint computation over a single graph")
+@StackTrace(false)
+public class FixpointEvent extends Event {
+
+	@Label("Graph")
+	@Description("The graph where the fixpoint is computed (the signature, for cfgs)")
+	private String graph;
+
+	@Label("Nodes")
+	@Description("The number of nodes in the graph")
+	private int nodes;
+
+	@Label("Iterations")
+	@Description("The number of node evaluations performed by the computation")
+	private long iterations;
+
+	@Label("Completed")
+	@Description("Whether or not the computation completed without exceptions")
+	private boolean completed;
+
+	/**
+	 * Ends the event and commits it, if it should be recorded.
+	 *
+	 * @param graph      the graph where the fixpoint has been computed
+	 * @param nodes      the number of nodes in the graph
+	 * @param iterations the number of node evaluations
+	 * @param completed  whether or not the computation completed without
+	 *                       exceptions
+	 */
+	public void complete(Object graph, int nodes, long iterations, boolean completed) {
+		end();
+		if (shouldCommit()) {
+			this.graph = String.valueOf(graph);
+			this.nodes = nodes;
+			this.iterations = iterations;
+			this.completed = completed;
+			commit();
+		}
+	}
+}
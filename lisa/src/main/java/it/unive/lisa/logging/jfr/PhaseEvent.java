@@ -0,0 +1,40 @@
+package it.unive.lisa.logging.jfr;
+
+import it.unive.lisa.logging.TimerLogger;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event spanning a phase of the analysis, that is, an
+ * action whose execution time is logged through {@link TimerLogger}.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@Name("it.unive.lisa.Phase")
+@Label("Analysis Phase")
+@Category({ "LiSA" })
+@Description("A phase of the analysis, as logged by TimerLogger")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+
+	@Label("Phase")
+	@Description("The message describing the phase")
+	private String phase;
+
+	/**
+	 * Ends the event and commits it, if it should be recorded.
+	 *
+	 * @param phase the message describing the phase
+	 */
+	public void complete(String phase) {
+		end();
+		if (shouldCommit()) {
+			this.phase = phase;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,176 @@
+package it.unive.lisa.outputs;
+
+import it.unive.lisa.AnalysisExecutionException;
+import it.unive.lisa.caches.AnalysisSession;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.file.FileManager;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * An object that dumps {@link CFG}s to dot files created through a
+ * {@link FileManager}, writing them directly with
+ * {@link DotCFG#writeCFG(CFG, Function, Writer)}. Only cfgs accepted by a
+ * filter are dumped. If the dumper runs with more than one thread, dumps are
+ * executed in background while the caller continues its work (e.g., analyzing
+ * other cfgs), with a bounded number of dumps being executed or waiting to be
+ * executed at the same time. Labels are then generated in background as well,
+ * and the objects they are generated from (e.g., the results of an analysis)
+ * must not be modified until {@link #finish()} is invoked. Errors while
+ * writing files are logged, and do not interrupt the execution.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class CFGDumper implements AutoCloseable {
+
+	private static final Logger log = LogManager.getLogger(CFGDumper.class);
+
+	private final FileManager fileManager;
+
+	private final Predicate<CFG> filter;
+
+	private final int parallelism;
+
+	private final List<Future<?>> futures;
+
+	private ExecutorService pool;
+
+	private Semaphore pending;
+
+	/**
+	 * Builds the dumper.
+	 *
+	 * @param fileManager the file manager used to create the dot files
+	 * @param filter      the filter deciding which cfgs are dumped, or
+	 *                        {@code null} to dump all of them
+	 * @param parallelism the number of threads to use for dumping cfgs: if
+	 *                        {@code 1}, each cfg is dumped by the thread
+	 *                        invoking {@link #dump(String, CFG, Function)}
+	 *
+	 * @throws IllegalArgumentException if {@code parallelism} is not positive
+	 */
+	public CFGDumper(FileManager fileManager, Predicate<CFG> filter, int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("The number of threads used to dump cfgs must be positive");
+
+		this.fileManager = fileManager;
+		this.filter = filter;
+		this.parallelism = parallelism;
+		this.futures = new ArrayList<>();
+	}
+
+	/**
+	 * Dumps the given cfg to a dot file named
+	 * {@code <filePrefix><cfg signature>.dot}, possibly in background. If the
+	 * cfg is not accepted by the filter of this dumper, nothing happens. If
+	 * the maximum number of pending dumps has been reached, this method blocks
+	 * until one of them completes.
+	 *
+	 * @param filePrefix     the prefix of the name of the dot file
+	 * @param cfg            the cfg to dump
+	 * @param labelGenerator the function used to generate extra labels for
+	 *                           the nodes of the cfg
+	 *
+	 * @throws AnalysisExecutionException if the execution gets interrupted
+	 */
+	public synchronized void dump(String filePrefix, CFG cfg, Function<Statement, String> labelGenerator) {
+		if (filter != null && !filter.test(cfg))
+			return;
+
+		Runnable task = () -> {
+			try (Writer file = fileManager.mkDotFile(filePrefix + cfg.getDescriptor().getFullSignatureWithParNames())) {
+				DotCFG.writeCFG(cfg, labelGenerator, file);
+			} catch (IOException e) {
+				log.error("Exception while dumping the analysis results on " + cfg.getDescriptor().getFullSignature(),
+						e);
+			}
+		};
+
+		if (parallelism == 1) {
+			task.run();
+			return;
+		}
+
+		if (pool == null) {
+			pool = Executors.newFixedThreadPool(parallelism);
+			// at most two cfgs per thread can be waiting, so that the
+			// number of label generators (and of the objects they refer to)
+			// kept alive is bounded
+			pending = new Semaphore(2 * parallelism);
+		}
+
+		try {
+			pending.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AnalysisExecutionException("Interrupted while dumping cfgs", e);
+		}
+
+		Runnable wrapped = AnalysisSession.current().wrap(task);
+		Semaphore permits = pending;
+		futures.add(pool.submit(() -> {
+			try {
+				wrapped.run();
+			} finally {
+				permits.release();
+			}
+		}));
+	}
+
+	/**
+	 * Waits for all the dumps started through
+	 * {@link #dump(String, CFG, Function)} to complete, and releases the
+	 * threads used by this dumper. The dumper can still be used after this
+	 * method returns.
+	 *
+	 * @throws AnalysisExecutionException if one of the dumps fails with an
+	 *                                        unexpected exception, or if the
+	 *                                        execution gets interrupted
+	 */
+	public synchronized void finish() {
+		if (pool == null)
+			return;
+
+		try {
+			for (Future<?> future : futures)
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AnalysisExecutionException("Interrupted while dumping cfgs", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new AnalysisExecutionException("Exception while dumping cfgs", cause);
+		} finally {
+			close();
+		}
+	}
+
+	/**
+	 * Stops the threads used by this dumper, if any, without waiting for
+	 * pending dumps.
+	 */
+	@Override
+	public synchronized void close() {
+		if (pool != null)
+			pool.shutdownNow();
+		pool = null;
+		pending = null;
+		futures.clear();
+	}
+}
@@ -5,7 +5,13 @@ import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.program.cfg.edge.FalseEdge;
 import it.unive.lisa.program.cfg.edge.TrueEdge;
 import it.unive.lisa.program.cfg.statement.Statement;
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.Reader;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.function.Function;
 import org.graphstream.graph.implementations.MultiGraph;
 
@@ -18,6 +24,11 @@ import org.graphstream.graph.implementations.MultiGraph;
  */
 public class DotCFG extends DotGraph<Statement, Edge, CFG> {
 
+	/**
+	 * The label of the legend appended to each cfg.
+	 */
+	private static final String LEGEND = buildLegend();
+
 	private DotCFG() {
 		super(new CFGLegend().graph);
 	}
@@ -58,52 +69,107 @@ public class DotCFG extends DotGraph<Statement, Edge, CFG> {
 		return graph;
 	}
 
+	/**
+	 * Writes a {@link CFG} in dot format to the given {@link Writer}, without
+	 * building a {@link DotCFG}: nodes and edges are written as soon as they
+	 * are visited, and their labels are discarded right after. The output is
+	 * identical to the one of {@link #dumpDot(Writer)} on the graph returned
+	 * by {@link #fromCFG(CFG, Function)}. The writer is flushed, but not
+	 * closed.
+	 * 
+	 * @param source         the source to export into dot format
+	 * @param labelGenerator the function used to generate extra labels
+	 * @param writer         the writer to write to
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	public static void writeCFG(CFG source, Function<Statement, String> labelGenerator, Writer writer)
+			throws IOException {
+		Writer out = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+		Map<Statement, Long> codes = new IdentityHashMap<>();
+		writeHeader(out);
+
+		Collection<Statement> entrypoints = source.getEntrypoints();
+		for (Statement node : entrypoints)
+			writeCFGNode(out, codes, node, true, labelGenerator);
+
+		for (Statement node : source.getNodes())
+			if (!entrypoints.contains(node))
+				writeCFGNode(out, codes, node, false, labelGenerator);
+
+		for (Statement src : source.getNodes())
+			for (Statement dest : source.followersOf(src)) {
+				Edge edge = source.getEdgeConnecting(src, dest);
+				long id = codes.get(src), id1 = codes.get(dest);
+				if (edge instanceof TrueEdge)
+					writeEdge(out, id, id1, COLOR_BLUE, CONDITIONAL_EDGE_STYLE);
+				else if (edge instanceof FalseEdge)
+					writeEdge(out, id, id1, COLOR_RED, CONDITIONAL_EDGE_STYLE);
+				else
+					writeEdge(out, id, id1, COLOR_BLACK, null);
+			}
+
+		writeFooter(out, LEGEND);
+		out.flush();
+	}
+
+	private static void writeCFGNode(Writer writer, Map<Statement, Long> codes, Statement node, boolean entry,
+			Function<Statement, String> labelGenerator) throws IOException {
+		long id = codes.size();
+		codes.put(node, id);
+		writeNode(writer, id, node.toString(), labelGenerator.apply(node), entry, node.stopsExecution());
+	}
+
+	private static String buildLegend() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("<");
+		builder.append("<table border=\"0\" cellpadding=\"2\" cellspacing=\"0\" cellborder=\"0\">");
+		builder.append("<tr><td align=\"right\">node border&nbsp;</td><td align=\"left\"><font color=\"");
+		builder.append(NORMAL_NODE_COLOR);
+		builder.append("\">");
+		builder.append(NORMAL_NODE_COLOR);
+		builder.append("</font>, single</td></tr>");
+		builder.append("<tr><td align=\"right\">entrypoint border&nbsp;</td><td align=\"left\"><font color=\"");
+		builder.append(SPECIAL_NODE_COLOR);
+		builder.append("\">");
+		builder.append(SPECIAL_NODE_COLOR);
+		builder.append("</font>, single</td></tr>");
+		builder.append("<tr><td align=\"right\">exitpoint border&nbsp;</td><td align=\"left\"><font color=\"");
+		builder.append(SPECIAL_NODE_COLOR);
+		builder.append("\">");
+		builder.append(SPECIAL_NODE_COLOR);
+		builder.append("</font>, double</td></tr>");
+		builder.append("<tr><td align=\"right\">sequential edge&nbsp;</td><td align=\"left\"><font color=\"");
+		builder.append(COLOR_BLACK);
+		builder.append("\">");
+		builder.append(COLOR_BLACK);
+		builder.append("</font>, solid</td></tr>");
+		builder.append("<tr><td align=\"right\">true edge&nbsp;</td><td align=\"left\"><font color=\"");
+		builder.append(COLOR_BLUE);
+		builder.append("\">");
+		builder.append(COLOR_BLUE);
+		builder.append("</font>, ");
+		builder.append(CONDITIONAL_EDGE_STYLE);
+		builder.append("</td></tr>");
+		builder.append("<tr><td align=\"right\">false edge&nbsp;</td><td align=\"left\"><font color=\"");
+		builder.append(COLOR_RED);
+		builder.append("\">");
+		builder.append(COLOR_RED);
+		builder.append("</font>, ");
+		builder.append(CONDITIONAL_EDGE_STYLE);
+		builder.append("</td></tr>");
+		builder.append("</table>");
+		builder.append(">");
+		return builder.toString();
+	}
+
 	private static class CFGLegend {
 		private final org.graphstream.graph.Graph graph;
 
 		private CFGLegend() {
 			graph = new MultiGraph("legend");
 			org.graphstream.graph.Node l = graph.addNode("legend");
-			StringBuilder builder = new StringBuilder();
-			builder.append("<");
-			builder.append("<table border=\"0\" cellpadding=\"2\" cellspacing=\"0\" cellborder=\"0\">");
-			builder.append("<tr><td align=\"right\">node border&nbsp;</td><td align=\"left\"><font color=\"");
-			builder.append(NORMAL_NODE_COLOR);
-			builder.append("\">");
-			builder.append(NORMAL_NODE_COLOR);
-			builder.append("</font>, single</td></tr>");
-			builder.append("<tr><td align=\"right\">entrypoint border&nbsp;</td><td align=\"left\"><font color=\"");
-			builder.append(SPECIAL_NODE_COLOR);
-			builder.append("\">");
-			builder.append(SPECIAL_NODE_COLOR);
-			builder.append("</font>, single</td></tr>");
-			builder.append("<tr><td align=\"right\">exitpoint border&nbsp;</td><td align=\"left\"><font color=\"");
-			builder.append(SPECIAL_NODE_COLOR);
-			builder.append("\">");
-			builder.append(SPECIAL_NODE_COLOR);
-			builder.append("</font>, double</td></tr>");
-			builder.append("<tr><td align=\"right\">sequential edge&nbsp;</td><td align=\"left\"><font color=\"");
-			builder.append(COLOR_BLACK);
-			builder.append("\">");
-			builder.append(COLOR_BLACK);
-			builder.append("</font>, solid</td></tr>");
-			builder.append("<tr><td align=\"right\">true edge&nbsp;</td><td align=\"left\"><font color=\"");
-			builder.append(COLOR_BLUE);
-			builder.append("\">");
-			builder.append(COLOR_BLUE);
-			builder.append("</font>, ");
-			builder.append(CONDITIONAL_EDGE_STYLE);
-			builder.append("</td></tr>");
-			builder.append("<tr><td align=\"right\">false edge&nbsp;</td><td align=\"left\"><font color=\"");
-			builder.append(COLOR_RED);
-			builder.append("\">");
-			builder.append(COLOR_RED);
-			builder.append("</font>, ");
-			builder.append(CONDITIONAL_EDGE_STYLE);
-			builder.append("</td></tr>");
-			builder.append("</table>");
-			builder.append(">");
-			l.setAttribute("label", builder.toString());
+			l.setAttribute(LABEL, LEGEND);
 		}
 	}
 }
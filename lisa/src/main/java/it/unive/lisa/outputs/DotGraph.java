@@ -107,6 +107,11 @@ public abstract class DotGraph<N extends Node<N, E, G>, E extends Edge<N, E, G>,
 	 */
 	protected static final String CONDITIONAL_EDGE_STYLE = "dashed";
 
+	/**
+	 * The line separator used in dot files.
+	 */
+	private static final String NEWLINE = System.lineSeparator();
+
 	private static String dotEscape(String extraLabel) {
 		String escapeHtml4 = StringEscapeUtils.escapeHtml4(extraLabel);
 		String replace = escapeHtml4.replaceAll("\\n", "<BR/>");
@@ -154,17 +159,124 @@ public abstract class DotGraph<N extends Node<N, E, G>, E extends Edge<N, E, G>,
 		if (exit)
 			n.setAttribute(EXIT_NODE_EXTRA_ATTR, EXIT_NODE_EXTRA_VALUE);
 
-		String label = dotEscape(node.toString());
-		String extraLabel = labelGenerator.apply(node);
-		if (!extraLabel.isEmpty())
-			extraLabel = "<BR/>" + dotEscape(extraLabel);
-		n.setAttribute(LABEL, "<" + label + extraLabel + ">");
+		n.setAttribute(LABEL, nodeLabel(node.toString(), labelGenerator.apply(node)));
 	}
 
-	private String nodeName(long id) {
+	private static String nodeName(long id) {
 		return "node" + id;
 	}
 
+	private static String nodeLabel(String label, String extraLabel) {
+		String result = dotEscape(label);
+		if (!extraLabel.isEmpty())
+			result += "<BR/>" + dotEscape(extraLabel);
+		return "<" + result + ">";
+	}
+
+	/**
+	 * Writes the beginning of a dot graph to the given {@link Writer}, for
+	 * graphs that are written directly without building a {@link DotGraph}
+	 * instance. The output of {@link #writeHeader(Writer)},
+	 * {@link #writeNode(Writer, long, String, String, boolean, boolean)},
+	 * {@link #writeEdge(Writer, long, long, String, String)} and
+	 * {@link #writeFooter(Writer, String)} is identical to the one of
+	 * {@link #dumpDot(Writer)} on the graph built with
+	 * {@link #addNode(Node, boolean, boolean, Function)} and
+	 * {@link #addEdge(Edge, String, String)}.
+	 * 
+	 * @param writer the writer to write to
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	protected static void writeHeader(Writer writer) throws IOException {
+		writer.write("digraph {");
+		writer.write(NEWLINE);
+	}
+
+	/**
+	 * Writes a node to the given {@link Writer}, as
+	 * {@link #addNode(Node, boolean, boolean, Function)} would add it to a
+	 * graph.
+	 * 
+	 * @param writer     the writer to write to
+	 * @param id         the unique identifier of the node in the graph
+	 * @param label      the label of the node
+	 * @param extraLabel the extra label to append to the label of the node
+	 * @param entry      whether or not this node is an entrypoint of the graph
+	 * @param exit       whether or not this node is an exitpoint of the graph
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	protected static void writeNode(Writer writer, long id, String label, String extraLabel, boolean entry,
+			boolean exit) throws IOException {
+		writer.write("\t\"");
+		writer.write(nodeName(id));
+		writer.write("\" [" + SHAPE + "=\"" + NODE_SHAPE + "\"," + COLOR + "=\"");
+		writer.write(entry || exit ? SPECIAL_NODE_COLOR : NORMAL_NODE_COLOR);
+		writer.write("\",");
+		if (exit)
+			writer.write(EXIT_NODE_EXTRA_ATTR + "=\"" + EXIT_NODE_EXTRA_VALUE + "\",");
+		writer.write(LABEL + "=");
+		writer.write(nodeLabel(label, extraLabel));
+		writer.write("];");
+		writer.write(NEWLINE);
+	}
+
+	/**
+	 * Writes an edge to the given {@link Writer}, as
+	 * {@link #addEdge(Edge, String, String)} would add it to a graph.
+	 * 
+	 * @param writer the writer to write to
+	 * @param source the identifier of the source node
+	 * @param dest   the identifier of the destination node
+	 * @param color  the color of the edge, or {@code null} if none
+	 * @param style  the style of the edge, or {@code null} if none
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	protected static void writeEdge(Writer writer, long source, long dest, String color, String style)
+			throws IOException {
+		writer.write("\t\"");
+		writer.write(nodeName(source));
+		writer.write("\" -> \"");
+		writer.write(nodeName(dest));
+		writer.write("\"");
+		if (color != null || style != null) {
+			writer.write(" [");
+			if (color != null)
+				writer.write(COLOR + "=\"" + color + "\"");
+			if (color != null && style != null)
+				writer.write(",");
+			if (style != null)
+				writer.write(STYLE + "=\"" + style + "\"");
+			writer.write("]");
+		}
+		writer.write(";");
+		writer.write(NEWLINE);
+	}
+
+	/**
+	 * Writes the end of a dot graph to the given {@link Writer}, together with
+	 * a legend made of a single node.
+	 * 
+	 * @param writer the writer to write to
+	 * @param legend the label of the legend node, or {@code null} if no legend
+	 *                   should be written
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	protected static void writeFooter(Writer writer, String legend) throws IOException {
+		if (legend != null) {
+			writer.write("subgraph cluster_legend {" + NEWLINE);
+			writer.write("\tlabel=\"Legend\";" + NEWLINE);
+			writer.write("\tstyle=dotted;" + NEWLINE);
+			writer.write("\tnode [shape=plaintext];" + NEWLINE);
+			writer.write("\t\"legend\" [" + LABEL + "=" + legend + "];" + NEWLINE);
+			writer.write("}" + NEWLINE + NEWLINE);
+		}
+		writer.write("}" + NEWLINE);
+	}
+
 	/**
 	 * Adds an edge to the graph.
 	 * 
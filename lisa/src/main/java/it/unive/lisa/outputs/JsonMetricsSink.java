@@ -0,0 +1,137 @@
+package it.unive.lisa.outputs;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import it.unive.lisa.program.CodeElement;
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.util.datastructures.graph.FixpointMetrics;
+import it.unive.lisa.util.datastructures.graph.FixpointMetrics.NodeMetrics;
+import it.unive.lisa.util.datastructures.graph.FixpointMetricsSink;
+import it.unive.lisa.util.file.FileManager;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map.Entry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A {@link FixpointMetricsSink} that writes each recorded
+ * {@link FixpointMetrics} to a json array as soon as it is recorded, without
+ * keeping it in memory. Each element of the array is an object describing a
+ * fixpoint computation, with the overall metrics of the computation and a
+ * {@code nodes} array containing the metrics of each node. Errors while
+ * writing are logged, and further metrics are discarded after the first one.
+ * The array is completed when the sink is closed.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class JsonMetricsSink implements FixpointMetricsSink, Closeable {
+
+	private static final Logger log = LogManager.getLogger(JsonMetricsSink.class);
+
+	/**
+	 * The name of the file created by {@link #JsonMetricsSink(FileManager)}
+	 */
+	public static final String FILE_NAME = "fixpoint-metrics.json";
+
+	private final JsonGenerator generator;
+
+	private boolean failed;
+
+	private boolean closed;
+
+	/**
+	 * Builds the sink, writing metrics to the {@value #FILE_NAME} file created
+	 * through the given {@link FileManager}.
+	 *
+	 * @param fileManager the file manager used to create the file
+	 *
+	 * @throws IOException if the file cannot be created
+	 */
+	public JsonMetricsSink(FileManager fileManager) throws IOException {
+		this(fileManager.mkOutputFile(FILE_NAME));
+	}
+
+	/**
+	 * Builds the sink, immediately writing the beginning of the json array to
+	 * the given writer.
+	 *
+	 * @param writer the writer to write metrics to, that will be closed when
+	 *                   this sink is closed
+	 *
+	 * @throws IOException if some I/O error happens while writing to the writer
+	 */
+	public JsonMetricsSink(Writer writer) throws IOException {
+		this.generator = new JsonFactory().createGenerator(writer);
+		generator.useDefaultPrettyPrinter();
+		generator.writeStartArray();
+	}
+
+	@Override
+	public synchronized void record(FixpointMetrics<?> metrics) {
+		if (failed || closed)
+			return;
+
+		try {
+			generator.writeStartObject();
+			generator.writeStringField("graph", metrics.getGraph());
+			generator.writeBooleanField("completed", metrics.isCompleted());
+			generator.writeNumberField("totalNanos", metrics.getTotalNanos());
+			generator.writeNumberField("evaluations", metrics.getEvaluations());
+			generator.writeNumberField("lubs", metrics.getLubs());
+			generator.writeNumberField("widenings", metrics.getWidenings());
+			generator.writeNumberField("semanticsNanos", metrics.getSemanticsNanos());
+			generator.writeNumberField("entryStateNanos", metrics.getEntryStateNanos());
+			if (metrics.getStoredStates() >= 0) {
+				generator.writeNumberField("storedStates", metrics.getStoredStates());
+				generator.writeNumberField("distinctStates", metrics.getDistinctStates());
+				generator.writeNumberField("savedSize", metrics.getSavedSize());
+			}
+			generator.writeArrayFieldStart("nodes");
+			for (Entry<?, NodeMetrics> node : metrics.getNodes().entrySet())
+				writeNode(node.getKey(), node.getValue());
+			generator.writeEndArray();
+			generator.writeEndObject();
+		} catch (IOException e) {
+			failed = true;
+			log.error("Unable to write fixpoint metrics, further metrics will be discarded", e);
+		}
+	}
+
+	private void writeNode(Object node, NodeMetrics metrics) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("node", String.valueOf(node));
+		CodeLocation location = node instanceof CodeElement ? ((CodeElement) node).getLocation() : null;
+		if (location != null)
+			generator.writeStringField("location", location.getCodeLocation());
+		generator.writeNumberField("evaluations", metrics.getEvaluations());
+		generator.writeNumberField("lubs", metrics.getLubs());
+		generator.writeNumberField("widenings", metrics.getWidenings());
+		generator.writeNumberField("semanticsNanos", metrics.getSemanticsNanos());
+		generator.writeNumberField("entryStateNanos", metrics.getEntryStateNanos());
+		generator.writeNumberField("stateSize", metrics.getStateSize());
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Completes the json array and closes the underlying writer. Metrics
+	 * recorded after this sink has been closed are discarded. Closing an
+	 * already closed sink has no effect.
+	 *
+	 * @throws IOException if some I/O error happens while writing to the writer
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed)
+			return;
+
+		closed = true;
+		try {
+			if (!failed)
+				generator.writeEndArray();
+		} finally {
+			generator.close();
+		}
+	}
+}
@@ -1,7 +1,9 @@
 package it.unive.lisa.outputs;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import it.unive.lisa.checks.warnings.Warning;
 import java.io.IOException;
 import java.io.Reader;
@@ -10,6 +12,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.Consumer;
 
 /**
  * A report of an executed analysis that can be dumped in json format, and that
@@ -23,6 +26,8 @@ public class JsonReport {
 
 	private final Set<String> files;
 
+	private final String archive;
+
 	/**
 	 * Builds an empty report.
 	 */
@@ -37,12 +42,32 @@ public class JsonReport {
 	 * @param files    the collections of file names to include
 	 */
 	public JsonReport(Collection<Warning> warnings, Collection<String> files) {
+		this(warnings, files, null);
+	}
+
+	/**
+	 * Builds the report, containing the given warnings and files, where files
+	 * are stored in the given zip archive.
+	 * 
+	 * @param warnings the collection of warnings to map to {@link JsonWarning}s
+	 * @param files    the collections of file names to include
+	 * @param archive  the name of the zip archive containing the files, or
+	 *                     {@code null} if files are not archived
+	 */
+	public JsonReport(Collection<Warning> warnings, Collection<String> files, String archive) {
 		this.warnings = new TreeSet<>();
 		this.files = new TreeSet<>(files);
+		this.archive = archive;
 		for (Warning warn : warnings)
 			this.warnings.add(new JsonWarning(warn));
 	}
 
+	private JsonReport(Set<JsonWarning> warnings, Set<String> files, String archive) {
+		this.warnings = warnings;
+		this.files = files;
+		this.archive = archive;
+	}
+
 	/**
 	 * Yields the collection of {@link JsonWarning}s contained into this report.
 	 * 
@@ -65,6 +90,20 @@ public class JsonReport {
 		return files;
 	}
 
+	/**
+	 * Yields the name of the zip archive containing the files of this report,
+	 * if any. The name should be interpreted as a path relative to the workdir
+	 * of the analysis (or the folder containing this report, if this was read
+	 * from a file), while the names returned by {@link #getFiles()} are then
+	 * names of entries of the archive.
+	 * 
+	 * @return the name of the archive, or {@code null} if files are not
+	 *             archived
+	 */
+	public String getArchive() {
+		return archive;
+	}
+
 	/**
 	 * Dumps this report to the given {@link Writer} instance, serializing it as
 	 * a json object.
@@ -74,14 +113,32 @@ public class JsonReport {
 	 * @throws IOException if some I/O error happens while writing to the writer
 	 */
 	public void dump(Writer writer) throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.configure(SerializationFeature.INDENT_OUTPUT, true);
-		mapper.writeValue(writer, this);
+		dump(writer, false);
+	}
+
+	/**
+	 * Dumps this report to the given {@link Writer} instance, serializing it
+	 * either as a json object or in the NDJSON format (see
+	 * {@link JsonReportWriter}).
+	 * 
+	 * @param writer the writer to write to
+	 * @param ndjson whether or not the report should be dumped in the NDJSON
+	 *                   format
+	 * 
+	 * @throws IOException if some I/O error happens while writing to the writer
+	 */
+	public void dump(Writer writer, boolean ndjson) throws IOException {
+		try (JsonReportWriter json = new JsonReportWriter(writer, ndjson)) {
+			for (JsonWarning warning : warnings)
+				json.write(warning);
+			json.writeFiles(files, archive);
+		}
 	}
 
 	/**
 	 * Reads a {@link JsonReport} from a {@link Reader} instance, deserializing
-	 * it as a json object.
+	 * it either from a json object or from the NDJSON format (see
+	 * {@link JsonReportWriter}).
 	 * 
 	 * @param reader the reader to read from
 	 * 
@@ -91,14 +148,125 @@ public class JsonReport {
 	 *                         reader
 	 */
 	public static JsonReport read(Reader reader) throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
-		return mapper.readValue(reader, JsonReport.class);
+		Set<JsonWarning> warnings = new TreeSet<>();
+		Set<String> files = new TreeSet<>();
+		String[] archive = new String[1];
+		read(reader, warnings::add, files::add, name -> archive[0] = name);
+		return new JsonReport(warnings, files, archive[0]);
+	}
+
+	/**
+	 * Reads a report from a {@link Reader} instance, in either of the formats
+	 * produced by {@link JsonReportWriter}, without building a
+	 * {@link JsonReport}: each warning and each file is instead passed to the
+	 * given consumers as soon as it is parsed, in the order they appear in the
+	 * report. Unknown fields are ignored, as well as the archive containing the
+	 * files, if any. The reader is closed when this method returns.
+	 * 
+	 * @param reader   the reader to read from
+	 * @param warnings the consumer of the warnings contained in the report
+	 * @param files    the consumer of the file names contained in the report
+	 * 
+	 * @throws IOException if some I/O error happens while reading from the
+	 *                         reader, or if its contents are not a valid
+	 *                         report
+	 */
+	public static void read(Reader reader, Consumer<JsonWarning> warnings, Consumer<String> files)
+			throws IOException {
+		read(reader, warnings, files, archive -> {
+		});
+	}
+
+	/**
+	 * Reads a report from a {@link Reader} instance, as
+	 * {@link #read(Reader, Consumer, Consumer)} does, additionally passing the
+	 * name of the archive containing the files of the report to
+	 * {@code archive}, if the report has one.
+	 * 
+	 * @param reader   the reader to read from
+	 * @param warnings the consumer of the warnings contained in the report
+	 * @param files    the consumer of the file names contained in the report
+	 * @param archive  the consumer of the name of the archive containing the
+	 *                     files
+	 * 
+	 * @throws IOException if some I/O error happens while reading from the
+	 *                         reader, or if its contents are not a valid
+	 *                         report
+	 */
+	public static void read(Reader reader, Consumer<JsonWarning> warnings, Consumer<String> files,
+			Consumer<String> archive) throws IOException {
+		try (JsonParser parser = new JsonFactory().createParser(reader)) {
+			// a json report is a single object, while NDJSON ones are
+			// sequences of objects: both are handled by reading root objects
+			// until the end of the input
+			JsonToken token;
+			while ((token = parser.nextToken()) != null) {
+				expect(parser, token, JsonToken.START_OBJECT);
+				while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+					String field = parser.getCurrentName();
+					token = parser.nextToken();
+					switch (field) {
+					case JsonReportWriter.WARNINGS:
+						expect(parser, token, JsonToken.START_ARRAY);
+						while ((token = parser.nextToken()) != JsonToken.END_ARRAY)
+							warnings.accept(readWarning(parser, token));
+						break;
+					case JsonReportWriter.FILES:
+						expect(parser, token, JsonToken.START_ARRAY);
+						while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+							expect(parser, token, JsonToken.VALUE_STRING);
+							files.accept(parser.getText());
+						}
+						break;
+					case JsonReportWriter.MESSAGE:
+						expect(parser, token, JsonToken.VALUE_STRING);
+						JsonWarning warning = new JsonWarning();
+						warning.setMessage(parser.getText());
+						warnings.accept(warning);
+						break;
+					case JsonReportWriter.FILE:
+						expect(parser, token, JsonToken.VALUE_STRING);
+						files.accept(parser.getText());
+						break;
+					case JsonReportWriter.ARCHIVE:
+						expect(parser, token, JsonToken.VALUE_STRING);
+						archive.accept(parser.getText());
+						break;
+					default:
+						parser.skipChildren();
+					}
+				}
+				expect(parser, token, JsonToken.END_OBJECT);
+			}
+		}
+	}
+
+	private static JsonWarning readWarning(JsonParser parser, JsonToken token) throws IOException {
+		expect(parser, token, JsonToken.START_OBJECT);
+		JsonWarning warning = new JsonWarning();
+		while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			token = parser.nextToken();
+			if (field.equals(JsonReportWriter.MESSAGE)) {
+				expect(parser, token, JsonToken.VALUE_STRING);
+				warning.setMessage(parser.getText());
+			} else
+				parser.skipChildren();
+		}
+		expect(parser, token, JsonToken.END_OBJECT);
+		return warning;
+	}
+
+	private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+		if (actual != expected)
+			throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
+		result = prime * result + ((archive == null) ? 0 : archive.hashCode());
 		result = prime * result + ((files == null) ? 0 : files.hashCode());
 		result = prime * result + ((warnings == null) ? 0 : warnings.hashCode());
 		return result;
@@ -113,6 +281,11 @@ public class JsonReport {
 		if (getClass() != obj.getClass())
 			return false;
 		JsonReport other = (JsonReport) obj;
+		if (archive == null) {
+			if (other.archive != null)
+				return false;
+		} else if (!archive.equals(other.archive))
+			return false;
 		if (files == null) {
 			if (other.files != null)
 				return false;
@@ -128,7 +301,8 @@ public class JsonReport {
 
 	@Override
 	public String toString() {
-		return "JsonAnalysisReport [findings=" + warnings + ", files=" + files + "]";
+		return "JsonAnalysisReport [findings=" + warnings + ", files=" + files
+				+ (archive == null ? "" : ", archive=" + archive) + "]";
 	}
 
 	/**
@@ -0,0 +1,227 @@
+package it.unive.lisa.outputs;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import it.unive.lisa.checks.warnings.Warning;
+import it.unive.lisa.outputs.JsonReport.JsonWarning;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+/**
+ * A writer that produces a {@link JsonReport} incrementally, appending each
+ * warning to the output as soon as it is written, without keeping any of them
+ * in memory. The report can be produced in two formats:
+ * <ul>
+ * <li>the standard one, that is a single indented json object identical to
+ * the one produced by {@link JsonReport#dump(Writer)};</li>
+ * <li>the <a href="http://ndjson.org/">NDJSON</a> one, where each line is a
+ * self-contained json object: {@code {"message":"..."}} for warnings,
+ * {@code {"file":"..."}} for files, and {@code {"archive":"..."}} for the
+ * archive containing the files, if any.</li>
+ * </ul>
+ * Both formats can be read back through {@link JsonReport#read(Reader)}, or
+ * through {@link JsonReport#read(Reader, Consumer, Consumer)} to process the
+ * report without loading it in memory. All warnings must be written before
+ * the files (see {@link #writeFiles(Collection)}). Instances of this class are
+ * thread-safe, but no ordering is enforced on warnings written by different
+ * threads.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class JsonReportWriter implements Closeable {
+
+	/**
+	 * The name of the json field containing the warnings
+	 */
+	static final String WARNINGS = "warnings";
+
+	/**
+	 * The name of the json field containing the files
+	 */
+	static final String FILES = "files";
+
+	/**
+	 * The name of the json field containing the message of a warning
+	 */
+	static final String MESSAGE = "message";
+
+	/**
+	 * The name of the json field containing a single file in the NDJSON
+	 * format
+	 */
+	static final String FILE = "file";
+
+	/**
+	 * The name of the json field containing the name of the archive
+	 * containing the files
+	 */
+	static final String ARCHIVE = "archive";
+
+	private final JsonGenerator generator;
+
+	private final boolean ndjson;
+
+	private boolean filesWritten;
+
+	private boolean closed;
+
+	/**
+	 * Builds the writer. If {@code ndjson} is {@code false}, the beginning of
+	 * the report is immediately written to {@code writer}.
+	 *
+	 * @param writer the writer to write the report to, that will be closed
+	 *                   when this writer is closed
+	 * @param ndjson whether or not the report should be produced in the NDJSON
+	 *                   format
+	 *
+	 * @throws IOException if some I/O error happens while writing to the writer
+	 */
+	public JsonReportWriter(Writer writer, boolean ndjson) throws IOException {
+		this.generator = new JsonFactory().createGenerator(writer);
+		this.ndjson = ndjson;
+		if (ndjson)
+			generator.setRootValueSeparator(new SerializedString("\n"));
+		else {
+			generator.useDefaultPrettyPrinter();
+			generator.writeStartObject();
+			generator.writeArrayFieldStart(WARNINGS);
+		}
+	}
+
+	/**
+	 * Appends the given warning to the report.
+	 *
+	 * @param warning the warning to write
+	 *
+	 * @throws IOException           if some I/O error happens while writing to
+	 *                                   the writer
+	 * @throws IllegalStateException if the files of the report have already
+	 *                                   been written, or if this writer has
+	 *                                   been closed
+	 */
+	public void write(Warning warning) throws IOException {
+		writeWarning(warning.toString());
+	}
+
+	/**
+	 * Appends the given warning to the report.
+	 *
+	 * @param warning the warning to write
+	 *
+	 * @throws IOException           if some I/O error happens while writing to
+	 *                                   the writer
+	 * @throws IllegalStateException if the files of the report have already
+	 *                                   been written, or if this writer has
+	 *                                   been closed
+	 */
+	public void write(JsonWarning warning) throws IOException {
+		writeWarning(warning.getMessage());
+	}
+
+	private synchronized void writeWarning(String message) throws IOException {
+		if (closed || filesWritten)
+			throw new IllegalStateException("Warnings cannot be written after the files of the report");
+
+		generator.writeStartObject();
+		generator.writeStringField(MESSAGE, message);
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Writes the given files to the report, ending the sequence of warnings.
+	 * This method can be invoked at most once, and no warning can be written
+	 * after it. If this method is never invoked, the report will contain no
+	 * files.
+	 *
+	 * @param files the names of the files to write
+	 *
+	 * @throws IOException           if some I/O error happens while writing to
+	 *                                   the writer
+	 * @throws IllegalStateException if the files of the report have already
+	 *                                   been written, or if this writer has
+	 *                                   been closed
+	 */
+	public void writeFiles(Collection<String> files) throws IOException {
+		writeFiles(files, null);
+	}
+
+	/**
+	 * Writes the given files to the report, ending the sequence of warnings,
+	 * together with the name of the zip archive that contains them. This
+	 * method can be invoked at most once, and no warning can be written after
+	 * it.
+	 *
+	 * @param files   the names of the files to write
+	 * @param archive the name of the archive containing the files, or
+	 *                    {@code null} if files are not archived
+	 *
+	 * @throws IOException           if some I/O error happens while writing to
+	 *                                   the writer
+	 * @throws IllegalStateException if the files of the report have already
+	 *                                   been written, or if this writer has
+	 *                                   been closed
+	 */
+	public synchronized void writeFiles(Collection<String> files, String archive) throws IOException {
+		if (closed || filesWritten)
+			throw new IllegalStateException("The files of the report have already been written");
+
+		filesWritten = true;
+		if (ndjson) {
+			if (archive != null) {
+				generator.writeStartObject();
+				generator.writeStringField(ARCHIVE, archive);
+				generator.writeEndObject();
+			}
+			for (String file : files) {
+				generator.writeStartObject();
+				generator.writeStringField(FILE, file);
+				generator.writeEndObject();
+			}
+		} else {
+			generator.writeEndArray();
+			generator.writeArrayFieldStart(FILES);
+			for (String file : files)
+				generator.writeString(file);
+			generator.writeEndArray();
+			if (archive != null)
+				generator.writeStringField(ARCHIVE, archive);
+		}
+	}
+
+	/**
+	 * Flushes the report written so far to the underlying writer.
+	 *
+	 * @throws IOException if some I/O error happens while writing to the writer
+	 */
+	public synchronized void flush() throws IOException {
+		generator.flush();
+	}
+
+	/**
+	 * Completes the report and closes the underlying writer. If
+	 * {@link #writeFiles(Collection)} has not been invoked, the report will
+	 * contain no files. Closing an already closed writer has no effect.
+	 *
+	 * @throws IOException if some I/O error happens while writing to the writer
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed)
+			return;
+
+		if (!filesWritten)
+			writeFiles(Collections.emptyList());
+		closed = true;
+		if (ndjson)
+			generator.writeRaw('\n');
+		else
+			generator.writeEndObject();
+		generator.close();
+	}
+}
@@ -9,9 +9,21 @@ import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.util.collections.CollectionsDiffBuilder;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
 /**
@@ -22,6 +34,8 @@ import org.apache.commons.lang3.tuple.Pair;
  */
 public class JsonReportComparer {
 
+	private static final int BUFFER_SIZE = 8192;
+
 	/**
 	 * An enumeration defining the different type of reports that can be issued.
 	 * 
@@ -126,7 +140,8 @@ public class JsonReportComparer {
 	}
 
 	/**
-	 * Compares the two reports.
+	 * Compares the two reports, using one thread per available processor for
+	 * comparing the files contained in them.
 	 * 
 	 * @param first          the first report
 	 * @param second         the second report
@@ -149,9 +164,53 @@ public class JsonReportComparer {
 	 */
 	public static boolean compare(JsonReport first, JsonReport second, File firstFileRoot, File secondFileRoot,
 			DiffReporter reporter) throws IOException {
+		return compare(first, second, firstFileRoot, secondFileRoot, reporter,
+				Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Compares the two reports. Since reports keep their warnings and files
+	 * sorted, these are compared by merging the two sequences in a single
+	 * pass. Then, if no difference has been found, files with matching names
+	 * are compared using {@code parallelism} threads: the raw contents of the
+	 * two files are compared first, and only files that are not byte-wise
+	 * identical are parsed and compared structurally (e.g., dot files are
+	 * compared as {@link DotGraph}s, so that the order of their nodes and
+	 * edges is irrelevant). Differences between files are notified to
+	 * {@code reporter} on the calling thread, in the order of the file names.
+	 * If a report stores its files in an archive (see
+	 * {@link JsonReport#getArchive()}), they are read directly from it.
+	 * 
+	 * @param first          the first report
+	 * @param second         the second report
+	 * @param firstFileRoot  the root folder for the resolution of the file
+	 *                           names in the first report (this should be
+	 *                           either the workdir of that analysis or the
+	 *                           folder where {@code first} lies)
+	 * @param secondFileRoot the root folder for the resolution of the file
+	 *                           names in the second report (this should be
+	 *                           either the workdir of that analysis or the
+	 *                           folder where {@code second} lies)
+	 * @param reporter       the {@link DiffReporter} that will be used for
+	 *                           dumping the differences found in the two
+	 *                           reports
+	 * @param parallelism    the number of threads to use for comparing files
+	 * 
+	 * @return {@code true} if and only the two reports are equal
+	 * 
+	 * @throws IOException              if errors happen while opening or
+	 *                                      reading the files contained in the
+	 *                                      reports
+	 * @throws IllegalArgumentException if {@code parallelism} is not positive
+	 */
+	public static boolean compare(JsonReport first, JsonReport second, File firstFileRoot, File secondFileRoot,
+			DiffReporter reporter, int parallelism) throws IOException {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("The number of threads used to compare files must be positive");
+
 		CollectionsDiffBuilder<JsonWarning> warnings = new CollectionsDiffBuilder<>(JsonWarning.class,
 				first.getWarnings(), second.getWarnings());
-		warnings.compute(JsonWarning::compareTo);
+		warnings.computeSorted(JsonWarning::compareTo);
 
 		if (!warnings.getCommons().isEmpty())
 			reporter.report(REPORTED_COMPONENT.WARNINGS, REPORT_TYPE.COMMON, warnings.getCommons());
@@ -162,7 +221,7 @@ public class JsonReportComparer {
 
 		CollectionsDiffBuilder<String> files = new CollectionsDiffBuilder<>(String.class, first.getFiles(),
 				second.getFiles());
-		files.compute(String::compareTo);
+		files.computeSorted(String::compareTo);
 
 		if (!files.getCommons().isEmpty())
 			reporter.report(REPORTED_COMPONENT.FILES, REPORT_TYPE.COMMON, files.getCommons());
@@ -174,36 +233,107 @@ public class JsonReportComparer {
 		if (!warnings.sameContent() || !files.sameContent())
 			return false;
 
-		boolean diffFound = false;
-		for (Pair<String, String> pair : files.getCommons()) {
-			File left = new File(firstFileRoot, pair.getLeft());
-			File right = new File(secondFileRoot, pair.getRight());
-
-			if (!left.exists())
-				throw new FileNotFoundException(
-						pair.getLeft() + " declared as output in the first report does not exist");
-			if (!right.exists())
-				throw new FileNotFoundException(
-						pair.getRight() + " declared as output in the second report does not exist");
-
-			if (left.getName().endsWith(".dot"))
-				if (!matchDotGraphs(left, right)) {
-					reporter.fileDiff(left.toString(), right.toString(), "Graphs are different");
+		try (ReportFiles lFiles = new ReportFiles(firstFileRoot, first.getArchive());
+				ReportFiles rFiles = new ReportFiles(secondFileRoot, second.getArchive())) {
+			List<Pair<String, String>> dots = new ArrayList<>();
+			for (Pair<String, String> pair : files.getCommons()) {
+				if (!lFiles.exists(pair.getLeft()))
+					throw new FileNotFoundException(
+							pair.getLeft() + " declared as output in the first report does not exist");
+				if (!rFiles.exists(pair.getRight()))
+					throw new FileNotFoundException(
+							pair.getRight() + " declared as output in the second report does not exist");
+
+				if (pair.getLeft().endsWith(".dot"))
+					dots.add(pair);
+			}
+
+			List<Boolean> matches = matchAll(dots, pair -> matchDotGraphs(lFiles, pair.getLeft(), rFiles,
+					pair.getRight()), parallelism);
+			boolean diffFound = false;
+			for (int i = 0; i < dots.size(); i++)
+				if (!matches.get(i)) {
+					reporter.fileDiff(lFiles.path(dots.get(i).getLeft()), rFiles.path(dots.get(i).getRight()),
+							"Graphs are different");
 					diffFound = true;
 				}
+
+			return !diffFound;
 		}
+	}
 
-		return !diffFound;
+	private interface FileMatcher {
+		boolean match(Pair<String, String> files) throws IOException;
 	}
 
-	private static boolean matchDotGraphs(File left, File right) throws IOException {
-		try (FileReader l = new FileReader(left); FileReader r = new FileReader(right)) {
+	private static List<Boolean> matchAll(List<Pair<String, String>> pairs, FileMatcher matcher, int parallelism)
+			throws IOException {
+		List<Boolean> result = new ArrayList<>(pairs.size());
+		if (parallelism == 1 || pairs.size() < 2) {
+			for (Pair<String, String> pair : pairs)
+				result.add(matcher.match(pair));
+			return result;
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, pairs.size()));
+		try {
+			List<Future<Boolean>> futures = new ArrayList<>(pairs.size());
+			for (Pair<String, String> pair : pairs)
+				futures.add(pool.submit(() -> matcher.match(pair)));
+			for (Future<Boolean> future : futures)
+				result.add(future.get());
+			return result;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while comparing files");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IOException(cause);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static boolean matchDotGraphs(ReportFiles lFiles, String left, ReportFiles rFiles, String right)
+			throws IOException {
+		// identical files need not be parsed
+		if (sameContent(lFiles, left, rFiles, right))
+			return true;
+
+		try (Reader l = new InputStreamReader(lFiles.open(left), StandardCharsets.UTF_8);
+				Reader r = new InputStreamReader(rFiles.open(right), StandardCharsets.UTF_8)) {
 			DotGraph<Statement, Edge, CFG> lDot = DotGraph.readDot(l);
 			DotGraph<Statement, Edge, CFG> rDot = DotGraph.readDot(r);
 			return lDot.equals(rDot);
 		}
 	}
 
+	private static boolean sameContent(ReportFiles lFiles, String left, ReportFiles rFiles, String right)
+			throws IOException {
+		long lLength = lFiles.length(left), rLength = rFiles.length(right);
+		if (lLength != -1 && rLength != -1 && lLength != rLength)
+			return false;
+
+		byte[] lBuffer = new byte[BUFFER_SIZE];
+		byte[] rBuffer = new byte[BUFFER_SIZE];
+		try (InputStream l = lFiles.open(left); InputStream r = rFiles.open(right)) {
+			// after a short read, the tails of the buffers still hold the
+			// (equal) bytes of the previous chunk, so whole buffers can be
+			// compared
+			int read;
+			while ((read = IOUtils.read(l, lBuffer)) > 0)
+				if (IOUtils.read(r, rBuffer) != read || !Arrays.equals(lBuffer, rBuffer))
+					return false;
+			return IOUtils.read(r, rBuffer) == 0;
+		}
+	}
+
 	private static class BaseDiffReporter implements DiffReporter {
 
 		@Override
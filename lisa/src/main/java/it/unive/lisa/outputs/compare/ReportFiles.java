@@ -0,0 +1,102 @@
+package it.unive.lisa.outputs.compare;
+
+import it.unive.lisa.outputs.JsonReport;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The files listed in a {@link JsonReport}, that can be either stored as
+ * separate files in a root folder, or as entries of a zip archive placed in
+ * that folder (see {@link JsonReport#getArchive()}). Files that are not found
+ * in the archive are searched in the root folder. Instances of this class can
+ * be used by different threads at the same time.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+class ReportFiles implements Closeable {
+
+	private final File root;
+
+	private final File archiveFile;
+
+	private final ZipFile archive;
+
+	/**
+	 * Builds the files of a report.
+	 *
+	 * @param root    the root folder for the resolution of the file names
+	 * @param archive the name of the archive containing the files, relative to
+	 *                    {@code root}, or {@code null} if files are not
+	 *                    archived
+	 *
+	 * @throws IOException if the archive cannot be opened
+	 */
+	ReportFiles(File root, String archive) throws IOException {
+		this.root = root;
+		this.archiveFile = archive == null ? null : new File(root, archive);
+		this.archive = archive == null ? null : new ZipFile(archiveFile);
+	}
+
+	private ZipEntry entry(String name) {
+		return archive == null ? null : archive.getEntry(name);
+	}
+
+	/**
+	 * Yields whether or not the given file exists.
+	 *
+	 * @param name the name of the file
+	 *
+	 * @return {@code true} if the file exists
+	 */
+	boolean exists(String name) {
+		return entry(name) != null || new File(root, name).exists();
+	}
+
+	/**
+	 * Yields the size, in bytes, of the given file.
+	 *
+	 * @param name the name of the file
+	 *
+	 * @return the size of the file, or {@code -1} if it is not known
+	 */
+	long length(String name) {
+		ZipEntry entry = entry(name);
+		return entry != null ? entry.getSize() : new File(root, name).length();
+	}
+
+	/**
+	 * Opens the given file for reading.
+	 *
+	 * @param name the name of the file
+	 *
+	 * @return a stream reading the contents of the file
+	 *
+	 * @throws IOException if the file cannot be opened
+	 */
+	InputStream open(String name) throws IOException {
+		ZipEntry entry = entry(name);
+		return entry != null ? archive.getInputStream(entry) : new FileInputStream(new File(root, name));
+	}
+
+	/**
+	 * Yields a human-readable path of the given file, to be used in messages.
+	 *
+	 * @param name the name of the file
+	 *
+	 * @return the path of the file
+	 */
+	String path(String name) {
+		return entry(name) != null ? archiveFile + "!/" + name : new File(root, name).toString();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (archive != null)
+			archive.close();
+	}
+}
@@ -1,8 +1,10 @@
 package it.unive.lisa.program;
 
+import it.unive.lisa.caches.Caches;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.NativeCFG;
 import it.unive.lisa.type.Type;
+import it.unive.lisa.type.TypeHierarchy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
@@ -34,6 +36,12 @@ public class Program extends Unit {
 	 */
 	private Collection<Type> types;
 
+	/**
+	 * The hierarchy of the types registered in this program, built during
+	 * {@link #validateAndFinalize()}.
+	 */
+	private TypeHierarchy hierarchy;
+
 	/**
 	 * Builds an empty program.
 	 */
@@ -65,6 +73,18 @@ public class Program extends Unit {
 		return types;
 	}
 
+	/**
+	 * Yields the {@link TypeHierarchy} of the types registered in this
+	 * program, built over {@link Caches#types()}. The hierarchy is available
+	 * only after {@link #validateAndFinalize()} has been invoked.
+	 * 
+	 * @return the type hierarchy, or {@code null} if this program has not
+	 *             been finalized yet
+	 */
+	public final TypeHierarchy getTypeHierarchy() {
+		return hierarchy;
+	}
+
 	/**
 	 * Adds a new {@link CompilationUnit}, identified by its name
 	 * ({@link CompilationUnit#getName()}), to this program.
@@ -149,18 +169,23 @@ public class Program extends Unit {
 	 * {@inheritDoc} <br>
 	 * <br>
 	 * Validating a program simply causes the validation of all the
-	 * {@link CompilationUnit}s defined inside it. Validation also clears (by
-	 * setting it to {@code null}) the set of registered types, in order to
+	 * {@link CompilationUnit}s defined inside it. After that, the registered
+	 * types are used to build the {@link TypeHierarchy} of this program
+	 * (available through {@link #getTypeHierarchy()}). Validation then clears
+	 * (by setting it to {@code null}) the set of registered types, in order to
 	 * shrink the memory fingerprint of the program.
 	 */
 	@Override
 	public final void validateAndFinalize() throws ProgramValidationException {
-		// shrink memory fingerprint
-		types = null;
-
 		super.validateAndFinalize();
 
 		for (CompilationUnit unit : getUnits())
 			unit.validateAndFinalize();
+
+		// the hierarchy of the units is needed to relate the types
+		if (types != null)
+			hierarchy = new TypeHierarchy(types, Caches.types());
+		// shrink memory fingerprint
+		types = null;
 	}
 }
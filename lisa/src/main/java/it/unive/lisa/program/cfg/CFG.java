@@ -7,6 +7,7 @@ import it.unive.lisa.analysis.Lattice;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.StatementStore;
 import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.liveness.LiveVariables;
 import it.unive.lisa.analysis.lattices.FunctionalLattice;
 import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.callgraph.CallGraph;
@@ -14,17 +15,24 @@ import it.unive.lisa.outputs.DotCFG;
 import it.unive.lisa.program.ProgramValidationException;
 import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.statement.Call;
 import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.NativeCall;
 import it.unive.lisa.program.cfg.statement.NoOp;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import it.unive.lisa.util.datastructures.graph.AdjacencyMatrix;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration;
 import it.unive.lisa.util.datastructures.graph.FixpointException;
 import it.unive.lisa.util.datastructures.graph.FixpointGraph;
+import it.unive.lisa.util.datastructures.graph.GraphVisitor;
 import it.unive.lisa.util.workset.FIFOWorkingSet;
 import it.unive.lisa.util.workset.WorkingSet;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -729,16 +737,110 @@ public class CFG extends FixpointGraph<CFG, Statement, Edge> implements CodeMemb
 	 *                               unknown/invalid statement ends up in the
 	 *                               working set
 	 */
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public <A extends AbstractState<A, H, V>,
 			H extends HeapDomain<H>,
 			V extends ValueDomain<V>> CFGWithAnalysisResults<A, H, V> fixpoint(
 					Map<Statement, AnalysisState<A, H, V>> startingPoints, CallGraph cg, WorkingSet<Statement> ws,
 					int widenAfter)
 					throws FixpointException {
+		return fixpoint(startingPoints, cg, ws, widenAfter, new FixpointConfiguration());
+	}
+
+	/**
+	 * Computes a fixpoint over this control flow graph, as
+	 * {@link #fixpoint(AnalysisState, CallGraph)} does, tuning the computation
+	 * with the options contained in the given {@link FixpointConfiguration}.
+	 * 
+	 * @param <A>        the type of {@link AbstractState} contained into the
+	 *                       analysis state
+	 * @param <H>        the type of {@link HeapDomain} contained into the
+	 *                       computed abstract state
+	 * @param <V>        the type of {@link ValueDomain} contained into the
+	 *                       computed abstract state
+	 * @param entryState the entry states to apply to each {@link Statement}
+	 *                       returned by {@link #getEntrypoints()}
+	 * @param cg         the callgraph that can be queried when a call towards
+	 *                       an other cfg is encountered
+	 * @param conf       the options of the computation
+	 * 
+	 * @return a {@link CFGWithAnalysisResults} instance that is equivalent to
+	 *             this control flow graph, and that stores for each
+	 *             {@link Statement} the result of the fixpoint computation
+	 * 
+	 * @throws FixpointException if an error occurs during the semantic
+	 *                               computation of a statement, or if some
+	 *                               unknown/invalid statement ends up in the
+	 *                               working set
+	 */
+	public final <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> CFGWithAnalysisResults<A, H, V> fixpoint(
+					AnalysisState<A, H, V> entryState, CallGraph cg, FixpointConfiguration conf)
+					throws FixpointException {
+		Map<Statement, AnalysisState<A, H, V>> start = new HashMap<>();
+		entrypoints.forEach(e -> start.put(e, entryState));
+		return fixpoint(start, cg, FIFOWorkingSet.mk(), DEFAULT_WIDENING_THRESHOLD, conf);
+	}
+
+	/**
+	 * Computes a fixpoint over this control flow graph, as
+	 * {@link #fixpoint(Map, CallGraph, WorkingSet, int)} does, tuning the
+	 * computation with the options contained in the given
+	 * {@link FixpointConfiguration}.
+	 * 
+	 * @param <A>            the type of {@link AbstractState} contained into
+	 *                           the analysis state
+	 * @param <H>            the type of {@link HeapDomain} contained into the
+	 *                           computed abstract state
+	 * @param <V>            the type of {@link ValueDomain} contained into the
+	 *                           computed abstract state
+	 * @param startingPoints a map between {@link Statement}s that to use as a
+	 *                           starting point of the computation (that must be
+	 *                           nodes of this cfg) and the entry states to
+	 *                           apply on it
+	 * @param cg             the callgraph that can be queried when a call
+	 *                           towards an other cfg is encountered
+	 * @param ws             the {@link WorkingSet} instance to use for this
+	 *                           computation
+	 * @param widenAfter     the number of times after which the
+	 *                           {@link Lattice#lub(Lattice)} invocation gets
+	 *                           replaced by the
+	 *                           {@link Lattice#widening(Lattice)} call. Use
+	 *                           {@code 0} to <b>always</b> use
+	 *                           {@link Lattice#lub(Lattice)}
+	 * @param conf           the options of the computation
+	 * 
+	 * @return a {@link CFGWithAnalysisResults} instance that is equivalent to
+	 *             this control flow graph, and that stores for each
+	 *             {@link Statement} the result of the fixpoint computation
+	 * 
+	 * @throws FixpointException if an error occurs during the semantic
+	 *                               computation of a statement, or if some
+	 *                               unknown/invalid statement ends up in the
+	 *                               working set
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> CFGWithAnalysisResults<A, H, V> fixpoint(
+					Map<Statement, AnalysisState<A, H, V>> startingPoints, CallGraph cg, WorkingSet<Statement> ws,
+					int widenAfter, FixpointConfiguration conf)
+					throws FixpointException {
 		return new CFGWithAnalysisResults<A, H, V>(this, super.fixpoint(startingPoints, cg, ws, widenAfter,
 				(st, entryState, callGraph, expressions) -> st.semantics(entryState, callGraph,
-						(StatementStore) expressions)));
+						(StatementStore) expressions),
+				conf));
+	}
+
+	@Override
+	protected boolean isRetained(Statement node, FixpointConfiguration conf) {
+		return conf.getRetainedStatements() != null && conf.getRetainedStatements().test(node);
+	}
+
+	@Override
+	protected boolean containsCall(Statement node) {
+		// the visitor stops as soon as a call is found
+		return !node.accept(new CallFinder(), null);
 	}
 
 	@Override
@@ -749,6 +851,20 @@ public class CFG extends FixpointGraph<CFG, Statement, Edge> implements CodeMemb
 		return new StatementStore<>(entrystate);
 	}
 
+	@Override
+	protected <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> FunctionalLattice<?, Statement, AnalysisState<A, H, V>> mkDiscardingStore(
+					AnalysisState<A, H, V> entrystate) {
+		return new StatementStore<A, H, V>(entrystate) {
+
+			@Override
+			public AnalysisState<A, H, V> put(Statement st, AnalysisState<A, H, V> state) {
+				return null;
+			}
+		};
+	}
+
 	@Override
 	protected <A extends AbstractState<A, H, V>,
 			H extends HeapDomain<H>,
@@ -760,11 +876,41 @@ public class CFG extends FixpointGraph<CFG, Statement, Edge> implements CodeMemb
 				toRemove.add(entry);
 
 		Collection<Identifier> ids = new LinkedList<>();
-		for (VariableTableEntry entry : toRemove) {
-			SymbolicExpression v = entry.createReference(this).getVariable();
+		for (VariableTableEntry entry : toRemove)
+			ids.add(entry.createReference(this).getVariable());
+
+		return forget(node, ids, computedState);
+	}
+
+	@Override
+	protected <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> AnalysisState<A, H, V> forgetDeadIdentifiers(Statement node,
+					Statement follower, AnalysisState<A, H, V> computedState) throws SemanticException {
+		Collection<Identifier> dead = LiveVariables.of(this).getDeadAfter(node, follower);
+		if (node instanceof Expression && !((Expression) node).getMetaVariables().isEmpty()) {
+			// the value of a root-level expression (e.g., a call whose result
+			// is discarded) is read only when traversing the edge, and the
+			// meta-variables holding it are known only after its semantics
+			// has been computed
+			dead = new ArrayList<>(dead);
+			dead.addAll(((Expression) node).getMetaVariables());
+		}
+		return forget(node, dead, computedState);
+	}
+
+	private <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> AnalysisState<A, H, V> forget(Statement node, Collection<Identifier> variables,
+					AnalysisState<A, H, V> computedState) throws SemanticException {
+		if (variables.isEmpty())
+			return computedState;
+
+		// variables are rewritten by the heap domain before being forgotten
+		Collection<Identifier> ids = new LinkedList<>();
+		for (Identifier v : variables)
 			for (SymbolicExpression expr : computedState.smallStepSemantics(v, node).getComputedExpressions())
 				ids.add((Identifier) expr);
-		}
 
 		if (!ids.isEmpty())
 			return computedState.forgetIdentifiers(ids);
@@ -777,6 +923,18 @@ public class CFG extends FixpointGraph<CFG, Statement, Edge> implements CodeMemb
 		return DotCFG.fromCFG(this, labelGenerator);
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * The dot graph is written directly to {@code writer} through
+	 * {@link DotCFG#writeCFG(CFG, Function, Writer)}, without building an
+	 * intermediate {@link DotCFG}.
+	 */
+	@Override
+	public void dump(Writer writer, Function<Statement, String> labelGenerator) throws IOException {
+		DotCFG.writeCFG(this, labelGenerator, writer);
+	}
+
 	@Override
 	protected void preSimplify(Statement node) {
 		Collection<
@@ -925,4 +1083,23 @@ public class CFG extends FixpointGraph<CFG, Statement, Edge> implements CodeMemb
 			throw new ProgramValidationException(this + " contains an invalid edge: '" + edge
 					+ "' reaches a node that is not part of the graph");
 	}
+
+	private static class CallFinder implements GraphVisitor<CFG, Statement, Edge, Void> {
+
+		@Override
+		public boolean visit(Void tool, CFG graph) {
+			return true;
+		}
+
+		@Override
+		public boolean visit(Void tool, CFG graph, Statement node) {
+			// native calls are just the semantics of language constructs
+			return !(node instanceof Call) || node instanceof NativeCall;
+		}
+
+		@Override
+		public boolean visit(Void tool, CFG graph, Edge edge) {
+			return true;
+		}
+	}
 }
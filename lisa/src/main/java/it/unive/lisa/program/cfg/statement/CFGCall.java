@@ -5,6 +5,7 @@ import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.heap.HeapDomain;
 import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
 import it.unive.lisa.callgraph.CallGraph;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.CodeLocation;
@@ -13,6 +14,7 @@ import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.Skip;
 import it.unive.lisa.symbolic.value.Variable;
 import it.unive.lisa.type.Type;
+import it.unive.lisa.type.TypeHierarchy;
 import it.unive.lisa.type.Untyped;
 import java.util.Collection;
 import java.util.Collections;
@@ -101,17 +103,18 @@ public class CFGCall extends Call implements MetaVariableCreator {
 
 	private static Type getCommonReturnType(Collection<CFG> targets) {
 		Iterator<CFG> it = targets.iterator();
+		TypeHierarchy hierarchy = Caches.typeHierarchy();
 		Type result = null;
 		while (it.hasNext()) {
 			Type current = it.next().getDescriptor().getReturnType();
 			if (result == null)
 				result = current;
-			else if (current.canBeAssignedTo(result))
+			else if (hierarchy.canBeAssignedTo(current, result))
 				continue;
-			else if (result.canBeAssignedTo(current))
+			else if (hierarchy.canBeAssignedTo(result, current))
 				result = current;
 			else
-				result = result.commonSupertype(current);
+				result = hierarchy.commonSupertype(result, current);
 
 			if (current.isUntyped())
 				break;
@@ -8,6 +8,7 @@ import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.CodeLocation;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.type.Type;
+import it.unive.lisa.type.TypeHierarchy;
 import it.unive.lisa.type.Untyped;
 import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import java.util.Collection;
@@ -108,7 +109,7 @@ public abstract class Expression extends Statement {
 	 */
 	public final ExternalSet<Type> getRuntimeTypes() {
 		if (runtimeTypes == null)
-			return Caches.types().mkSet(staticType.allInstances());
+			return Caches.typeHierarchy().allInstances(staticType);
 		return runtimeTypes;
 	}
 
@@ -121,12 +122,13 @@ public abstract class Expression extends Statement {
 	 */
 	public final Type getDynamicType() {
 		ExternalSet<Type> runtimes = getRuntimeTypes();
-		return getRuntimeTypes().reduce(runtimes.first(), (result, t) -> {
-			if (result.canBeAssignedTo(t))
+		TypeHierarchy hierarchy = Caches.typeHierarchy();
+		return runtimes.reduce(runtimes.first(), (result, t) -> {
+			if (hierarchy.canBeAssignedTo(result, t))
 				return t;
-			if (t.canBeAssignedTo(result))
+			if (hierarchy.canBeAssignedTo(t, result))
 				return result;
-			return t.commonSupertype(result);
+			return hierarchy.commonSupertype(t, result);
 		});
 	}
 
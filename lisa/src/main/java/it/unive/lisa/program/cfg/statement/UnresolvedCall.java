@@ -5,8 +5,10 @@ import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.heap.HeapDomain;
 import it.unive.lisa.analysis.value.ValueDomain;
+import it.unive.lisa.caches.Caches;
 import it.unive.lisa.callgraph.CallGraph;
 import it.unive.lisa.callgraph.CallResolutionException;
+import it.unive.lisa.logging.jfr.CallResolutionEvent;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.CodeLocation;
 import it.unive.lisa.program.cfg.Parameter;
@@ -49,7 +51,7 @@ public class UnresolvedCall extends Call {
 		STATIC_TYPES {
 			@Override
 			protected boolean matches(int pos, Parameter formal, Expression actual) {
-				return actual.getStaticType().canBeAssignedTo(formal.getStaticType());
+				return Caches.typeHierarchy().canBeAssignedTo(actual.getStaticType(), formal.getStaticType());
 			}
 		},
 
@@ -63,7 +65,7 @@ public class UnresolvedCall extends Call {
 		DYNAMIC_TYPES {
 			@Override
 			protected boolean matches(int pos, Parameter formal, Expression actual) {
-				return actual.getRuntimeTypes().anyMatch(rt -> rt.canBeAssignedTo(formal.getStaticType()));
+				return Caches.typeHierarchy().anyAssignableTo(actual.getRuntimeTypes(), formal.getStaticType());
 			}
 		},
 
@@ -238,11 +240,15 @@ public class UnresolvedCall extends Call {
 					AnalysisState<A, H, V> entryState, CallGraph callGraph, AnalysisState<A, H, V>[] computedStates,
 					Collection<SymbolicExpression>[] params)
 					throws SemanticException {
-		Call resolved;
+		Call resolved = null;
+		CallResolutionEvent event = new CallResolutionEvent();
+		event.begin();
 		try {
 			resolved = callGraph.resolve(this);
 		} catch (CallResolutionException e) {
 			throw new SemanticException("Unable to resolve call " + this, e);
+		} finally {
+			event.complete(this, resolved);
 		}
 		resolved.setRuntimeTypes(getRuntimeTypes());
 		AnalysisState<A, H, V> result = resolved.callSemantics(entryState, callGraph, computedStates, params);
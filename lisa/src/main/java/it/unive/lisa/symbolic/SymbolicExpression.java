@@ -1,7 +1,9 @@
 package it.unive.lisa.symbolic;
 
 import it.unive.lisa.analysis.SemanticDomain;
+import it.unive.lisa.caches.Caches;
 import it.unive.lisa.type.Type;
+import it.unive.lisa.type.TypeHierarchy;
 import it.unive.lisa.util.collections.externalSet.ExternalSet;
 
 /**
@@ -42,7 +44,8 @@ public abstract class SymbolicExpression {
 	 * @return the dynamic type of this expression
 	 */
 	public final Type getDynamicType() {
-		return types.reduce(types.first(), (result, t) -> result.commonSupertype(t));
+		TypeHierarchy hierarchy = Caches.typeHierarchy();
+		return types.reduce(types.first(), (result, t) -> hierarchy.commonSupertype(result, t));
 	}
 
 	@Override
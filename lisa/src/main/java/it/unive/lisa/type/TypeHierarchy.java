@@ -0,0 +1,268 @@
+package it.unive.lisa.type;
+
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A finalized view of the subtyping relation between the {@link Type}s that
+ * have been registered in a program. Each registered type is assigned a dense
+ * identifier, and the transitive closure of
+ * {@link Type#canBeAssignedTo(Type)} is precomputed as a pair of
+ * {@link ExternalSet}s for each type (its supertypes and its subtypes) built
+ * through the given {@link ExternalSetCache}. Queries on the hierarchy thus
+ * become bit tests and bitwise operations. The results of
+ * {@link Type#allInstances()} are also computed once when the hierarchy is
+ * built, while the ones of {@link Type#commonSupertype(Type)} are cached the
+ * first time they are requested.<br>
+ * <br>
+ * Types that have not been registered are still supported by all the queries,
+ * that fall back to the methods defined in {@link Type} for them.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class TypeHierarchy {
+
+	/**
+	 * The cache used to build the sets of types
+	 */
+	private final ExternalSetCache<Type> cache;
+
+	/**
+	 * The dense identifier of each registered type
+	 */
+	private final Map<Type, Integer> ids;
+
+	/**
+	 * The registered types, indexed by their identifier
+	 */
+	private final Type[] types;
+
+	/**
+	 * The set of all registered types
+	 */
+	private final ExternalSet<Type> registered;
+
+	/**
+	 * For each registered type, the types it can be assigned to (including
+	 * itself only if {@link Type#canBeAssignedTo(Type)} says so)
+	 */
+	private final List<ExternalSet<Type>> supertypes;
+
+	/**
+	 * For each registered type, the types that can be assigned to it
+	 * (including itself only if {@link Type#canBeAssignedTo(Type)} says so)
+	 */
+	private final List<ExternalSet<Type>> subtypes;
+
+	/**
+	 * For each registered type, the result of {@link Type#allInstances()}
+	 */
+	private final List<ExternalSet<Type>> instances;
+
+	/**
+	 * The common supertypes computed so far, indexed by the pair of
+	 * identifiers of the two types
+	 */
+	private final Map<Long, Type> common;
+
+	/**
+	 * Builds a hierarchy that contains no types, and that always falls back to
+	 * the methods defined in {@link Type}.
+	 *
+	 * @param cache the cache used to build sets of types
+	 */
+	public TypeHierarchy(ExternalSetCache<Type> cache) {
+		this(Collections.emptyList(), cache);
+	}
+
+	/**
+	 * Builds the hierarchy of the given types.
+	 *
+	 * @param types the types to include in the hierarchy
+	 * @param cache the cache used to build sets of types
+	 */
+	public TypeHierarchy(Collection<Type> types, ExternalSetCache<Type> cache) {
+		this.cache = cache;
+		this.ids = new HashMap<>();
+		for (Type t : types)
+			ids.putIfAbsent(t, ids.size());
+
+		int size = ids.size();
+		this.types = new Type[size];
+		for (Map.Entry<Type, Integer> entry : ids.entrySet())
+			this.types[entry.getValue()] = entry.getKey();
+		this.registered = cache.mkSet(ids.keySet());
+		this.supertypes = new ArrayList<>(size);
+		this.subtypes = new ArrayList<>(size);
+		this.instances = new ArrayList<>(size);
+		this.common = new ConcurrentHashMap<>();
+
+		// rows are seeded from canBeAssignedTo alone, diagonal included: types
+		// that cannot be assigned to themselves (e.g. void) must not become
+		// their own supertypes here
+		for (int i = 0; i < size; i++) {
+			instances.add(cache.mkSet(this.types[i].allInstances()));
+			ExternalSet<Type> row = cache.mkEmptySet();
+			for (int j = 0; j < size; j++)
+				if (this.types[i].canBeAssignedTo(this.types[j]))
+					row.add(this.types[j]);
+			supertypes.add(row);
+		}
+
+		// warshall's algorithm over the rows: after processing k, each row
+		// contains all types reachable through intermediate types up to k
+		for (int k = 0; k < size; k++)
+			for (int i = 0; i < size; i++)
+				if (i != k && supertypes.get(i).contains(this.types[k]))
+					supertypes.get(i).addAll(supertypes.get(k));
+
+		for (int i = 0; i < size; i++)
+			subtypes.add(cache.mkEmptySet());
+		for (int i = 0; i < size; i++)
+			for (Type sup : supertypes.get(i))
+				subtypes.get(ids.get(sup)).add(this.types[i]);
+	}
+
+	/**
+	 * Yields the number of types registered in this hierarchy.
+	 *
+	 * @return the number of types
+	 */
+	public int size() {
+		return types.length;
+	}
+
+	/**
+	 * Yields the dense identifier assigned to the given type, that is an
+	 * integer between {@code 0} (inclusive) and {@link #size()} (exclusive).
+	 *
+	 * @param type the type
+	 *
+	 * @return the identifier of the type, or {@code -1} if {@code type} is not
+	 *             part of this hierarchy
+	 */
+	public int idOf(Type type) {
+		Integer id = ids.get(type);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Yields whether or not {@code type} can be assigned to {@code other} (see
+	 * {@link Type#canBeAssignedTo(Type)}).
+	 *
+	 * @param type  the type being assigned
+	 * @param other the target type
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean canBeAssignedTo(Type type, Type other) {
+		int id = idOf(type);
+		if (id == -1 || idOf(other) == -1)
+			return type.canBeAssignedTo(other);
+		return supertypes.get(id).contains(other);
+	}
+
+	/**
+	 * Yields the most specific common supertype between the given types (see
+	 * {@link Type#commonSupertype(Type)}). If both types are registered and
+	 * their common supertypes contain a unique least element, that element is
+	 * returned. Otherwise, the result is delegated to
+	 * {@link Type#commonSupertype(Type)}. In both cases, the result is cached
+	 * for later queries.
+	 *
+	 * @param type  the first type
+	 * @param other the second type
+	 *
+	 * @return the most specific common supertype between {@code type} and
+	 *             {@code other}
+	 */
+	public Type commonSupertype(Type type, Type other) {
+		int id = idOf(type), oid = idOf(other);
+		if (id == -1 || oid == -1)
+			return type.commonSupertype(other);
+		if (id == oid)
+			return type;
+
+		return common.computeIfAbsent(((long) id << 32) | oid, k -> leastCommonSupertype(type, id, other, oid));
+	}
+
+	private Type leastCommonSupertype(Type type, int id, Type other, int oid) {
+		ExternalSet<Type> candidates = supertypes.get(id).intersection(supertypes.get(oid));
+		Type least = null;
+		for (Type candidate : candidates)
+			if (supertypes.get(ids.get(candidate)).contains(candidates))
+				if (least == null)
+					least = candidate;
+				else
+					// more than one candidate: the relation is not
+					// antisymmetric on these types
+					return type.commonSupertype(other);
+
+		return least == null ? type.commonSupertype(other) : least;
+	}
+
+	/**
+	 * Yields all possible instances of the given type (see
+	 * {@link Type#allInstances()}). The returned set can be freely modified.
+	 *
+	 * @param type the type
+	 *
+	 * @return the possible instances
+	 */
+	public ExternalSet<Type> allInstances(Type type) {
+		int id = idOf(type);
+		if (id == -1)
+			return cache.mkSet(type.allInstances());
+		return instances.get(id).copy();
+	}
+
+	/**
+	 * Yields the subset of {@code candidates} containing the types that can be
+	 * assigned to {@code target} (see {@link Type#canBeAssignedTo(Type)}).
+	 *
+	 * @param candidates the types to filter
+	 * @param target     the target type
+	 *
+	 * @return the filtered set
+	 */
+	public ExternalSet<Type> assignableTo(ExternalSet<Type> candidates, Type target) {
+		int id = idOf(target);
+		if (id == -1 || candidates.getCache() != cache)
+			return candidates.filter(t -> t.canBeAssignedTo(target));
+
+		ExternalSet<Type> result = subtypes.get(id).intersection(candidates);
+		if (!registered.contains(candidates))
+			for (Type t : candidates.difference(registered))
+				if (t.canBeAssignedTo(target))
+					result.add(t);
+		return result;
+	}
+
+	/**
+	 * Yields whether or not at least one of the types in {@code candidates}
+	 * can be assigned to {@code target} (see
+	 * {@link Type#canBeAssignedTo(Type)}).
+	 *
+	 * @param candidates the types to test
+	 * @param target     the target type
+	 *
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean anyAssignableTo(ExternalSet<Type> candidates, Type target) {
+		int id = idOf(target);
+		if (id == -1 || candidates.getCache() != cache)
+			return candidates.anyMatch(t -> t.canBeAssignedTo(target));
+
+		if (candidates.intersects(subtypes.get(id)))
+			return true;
+		return !registered.contains(candidates)
+				&& candidates.difference(registered).anyMatch(t -> t.canBeAssignedTo(target));
+	}
+}
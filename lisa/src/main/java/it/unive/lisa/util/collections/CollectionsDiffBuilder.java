@@ -1,12 +1,11 @@
 package it.unive.lisa.util.collections;
 
 import java.lang.reflect.Array;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -78,58 +77,60 @@ public class CollectionsDiffBuilder<T> {
 	 */
 	@SuppressWarnings("unchecked")
 	public void compute(Comparator<T> comparer) {
-		commons.clear();
-		onlyFirst.clear();
-		onlySecond.clear();
-
-		Deque<T> f = new ArrayDeque<>();
-		Deque<T> s = new ArrayDeque<>();
-
 		T[] fArray = first.toArray((T[]) Array.newInstance(elementType, first.size()));
 		T[] sArray = second.toArray((T[]) Array.newInstance(elementType, second.size()));
 		Arrays.sort(fArray, comparer);
 		Arrays.sort(sArray, comparer);
-		f.addAll(Arrays.asList(fArray));
-		s.addAll(Arrays.asList(sArray));
 
-		queueDiff(f, s, comparer);
+		mergeDiff(Arrays.asList(fArray).iterator(), Arrays.asList(sArray).iterator(), comparer);
+	}
+
+	/**
+	 * Computes the diff between the collections used to create this object,
+	 * assuming that both are already sorted according to the given
+	 * {@link Comparator} (e.g., they are {@link java.util.SortedSet}s using
+	 * the same ordering). The diff is computed as in
+	 * {@link #compute(Comparator)}, but the two collections are iterated over
+	 * directly, without copying or sorting them. The result is undefined if
+	 * the collections are not sorted.
+	 * 
+	 * @param comparer the {@link Comparator} establishing the ordering between
+	 *                     elements in the two collections
+	 */
+	public void computeSorted(Comparator<T> comparer) {
+		mergeDiff(first.iterator(), second.iterator(), comparer);
 	}
 
-	private void queueDiff(Deque<T> f, Deque<T> s, Comparator<T> comparer) {
-		T currentF = null;
-		T currentS = null;
+	private void mergeDiff(Iterator<T> f, Iterator<T> s, Comparator<T> comparer) {
+		commons.clear();
+		onlyFirst.clear();
+		onlySecond.clear();
 
-		while (!(f.isEmpty() && s.isEmpty())) {
-			currentF = f.peek();
-			currentS = s.peek();
+		T currentF = f.hasNext() ? f.next() : null;
+		T currentS = s.hasNext() ? s.next() : null;
 
+		while (currentF != null || currentS != null) {
 			if (currentF == null) {
-				if (currentS == null)
-					break;
-				else {
-					onlySecond.add(currentS);
-					s.remove();
-					continue;
-				}
-			} else {
-				if (currentS == null) {
-					onlyFirst.add(currentF);
-					f.remove();
-					continue;
-				}
+				onlySecond.add(currentS);
+				currentS = s.hasNext() ? s.next() : null;
+				continue;
+			} else if (currentS == null) {
+				onlyFirst.add(currentF);
+				currentF = f.hasNext() ? f.next() : null;
+				continue;
 			}
 
 			int cmp = comparer.compare(currentF, currentS);
 			if (cmp == 0) {
 				commons.add(new ImmutablePair<>(currentF, currentS));
-				f.remove();
-				s.remove();
+				currentF = f.hasNext() ? f.next() : null;
+				currentS = s.hasNext() ? s.next() : null;
 			} else if (cmp < 0) {
 				onlyFirst.add(currentF);
-				f.remove();
+				currentF = f.hasNext() ? f.next() : null;
 			} else {
 				onlySecond.add(currentS);
-				s.remove();
+				currentS = s.hasNext() ? s.next() : null;
 			}
 		}
 	}
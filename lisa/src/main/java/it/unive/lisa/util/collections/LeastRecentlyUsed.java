@@ -0,0 +1,48 @@
+package it.unive.lisa.util.collections;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A map that keeps at most a given number of entries, evicting the least
+ * recently accessed one when a new entry would exceed that number. As any
+ * {@link LinkedHashMap}, instances of this class are not thread-safe.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class LeastRecentlyUsed<K, V> extends LinkedHashMap<K, V> {
+
+	private static final long serialVersionUID = 5154125385447069235L;
+
+	/**
+	 * The maximum number of entries of this map
+	 */
+	private final int capacity;
+
+	/**
+	 * Builds an empty map that keeps at most {@code capacity} entries.
+	 *
+	 * @param capacity the maximum number of entries
+	 */
+	public LeastRecentlyUsed(int capacity) {
+		super(16, 0.75f, true);
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Yields the maximum number of entries of this map.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+		return size() > capacity;
+	}
+}
@@ -0,0 +1,428 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import it.unive.lisa.LiSAConfiguration;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.program.cfg.statement.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.function.Predicate;
+
+/**
+ * A holder for the options that tune how a fixpoint is computed over a
+ * {@link FixpointGraph}.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class FixpointConfiguration {
+
+	/**
+	 * The points of a {@link FixpointGraph} where unreachable heap locations
+	 * can be removed from the analysis states (see
+	 * {@link HeapDomain#unreachableLocations()}).
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public static enum GarbageCollectionPoint {
+		/**
+		 * The states flowing into the heads of loops, that is, the nodes that
+		 * are targeted by back edges. This prevents locations allocated in a
+		 * single iteration from being carried along the whole loop.
+		 */
+		LOOP_HEADS,
+
+		/**
+		 * The states flowing out of nodes that contain a call, where the
+		 * locations that were reachable only from the callee might have become
+		 * unreachable.
+		 */
+		CALL_RETURNS;
+	}
+
+	/**
+	 * The policies for computing the states of the internal nodes of a
+	 * {@link FixpointGraph}, that is, of the nodes that are nested within
+	 * outer ones (e.g., the sub-expressions of a statement).
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public static enum InternalStates {
+		/**
+		 * The states of internal nodes are stored at each evaluation of the
+		 * node containing them, and they are joined, widened and checked for
+		 * convergence together with the state of that node.
+		 */
+		EVERY_ITERATION,
+
+		/**
+		 * The states of internal nodes are discarded while computing the
+		 * fixpoint, and they are computed once after it converged, evaluating
+		 * the node containing them on its final entry state.
+		 */
+		AFTER_CONVERGENCE,
+
+		/**
+		 * The states of internal nodes are never stored, and results contain
+		 * only the states of the nodes of the graph.
+		 */
+		NEVER;
+	}
+
+	/**
+	 * The points where unreachable heap locations are removed
+	 */
+	private final EnumSet<GarbageCollectionPoint> gcPoints;
+
+	/**
+	 * Whether or not identifiers should be forgotten as soon as they are dead
+	 */
+	private boolean forgetDeadIdentifiers;
+
+	/**
+	 * The sink where metrics of the computation are reported, if any
+	 */
+	private FixpointMetricsSink metricsSink;
+
+	/**
+	 * How the states of internal nodes are computed
+	 */
+	private InternalStates internalStates;
+
+	/**
+	 * Whether or not only the states of some nodes should be stored in the
+	 * results, recomputing the other ones on demand
+	 */
+	private boolean sparseResults;
+
+	/**
+	 * The statements whose states should always be stored when
+	 * {@link #sparseResults} is set, if any
+	 */
+	private Predicate<Statement> retainedStatements;
+
+	/**
+	 * Whether or not equal states should be shared among the nodes in the
+	 * results
+	 */
+	private boolean deduplicateStates;
+
+	/**
+	 * The maximum number of graphs whose results are kept in memory at the
+	 * same time, or a non-positive value to keep all of them
+	 */
+	private int residentResults;
+
+	/**
+	 * Builds a new configuration object, with default settings. By default, no
+	 * garbage collection is performed, identifiers are forgotten only at the
+	 * end of their scope, no metric is gathered, the states of internal nodes
+	 * are computed at every iteration, and the states of all nodes are stored
+	 * in the results as separate objects, and the results of all graphs are
+	 * kept in memory.
+	 */
+	public FixpointConfiguration() {
+		this.gcPoints = EnumSet.noneOf(GarbageCollectionPoint.class);
+		this.internalStates = InternalStates.EVERY_ITERATION;
+	}
+
+	/**
+	 * Builds a new configuration object, taking the options from the given
+	 * {@link LiSAConfiguration}.
+	 *
+	 * @param conf the configuration of the analysis
+	 */
+	public FixpointConfiguration(LiSAConfiguration conf) {
+		this();
+		gcPoints.addAll(conf.getGarbageCollectionPoints());
+		forgetDeadIdentifiers = conf.isForgetDeadIdentifiers();
+		metricsSink = conf.getFixpointMetricsSink();
+		internalStates = conf.getInternalStates();
+		sparseResults = conf.isSparseResults();
+		retainedStatements = conf.getRetainedStatements();
+		deduplicateStates = conf.isDeduplicateStates();
+		residentResults = conf.getResidentResults();
+	}
+
+	/**
+	 * Sets the points where unreachable heap locations should be removed from
+	 * the analysis states.
+	 *
+	 * @param points the points where garbage collection should happen
+	 *
+	 * @return the current (modified) configuration
+	 */
+	public FixpointConfiguration setGarbageCollectionPoints(GarbageCollectionPoint... points) {
+		gcPoints.clear();
+		Collections.addAll(gcPoints, points);
+		return this;
+	}
+
+	/**
+	 * Yields the points where unreachable heap locations should be removed from
+	 * the analysis states.
+	 *
+	 * @return the points where garbage collection should happen
+	 */
+	public Collection<GarbageCollectionPoint> getGarbageCollectionPoints() {
+		return Collections.unmodifiableSet(gcPoints);
+	}
+
+	/**
+	 * Yields whether or not unreachable heap locations should be removed at
+	 * the given point.
+	 *
+	 * @param point the point
+	 *
+	 * @return {@code true} if garbage collection should happen at {@code point}
+	 */
+	public boolean collectsGarbageAt(GarbageCollectionPoint point) {
+		return gcPoints.contains(point);
+	}
+
+	/**
+	 * Sets whether or not identifiers should be removed from the states
+	 * flowing between nodes as soon as they are dead, that is, as soon as
+	 * their value is not going to be read anymore. Which identifiers are dead
+	 * is determined by the graph being analyzed.
+	 *
+	 * @param forgetDeadIdentifiers whether or not dead identifiers should be
+	 *                                  forgotten
+	 *
+	 * @return the current (modified) configuration
+	 */
+	public FixpointConfiguration setForgetDeadIdentifiers(boolean forgetDeadIdentifiers) {
+		this.forgetDeadIdentifiers = forgetDeadIdentifiers;
+		return this;
+	}
+
+	/**
+	 * Yields whether or not identifiers should be removed from the states
+	 * flowing between nodes as soon as they are dead.
+	 *
+	 * @return {@code true} if dead identifiers should be forgotten
+	 */
+	public boolean forgetsDeadIdentifiers() {
+		return forgetDeadIdentifiers;
+	}
+
+	/**
+	 * Sets the sink where the {@link FixpointMetrics} of each computation
+	 * should be reported. If the sink is {@code null}, no metric is gathered.
+	 *
+	 * @param metricsSink the sink, or {@code null}
+	 *
+	 * @return the current (modified) configuration
+	 */
+	public FixpointConfiguration setMetricsSink(FixpointMetricsSink metricsSink) {
+		this.metricsSink = metricsSink;
+		return this;
+	}
+
+	/**
+	 * Yields the sink where the {@link FixpointMetrics} of each computation
+	 * should be reported.
+	 *
+	 * @return the sink, or {@code null} if no metric should be gathered
+	 */
+	public FixpointMetricsSink getMetricsSink() {
+		return metricsSink;
+	}
+
+	/**
+	 * Sets how the states of the internal nodes of the graph should be
+	 * computed. Internal nodes are the ones nested within outer nodes, and
+	 * their states are needed only by who inspects the results: not tracking
+	 * them while the fixpoint is computed removes their joins, widenings and
+	 * convergence checks from every iteration.
+	 *
+	 * @param internalStates the policy to use
+	 *
+	 * @return the current (modified) configuration
+	 */
+	public FixpointConfiguration setInternalStates(InternalStates internalStates) {
+		this.internalStates = internalStates;
+		return this;
+	}
+
+	/**
+	 * Yields how the states of the internal nodes of the graph should be
+	 * computed.
+	 *
+	 * @return the policy to use
+	 */
+	public InternalStates getInternalStates() {
+		return internalStates;
+	}
+
+	/**
+	 * Sets whether or not the results of the computation should be sparse. If
+	 * {@code true}, the states of the entrypoints, of the exits and of the
+	 * heads of loops of the graph are stored in the results, together with the
+	 * ones of the statements selected through
+	 * {@link #setRetainedStatements(Predicate)}. The states of all other nodes
+	 * are recomputed when they are requested, replaying the semantics of the
+	 * nodes that lead to them starting from the closest stored states. Only
+	 * the most recently recomputed states are cached: requesting all the
+	 * states of a long chain of nodes in an order that does not follow the
+	 * graph can take time quadratic in the length of the chain.
+	 *
+	 * @param sparseResults whether or not results should be sparse
+	 *
+	 * @return the current (modified) configuration
+	 */
+	public FixpointConfiguration setSparseResults(boolean sparseResults) {
+		this.sparseResults = sparseResults;
+		return this;
+	}
+
+	/**
+	 * Yields whether or not the results of the computation should be sparse.
+	 *
+	 * @return {@code true} if only some states should be stored
+	 */
+	public boolean hasSparseResults() {
+		return sparseResults;
+	}
+
+	/**
+	 * Sets the statements whose states should always be stored when results
+	 * are sparse (see {@link #setSparseResults(boolean)}).
+	 *
+	 * @param retainedStatements the statements to retain, or {@code null} to
+	 *                               retain only the default ones
+	 *
+	 * @return the current (modified) configuration
+	 */
+	public FixpointConfiguration setRetainedStatements(Predicate<Statement> retainedStatements) {
+		this.retainedStatements = retainedStatements;
+		return this;
+	}
+
+	/**
+	 * Yields the statements whose states should always be stored when results
+	 * are sparse.
+	 *
+	 * @return the statements to retain, or {@code null}
+	 */
+	public Predicate<Statement> getRetainedStatements() {
+		return retainedStatements;
+	}
+
+	/**
+	 * Sets whether or not equal states should be shared among the nodes in the
+	 * results of the computation. If {@code true}, once the fixpoint has been
+	 * reached, the stored states are canonicalized so that equal ones are
+	 * represented by the same instance, and the number of distinct states is
+	 * reported to the metrics of the computation, if any.
+	 *
+	 * @param deduplicateStates whether or not equal states should be shared
+	 *
+	 * @return the current (modified) configuration
+	 */
+	public FixpointConfiguration setDeduplicateStates(boolean deduplicateStates) {
+		this.deduplicateStates = deduplicateStates;
+		return this;
+	}
+
+	/**
+	 * Yields whether or not equal states should be shared among the nodes in
+	 * the results of the computation.
+	 *
+	 * @return {@code true} if equal states should be shared
+	 */
+	public boolean deduplicatesStates() {
+		return deduplicateStates;
+	}
+
+	/**
+	 * Sets the maximum number of graphs whose results are kept in memory at
+	 * the same time by the component orchestrating the computations over
+	 * several graphs (e.g., a {@link CallGraph}).
+	 * Results of graphs that are not kept are recomputed when they are
+	 * requested again.
+	 *
+	 * @param residentResults the maximum number of graphs whose results are
+	 *                            kept in memory, or a non-positive value to
+	 *                            keep all of them
+	 *
+	 * @return the current (modified) configuration
+	 */
+	public FixpointConfiguration setResidentResults(int residentResults) {
+		this.residentResults = residentResults;
+		return this;
+	}
+
+	/**
+	 * Yields the maximum number of graphs whose results are kept in memory at
+	 * the same time.
+	 *
+	 * @return the maximum number of graphs, or a non-positive value if the
+	 *             results of all graphs are kept
+	 */
+	public int getResidentResults() {
+		return residentResults;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (deduplicateStates ? 1231 : 1237);
+		result = prime * result + (forgetDeadIdentifiers ? 1231 : 1237);
+		result = prime * result + ((gcPoints == null) ? 0 : gcPoints.hashCode());
+		result = prime * result + ((internalStates == null) ? 0 : internalStates.hashCode());
+		result = prime * result + ((metricsSink == null) ? 0 : metricsSink.hashCode());
+		result = prime * result + residentResults;
+		result = prime * result + ((retainedStatements == null) ? 0 : retainedStatements.hashCode());
+		result = prime * result + (sparseResults ? 1231 : 1237);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		FixpointConfiguration other = (FixpointConfiguration) obj;
+		if (deduplicateStates != other.deduplicateStates)
+			return false;
+		if (forgetDeadIdentifiers != other.forgetDeadIdentifiers)
+			return false;
+		if (gcPoints == null) {
+			if (other.gcPoints != null)
+				return false;
+		} else if (!gcPoints.equals(other.gcPoints))
+			return false;
+		if (internalStates != other.internalStates)
+			return false;
+		if (metricsSink == null) {
+			if (other.metricsSink != null)
+				return false;
+		} else if (!metricsSink.equals(other.metricsSink))
+			return false;
+		if (residentResults != other.residentResults)
+			return false;
+		if (retainedStatements == null) {
+			if (other.retainedStatements != null)
+				return false;
+		} else if (!retainedStatements.equals(other.retainedStatements))
+			return false;
+		if (sparseResults != other.sparseResults)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "fixpoint configuration: garbage collection at " + gcPoints + ", forget dead identifiers "
+				+ forgetDeadIdentifiers + ", metrics "
+				+ (metricsSink == null ? "disabled" : "reported to " + metricsSink.getClass().getSimpleName())
+				+ ", internal states " + internalStates + ", sparse results " + sparseResults
+				+ ", deduplicate states " + deduplicateStates + ", resident results "
+				+ (residentResults > 0 ? residentResults : "all");
+	}
+}
@@ -1,5 +1,6 @@
 package it.unive.lisa.util.datastructures.graph;
 
+import it.unive.lisa.AnalysisExecutionException;
 import it.unive.lisa.analysis.AbstractState;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.Lattice;
@@ -8,14 +9,29 @@ import it.unive.lisa.analysis.heap.HeapDomain;
 import it.unive.lisa.analysis.lattices.FunctionalLattice;
 import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.callgraph.CallGraph;
+import it.unive.lisa.logging.jfr.FixpointEvent;
+import it.unive.lisa.util.collections.LeastRecentlyUsed;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration.GarbageCollectionPoint;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration.InternalStates;
 import it.unive.lisa.util.workset.WorkingSet;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -37,6 +53,12 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 
 	private static final Logger log = LogManager.getLogger(FixpointGraph.class);
 
+	/**
+	 * The number of recomputed states that are cached by sparse results (see
+	 * {@link FixpointConfiguration#setSparseResults(boolean)})
+	 */
+	private static final int REPLAY_CACHE_SIZE = 32;
+
 	/**
 	 * The default number of fixpoint iteration on a given node after which
 	 * calls to {@link Lattice#lub(Lattice)} gets replaced with
@@ -172,7 +194,6 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 	 *                               unknown/invalid node ends up in the working
 	 *                               set
 	 */
-	@SuppressWarnings("unchecked")
 	protected <A extends AbstractState<A, H, V>,
 			H extends HeapDomain<H>,
 			V extends ValueDomain<V>,
@@ -180,16 +201,89 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 					Map<N, AnalysisState<A, H, V>> startingPoints, CallGraph cg, WorkingSet<N> ws, int widenAfter,
 					SemanticFunction<N, E, G, A, H, V, F> semantics)
 					throws FixpointException {
+		return fixpoint(startingPoints, cg, ws, widenAfter, semantics, new FixpointConfiguration());
+	}
+
+	/**
+	 * Computes a fixpoint over this graph, as
+	 * {@link #fixpoint(Map, CallGraph, WorkingSet, int, SemanticFunction)}
+	 * does, tuning the computation with the options contained in the given
+	 * {@link FixpointConfiguration}.
+	 * 
+	 * @param <A>            the type of {@link AbstractState}
+	 * @param <H>            the type of {@link HeapDomain} contained into the
+	 *                           computed abstract state
+	 * @param <V>            the type of {@link ValueDomain} contained into the
+	 *                           computed abstract state
+	 * @param <F>            the type of {@link FunctionalLattice} that will
+	 *                           hold analysis states computed on intermediate
+	 *                           nodes
+	 * @param startingPoints a map between {@link Node}s that to use as a
+	 *                           starting point of the computation (that must be
+	 *                           nodes of this graph) and the entry states to
+	 *                           apply on it
+	 * @param cg             the callgraph that can be queried when a call
+	 *                           towards an other graph is encountered
+	 * @param ws             the {@link WorkingSet} instance to use for this
+	 *                           computation
+	 * @param widenAfter     the number of times after which the
+	 *                           {@link Lattice#lub(Lattice)} invocation gets
+	 *                           replaced by the
+	 *                           {@link Lattice#widening(Lattice)} call. Use
+	 *                           {@code 0} to <b>always</b> use
+	 *                           {@link Lattice#lub(Lattice)}
+	 * @param semantics      the {@link SemanticFunction} that will be used for
+	 *                           computing the abstract post-state of nodes
+	 * @param conf           the options of the computation
+	 * 
+	 * @return a map that stores for each {@link Node} the result of the
+	 *             fixpoint computation
+	 * 
+	 * @throws FixpointException if an error occurs during the semantic
+	 *                               computation of a node, or if some
+	 *                               unknown/invalid node ends up in the working
+	 *                               set
+	 */
+	@SuppressWarnings("unchecked")
+	protected <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>,
+			F extends FunctionalLattice<F, N, AnalysisState<A, H, V>>> Map<N, AnalysisState<A, H, V>> fixpoint(
+					Map<N, AnalysisState<A, H, V>> startingPoints, CallGraph cg, WorkingSet<N> ws, int widenAfter,
+					SemanticFunction<N, E, G, A, H, V, F> semantics, FixpointConfiguration conf)
+					throws FixpointException {
+		Collection<N> loopHeads = conf.collectsGarbageAt(GarbageCollectionPoint.LOOP_HEADS)
+				? loopHeads(startingPoints.keySet())
+				: Collections.emptySet();
+		Collection<N> calls = conf.collectsGarbageAt(GarbageCollectionPoint.CALL_RETURNS)
+				? adjacencyMatrix.getNodes().stream().filter(this::containsCall).collect(Collectors.toSet())
+				: Collections.emptySet();
+
+		// states of internal nodes are joined and compared at each iteration
+		// only if they are tracked
+		boolean tracked = conf.getInternalStates() == InternalStates.EVERY_ITERATION;
+
 		int size = adjacencyMatrix.getNodes().size();
 		Map<N, AtomicInteger> lubs = new HashMap<>(size);
 		Map<N, Pair<AnalysisState<A, H, V>, F>> result = new HashMap<>(size);
 		startingPoints.keySet().forEach(ws::push);
 
+		// metrics are gathered only if someone is interested in them, and all
+		// the instrumentation is skipped otherwise
+		FixpointMetricsSink sink = conf.getMetricsSink();
+		FixpointMetrics<N> metrics = sink == null ? null : new FixpointMetrics<>(toString());
+		long start = metrics == null ? 0 : System.nanoTime(), entryStart = 0, semanticsStart = 0;
+		boolean completed = false;
+		long iterations = 0;
+		FixpointEvent event = new FixpointEvent();
+		event.begin();
+
 		AnalysisState<A, H, V> oldApprox = null, newApprox;
 		F oldIntermediate = null, newIntermediate;
 		try {
 			while (!ws.isEmpty()) {
 				N current = ws.pop();
+				iterations++;
 
 				if (current == null)
 					throw new FixpointException(
@@ -198,9 +292,14 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 					throw new FixpointException("'" + current
 							+ "' is not part of this graph, and cannot be analyzed in this fixpoint computation");
 
+				if (metrics != null)
+					entryStart = System.nanoTime();
+
 				AnalysisState<A, H, V> entrystate;
 				try {
-					entrystate = getEntryState(current, startingPoints, result);
+					entrystate = getEntryState(current, startingPoints, node -> result.containsKey(node)
+							? result.get(node).getLeft()
+							: null, loopHeads, calls, conf.forgetsDeadIdentifiers());
 				} catch (SemanticException e) {
 					throw new FixpointException(
 							"Exception while computing the entry state for '" + current + "' in " + this, e);
@@ -217,20 +316,31 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 					oldIntermediate = null;
 				}
 
+				if (metrics != null)
+					semanticsStart = System.nanoTime();
+
 				try {
-					newIntermediate = (F) mkInternalStore(entrystate);
+					newIntermediate = (F) (tracked ? mkInternalStore(entrystate) : mkDiscardingStore(entrystate));
 					newApprox = semantics.compute(current, entrystate, cg, newIntermediate);
+					if (!tracked)
+						newIntermediate = null;
 				} catch (SemanticException e) {
 					log.error("Evaluation of the semantics of '" + current + "' in " + this
 							+ " led to an exception: " + e);
 					throw new FixpointException("Semantic exception during fixpoint computation", e);
 				}
 
-				if (oldApprox != null && oldIntermediate != null)
+				if (metrics != null)
+					metrics.of(current).evaluated(semanticsStart - entryStart, System.nanoTime() - semanticsStart);
+
+				if (oldApprox != null)
 					try {
 						if (widenAfter == 0) {
 							newApprox = newApprox.lub(oldApprox);
-							newIntermediate = newIntermediate.lub(oldIntermediate);
+							if (tracked)
+								newIntermediate = newIntermediate.lub(oldIntermediate);
+							if (metrics != null)
+								metrics.of(current).joined(false);
 						} else {
 							// we multiply by the number of predecessors since
 							// if we have more than one
@@ -241,11 +351,15 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 									.getAndDecrement();
 							if (lub > 0) {
 								newApprox = newApprox.lub(oldApprox);
-								newIntermediate = newIntermediate.lub(oldIntermediate);
+								if (tracked)
+									newIntermediate = newIntermediate.lub(oldIntermediate);
 							} else {
 								newApprox = oldApprox.widening(newApprox);
-								newIntermediate = oldIntermediate.widening(newIntermediate);
+								if (tracked)
+									newIntermediate = oldIntermediate.widening(newIntermediate);
 							}
+							if (metrics != null)
+								metrics.of(current).joined(lub <= 0);
 						}
 					} catch (SemanticException e) {
 						throw new FixpointException(
@@ -253,26 +367,82 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 								e);
 					}
 
-				if ((oldApprox == null && oldIntermediate == null) || !newApprox.lessOrEqual(oldApprox)
-						|| !newIntermediate.lessOrEqual(oldIntermediate)) {
+				if (oldApprox == null || !newApprox.lessOrEqual(oldApprox)
+						|| (tracked && !newIntermediate.lessOrEqual(oldIntermediate))) {
 					result.put(current, Pair.of(newApprox, newIntermediate));
+					if (metrics != null && newApprox != null)
+						metrics.of(current).stored(sink.sizeOf(newApprox));
 					for (N instr : followersOf(current))
 						ws.push(instr);
 				}
 			}
 
-			HashMap<N, AnalysisState<A, H, V>> finalResults = new HashMap<>(result.size());
-			for (Entry<N, Pair<AnalysisState<A, H, V>, F>> e : result.entrySet()) {
-				finalResults.put(e.getKey(), e.getValue().getLeft());
-				for (Entry<N, AnalysisState<A, H, V>> ee : e.getValue().getRight())
-					finalResults.put(ee.getKey(), ee.getValue());
+			if (conf.getInternalStates() == InternalStates.AFTER_CONVERGENCE)
+				computeInternalStates(startingPoints, cg, semantics, result, loopHeads, calls, conf);
+
+			Map<N, AnalysisState<A, H, V>> finalResults, stored;
+			if (conf.hasSparseResults()) {
+				SparseResults<A, H, V, F> sparse = new SparseResults<>(startingPoints, cg, semantics, result, loopHeads,
+						calls, conf);
+				finalResults = sparse;
+				stored = sparse.retained;
+			} else {
+				finalResults = new HashMap<>(result.size());
+				for (Entry<N, Pair<AnalysisState<A, H, V>, F>> e : result.entrySet()) {
+					finalResults.put(e.getKey(), e.getValue().getLeft());
+					if (e.getValue().getRight() != null)
+						for (Entry<N, AnalysisState<A, H, V>> ee : e.getValue().getRight())
+							finalResults.put(ee.getKey(), ee.getValue());
+				}
+				stored = finalResults;
 			}
 
+			if (conf.deduplicatesStates())
+				deduplicate(stored, sink, metrics);
+
+			completed = true;
 			return finalResults;
 		} catch (Exception e) {
 			log.fatal("Unexpected exception during fixpoint computation of '" + this + "': " + e);
 			throw new FixpointException("Unexpected exception during fixpoint computation", e);
+		} finally {
+			event.complete(this, size, iterations, completed);
+			if (metrics != null) {
+				metrics.complete(System.nanoTime() - start, completed);
+				sink.record(metrics);
+			}
+		}
+	}
+
+	/**
+	 * Computes the states of the internal nodes of each node in
+	 * {@code result}, evaluating its semantics once more starting from the
+	 * entry state given by the final states of its predecessors. This is used
+	 * when {@link InternalStates#AFTER_CONVERGENCE} is selected.
+	 */
+	@SuppressWarnings("unchecked")
+	private <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>,
+			F extends FunctionalLattice<F, N, AnalysisState<A, H, V>>> void computeInternalStates(
+					Map<N, AnalysisState<A, H, V>> startingPoints, CallGraph cg,
+					SemanticFunction<N, E, G, A, H, V, F> semantics, Map<N, Pair<AnalysisState<A, H, V>, F>> result,
+					Collection<N> loopHeads, Collection<N> calls, FixpointConfiguration conf)
+					throws SemanticException {
+		Map<N, F> stores = new HashMap<>(result.size());
+		for (N node : result.keySet()) {
+			AnalysisState<A, H, V> entrystate = getEntryState(node, startingPoints, n -> result.containsKey(n)
+					? result.get(n).getLeft()
+					: null, loopHeads, calls, conf.forgetsDeadIdentifiers());
+			F store = (F) mkInternalStore(entrystate);
+			semantics.compute(node, entrystate, cg, store);
+			stores.put(node, store);
 		}
+
+		// states are updated only at the end, so that each entry state is
+		// computed on the states produced by the fixpoint
+		for (Entry<N, F> store : stores.entrySet())
+			result.put(store.getKey(), Pair.of(result.get(store.getKey()).getLeft(), store.getValue()));
 	}
 
 	/**
@@ -295,26 +465,61 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 			V extends ValueDomain<V>> FunctionalLattice<?, N, AnalysisState<A, H, V>> mkInternalStore(
 					AnalysisState<A, H, V> entrystate);
 
+	/**
+	 * Builds a new instance of the {@link FunctionalLattice} that is passed to
+	 * the semantics of nodes when the states of internal nodes are not
+	 * tracked, and that can thus ignore them. The default implementation of
+	 * this method returns {@link #mkInternalStore(AnalysisState)}.
+	 * 
+	 * @param <A>        the type of {@link AbstractState}
+	 * @param <H>        the type of {@link HeapDomain} embedded in the abstract
+	 *                       state
+	 * @param <V>        the type of {@link ValueDomain} embedded in the
+	 *                       abstract state
+	 * @param entrystate the analysis state before the creation of this lattice
+	 * 
+	 * @return the functional lattice where results on internal nodes will be
+	 *             discarded
+	 */
+	protected <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> FunctionalLattice<?, N, AnalysisState<A, H, V>> mkDiscardingStore(
+					AnalysisState<A, H, V> entrystate) {
+		return mkInternalStore(entrystate);
+	}
+
 	private <A extends AbstractState<A, H, V>,
 			H extends HeapDomain<H>,
-			V extends ValueDomain<V>,
-			F extends FunctionalLattice<F, N, AnalysisState<A, H, V>>> AnalysisState<A, H, V> getEntryState(
+			V extends ValueDomain<V>> AnalysisState<A, H, V> getEntryState(
 					N current,
 					Map<N, AnalysisState<A, H, V>> startingPoints,
-					Map<N, Pair<AnalysisState<A, H, V>, F>> result)
+					Function<N, AnalysisState<A, H, V>> postStates,
+					Collection<N> loopHeads,
+					Collection<N> calls,
+					boolean forgetDead)
 					throws SemanticException {
+		boolean collect = loopHeads.contains(current);
 		AnalysisState<A, H, V> entrystate = startingPoints.get(current);
 		Collection<N> preds = predecessorsOf(current);
 		List<AnalysisState<A, H, V>> states = new ArrayList<>(preds.size());
 
-		for (N pred : preds)
-			if (result.containsKey(pred)) {
-				// this might not have been computed yet
+		for (N pred : preds) {
+			// this might not have been computed yet
+			AnalysisState<A, H, V> post = postStates.apply(pred);
+			if (post != null) {
 				E edge = adjacencyMatrix.getEdgeConnecting(pred, current);
-				AnalysisState<A, H, V> traversed = edge.traverse(result.get(pred).getLeft());
+				AnalysisState<A, H, V> traversed = edge.traverse(post);
 				// we clean it from out-of-scope variables
-				states.add(cleanUpPostState(pred, traversed));
+				traversed = cleanUpPostState(pred, traversed);
+				// from variables that will not be read anymore, if needed
+				if (forgetDead)
+					traversed = forgetDeadIdentifiers(pred, current, traversed);
+				// and from unreachable locations, if needed
+				if (collect || calls.contains(pred))
+					traversed = traversed.collectGarbage();
+				states.add(traversed);
 			}
+		}
 
 		for (AnalysisState<A, H, V> s : states)
 			if (entrystate == null)
@@ -325,6 +530,314 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 		return entrystate;
 	}
 
+	/**
+	 * Yields the nodes of this graph that are heads of loops, that is, that are
+	 * targeted by an edge going back to a node that is being visited by a
+	 * depth-first traversal starting from the given nodes and from the
+	 * entrypoints of this graph.
+	 * 
+	 * @param roots additional nodes where the traversal should start
+	 * 
+	 * @return the loop heads
+	 */
+	protected Collection<N> loopHeads(Collection<N> roots) {
+		Set<N> heads = new HashSet<>();
+		Set<N> visited = new HashSet<>();
+		Set<N> onStack = new HashSet<>();
+		Collection<N> starts = new LinkedHashSet<>(roots);
+		starts.addAll(entrypoints);
+
+		for (N root : starts) {
+			if (!visited.add(root))
+				continue;
+
+			// iterative depth-first traversal, to not overflow the stack on
+			// big graphs
+			Deque<Pair<N, Iterator<N>>> stack = new LinkedList<>();
+			stack.push(Pair.of(root, followersOf(root).iterator()));
+			onStack.add(root);
+			while (!stack.isEmpty()) {
+				Pair<N, Iterator<N>> top = stack.peek();
+				if (!top.getRight().hasNext()) {
+					onStack.remove(top.getLeft());
+					stack.pop();
+					continue;
+				}
+
+				N next = top.getRight().next();
+				if (onStack.contains(next))
+					heads.add(next);
+				else if (visited.add(next)) {
+					onStack.add(next);
+					stack.push(Pair.of(next, followersOf(next).iterator()));
+				}
+			}
+		}
+
+		return heads;
+	}
+
+	/**
+	 * Replaces each state in the given results with a canonical instance equal
+	 * to it, so that nodes with equal states share the same object. Each state
+	 * is hashed once, when it is looked up among the canonical ones: the hash
+	 * is then kept by the lookup table, and only states falling in the same
+	 * bucket are compared for equality.
+	 * 
+	 * @param states  the results to deduplicate, modified in place
+	 * @param sink    the sink used to measure the size of the states, if
+	 *                    metrics are gathered
+	 * @param metrics the metrics of the computation, or {@code null}
+	 */
+	private <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> void deduplicate(Map<N, AnalysisState<A, H, V>> states,
+					FixpointMetricsSink sink, FixpointMetrics<N> metrics) {
+		Map<AnalysisState<A, H, V>, AnalysisState<A, H, V>> canonical = new HashMap<>();
+		long saved = 0;
+		for (Entry<N, AnalysisState<A, H, V>> entry : states.entrySet()) {
+			AnalysisState<A, H, V> state = entry.getValue();
+			AnalysisState<A, H, V> existing = canonical.putIfAbsent(state, state);
+			if (existing != null && existing != state) {
+				entry.setValue(existing);
+				if (metrics != null)
+					saved += sink.sizeOf(state);
+			}
+		}
+
+		if (metrics != null)
+			metrics.deduplicated(states.size(), canonical.size(), saved);
+		log.debug("Deduplicated the results of '" + this + "': " + canonical.size() + " distinct states out of "
+				+ states.size());
+	}
+
+	/**
+	 * Yields {@code true} if and only if the state of the given node must be
+	 * stored in the results of a computation with sparse results (see
+	 * {@link FixpointConfiguration#setSparseResults(boolean)}), in addition to
+	 * the ones of the entrypoints, of the exits and of the heads of loops. The
+	 * default implementation of this method returns {@code false}.
+	 * 
+	 * @param node the node
+	 * @param conf the options of the computation
+	 * 
+	 * @return whether or not the state of the node must be stored
+	 */
+	protected boolean isRetained(N node, FixpointConfiguration conf) {
+		return false;
+	}
+
+	/**
+	 * The results of a fixpoint computation that stores only the states of
+	 * some nodes (together with the ones of their internal nodes), and
+	 * recomputes the other ones each time they are requested. Since every
+	 * cycle of the graph contains a loop head, whose state is stored, the
+	 * nodes that need to be recomputed to obtain a state always form an
+	 * acyclic graph, and each of them is evaluated once per request. The
+	 * most recently recomputed states are also kept in a small cache, so that
+	 * requests following the flow of the graph (as when dumping results) only
+	 * recompute one node each, instead of the whole chain of nodes from the
+	 * closest stored state.
+	 * 
+	 * @param <A> the type of {@link AbstractState}
+	 * @param <H> the type of {@link HeapDomain} contained into the computed
+	 *                abstract state
+	 * @param <V> the type of {@link ValueDomain} contained into the computed
+	 *                abstract state
+	 * @param <F> the type of {@link FunctionalLattice} that holds analysis
+	 *                states computed on internal nodes
+	 */
+	private class SparseResults<A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>,
+			F extends FunctionalLattice<F, N, AnalysisState<A, H, V>>> extends AbstractMap<N, AnalysisState<A, H, V>> {
+
+		/**
+		 * The stored states, both of nodes and of their internal nodes
+		 */
+		private final Map<N, AnalysisState<A, H, V>> retained;
+
+		/**
+		 * The node of this graph containing each node that has a result,
+		 * mapping nodes of this graph to themselves
+		 */
+		private final Map<N, N> roots;
+
+		private final Map<N, AnalysisState<A, H, V>> startingPoints;
+
+		private final CallGraph cg;
+
+		private final SemanticFunction<N, E, G, A, H, V, F> semantics;
+
+		private final Collection<N> loopHeads;
+
+		private final Collection<N> calls;
+
+		private final boolean forgetDead;
+
+		/**
+		 * The most recently recomputed nodes, with their post-states and the
+		 * states of their internal nodes
+		 */
+		private final Map<N, Pair<AnalysisState<A, H, V>, F>> replayCache;
+
+		private SparseResults(Map<N, AnalysisState<A, H, V>> startingPoints, CallGraph cg,
+				SemanticFunction<N, E, G, A, H, V, F> semantics, Map<N, Pair<AnalysisState<A, H, V>, F>> result,
+				Collection<N> loopHeads, Collection<N> calls, FixpointConfiguration conf) {
+			this.startingPoints = startingPoints;
+			this.cg = cg;
+			this.semantics = semantics;
+			this.loopHeads = loopHeads;
+			this.calls = calls;
+			this.forgetDead = conf.forgetsDeadIdentifiers();
+			this.replayCache = Collections.synchronizedMap(new LeastRecentlyUsed<>(REPLAY_CACHE_SIZE));
+
+			Collection<N> heads = loopHeads(startingPoints.keySet());
+			this.retained = new HashMap<>();
+			this.roots = new HashMap<>(result.size());
+			for (Entry<N, Pair<AnalysisState<A, H, V>, F>> e : result.entrySet()) {
+				N node = e.getKey();
+				boolean retain = startingPoints.containsKey(node) || heads.contains(node)
+						|| followersOf(node).isEmpty() || isRetained(node, conf);
+				roots.put(node, node);
+				if (retain)
+					retained.put(node, e.getValue().getLeft());
+				if (e.getValue().getRight() != null)
+					for (Entry<N, AnalysisState<A, H, V>> ee : e.getValue().getRight()) {
+						roots.put(ee.getKey(), node);
+						if (retain)
+							retained.put(ee.getKey(), ee.getValue());
+					}
+			}
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return roots.containsKey(key);
+		}
+
+		@Override
+		public int size() {
+			return roots.size();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public AnalysisState<A, H, V> get(Object key) {
+			AnalysisState<A, H, V> state = retained.get(key);
+			if (state != null)
+				return state;
+			N root = roots.get(key);
+			if (root == null)
+				return null;
+
+			try {
+				Pair<AnalysisState<A, H, V>, F> replayed = replay(root);
+				return root == key ? replayed.getLeft() : replayed.getRight().getState((N) key);
+			} catch (SemanticException e) {
+				throw new AnalysisExecutionException("Unable to recompute the state of '" + key + "' in "
+						+ FixpointGraph.this, e);
+			}
+		}
+
+		private boolean isReplayed(N node) {
+			return roots.get(node) == node && !retained.containsKey(node);
+		}
+
+		/**
+		 * Recomputes the post-state of the given node, together with the
+		 * states of its internal nodes. States of the non-retained nodes that
+		 * lead to it are computed first, without recursion since chains of
+		 * such nodes might be long, stopping at the ones found in
+		 * {@link #replayCache}. The cache is locked only while it is accessed,
+		 * so that different threads can recompute states concurrently.
+		 */
+		private Pair<AnalysisState<A, H, V>, F> replay(N node) throws SemanticException {
+			Map<N, Pair<AnalysisState<A, H, V>, F>> replayed = new HashMap<>();
+			Deque<N> stack = new LinkedList<>();
+			stack.push(node);
+			while (!stack.isEmpty()) {
+				N current = stack.peek();
+				if (replayed.containsKey(current)) {
+					stack.pop();
+					continue;
+				}
+
+				Pair<AnalysisState<A, H, V>, F> cached = replayCache.get(current);
+				if (cached != null) {
+					replayed.put(current, cached);
+					stack.pop();
+					continue;
+				}
+
+				boolean ready = true;
+				for (N pred : predecessorsOf(current))
+					if (isReplayed(pred) && !replayed.containsKey(pred)) {
+						stack.push(pred);
+						ready = false;
+					}
+				if (!ready)
+					continue;
+
+				stack.pop();
+				AnalysisState<A, H, V> entrystate = getEntryState(current, startingPoints, n -> retained.containsKey(n)
+						? retained.get(n)
+						: replayed.containsKey(n) ? replayed.get(n).getLeft() : null, loopHeads, calls, forgetDead);
+				@SuppressWarnings("unchecked")
+				F store = (F) mkInternalStore(entrystate);
+				Pair<AnalysisState<A, H, V>, F> computed = Pair.of(semantics.compute(current, entrystate, cg, store),
+						store);
+				replayed.put(current, computed);
+				replayCache.put(current, computed);
+			}
+			return replayed.get(node);
+		}
+
+		@Override
+		public Set<Entry<N, AnalysisState<A, H, V>>> entrySet() {
+			return new AbstractSet<Entry<N, AnalysisState<A, H, V>>>() {
+
+				@Override
+				public Iterator<Entry<N, AnalysisState<A, H, V>>> iterator() {
+					Iterator<N> keys = roots.keySet().iterator();
+					return new Iterator<Entry<N, AnalysisState<A, H, V>>>() {
+
+						@Override
+						public boolean hasNext() {
+							return keys.hasNext();
+						}
+
+						@Override
+						public Entry<N, AnalysisState<A, H, V>> next() {
+							N key = keys.next();
+							return new SimpleImmutableEntry<>(key, get(key));
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return roots.size();
+				}
+			};
+		}
+	}
+
+	/**
+	 * Yields {@code true} if and only if the given node contains a call to
+	 * another graph, meaning that the state flowing out of it can contain heap
+	 * locations that became unreachable when the call returned. This is used
+	 * when {@link GarbageCollectionPoint#CALL_RETURNS} is enabled. The default
+	 * implementation of this method returns {@code false}.
+	 * 
+	 * @param node the node
+	 * 
+	 * @return whether or not the node contains a call
+	 */
+	protected boolean containsCall(N node) {
+		return false;
+	}
+
 	/**
 	 * Cleans up the exit state of a node. This is an optional operation: the
 	 * default implementation of this method returns the given
@@ -350,4 +863,33 @@ public abstract class FixpointGraph<G extends FixpointGraph<G, N, E>,
 					throws SemanticException {
 		return computedState;
 	}
+
+	/**
+	 * Removes from the state computed on a node the identifiers that are not
+	 * going to be read anymore when the execution continues with the given
+	 * follower. This is used when
+	 * {@link FixpointConfiguration#forgetsDeadIdentifiers()} is enabled. The
+	 * default implementation of this method returns the given
+	 * {@code computedState}.
+	 * 
+	 * @param <A>           the type of {@link AbstractState}
+	 * @param <H>           the type of {@link HeapDomain} embedded in the
+	 *                          abstract state
+	 * @param <V>           the type of {@link ValueDomain} embedded in the
+	 *                          abstract state
+	 * @param node          the node where the computedState has been computed
+	 * @param follower      the node where the execution continues
+	 * @param computedState the computed computedState for the given node
+	 * 
+	 * @return the state without the dead identifiers
+	 * 
+	 * @throws SemanticException if an error happens while cleaning the state
+	 */
+	protected <A extends AbstractState<A, H, V>,
+			H extends HeapDomain<H>,
+			V extends ValueDomain<V>> AnalysisState<A, H, V> forgetDeadIdentifiers(N node, N follower,
+					AnalysisState<A, H, V> computedState)
+					throws SemanticException {
+		return computedState;
+	}
 }
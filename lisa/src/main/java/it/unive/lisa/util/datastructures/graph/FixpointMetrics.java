@@ -0,0 +1,311 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.Lattice;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The metrics gathered during a single fixpoint computation over a
+ * {@link FixpointGraph}, reported to a {@link FixpointMetricsSink} once the
+ * computation ends. Metrics are collected only if a sink has been set in the
+ * {@link FixpointConfiguration} of the computation. Instances of this class
+ * are not modified after they have been reported.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <N> the type of the nodes of the graph
+ */
+public class FixpointMetrics<N> {
+
+	private final String graph;
+
+	private final Map<N, NodeMetrics> nodes;
+
+	private long totalNanos;
+
+	private boolean completed;
+
+	private int storedStates = -1;
+
+	private int distinctStates = -1;
+
+	private long savedSize;
+
+	/**
+	 * Builds the metrics of a fixpoint computation.
+	 *
+	 * @param graph a textual representation of the graph where the fixpoint is
+	 *                  computed
+	 */
+	FixpointMetrics(String graph) {
+		this.graph = graph;
+		this.nodes = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Yields the textual representation of the graph where the fixpoint has
+	 * been computed.
+	 *
+	 * @return the graph
+	 */
+	public String getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Yields the metrics of each node that has been evaluated during the
+	 * fixpoint computation, in the order they have been evaluated for the
+	 * first time.
+	 *
+	 * @return the metrics of the nodes
+	 */
+	public Map<N, NodeMetrics> getNodes() {
+		return Collections.unmodifiableMap(nodes);
+	}
+
+	/**
+	 * Yields the time, in nanoseconds, spent in the whole fixpoint
+	 * computation.
+	 *
+	 * @return the time
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * Yields whether or not the fixpoint computation completed normally. If
+	 * this is {@code false}, the computation has been interrupted by an
+	 * exception, and the metrics refer only to what has been computed before
+	 * that.
+	 *
+	 * @return {@code true} if the computation completed normally
+	 */
+	public boolean isCompleted() {
+		return completed;
+	}
+
+	/**
+	 * Yields the total number of node evaluations.
+	 *
+	 * @return the number of evaluations
+	 */
+	public long getEvaluations() {
+		return nodes.values().stream().mapToLong(NodeMetrics::getEvaluations).sum();
+	}
+
+	/**
+	 * Yields the total number of {@link Lattice#lub(Lattice)} invocations used
+	 * to join approximations of the same node.
+	 *
+	 * @return the number of lubs
+	 */
+	public long getLubs() {
+		return nodes.values().stream().mapToLong(NodeMetrics::getLubs).sum();
+	}
+
+	/**
+	 * Yields the total number of {@link Lattice#widening(Lattice)} invocations
+	 * used to join approximations of the same node.
+	 *
+	 * @return the number of widenings
+	 */
+	public long getWidenings() {
+		return nodes.values().stream().mapToLong(NodeMetrics::getWidenings).sum();
+	}
+
+	/**
+	 * Yields the total time, in nanoseconds, spent computing the semantics of
+	 * the nodes.
+	 *
+	 * @return the time
+	 */
+	public long getSemanticsNanos() {
+		return nodes.values().stream().mapToLong(NodeMetrics::getSemanticsNanos).sum();
+	}
+
+	/**
+	 * Yields the total time, in nanoseconds, spent computing the entry states
+	 * of the nodes.
+	 *
+	 * @return the time
+	 */
+	public long getEntryStateNanos() {
+		return nodes.values().stream().mapToLong(NodeMetrics::getEntryStateNanos).sum();
+	}
+
+	/**
+	 * Yields the number of states stored in the results of the computation
+	 * when they have been deduplicated (see
+	 * {@link FixpointConfiguration#setDeduplicateStates(boolean)}).
+	 *
+	 * @return the number of stored states, or {@code -1} if the states have
+	 *             not been deduplicated
+	 */
+	public int getStoredStates() {
+		return storedStates;
+	}
+
+	/**
+	 * Yields the number of distinct states stored in the results of the
+	 * computation, that is, the number of state instances that are kept after
+	 * deduplicating them.
+	 *
+	 * @return the number of distinct states, or {@code -1} if the states have
+	 *             not been deduplicated
+	 */
+	public int getDistinctStates() {
+		return distinctStates;
+	}
+
+	/**
+	 * Yields the overall size of the states that have been replaced by an
+	 * equal one while deduplicating the results, as measured by
+	 * {@link FixpointMetricsSink#sizeOf(AnalysisState)}. This estimates the
+	 * memory saved by the deduplication.
+	 *
+	 * @return the size of the replaced states
+	 */
+	public long getSavedSize() {
+		return savedSize;
+	}
+
+	NodeMetrics of(N node) {
+		return nodes.computeIfAbsent(node, n -> new NodeMetrics());
+	}
+
+	void deduplicated(int storedStates, int distinctStates, long savedSize) {
+		this.storedStates = storedStates;
+		this.distinctStates = distinctStates;
+		this.savedSize = savedSize;
+	}
+
+	void complete(long totalNanos, boolean completed) {
+		this.totalNanos = totalNanos;
+		this.completed = completed;
+	}
+
+	@Override
+	public String toString() {
+		return "fixpoint over " + graph + (completed ? "" : " (interrupted)") + ": " + nodes.size() + " nodes, "
+				+ getEvaluations() + " evaluations, " + getLubs() + " lubs, " + getWidenings() + " widenings, "
+				+ totalNanos + "ns total, " + getSemanticsNanos() + "ns in semantics, " + getEntryStateNanos()
+				+ "ns computing entry states"
+				+ (storedStates < 0 ? ""
+						: ", " + distinctStates + " distinct states out of " + storedStates + " (saved size "
+								+ savedSize + ")");
+	}
+
+	/**
+	 * The metrics of a single node of a {@link FixpointGraph}, gathered during
+	 * a fixpoint computation.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public static class NodeMetrics {
+
+		private long evaluations;
+
+		private long lubs;
+
+		private long widenings;
+
+		private long semanticsNanos;
+
+		private long entryStateNanos;
+
+		private int stateSize = -1;
+
+		private NodeMetrics() {
+		}
+
+		/**
+		 * Yields the number of times that the semantics of the node has been
+		 * evaluated.
+		 *
+		 * @return the number of evaluations
+		 */
+		public long getEvaluations() {
+			return evaluations;
+		}
+
+		/**
+		 * Yields the number of times that {@link Lattice#lub(Lattice)} has
+		 * been used to join the new approximation of the node with the
+		 * previous one.
+		 *
+		 * @return the number of lubs
+		 */
+		public long getLubs() {
+			return lubs;
+		}
+
+		/**
+		 * Yields the number of times that {@link Lattice#widening(Lattice)}
+		 * has been used to join the new approximation of the node with the
+		 * previous one.
+		 *
+		 * @return the number of widenings
+		 */
+		public long getWidenings() {
+			return widenings;
+		}
+
+		/**
+		 * Yields the time, in nanoseconds, spent computing the semantics of
+		 * the node, including the one of its inner nodes.
+		 *
+		 * @return the time
+		 */
+		public long getSemanticsNanos() {
+			return semanticsNanos;
+		}
+
+		/**
+		 * Yields the time, in nanoseconds, spent computing the entry state of
+		 * the node from the approximations of its predecessors.
+		 *
+		 * @return the time
+		 */
+		public long getEntryStateNanos() {
+			return entryStateNanos;
+		}
+
+		/**
+		 * Yields the size of the last approximation stored for the node, as
+		 * measured by {@link FixpointMetricsSink#sizeOf(AnalysisState)}.
+		 *
+		 * @return the size of the approximation, or {@code -1} if no
+		 *             approximation has been stored
+		 */
+		public int getStateSize() {
+			return stateSize;
+		}
+
+		void evaluated(long entryStateNanos, long semanticsNanos) {
+			this.evaluations++;
+			this.entryStateNanos += entryStateNanos;
+			this.semanticsNanos += semanticsNanos;
+		}
+
+		void joined(boolean widening) {
+			if (widening)
+				widenings++;
+			else
+				lubs++;
+		}
+
+		void stored(int stateSize) {
+			this.stateSize = stateSize;
+		}
+
+		@Override
+		public String toString() {
+			return evaluations + " evaluations, " + lubs + " lubs, " + widenings + " widenings, " + semanticsNanos
+					+ "ns in semantics, " + entryStateNanos + "ns computing the entry state, state size "
+					+ stateSize;
+		}
+	}
+}
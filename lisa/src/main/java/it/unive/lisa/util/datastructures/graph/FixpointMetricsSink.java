@@ -0,0 +1,42 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import it.unive.lisa.analysis.AnalysisState;
+
+/**
+ * A destination for the {@link FixpointMetrics} gathered during fixpoint
+ * computations over {@link FixpointGraph}s. A sink is set through
+ * {@link FixpointConfiguration#setMetricsSink(FixpointMetricsSink)}: if no
+ * sink is set, no metric is gathered and the fixpoint computation does not
+ * pay any additional cost. Since fixpoints over different graphs might be
+ * computed concurrently, implementations of this interface must be
+ * thread-safe.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@FunctionalInterface
+public interface FixpointMetricsSink {
+
+	/**
+	 * Records the metrics of a fixpoint computation. This is invoked once for
+	 * each computation, when it ends, even if it ends with an exception.
+	 *
+	 * @param metrics the metrics of the computation
+	 */
+	void record(FixpointMetrics<?> metrics);
+
+	/**
+	 * Yields the size of the given state, that is reported in
+	 * {@link FixpointMetrics.NodeMetrics#getStateSize()}. This is invoked each
+	 * time a new approximation is stored for a node, and never while timing the
+	 * computation. The default implementation yields the length of the
+	 * textual representation of {@code state}: sinks that do not need the
+	 * size can override this method to avoid its cost.
+	 *
+	 * @param state the state
+	 *
+	 * @return the size of the state
+	 */
+	default int sizeOf(AnalysisState<?, ?, ?> state) {
+		return state.representation().length();
+	}
+}
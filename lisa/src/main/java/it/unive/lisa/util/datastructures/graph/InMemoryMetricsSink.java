@@ -0,0 +1,36 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link FixpointMetricsSink} that keeps all the recorded
+ * {@link FixpointMetrics} in memory, in the order they have been recorded.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class InMemoryMetricsSink implements FixpointMetricsSink {
+
+	private final List<FixpointMetrics<?>> metrics = new ArrayList<>();
+
+	@Override
+	public synchronized void record(FixpointMetrics<?> metrics) {
+		this.metrics.add(metrics);
+	}
+
+	/**
+	 * Yields the metrics recorded so far.
+	 *
+	 * @return a copy of the list of recorded metrics
+	 */
+	public synchronized List<FixpointMetrics<?>> getMetrics() {
+		return new ArrayList<>(metrics);
+	}
+
+	/**
+	 * Discards all the metrics recorded so far.
+	 */
+	public synchronized void clear() {
+		metrics.clear();
+	}
+}
@@ -0,0 +1,177 @@
+package it.unive.lisa.util.file;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A zip archive whose entries are written asynchronously. Each entry is
+ * created through {@link #mkEntry(String, boolean)}, that yields a
+ * {@link Writer} buffering its content in memory: once that writer is closed,
+ * the content is compressed and appended to the archive by a background
+ * thread, so that the caller is not blocked by compression and disk I/O. Only
+ * a bounded number of closed entries can wait to be written at the same time,
+ * to bound the memory used for buffering. Entries can be created and written
+ * concurrently by different threads.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+class ArchiveWriter implements Closeable {
+
+	/**
+	 * The maximum number of closed entries waiting to be written
+	 */
+	private static final int MAX_PENDING = 64;
+
+	private final File file;
+
+	private final ZipOutputStream zip;
+
+	private final ExecutorService writer;
+
+	private final Semaphore pending;
+
+	private final Set<String> entries;
+
+	private volatile IOException failure;
+
+	private boolean closed;
+
+	/**
+	 * Builds the archive, creating the underlying file.
+	 *
+	 * @param file the file of the archive
+	 *
+	 * @throws IOException if the file cannot be created
+	 */
+	ArchiveWriter(File file) throws IOException {
+		this.file = file;
+		this.zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		this.writer = Executors.newSingleThreadExecutor(r -> {
+			// an archive that is never closed must not prevent the jvm from
+			// exiting
+			Thread t = new Thread(r, "archive-writer");
+			t.setDaemon(true);
+			return t;
+		});
+		this.pending = new Semaphore(MAX_PENDING);
+		this.entries = new HashSet<>();
+	}
+
+	/**
+	 * Creates a new UTF-8 encoded entry in the archive. The content written to
+	 * the returned {@link Writer} is added to the archive once the writer is
+	 * closed.
+	 *
+	 * @param name the name of the entry
+	 * @param bom  if {@code true}, the bom marker {@code \ufeff} will be
+	 *                 written to the entry
+	 *
+	 * @return a {@link Writer} instance that can write to the entry
+	 *
+	 * @throws IOException if the archive has been closed, if an entry with the
+	 *                         same name already exists, or if writing a
+	 *                         previous entry failed
+	 */
+	synchronized Writer mkEntry(String name, boolean bom) throws IOException {
+		checkFailure();
+		if (closed)
+			throw new IOException("Archive " + file + " has already been closed");
+		if (!entries.add(name))
+			throw new IOException("Entry " + name + " already exists in archive " + file);
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		Writer result = new OutputStreamWriter(buffer, StandardCharsets.UTF_8.newEncoder()) {
+
+			private boolean done;
+
+			@Override
+			public void close() throws IOException {
+				if (done)
+					return;
+				done = true;
+				super.close();
+				enqueue(name, buffer);
+			}
+		};
+
+		if (bom)
+			result.write('\ufeff');
+		return result;
+	}
+
+	private synchronized void enqueue(String name, ByteArrayOutputStream content) throws IOException {
+		checkFailure();
+		if (closed)
+			throw new IOException("Archive " + file + " has been closed before completing entry " + name);
+		try {
+			pending.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while writing " + name + " to archive " + file);
+		}
+
+		writer.execute(() -> {
+			try {
+				if (failure == null) {
+					zip.putNextEntry(new ZipEntry(name));
+					content.writeTo(zip);
+					zip.closeEntry();
+				}
+			} catch (IOException e) {
+				failure = e;
+			} finally {
+				pending.release();
+			}
+		});
+	}
+
+	private void checkFailure() throws IOException {
+		if (failure != null)
+			throw new IOException("Unable to write to archive " + file, failure);
+	}
+
+	/**
+	 * Waits for all the closed entries to be written, and completes the
+	 * archive. Entries whose writer has not been closed yet are discarded, and
+	 * closing their writers will raise an exception. Closing an already closed
+	 * archive has no effect.
+	 *
+	 * @throws IOException if writing some entry failed, or if the archive
+	 *                         cannot be completed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed)
+			return;
+
+		closed = true;
+		writer.shutdown();
+		try {
+			writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			writer.shutdownNow();
+			zip.close();
+			throw new InterruptedIOException("Interrupted while completing archive " + file);
+		}
+
+		zip.close();
+		checkFailure();
+	}
+}
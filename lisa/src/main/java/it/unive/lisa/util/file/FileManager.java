@@ -1,5 +1,6 @@
 package it.unive.lisa.util.file;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -12,14 +13,30 @@ import java.util.TreeSet;
 
 /**
  * A file manager that provides standard functionalities for communicating with
- * the file system.
+ * the file system. Files can be created concurrently by different threads.<br>
+ * <br>
+ * A file manager can optionally store the files it creates into a single zip
+ * archive placed in its workdir, instead of creating them as separate files:
+ * this greatly reduces the number of files created when dumping large
+ * analyses. Entries of the archive are compressed and written in background,
+ * and the archive is completed by {@link #close()}.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
-public class FileManager {
+public class FileManager implements Closeable {
+
+	/**
+	 * The default name of the archive containing the created files, if the
+	 * manager archives them
+	 */
+	public static final String DEFAULT_ARCHIVE = "outputs.zip";
 
 	private final File workdir;
 
+	private final String archiveName;
+
+	private ArchiveWriter archive;
+
 	private final Collection<String> createdFiles = new TreeSet<>();
 
 	/**
@@ -30,12 +47,29 @@ public class FileManager {
 	 *                    this manager
 	 */
 	public FileManager(String workdir) {
+		this(workdir, null);
+	}
+
+	/**
+	 * Builds a new manager that will produce files in the given
+	 * {@code workdir}, storing them into an archive named {@code archive}
+	 * (relative to the workdir) if it is not {@code null}. The archive is
+	 * created only when the first file is created.
+	 * 
+	 * @param workdir the path to the directory where files will be created by
+	 *                    this manager
+	 * @param archive the name of the zip archive where files will be stored,
+	 *                    or {@code null} to create each of them separately
+	 */
+	public FileManager(String workdir, String archive) {
 		this.workdir = Paths.get(workdir).toFile();
+		this.archiveName = archive;
 	}
 
 	/**
 	 * Yields the collection of file names that have been created by this
-	 * manager.
+	 * manager. The returned collection should not be iterated while other
+	 * threads are creating files.
 	 * 
 	 * @return the names of the created files
 	 */
@@ -43,6 +77,17 @@ public class FileManager {
 		return createdFiles;
 	}
 
+	/**
+	 * Yields the name of the archive (relative to the workdir) where created
+	 * files are stored, if this manager archives files and at least one file
+	 * has been created in the archive.
+	 * 
+	 * @return the name of the archive, or {@code null} if no archive exists
+	 */
+	public synchronized String getArchive() {
+		return archive == null ? null : archiveName;
+	}
+
 	/**
 	 * Creates a UTF-8 encoded file with the given name. If name is a path, all
 	 * missing directories will be created as well. The given name will be
@@ -63,7 +108,9 @@ public class FileManager {
 	 * Creates a UTF-8 encoded file with the given name. If name is a path, all
 	 * missing directories will be created as well. The given name will be
 	 * joined with the workdir used to initialize this file manager, thus
-	 * raising an exception if {@code name} is absolute.
+	 * raising an exception if {@code name} is absolute. If this manager
+	 * archives files, the file is instead created as an entry of the archive,
+	 * and its content is stored once the returned writer is closed.
 	 * 
 	 * @param name the name of the file to create
 	 * @param bom  if {@code true}, the bom marker {@code \ufeff} will be
@@ -74,17 +121,53 @@ public class FileManager {
 	 * @throws IOException if something goes wrong while creating the file
 	 */
 	public Writer mkOutputFile(String name, boolean bom) throws IOException {
-		File file = new File(workdir, name);
+		if (archiveName == null)
+			return mkFile(name, bom);
 
-		if (!file.getAbsoluteFile().getParentFile().exists())
-			if (!file.getAbsoluteFile().getParentFile().mkdirs())
-				throw new IOException("Unable to create directory structure for " + file);
+		Writer writer;
+		synchronized (this) {
+			if (archive == null) {
+				File file = new File(workdir, archiveName);
+				mkParentDirs(file);
+				archive = new ArchiveWriter(file);
+			}
+			writer = archive.mkEntry(name, bom);
+		}
 
+		synchronized (createdFiles) {
+			createdFiles.add(name);
+		}
+
+		return writer;
+	}
+
+	/**
+	 * Creates a UTF-8 encoded file with the given name, as
+	 * {@link #mkOutputFile(String)} would do, but always as a separate file
+	 * even if this manager archives files (e.g., for a report that describes
+	 * the contents of the archive).
+	 * 
+	 * @param name the name of the file to create
+	 * 
+	 * @return a {@link Writer} instance that can write to the created file
+	 * 
+	 * @throws IOException if something goes wrong while creating the file
+	 */
+	public Writer mkUnarchivedFile(String name) throws IOException {
+		return mkFile(cleanupForDotFile(name), false);
+	}
+
+	private Writer mkFile(String name, boolean bom) throws IOException {
+		File file = new File(workdir, name);
+
+		mkParentDirs(file);
 		Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8.newEncoder());
 		if (bom)
 			writer.write('\ufeff');
 
-		createdFiles.add(name);
+		synchronized (createdFiles) {
+			createdFiles.add(name);
+		}
 
 		return writer;
 	}
@@ -107,6 +190,27 @@ public class FileManager {
 		return mkOutputFile(cleanupForDotFile(name) + ".dot", false);
 	}
 
+	private static void mkParentDirs(File file) throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		// another thread might create the same directories concurrently
+		if (!parent.exists() && !parent.mkdirs() && !parent.isDirectory())
+			throw new IOException("Unable to create directory structure for " + file);
+	}
+
+	/**
+	 * Completes the archive where files are stored, if any, waiting for all
+	 * the entries whose writer has been closed to be written. No file can be
+	 * created in the archive after this method is invoked. This method has no
+	 * effect if this manager does not archive files.
+	 * 
+	 * @throws IOException if something goes wrong while writing the archive
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (archive != null)
+			archive.close();
+	}
+
 	private static String cleanupForDotFile(String name) {
 		String result = name.replace(' ', '_');
 		result = result.replace("::", ".");
@@ -0,0 +1,80 @@
+package it.unive.lisa.analysis.heap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.heap.HeapSemanticOperation.HeapReplacement;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.symbolic.types.IntType;
+import it.unive.lisa.symbolic.value.HeapLocation;
+import it.unive.lisa.symbolic.value.Identifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class SubstitutionsTest {
+
+	private static HeapLocation loc(String name, boolean weak) {
+		return new HeapLocation(Caches.types().mkSingletonSet(IntType.INSTANCE), name, weak);
+	}
+
+	private static HeapReplacement weaken(String name) {
+		HeapReplacement replacement = new HeapReplacement();
+		replacement.addSource(loc(name, false));
+		replacement.addTarget(loc(name, true));
+		return replacement;
+	}
+
+	@Test
+	public void testDuplicatesAreRemoved() {
+		List<HeapReplacement> first = Arrays.asList(weaken("a"), weaken("b"));
+		List<HeapReplacement> joined = Substitutions.concat(first, first);
+		for (int i = 0; i < 10; i++)
+			joined = Substitutions.concat(joined, first);
+
+		assertEquals(first, joined);
+	}
+
+	@Test
+	public void testSameSourcesAreMerged() {
+		HeapReplacement other = new HeapReplacement();
+		other.addSource(loc("a", false));
+		other.addTarget(loc("c", true));
+
+		List<HeapReplacement> result = Substitutions.compact(Arrays.asList(weaken("a"), weaken("b"), other));
+		assertEquals(2, result.size());
+		assertEquals(Collections.singleton(loc("a", false)), result.get(0).getSources());
+		assertEquals(2, result.get(0).getTargets().size());
+		assertEquals(weaken("b"), result.get(1));
+	}
+
+	@Test
+	public void testInterferingReplacementsAreKept() {
+		// the second replacement assigns the source of the first one, that
+		// thus has a new value when the third replacement is applied
+		HeapReplacement back = new HeapReplacement();
+		back.addSource(loc("b", false));
+		back.addTarget(loc("a", false));
+
+		List<HeapReplacement> substitution = Arrays.asList(weaken("a"), back, weaken("a"));
+		assertEquals(substitution, Substitutions.compact(substitution));
+	}
+
+	@Test
+	public void testBound() {
+		List<HeapReplacement> substitution = new ArrayList<>();
+		for (int i = 0; i < 20; i++)
+			substitution.add(weaken("l" + i));
+
+		List<HeapReplacement> result = Substitutions.compact(substitution, 5);
+		assertEquals(5, result.size());
+		// the summary covers everything that has been dropped
+		for (int i = 0; i < 16; i++) {
+			Identifier source = loc("l" + i, false);
+			assertTrue(result.get(0).getSources().contains(source));
+		}
+		assertEquals(substitution.subList(16, 20), result.subList(1, 5));
+	}
+}
@@ -0,0 +1,74 @@
+package it.unive.lisa.analysis.impl.heap.pointbased;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Untyped;
+import java.util.function.Predicate;
+import org.junit.Test;
+
+public class PointBasedHeapGCTest {
+
+	private final ProgramPoint fake = new ProgramPoint() {
+
+		@Override
+		public CFG getCFG() {
+			return null;
+		}
+
+		@Override
+		public CodeLocation getLocation() {
+			return null;
+		}
+	};
+
+	private final Variable x = new Variable(Caches.types().mkSingletonSet(Untyped.INSTANCE), "x");
+	private final Variable y = new Variable(Caches.types().mkSingletonSet(Untyped.INSTANCE), "y");
+
+	private static AllocationSite site(String id) {
+		return new AllocationSite(Caches.types().mkSingletonSet(Untyped.INSTANCE), id);
+	}
+
+	private static AllocationSite weak(String id) {
+		return new AllocationSite(Caches.types().mkSingletonSet(Untyped.INSTANCE), id, true);
+	}
+
+	@Test
+	public void testReachability() throws SemanticException {
+		// x -> 1, 1 -> 2, y -> 3
+		PointBasedHeap heap = new PointBasedHeap()
+				.assign(x, site("1"), fake)
+				.assign(site("1"), site("2"), fake)
+				.assign(y, site("3"), fake);
+
+		Predicate<Identifier> unreachable = heap.unreachableLocations();
+		assertFalse(unreachable.test(site("1")));
+		assertFalse(unreachable.test(weak("2")));
+		assertFalse(unreachable.test(site("3")));
+		assertFalse(unreachable.test(x));
+
+		heap = heap.forgetIdentifier(x);
+		unreachable = heap.unreachableLocations();
+		assertTrue(unreachable.test(site("1")));
+		assertTrue(unreachable.test(weak("2")));
+		assertFalse(unreachable.test(site("3")));
+
+		PointBasedHeap collected = heap.forgetIdentifiersIf(unreachable);
+		assertEquals(1, collected.heapEnv.getKeys().size());
+		assertTrue(collected.heapEnv.getKeys().contains(y));
+	}
+
+	@Test
+	public void testNothingToCollect() throws SemanticException {
+		PointBasedHeap heap = new PointBasedHeap().assign(x, site("1"), fake);
+		assertTrue(heap == heap.forgetIdentifiersIf(heap.unreachableLocations()));
+	}
+}
@@ -0,0 +1,74 @@
+package it.unive.lisa.analysis.impl.numeric;
+
+import static org.junit.Assert.assertEquals;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.symbolic.types.IntType;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.UnaryOperator;
+import org.junit.Test;
+
+public class IntervalTest {
+
+	private static final Interval TOP = new Interval();
+
+	private static Interval singleton(int value) {
+		return TOP.evalNonNullConstant(new Constant(IntType.INSTANCE, value), null);
+	}
+
+	private static Interval range(int low, int high) throws SemanticException {
+		return singleton(low).lub(singleton(high));
+	}
+
+	// [low, +Inf]
+	private static Interval from(int low) throws SemanticException {
+		Interval positive = TOP.evalUnaryExpression(UnaryOperator.STRING_LENGTH, TOP, null);
+		return positive.evalBinaryExpression(BinaryOperator.NUMERIC_ADD, positive, singleton(low), null);
+	}
+
+	// [-Inf, high]
+	private static Interval upTo(int high) throws SemanticException {
+		return TOP.evalUnaryExpression(UnaryOperator.NUMERIC_NEG, from(-high), null);
+	}
+
+	private static Interval mul(Interval left, Interval right) {
+		return TOP.evalBinaryExpression(BinaryOperator.NUMERIC_MUL, left, right, null);
+	}
+
+	@Test
+	public void testBoundedMultiplication() throws SemanticException {
+		assertEquals("[3, 8]", mul(range(1, 2), range(3, 4)).representation());
+		assertEquals("[-4, 6]", mul(range(-2, 3), range(-1, 2)).representation());
+		assertEquals("[-12, -3]", mul(range(-4, -3), range(1, 3)).representation());
+		assertEquals("[0, 0]", mul(range(-4, 3), singleton(0)).representation());
+	}
+
+	@Test
+	public void testUnboundedMultiplication() throws SemanticException {
+		assertEquals("[2, +Inf]", mul(from(1), range(2, 3)).representation());
+		assertEquals("[-Inf, -2]", mul(from(1), range(-3, -2)).representation());
+		assertEquals("[-Inf, +Inf]", mul(from(1), range(-1, 1)).representation());
+		assertEquals("[-Inf, +Inf]", mul(from(-1), upTo(1)).representation());
+		// a zero bound yields zero even when multiplied by an infinite one
+		assertEquals("[0, +Inf]", mul(from(0), range(0, 2)).representation());
+		assertEquals("[-Inf, 0]", mul(upTo(0), from(0)).representation());
+	}
+
+	@Test
+	public void testOverflowingMultiplication() throws SemanticException {
+		assertEquals("[2, +Inf]", mul(range(1, Integer.MAX_VALUE), singleton(2)).representation());
+		assertEquals("[-Inf, -2]", mul(range(1, Integer.MAX_VALUE), singleton(-2)).representation());
+		assertEquals("[-Inf, 2]", mul(range(Integer.MIN_VALUE, 1), singleton(2)).representation());
+	}
+
+	@Test
+	public void testGlbWithInfiniteBounds() throws SemanticException {
+		assertEquals("[1, 5]", from(1).glb(upTo(5)).representation());
+		assertEquals("[1, 5]", upTo(5).glbAux(from(1)).representation());
+		assertEquals("[3, +Inf]", from(1).glbAux(from(3)).representation());
+		assertEquals("[-Inf, 2]", upTo(2).glbAux(upTo(7)).representation());
+		assertEquals("[2, 4]", from(1).glbAux(range(2, 4)).representation());
+		assertEquals("[2, 4]", range(2, 4).glbAux(upTo(9)).representation());
+	}
+}
@@ -0,0 +1,150 @@
+package it.unive.lisa.analysis.impl.numeric.octagon;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.SemanticDomain.Satisfiability;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.symbolic.types.BoolType;
+import it.unive.lisa.symbolic.types.IntType;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.UnaryOperator;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import java.util.Random;
+import org.junit.Test;
+
+public class OctagonTest {
+
+	private static final ExternalSet<Type> INT = Caches.types().mkSingletonSet(IntType.INSTANCE);
+	private static final ExternalSet<Type> BOOL = Caches.types().mkSingletonSet(BoolType.INSTANCE);
+
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	private static final Variable x = new Variable(INT, "x");
+	private static final Variable y = new Variable(INT, "y");
+	private static final Variable z = new Variable(INT, "z");
+	private static final Variable n = new Variable(INT, "n");
+
+	private static Constant c(int value) {
+		return new Constant(IntType.INSTANCE, value);
+	}
+
+	private static BinaryExpression bin(ValueExpression left, BinaryOperator op, ValueExpression right) {
+		return new BinaryExpression(op.name().startsWith("COMPARISON") ? BOOL : INT, left, right, op);
+	}
+
+	private static void assertBounds(Octagon octagon, Variable id, double low, double high) {
+		assertArrayEquals(new double[] { low, high }, octagon.getBounds(id), 0);
+	}
+
+	@Test
+	public void testAssignments() throws SemanticException {
+		Octagon oct = new Octagon().assign(x, c(5), null);
+		assertBounds(oct, x, 5, 5);
+		assertEquals(1, oct.getPackSize(x));
+
+		oct = oct.assign(y, bin(x, BinaryOperator.NUMERIC_ADD, c(2)), null);
+		assertBounds(oct, y, 7, 7);
+		assertEquals(2, oct.getPackSize(y));
+
+		oct = oct.assign(x, bin(x, BinaryOperator.NUMERIC_ADD, c(1)), null);
+		assertBounds(oct, x, 6, 6);
+		assertBounds(oct, y, 7, 7);
+
+		oct = oct.assign(z, bin(x, BinaryOperator.NUMERIC_MUL, y), null);
+		assertBounds(oct, z, 42, 42);
+		assertEquals(1, oct.getPackSize(z));
+
+		oct = oct.forgetIdentifier(x);
+		assertBounds(oct, x, -INF, INF);
+		assertEquals(1, oct.getPackSize(y));
+	}
+
+	@Test
+	public void testRelationalAssume() throws SemanticException {
+		// y = x + 1, x <= n, n <= 10
+		Octagon oct = new Octagon().assign(y, bin(x, BinaryOperator.NUMERIC_ADD, c(1)), null);
+		oct = oct.assume(bin(x, BinaryOperator.COMPARISON_LE, n), null);
+		oct = oct.assume(bin(n, BinaryOperator.COMPARISON_LE, c(10)), null);
+		assertBounds(oct, x, -INF, 10);
+		assertBounds(oct, y, -INF, 11);
+		assertEquals(3, oct.getPackSize(n));
+
+		assertEquals(Satisfiability.SATISFIED, oct.satisfies(bin(y, BinaryOperator.COMPARISON_GT, x), null));
+		assertEquals(Satisfiability.SATISFIED, oct.satisfies(bin(x, BinaryOperator.COMPARISON_LT, bin(n,
+				BinaryOperator.NUMERIC_ADD, c(1))), null));
+		assertEquals(Satisfiability.NOT_SATISFIED, oct.satisfies(bin(y, BinaryOperator.COMPARISON_EQ, x), null));
+		assertEquals(Satisfiability.UNKNOWN, oct.satisfies(bin(y, BinaryOperator.COMPARISON_LE, n), null));
+
+		UnaryExpression negated = new UnaryExpression(BOOL, bin(x, BinaryOperator.COMPARISON_LE, n),
+				UnaryOperator.LOGICAL_NOT);
+		assertTrue(oct.assume(negated, null).isBottom());
+		assertEquals(Satisfiability.NOT_SATISFIED, oct.satisfies(negated, null));
+	}
+
+	@Test
+	public void testLatticeOperations() throws SemanticException {
+		Octagon base = new Octagon().assign(y, bin(x, BinaryOperator.NUMERIC_SUB, c(1)), null);
+		Octagon first = base.assume(bin(x, BinaryOperator.COMPARISON_EQ, c(0)), null);
+		Octagon second = base.assume(bin(x, BinaryOperator.COMPARISON_EQ, c(4)), null);
+
+		Octagon lub = first.lub(second);
+		assertBounds(lub, x, 0, 4);
+		assertBounds(lub, y, -1, 3);
+		assertEquals(Satisfiability.SATISFIED, lub.satisfies(bin(y, BinaryOperator.COMPARISON_LT, x), null));
+		assertTrue(first.lessOrEqual(lub));
+		assertTrue(second.lessOrEqual(lub));
+		assertFalse(lub.lessOrEqual(first));
+
+		// the relation between the variables survives widening
+		Octagon widened = first.widening(lub);
+		assertBounds(widened, x, 0, INF);
+		assertEquals(Satisfiability.SATISFIED, widened.satisfies(bin(y, BinaryOperator.COMPARISON_LT, x), null));
+		assertTrue(lub.lessOrEqual(widened));
+
+		// packs are aligned when they differ between the operands
+		Octagon unrelated = new Octagon().assign(x, c(2), null).assign(y, c(1), null);
+		Octagon mixed = unrelated.lub(first);
+		assertBounds(mixed, x, 0, 2);
+		assertEquals(Satisfiability.SATISFIED, mixed.satisfies(bin(y, BinaryOperator.COMPARISON_LT, x), null));
+		assertTrue(first.lessOrEqual(mixed));
+		assertTrue(unrelated.lessOrEqual(mixed));
+		assertEquals(mixed.top(), mixed.forgetIdentifiersIf(id -> true));
+	}
+
+	@Test
+	public void testIncrementalClosure() {
+		Random random = new Random(42);
+		for (int test = 0; test < 2000; test++) {
+			int variables = 1 + random.nextInt(5);
+			DifferenceBoundMatrix matrix = new DifferenceBoundMatrix(variables);
+			for (int k = 0; k < 2 * variables; k++)
+				matrix.meet(random.nextInt(2 * variables), random.nextInt(2 * variables), random.nextInt(20) - 2);
+			DifferenceBoundMatrix closed = matrix.copy();
+			if (!closed.close())
+				continue;
+
+			int v = random.nextInt(variables), w = random.nextInt(variables);
+			double bound = random.nextInt(10) - 3;
+			DifferenceBoundMatrix incremental = closed.copy();
+			int sign = random.nextBoolean() ? 1 : -1;
+			incremental.meetBinary(v, 1, w, sign, bound);
+			DifferenceBoundMatrix full = closed.copy();
+			full.meetBinary(v, 1, w, sign, bound);
+
+			boolean fullResult = full.close();
+			assertEquals(fullResult, incremental.closeIncrementally(v));
+			if (fullResult)
+				assertEquals(full, incremental);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package it.unive.lisa.analysis.liveness;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.imp.IMPFrontend;
+import it.unive.lisa.imp.ParsingException;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Untyped;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class LiveVariablesTest {
+
+	private static final String PROGRAM = "class liveness {\n"
+			+ "	independent() {\n"
+			+ "		def a = 1;\n"
+			+ "		def b = 5;\n"
+			+ "		def c = a + b;\n"
+			+ "		return c;\n"
+			+ "	}\n"
+			+ "	branches(x, y) {\n"
+			+ "		def z = 0;\n"
+			+ "		if (x > 0)\n"
+			+ "			z = y;\n"
+			+ "		else\n"
+			+ "			z = x;\n"
+			+ "		return z;\n"
+			+ "	}\n"
+			+ "	calls(x) {\n"
+			+ "		this.independent();\n"
+			+ "		return x;\n"
+			+ "	}\n"
+			+ "}";
+
+	private static Set<Identifier> vars(String... names) {
+		Set<Identifier> result = new HashSet<>();
+		for (String name : names)
+			result.add(new Variable(Caches.types().mkSingletonSet(Untyped.INSTANCE), name));
+		return result;
+	}
+
+	private static CFG cfg(String name) throws ParsingException {
+		Program program = IMPFrontend.processText(PROGRAM);
+		for (CFG cfg : program.getAllCFGs())
+			if (cfg.getDescriptor().getName().equals(name))
+				return cfg;
+		throw new IllegalArgumentException(name);
+	}
+
+	private static Statement node(CFG cfg, String text) {
+		for (Statement node : cfg.getNodes())
+			if (node.toString().equals(text))
+				return node;
+		throw new IllegalArgumentException(text);
+	}
+
+	@Test
+	public void testStraightLine() throws ParsingException {
+		CFG cfg = cfg("independent");
+		LiveVariables live = LiveVariables.compute(cfg);
+		Statement sum = node(cfg, "c = +(a, b)"), ret = node(cfg, "return c");
+		assertEquals(vars("a", "b"), live.getLiveBefore(sum));
+		assertEquals(vars("c"), live.getLiveBefore(ret));
+		assertEquals(vars("a", "b"), new HashSet<>(live.getDeadAfter(sum, ret)));
+		// entrypoints might receive any variable
+		Statement first = node(cfg, "a = 1"), second = node(cfg, "b = 5");
+		assertEquals(vars("b", "c", "this"), new HashSet<>(live.getDeadAfter(first, second)));
+	}
+
+	@Test
+	public void testBranches() throws ParsingException {
+		CFG cfg = cfg("branches");
+		LiveVariables live = LiveVariables.compute(cfg);
+		Statement condition = node(cfg, ">(x, 0)");
+		// z is overwritten in both branches
+		assertEquals(vars("x", "y"), live.getLiveBefore(condition));
+		assertEquals(vars("z", "this"), new HashSet<>(live.getDeadAfter(node(cfg, "z = 0"), condition)));
+		assertEquals(vars("x"), new HashSet<>(live.getDeadAfter(condition, node(cfg, "z = y"))));
+		assertEquals(vars("y"), new HashSet<>(live.getDeadAfter(condition, node(cfg, "z = x"))));
+	}
+
+	@Test
+	public void testCalls() throws ParsingException {
+		CFG cfg = cfg("calls");
+		LiveVariables live = LiveVariables.compute(cfg);
+		Statement ret = node(cfg, "return x");
+		Statement call = cfg.predecessorsOf(ret).iterator().next();
+		assertEquals(vars("this", "x"), live.getLiveBefore(call));
+		assertEquals(vars("this"), new HashSet<>(live.getDeadAfter(call, ret)));
+		assertEquals(vars("x"), live.getLiveBefore(ret));
+	}
+
+	@Test
+	public void testCaching() throws ParsingException {
+		CFG cfg = cfg("independent");
+		assertSame(LiveVariables.of(cfg), LiveVariables.of(cfg));
+		assertTrue(LiveVariables.of(cfg).getLiveBefore(node(cfg, "a = 1")).isEmpty());
+	}
+}
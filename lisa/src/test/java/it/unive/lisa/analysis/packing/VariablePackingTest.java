@@ -0,0 +1,54 @@
+package it.unive.lisa.analysis.packing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.imp.IMPFrontend;
+import it.unive.lisa.imp.ParsingException;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.symbolic.types.IntType;
+import it.unive.lisa.symbolic.value.Variable;
+import org.junit.Test;
+
+public class VariablePackingTest {
+
+	private static Variable var(String name) {
+		return new Variable(Caches.types().mkSingletonSet(IntType.INSTANCE), name);
+	}
+
+	private static CFG cfg(String name) throws ParsingException {
+		Program program = IMPFrontend.processFile("imp-testcases/octagon/program.imp");
+		for (CFG cfg : program.getAllCFGs())
+			if (cfg.getDescriptor().getName().equals(name))
+				return cfg;
+		throw new IllegalArgumentException(name);
+	}
+
+	@Test
+	public void testPacks() throws ParsingException {
+		VariablePacking packing = VariablePacking.compute(cfg("copy_down"));
+		assertEquals(2, packing.getPacks().size());
+		assertEquals(packing.getLeader(var("i")), packing.getLeader(var("n")));
+		assertEquals(packing.getLeader(var("j")), packing.getLeader(var("ret_value@copy_down")));
+		assertNotEquals(packing.getLeader(var("i")), packing.getLeader(var("j")));
+		assertEquals(var("unknown"), packing.getLeader(var("unknown")));
+	}
+
+	@Test
+	public void testConditions() throws ParsingException {
+		// a and b are related by the condition, m by the assignments
+		VariablePacking packing = VariablePacking.compute(cfg("max"));
+		assertEquals(1, packing.getPacks().size());
+		assertEquals(packing.getLeader(var("a")), packing.getLeader(var("b")));
+		assertEquals(packing.getLeader(var("m")), packing.getLeader(var("b")));
+	}
+
+	@Test
+	public void testCaching() throws ParsingException {
+		CFG cfg = cfg("offset");
+		assertSame(VariablePacking.of(cfg), VariablePacking.of(cfg));
+	}
+}
@@ -0,0 +1,71 @@
+package it.unive.lisa.caches;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.impl.types.InferredTypes;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class AnalysisSessionTest {
+
+	@Test
+	public void testScopes() {
+		AnalysisSession outside = AnalysisSession.current();
+		AnalysisSession first = new AnalysisSession();
+		AnalysisSession second = new AnalysisSession();
+
+		AnalysisSession.Scope s1 = first.enter();
+		try {
+			assertSame(first, AnalysisSession.current());
+			assertSame(first.types(), Caches.types());
+			AnalysisSession.Scope s2 = second.enter();
+			try {
+				assertSame(second.types(), Caches.types());
+			} finally {
+				s2.close();
+			}
+			assertSame(first, AnalysisSession.current());
+		} finally {
+			s1.close();
+		}
+
+		assertSame(outside, AnalysisSession.current());
+		assertNotSame(first.types(), second.types());
+	}
+
+	@Test
+	public void testSessionBoundLattices() {
+		InferredTypes types = new InferredTypes();
+		AnalysisSession session = new AnalysisSession();
+		InferredTypes top;
+		AnalysisSession.Scope scope = session.enter();
+		try {
+			top = types.top();
+			assertSame(top, types.top());
+			assertTrue(top.isTop());
+			assertSame(session.types(), top.getRuntimeTypes().getCache());
+		} finally {
+			scope.close();
+		}
+
+		assertNotSame(top, types.top());
+	}
+
+	@Test
+	public void testWrap() throws Exception {
+		AnalysisSession session = new AnalysisSession();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<AnalysisSession> inside = executor.submit(session.wrap(() -> AnalysisSession.current()));
+			assertSame(session, inside.get());
+			Future<AnalysisSession> after = executor.submit(() -> AnalysisSession.current());
+			assertNotSame(session, after.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
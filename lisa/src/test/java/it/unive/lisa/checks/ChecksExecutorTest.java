@@ -1,10 +1,30 @@
 package it.unive.lisa.checks;
 
+import static it.unive.lisa.LiSAFactory.getDefaultFor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.AnalysisSetupException;
 import it.unive.lisa.AnalysisTestExecutor;
+import it.unive.lisa.LiSA;
 import it.unive.lisa.LiSAConfiguration;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.impl.numeric.Interval;
+import it.unive.lisa.checks.semantic.CheckToolWithAnalysisResults;
+import it.unive.lisa.checks.semantic.SemanticCheck;
 import it.unive.lisa.checks.syntactic.CheckTool;
 import it.unive.lisa.checks.syntactic.SyntacticCheck;
+import it.unive.lisa.checks.warnings.Warning;
+import it.unive.lisa.imp.IMPFrontend;
 import it.unive.lisa.imp.ParsingException;
+import it.unive.lisa.outputs.JsonReport;
+import it.unive.lisa.program.Program;
 import it.unive.lisa.program.CompilationUnit;
 import it.unive.lisa.program.Global;
 import it.unive.lisa.program.Unit;
@@ -13,6 +33,15 @@ import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.program.cfg.statement.VariableRef;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import org.junit.Test;
 
 public class ChecksExecutorTest extends AnalysisTestExecutor {
@@ -54,9 +83,229 @@ public class ChecksExecutorTest extends AnalysisTestExecutor {
 		}
 	}
 
+	private static class FirstNodes extends VariableI {
+
+		@Override
+		public boolean visit(CheckTool tool, CFG graph, Statement node) {
+			tool.warnOn(node, "Visited");
+			// stop at the first node of each cfg
+			return false;
+		}
+	}
+
+	private static class FailingCheck extends VariableI {
+
+		@Override
+		public void beforeExecution(CheckTool tool) {
+			tool.warn("Before failure");
+		}
+
+		@Override
+		public void afterExecution(CheckTool tool) {
+			throw new IllegalStateException("Failing check");
+		}
+	}
+
+	private static class StateOnExits implements SemanticCheck {
+
+		// if not null, only the results of the cfg with this name are
+		// inspected
+		private final String target;
+
+		private StateOnExits(String target) {
+			this.target = target;
+		}
+
+		@Override
+		public void beforeExecution(CheckToolWithAnalysisResults<?, ?, ?> tool) {
+		}
+
+		@Override
+		public void afterExecution(CheckToolWithAnalysisResults<?, ?, ?> tool) {
+		}
+
+		@Override
+		public boolean visit(CheckToolWithAnalysisResults<?, ?, ?> tool, CFG graph, Statement node) {
+			if (node.stopsExecution() && (target == null || graph.getDescriptor().getName().equals(target)))
+				tool.warnOn(node, "Exit state: " + tool.getResultOf(graph).getAnalysisStateAt(node));
+			return true;
+		}
+
+		@Override
+		public boolean visit(CheckToolWithAnalysisResults<?, ?, ?> tool, CFG g) {
+			return true;
+		}
+
+		@Override
+		public boolean visit(CheckToolWithAnalysisResults<?, ?, ?> tool, CFG graph, Edge edge) {
+			return true;
+		}
+
+		@Override
+		public boolean visitCompilationUnit(CheckToolWithAnalysisResults<?, ?, ?> tool, CompilationUnit unit) {
+			return true;
+		}
+
+		@Override
+		public void visitGlobal(CheckToolWithAnalysisResults<?, ?, ?> tool, Unit unit, Global global,
+				boolean instance) {
+		}
+	}
+
+	// each run parses its own program, so warnings are compared through
+	// their textual representation
+	private static List<String> runSemantic(boolean streaming, boolean parallel)
+			throws ParsingException, AnalysisSetupException, AnalysisException, IOException {
+		return runSemantic(new LiSAConfiguration().addSemanticCheck(new StateOnExits(null))
+				.setStreamingChecks(streaming)
+				.setParallelChecks(parallel));
+	}
+
+	private static List<String> runSemantic(LiSAConfiguration conf)
+			throws ParsingException, AnalysisSetupException, AnalysisException, IOException {
+		Program program = IMPFrontend.processFile("imp-testcases/interval/program.imp");
+		conf.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Interval()))
+				.setWorkdir(Files.createTempDirectory("lisa-checks").toString());
+		LiSA lisa = new LiSA(conf);
+		lisa.run(program);
+		List<String> warnings = new ArrayList<>();
+		lisa.getWarnings().forEach(w -> warnings.add(w.toString()));
+		return warnings;
+	}
+
 	@Test
 	public void testSyntacticChecks() throws IOException, ParsingException {
 		LiSAConfiguration conf = new LiSAConfiguration().addSyntacticCheck(new VariableI());
 		perform("syntactic", "expressions.imp", conf);
 	}
+
+	@Test
+	public void testParallelSyntacticChecks() throws IOException, ParsingException {
+		LiSAConfiguration conf = new LiSAConfiguration().addSyntacticCheck(new VariableI()).setParallelChecks(true);
+		perform("syntactic", "expressions.imp", conf);
+	}
+
+	@Test
+	public void testStreamingSemanticChecks()
+			throws ParsingException, AnalysisSetupException, AnalysisException, IOException {
+		List<String> expected = runSemantic(false, false);
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, runSemantic(true, false));
+		assertEquals(expected, runSemantic(true, true));
+	}
+
+	@Test
+	public void testLazySemanticChecks()
+			throws ParsingException, AnalysisSetupException, AnalysisException, IOException {
+		List<String> expected = runSemantic(false, false);
+		for (boolean parallel : new boolean[] { false, true }) {
+			LiSAConfiguration conf = new LiSAConfiguration().addSemanticCheck(new StateOnExits(null))
+					.setLazyAnalysis(true)
+					.setParallelChecks(parallel);
+			assertEquals(expected, runSemantic(conf));
+		}
+	}
+
+	@Test
+	public void testLazyAnalysisComputesOnlyRequestedResults()
+			throws ParsingException, AnalysisSetupException, AnalysisException, IOException {
+		List<String> expected = runSemantic(false, false);
+		List<String> analyzed = Collections.synchronizedList(new ArrayList<>());
+		LiSAConfiguration conf = new LiSAConfiguration().addSemanticCheck(new StateOnExits("gcd"))
+				.setLazyAnalysis(true)
+				.setFixpointMetricsSink(metrics -> analyzed.add(metrics.getGraph()));
+		List<String> warnings = runSemantic(conf);
+
+		assertEquals(1, analyzed.size());
+		assertTrue(analyzed.get(0).contains("gcd"));
+		assertFalse(warnings.isEmpty());
+		assertTrue(expected.containsAll(warnings));
+	}
+
+	@Test
+	public void testBoundedResidentResults()
+			throws ParsingException, AnalysisSetupException, AnalysisException, IOException {
+		List<String> expected = runSemantic(false, false);
+		for (boolean parallel : new boolean[] { false, true }) {
+			List<String> analyzed = Collections.synchronizedList(new ArrayList<>());
+			LiSAConfiguration conf = new LiSAConfiguration().addSemanticCheck(new StateOnExits(null))
+					.setResidentResults(1)
+					.setParallelChecks(parallel)
+					.setFixpointMetricsSink(metrics -> analyzed.add(metrics.getGraph()));
+			assertEquals(expected, runSemantic(conf));
+			// evicted results have been recomputed for the checks
+			assertTrue(analyzed.size() > new HashSet<>(analyzed).size());
+		}
+	}
+
+	@Test
+	public void testTypeInferenceKeepsAllResults()
+			throws ParsingException, AnalysisSetupException, AnalysisException, IOException {
+		Program program = IMPFrontend.processFile("imp-testcases/interval/program.imp");
+		List<String> analyzed = Collections.synchronizedList(new ArrayList<>());
+		LiSAConfiguration conf = new LiSAConfiguration().setInferTypes(true)
+				.setResidentResults(1)
+				.setFixpointMetricsSink(metrics -> analyzed.add(metrics.getGraph()))
+				.setWorkdir(Files.createTempDirectory("lisa-checks").toString());
+		new LiSA(conf).run(program);
+		// types are propagated from the results of each cfg, that are never
+		// recomputed
+		assertEquals(program.getAllCFGs().size(), analyzed.size());
+		assertEquals(analyzed.size(), new HashSet<>(analyzed).size());
+	}
+
+	@Test
+	public void testFusedExecutionIsEquivalent() throws ParsingException {
+		Program program = IMPFrontend.processFile("imp-testcases/syntactic/expressions.imp");
+		List<SyntacticCheck> checks = Arrays.asList(new VariableI(), new FirstNodes());
+
+		CheckTool sequential = new CheckTool();
+		ChecksExecutor.executeAll(sequential, program, checks);
+		List<Warning> expected = new ArrayList<>(sequential.getWarnings());
+		assertFalse(expected.isEmpty());
+
+		for (int threads : new int[] { 1, 4 }) {
+			CheckTool fused = new CheckTool();
+			ChecksExecutor.executeAllFused(fused, program, checks, threads);
+			assertEquals(expected, new ArrayList<>(fused.getWarnings()));
+		}
+	}
+
+	@Test
+	public void testStreamingReportCompletedOnFailure() throws IOException, ParsingException {
+		Program program = IMPFrontend.processFile("imp-testcases/syntactic/expressions.imp");
+		Path workdir = Files.createTempDirectory("lisa-checks");
+		LiSAConfiguration conf = new LiSAConfiguration().addSyntacticCheck(new FailingCheck())
+				.setJsonOutput(true)
+				.setStreamingJsonOutput(true)
+				.setWorkdir(workdir.toString());
+		try {
+			new LiSA(conf).run(program);
+			fail("The failing check did not fail");
+		} catch (IllegalStateException | AnalysisException e) {
+			// expected
+		}
+
+		try (Reader reader = Files.newBufferedReader(workdir.resolve("report.json"))) {
+			// the report can be read back, and contains the warnings reported
+			// before the failure
+			JsonReport report = JsonReport.read(reader);
+			assertTrue(report.getWarnings().stream().anyMatch(w -> w.getMessage().endsWith("Before failure")));
+		}
+	}
+
+	@Test
+	public void testWarningsAreSortedOnce() {
+		CheckTool tool = new CheckTool();
+		tool.warn("b");
+		tool.warn("a");
+		Collection<Warning> first = tool.getWarnings();
+		assertSame(first, tool.getWarnings());
+		tool.warn("a");
+		assertSame(first, tool.getWarnings());
+		tool.warn("c");
+		Collection<Warning> second = tool.getWarnings();
+		assertNotSame(first, second);
+		assertEquals(Arrays.asList(new Warning("a"), new Warning("b"), new Warning("c")), new ArrayList<>(second));
+	}
 }
@@ -27,4 +27,21 @@ public class PointBasedHeapTest extends AnalysisTestExecutor {
 						getDefaultFor(AbstractState.class, new FieldSensitivePointBasedHeap(), new Interval()));
 		perform("heap/point-based-heap/field-sensitive", "program.imp", conf);
 	}
+
+	@Test
+	public void fieldInsensitivePointBasedHeapWithFusedTypeInferenceTest() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true).setInferTypes(true)
+				.setFusedTypeInference(true)
+				.setAbstractState(getDefaultFor(AbstractState.class, new PointBasedHeap(), new Interval()));
+		perform("heap/point-based-heap/field-insensitive", "program.imp", conf);
+	}
+
+	@Test
+	public void fieldSensitivePointBasedHeapWithFusedTypeInferenceTest() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true).setInferTypes(true)
+				.setFusedTypeInference(true)
+				.setAbstractState(
+						getDefaultFor(AbstractState.class, new FieldSensitivePointBasedHeap(), new Interval()));
+		perform("heap/point-based-heap/field-sensitive", "program.imp", conf);
+	}
 }
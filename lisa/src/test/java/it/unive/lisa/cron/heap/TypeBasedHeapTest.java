@@ -18,4 +18,12 @@ public class TypeBasedHeapTest extends AnalysisTestExecutor {
 				.setAbstractState(getDefaultFor(AbstractState.class, new TypeBasedHeap(), new Interval()));
 		perform("heap/type-based-heap", "program.imp", conf);
 	}
+
+	@Test
+	public void testTypeBasedHeapWithFusedTypeInference() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true).setInferTypes(true)
+				.setFusedTypeInference(true)
+				.setAbstractState(getDefaultFor(AbstractState.class, new TypeBasedHeap(), new Interval()));
+		perform("heap/type-based-heap", "program.imp", conf);
+	}
 }
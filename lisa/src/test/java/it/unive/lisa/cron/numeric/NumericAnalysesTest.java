@@ -11,6 +11,9 @@ import it.unive.lisa.analysis.impl.numeric.IntegerConstantPropagation;
 import it.unive.lisa.analysis.impl.numeric.Interval;
 import it.unive.lisa.analysis.impl.numeric.Parity;
 import it.unive.lisa.analysis.impl.numeric.Sign;
+import it.unive.lisa.analysis.impl.numeric.octagon.Octagon;
+import it.unive.lisa.analysis.packing.PackedValueDomain;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration.InternalStates;
 import org.junit.Test;
 
 public class NumericAnalysesTest extends AnalysisTestExecutor {
@@ -22,6 +25,56 @@ public class NumericAnalysesTest extends AnalysisTestExecutor {
 		perform("sign", "program.imp", conf);
 	}
 
+	@Test
+	public void testSignStreaming() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true).setStreamingChecks(true)
+				.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Sign()));
+		perform("sign", "program.imp", conf);
+	}
+
+	@Test
+	public void testSignStreamingReport() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true).setStreamingJsonOutput(true)
+				.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Sign()));
+		perform("sign", "program.imp", conf);
+	}
+
+	@Test
+	public void testSignParallelDump() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true).setParallelDump(true)
+				.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Sign()));
+		perform("sign", "program.imp", conf);
+	}
+
+	@Test
+	public void testSignArchive() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true).setParallelDump(true)
+				.setArchiveOutput(true)
+				.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Sign()));
+		perform("sign", "program.imp", conf);
+	}
+
+	@Test
+	public void testSignSparse() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true).setSparseResults(true)
+				.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Sign()));
+		perform("sign", "program.imp", conf);
+	}
+
+	@Test
+	public void testSignWithResidentResults() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true).setResidentResults(1)
+				.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Sign()));
+		perform("sign", "program.imp", conf);
+	}
+
+	@Test
+	public void testSignWithoutExpressionStates() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true).setInternalStates(InternalStates.NEVER)
+				.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Sign()));
+		perform("sign", "program.imp", conf);
+	}
+
 	@Test
 	public void testParity() throws AnalysisSetupException {
 		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true)
@@ -36,6 +89,13 @@ public class NumericAnalysesTest extends AnalysisTestExecutor {
 		perform("interval", "program.imp", conf);
 	}
 
+	@Test
+	public void testIntervalForgettingDeadVariables() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true).setForgetDeadIdentifiers(true)
+				.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Interval()));
+		perform("interval-liveness", "program.imp", conf);
+	}
+
 	@Test
 	public void testIntegerConstantPropagation() throws AnalysisSetupException {
 		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true)
@@ -43,4 +103,19 @@ public class NumericAnalysesTest extends AnalysisTestExecutor {
 						new IntegerConstantPropagation()));
 		perform("int-const", "program.imp", conf);
 	}
+
+	@Test
+	public void testOctagon() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true)
+				.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Octagon()));
+		perform("octagon", "program.imp", conf);
+	}
+
+	@Test
+	public void testPackedOctagon() throws AnalysisSetupException {
+		LiSAConfiguration conf = new LiSAConfiguration().setDumpAnalysis(true)
+				.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class),
+						new PackedValueDomain<>(new Octagon())));
+		perform("octagon-packed", "program.imp", conf);
+	}
 }
@@ -0,0 +1,363 @@
+package it.unive.lisa.imp;
+
+import it.unive.lisa.program.Program;
+import java.util.Random;
+
+/**
+ * A generator of synthetic IMP programs with a configurable shape, used to
+ * measure how analyses scale with the size and the structure of the analyzed
+ * program. Each generated program contains {@link #getClasses()} classes, each
+ * one with {@link #getFields()} fields, an empty constructor and
+ * {@link #getMethods()} methods. The body of each method:
+ * <ul>
+ * <li>declares {@link #getAllocations()} variables, each one initialized with
+ * a new object of a random class (that is, an allocation site);</li>
+ * <li>contains {@link #getLoopDepth()} nested loops;</li>
+ * <li>contains, inside the innermost loop, {@link #getStatements()} random
+ * statements, where each statement is an assignment, a conditional, a field
+ * access or, with probability {@link #getCallDensity()}, a call to a random
+ * method of the program.</li>
+ * </ul>
+ * Programs are generated deterministically from the {@link #getSeed() seed}:
+ * generators with the same configuration always yield the same program. All
+ * setters return the generator itself, so that they can be chained.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class SyntheticProgramGenerator {
+
+	/**
+	 * The number of integer variables declared by each method
+	 */
+	private static final int VARIABLES = 3;
+
+	private int classes;
+
+	private int fields;
+
+	private int methods;
+
+	private int statements;
+
+	private int loopDepth;
+
+	private int allocations;
+
+	private double callDensity;
+
+	private long seed;
+
+	/**
+	 * Builds a generator. The default configuration generates programs with
+	 * {@code 1} class with {@code 2} fields and {@code 1} method, whose body
+	 * contains {@code 10} statements inside {@code 1} loop, {@code 1}
+	 * allocation site and a call density of {@code 0.1}, using {@code 0} as
+	 * seed.
+	 */
+	public SyntheticProgramGenerator() {
+		classes = 1;
+		fields = 2;
+		methods = 1;
+		statements = 10;
+		loopDepth = 1;
+		allocations = 1;
+		callDensity = 0.1;
+		seed = 0;
+	}
+
+	/**
+	 * Sets the number of classes of the generated programs.
+	 *
+	 * @param classes the number of classes, at least {@code 1}
+	 *
+	 * @return this generator
+	 */
+	public SyntheticProgramGenerator setClasses(int classes) {
+		this.classes = classes;
+		return this;
+	}
+
+	/**
+	 * Sets the number of fields of each class of the generated programs.
+	 *
+	 * @param fields the number of fields
+	 *
+	 * @return this generator
+	 */
+	public SyntheticProgramGenerator setFields(int fields) {
+		this.fields = fields;
+		return this;
+	}
+
+	/**
+	 * Sets the number of methods of each class of the generated programs, not
+	 * counting constructors.
+	 *
+	 * @param methods the number of methods, at least {@code 1}
+	 *
+	 * @return this generator
+	 */
+	public SyntheticProgramGenerator setMethods(int methods) {
+		this.methods = methods;
+		return this;
+	}
+
+	/**
+	 * Sets the number of random statements in the body of each method.
+	 *
+	 * @param statements the number of statements
+	 *
+	 * @return this generator
+	 */
+	public SyntheticProgramGenerator setStatements(int statements) {
+		this.statements = statements;
+		return this;
+	}
+
+	/**
+	 * Sets the number of nested loops in the body of each method.
+	 *
+	 * @param loopDepth the nesting depth of loops
+	 *
+	 * @return this generator
+	 */
+	public SyntheticProgramGenerator setLoopDepth(int loopDepth) {
+		this.loopDepth = loopDepth;
+		return this;
+	}
+
+	/**
+	 * Sets the number of allocation sites in each method.
+	 *
+	 * @param allocations the number of allocation sites
+	 *
+	 * @return this generator
+	 */
+	public SyntheticProgramGenerator setAllocations(int allocations) {
+		this.allocations = allocations;
+		return this;
+	}
+
+	/**
+	 * Sets the probability that each random statement is a call.
+	 *
+	 * @param callDensity the probability, between {@code 0} and {@code 1}
+	 *
+	 * @return this generator
+	 */
+	public SyntheticProgramGenerator setCallDensity(double callDensity) {
+		this.callDensity = callDensity;
+		return this;
+	}
+
+	/**
+	 * Sets the seed used to generate programs.
+	 *
+	 * @param seed the seed
+	 *
+	 * @return this generator
+	 */
+	public SyntheticProgramGenerator setSeed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	/**
+	 * Yields the number of classes of the generated programs.
+	 *
+	 * @return the number of classes
+	 */
+	public int getClasses() {
+		return classes;
+	}
+
+	/**
+	 * Yields the number of fields of each class of the generated programs.
+	 *
+	 * @return the number of fields
+	 */
+	public int getFields() {
+		return fields;
+	}
+
+	/**
+	 * Yields the number of methods of each class of the generated programs,
+	 * not counting constructors.
+	 *
+	 * @return the number of methods
+	 */
+	public int getMethods() {
+		return methods;
+	}
+
+	/**
+	 * Yields the number of random statements in the body of each method.
+	 *
+	 * @return the number of statements
+	 */
+	public int getStatements() {
+		return statements;
+	}
+
+	/**
+	 * Yields the number of nested loops in the body of each method.
+	 *
+	 * @return the nesting depth of loops
+	 */
+	public int getLoopDepth() {
+		return loopDepth;
+	}
+
+	/**
+	 * Yields the number of allocation sites in each method.
+	 *
+	 * @return the number of allocation sites
+	 */
+	public int getAllocations() {
+		return allocations;
+	}
+
+	/**
+	 * Yields the probability that each random statement is a call.
+	 *
+	 * @return the probability
+	 */
+	public double getCallDensity() {
+		return callDensity;
+	}
+
+	/**
+	 * Yields the seed used to generate programs.
+	 *
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Generates the IMP source code of a program with the configured shape.
+	 *
+	 * @return the source code
+	 *
+	 * @throws IllegalArgumentException if the number of classes or methods is
+	 *                                      less than {@code 1}
+	 */
+	public String generate() {
+		if (classes < 1 || methods < 1)
+			throw new IllegalArgumentException("Programs must have at least one class and one method");
+
+		Random random = new Random(seed);
+		StringBuilder code = new StringBuilder();
+		for (int c = 0; c < classes; c++) {
+			code.append("class C").append(c).append(" {\n");
+			for (int f = 0; f < fields; f++)
+				code.append("\tf").append(f).append(";\n");
+
+			code.append("\n\t~C").append(c).append("() {}\n");
+
+			for (int m = 0; m < methods; m++)
+				method(code, m, random);
+			code.append("}\n\n");
+		}
+		return code.toString();
+	}
+
+	/**
+	 * Generates a program with the configured shape, and parses it with the
+	 * {@link IMPFrontend}.
+	 *
+	 * @return the program
+	 *
+	 * @throws ParsingException         if the generated program cannot be
+	 *                                      parsed
+	 * @throws IllegalArgumentException if the number of classes or methods is
+	 *                                      less than {@code 1}
+	 */
+	public Program generateProgram() throws ParsingException {
+		return IMPFrontend.processText(generate());
+	}
+
+	private void method(StringBuilder code, int index, Random random) {
+		code.append("\n\tm").append(index).append("(p0, p1) {\n");
+		code.append("\t\tdef v0 = p0;\n");
+		code.append("\t\tdef v1 = p1;\n");
+		code.append("\t\tdef v2 = 0;\n");
+		for (int o = 0; o < allocations; o++)
+			code.append("\t\tdef o").append(o).append(" = new C").append(random.nextInt(classes)).append("();\n");
+
+		String indent = "\t\t";
+		for (int l = 0; l < loopDepth; l++) {
+			code.append(indent).append("def i").append(l).append(" = 0;\n");
+			code.append(indent).append("while (i").append(l).append(" < ").append(10 * (l + 1)).append(") {\n");
+			indent += "\t";
+		}
+
+		for (int s = 0; s < statements; s++)
+			statement(code, indent, random);
+
+		for (int l = loopDepth - 1; l >= 0; l--) {
+			code.append(indent).append("i").append(l).append(" = i").append(l).append(" + 1;\n");
+			indent = indent.substring(1);
+			code.append(indent).append("}\n");
+		}
+
+		code.append("\t\treturn v2;\n");
+		code.append("\t}\n");
+	}
+
+	private void statement(StringBuilder code, String indent, Random random) {
+		String target = var(random);
+		code.append(indent);
+		if (random.nextDouble() < callDensity) {
+			String receiver = allocations == 0 || random.nextBoolean() ? "this" : obj(random);
+			code.append(target).append(" = ").append(receiver).append(".m").append(random.nextInt(methods))
+					.append("(").append(var(random)).append(", ").append(random.nextInt(100)).append(");\n");
+			return;
+		}
+
+		int kinds = allocations == 0 || fields == 0 ? 3 : 5;
+		switch (random.nextInt(kinds)) {
+		case 0:
+			code.append(target).append(" = ").append(var(random)).append(" + ").append(random.nextInt(100))
+					.append(";\n");
+			break;
+		case 1:
+			code.append(target).append(" = ").append(var(random)).append(" * ").append(var(random)).append(" - ")
+					.append(random.nextInt(100)).append(";\n");
+			break;
+		case 2:
+			code.append("if (").append(var(random)).append(" > ").append(random.nextInt(100)).append(")\n");
+			code.append(indent).append("\t").append(target).append(" = ").append(target).append(" - ")
+					.append(var(random)).append(";\n");
+			code.append(indent).append("else\n");
+			code.append(indent).append("\t").append(target).append(" = ").append(var(random)).append(";\n");
+			break;
+		case 3:
+			code.append(obj(random)).append(".").append(field(random)).append(" = ").append(target).append(";\n");
+			break;
+		default:
+			code.append(target).append(" = ").append(obj(random)).append(".").append(field(random)).append(";\n");
+			break;
+		}
+	}
+
+	private static String var(Random random) {
+		return "v" + random.nextInt(VARIABLES);
+	}
+
+	private String obj(Random random) {
+		return "o" + random.nextInt(allocations);
+	}
+
+	private String field(Random random) {
+		return "f" + random.nextInt(fields);
+	}
+
+	@Override
+	public String toString() {
+		return "classes=" + classes + ", fields=" + fields + ", methods=" + methods + ", statements=" + statements
+				+ ", loopDepth=" + loopDepth + ", allocations=" + allocations + ", callDensity=" + callDensity
+				+ ", seed=" + seed;
+	}
+}
@@ -0,0 +1,62 @@
+package it.unive.lisa.imp.test;
+
+import static it.unive.lisa.LiSAFactory.getDefaultFor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.AnalysisSetupException;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.LiSAConfiguration;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.impl.numeric.Interval;
+import it.unive.lisa.imp.ParsingException;
+import it.unive.lisa.imp.SyntheticProgramGenerator;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.util.datastructures.graph.InMemoryMetricsSink;
+import org.junit.Test;
+
+public class SyntheticProgramGeneratorTest {
+
+	@Test
+	public void testShape() throws ParsingException {
+		Program program = new SyntheticProgramGenerator().setClasses(4).setMethods(3).setStatements(20)
+				.setLoopDepth(2).setAllocations(2).setCallDensity(0.3).generateProgram();
+		assertEquals(4, program.getUnits().size());
+		// each class has a constructor too
+		assertEquals(16, program.getAllCFGs().size());
+	}
+
+	@Test
+	public void testDeterminism() {
+		SyntheticProgramGenerator generator = new SyntheticProgramGenerator().setClasses(3).setMethods(2)
+				.setStatements(15);
+		assertEquals(generator.generate(), generator.generate());
+		assertNotEquals(generator.generate(), generator.setSeed(42).generate());
+	}
+
+	@Test
+	public void testDegenerateShapes() throws ParsingException {
+		new SyntheticProgramGenerator().setFields(0).setAllocations(0).setLoopDepth(0).setCallDensity(1)
+				.generateProgram();
+		new SyntheticProgramGenerator().setStatements(0).setLoopDepth(3).generateProgram();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoClasses() {
+		new SyntheticProgramGenerator().setClasses(0).generate();
+	}
+
+	@Test
+	public void testAnalysis() throws ParsingException, AnalysisSetupException, AnalysisException {
+		Program program = new SyntheticProgramGenerator().setClasses(2).setMethods(2).setStatements(10)
+				.setAllocations(2).setCallDensity(0.3).generateProgram();
+		InMemoryMetricsSink sink = new InMemoryMetricsSink();
+		LiSAConfiguration conf = new LiSAConfiguration().setInferTypes(true).setFixpointMetricsSink(sink)
+				.setAbstractState(getDefaultFor(AbstractState.class, getDefaultFor(HeapDomain.class), new Interval()));
+		new LiSA(conf).run(program);
+		assertTrue(sink.getMetrics().size() >= program.getAllCFGs().size());
+	}
+}
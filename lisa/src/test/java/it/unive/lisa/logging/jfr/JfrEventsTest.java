@@ -0,0 +1,128 @@
+package it.unive.lisa.logging.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.impl.heap.MonolithicHeap;
+import it.unive.lisa.analysis.impl.numeric.Sign;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.callgraph.CallGraphConstructionException;
+import it.unive.lisa.callgraph.impl.intraproc.IntraproceduralCallGraph;
+import it.unive.lisa.checks.ChecksExecutor;
+import it.unive.lisa.checks.syntactic.CheckTool;
+import it.unive.lisa.checks.syntactic.SyntacticCheck;
+import it.unive.lisa.imp.IMPFrontend;
+import it.unive.lisa.imp.ParsingException;
+import it.unive.lisa.logging.TimerLogger;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.Global;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.Unit;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.FixpointException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.logging.log4j.LogManager;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JfrEventsTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static class NoOp implements SyntacticCheck {
+
+		@Override
+		public void beforeExecution(CheckTool tool) {
+		}
+
+		@Override
+		public void afterExecution(CheckTool tool) {
+		}
+
+		@Override
+		public boolean visitCompilationUnit(CheckTool tool, CompilationUnit unit) {
+			return true;
+		}
+
+		@Override
+		public void visitGlobal(CheckTool tool, Unit unit, Global global, boolean instance) {
+		}
+
+		@Override
+		public boolean visit(CheckTool tool, CFG graph) {
+			return true;
+		}
+
+		@Override
+		public boolean visit(CheckTool tool, CFG graph, Statement node) {
+			return true;
+		}
+
+		@Override
+		public boolean visit(CheckTool tool, CFG graph, Edge edge) {
+			return true;
+		}
+	}
+
+	@Test
+	public void testEventsAreRecorded()
+			throws IOException, ParsingException, CallGraphConstructionException, FixpointException {
+		Program program = IMPFrontend.processText("class a { foo() { def x = this.bar(); } bar() { return 1; } }");
+		CFG foo = program.getAllCFGs().stream().filter(cfg -> cfg.getDescriptor().getName().equals("foo"))
+				.findFirst().get();
+		IntraproceduralCallGraph callGraph = new IntraproceduralCallGraph();
+		callGraph.build(program);
+
+		Path file = folder.newFile("events.jfr").toPath();
+		try (Recording recording = new Recording()) {
+			recording.enable(PhaseEvent.class);
+			recording.enable(FixpointEvent.class);
+			recording.enable(CallResolutionEvent.class);
+			recording.enable(CheckEvent.class);
+			recording.start();
+
+			TimerLogger.execAction(LogManager.getLogger(JfrEventsTest.class), "Test phase", () -> {
+			});
+			foo.fixpoint(new AnalysisState<>(new SimpleAbstractState<>(new MonolithicHeap(),
+					new ValueEnvironment<>(new Sign())), Collections.emptyList()), callGraph);
+			ChecksExecutor.executeAll(new CheckTool(), program, Collections.singleton(new NoOp()));
+
+			recording.stop();
+			recording.dump(file);
+		}
+
+		Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(file).stream()
+				.filter(e -> e.getEventType().getName().startsWith("it.unive.lisa."))
+				.collect(Collectors.groupingBy(e -> e.getEventType().getName()));
+
+		assertEquals("Test phase", events.get("it.unive.lisa.Phase").get(0).getString("phase"));
+
+		RecordedEvent fixpoint = events.get("it.unive.lisa.Fixpoint").get(0);
+		assertEquals(foo.toString(), fixpoint.getString("graph"));
+		assertEquals(foo.getNodesCount(), fixpoint.getInt("nodes"));
+		assertTrue(fixpoint.getLong("iterations") >= foo.getNodesCount());
+		assertTrue(fixpoint.getBoolean("completed"));
+
+		RecordedEvent resolution = events.get("it.unive.lisa.CallResolution").get(0);
+		assertTrue(resolution.getString("call").contains("bar"));
+
+		List<RecordedEvent> checks = events.get("it.unive.lisa.Check");
+		// one event for the compilation unit
+		assertEquals(1, checks.size());
+		assertEquals(NoOp.class.getSimpleName(), checks.get(0).getString("checks"));
+	}
+}
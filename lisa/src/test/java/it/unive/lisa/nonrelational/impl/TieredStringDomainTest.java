@@ -0,0 +1,133 @@
+package it.unive.lisa.nonrelational.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.SemanticDomain.Satisfiability;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.nonrelational.value.impl.string.TieredStringDomain;
+import it.unive.lisa.caches.Caches;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.types.BoolType;
+import it.unive.lisa.symbolic.types.StringType;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.BinaryOperator;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.symbolic.value.Variable;
+import org.junit.Test;
+
+public class TieredStringDomainTest {
+
+	private final ProgramPoint fake = new ProgramPoint() {
+
+		@Override
+		public CFG getCFG() {
+			return null;
+		}
+
+		@Override
+		public CodeLocation getLocation() {
+			return null;
+		}
+	};
+
+	private final Variable x = new Variable(Caches.types().mkSingletonSet(StringType.INSTANCE), "x");
+	private final Variable y = new Variable(Caches.types().mkSingletonSet(StringType.INSTANCE), "y");
+
+	private static Constant string(String value) {
+		return new Constant(StringType.INSTANCE, value);
+	}
+
+	private static ValueExpression concat(ValueExpression left, ValueExpression right) {
+		return new BinaryExpression(Caches.types().mkSingletonSet(StringType.INSTANCE), left, right,
+				BinaryOperator.STRING_CONCAT);
+	}
+
+	private static ValueExpression check(ValueExpression left, ValueExpression right, BinaryOperator operator) {
+		return new BinaryExpression(Caches.types().mkSingletonSet(BoolType.INSTANCE), left, right, operator);
+	}
+
+	private ValueEnvironment<TieredStringDomain> joined() throws SemanticException {
+		ValueEnvironment<TieredStringDomain> env = new ValueEnvironment<>(new TieredStringDomain());
+		ValueEnvironment<TieredStringDomain> first = env.assign(x, concat(string("http://"), string("a.com")), fake);
+		ValueEnvironment<TieredStringDomain> second = env.assign(x, concat(string("http://"), string("b.org")), fake);
+		return first.lub(second);
+	}
+
+	@Test
+	public void testCheapTierDecides() throws SemanticException {
+		ValueEnvironment<TieredStringDomain> env = joined();
+
+		assertEquals(Satisfiability.SATISFIED,
+				env.satisfies(check(x, string("http"), BinaryOperator.STRING_STARTS_WITH), fake));
+		assertEquals(Satisfiability.NOT_SATISFIED,
+				env.satisfies(check(x, string("ftp"), BinaryOperator.STRING_STARTS_WITH), fake));
+		assertEquals(Satisfiability.SATISFIED,
+				env.satisfies(check(x, string(":"), BinaryOperator.STRING_CONTAINS), fake));
+		assertEquals(Satisfiability.NOT_SATISFIED,
+				env.satisfies(check(x, string("z"), BinaryOperator.STRING_CONTAINS), fake));
+		assertFalse("The string graph has been computed without being needed",
+				env.getState(x).isStringGraphComputed());
+	}
+
+	@Test
+	public void testEscalation() throws SemanticException {
+		ValueEnvironment<TieredStringDomain> env = joined();
+
+		// 'a' might be contained, but it is not certain: only the graph can
+		// tell
+		Satisfiability sat = env.satisfies(check(x, string("a"), BinaryOperator.STRING_CONTAINS), fake);
+		assertEquals(Satisfiability.UNKNOWN, sat);
+		assertTrue("The string graph has not been computed", env.getState(x).isStringGraphComputed());
+	}
+
+	@Test
+	public void testConstants() throws SemanticException {
+		ValueEnvironment<TieredStringDomain> env = new ValueEnvironment<>(new TieredStringDomain());
+		env = env.assign(x, string("abc"), fake);
+		env = env.assign(y, concat(x, string("def")), fake);
+
+		assertEquals(Satisfiability.SATISFIED,
+				env.satisfies(check(y, string("abcdef"), BinaryOperator.STRING_EQUALS), fake));
+		assertEquals(Satisfiability.NOT_SATISFIED,
+				env.satisfies(check(y, string("cd"), BinaryOperator.STRING_ENDS_WITH), fake));
+		assertTrue(env.getState(x).lessOrEqual(env.getState(x).lub(env.getState(y))));
+	}
+
+	@Test
+	public void testConstantAgainstNonConstant() throws SemanticException {
+		ValueEnvironment<TieredStringDomain> env = joined().assign(y, string("http://a.com"), fake);
+
+		// only the right operand is a constant
+		assertEquals(Satisfiability.SATISFIED,
+				env.satisfies(check(x, string("http"), BinaryOperator.STRING_STARTS_WITH), fake));
+		// only the left operand is a constant
+		for (BinaryOperator operator : new BinaryOperator[] { BinaryOperator.STRING_CONTAINS,
+				BinaryOperator.STRING_STARTS_WITH, BinaryOperator.STRING_ENDS_WITH, BinaryOperator.STRING_EQUALS })
+			assertEquals(Satisfiability.UNKNOWN, env.satisfies(check(y, x, operator), fake));
+	}
+
+	@Test
+	public void testFirstTierComparisons() throws SemanticException {
+		TieredStringDomain joined = joined().getState(x);
+		TieredStringDomain top = new TieredStringDomain();
+		assertTrue(top.isTop());
+		assertFalse(joined.isTop());
+		assertTrue(joined.lub(top).isTop());
+
+		ValueEnvironment<TieredStringDomain> env = new ValueEnvironment<>(new TieredStringDomain());
+		TieredStringDomain first = env.assign(x, concat(string("a"), string("b")), fake).getState(x);
+		TieredStringDomain second = env.assign(x, string("ab"), fake).getState(x);
+		assertTrue(first.lessOrEqual(second));
+		assertTrue(second.lessOrEqual(first));
+		assertFalse(joined.lessOrEqual(second));
+		assertTrue(joined.lessOrEqual(joined.widening(joined)));
+		assertFalse("The string graph has been computed without being needed",
+				joined.isStringGraphComputed() || first.isStringGraphComputed() || second.isStringGraphComputed());
+	}
+}
@@ -0,0 +1,77 @@
+package it.unive.lisa.outputs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.imp.IMPFrontend;
+import it.unive.lisa.imp.ParsingException;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.file.FileManager;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DotCFGTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static Collection<CFG> cfgs() throws ParsingException {
+		Program program = IMPFrontend.processFile("imp-testcases/sign/program.imp");
+		return program.getAllCFGs();
+	}
+
+	@Test
+	public void testStreamingOutputIsUnchanged() throws ParsingException, IOException {
+		for (CFG cfg : cfgs()) {
+			Function<Statement, String> labels = st -> "extra <label>\nwith \\ chars " + st.getLocation();
+			StringWriter expected = new StringWriter();
+			DotCFG.fromCFG(cfg, labels).dumpDot(expected);
+
+			StringWriter actual = new StringWriter();
+			DotCFG.writeCFG(cfg, labels, actual);
+			assertEquals(expected.toString(), actual.toString());
+
+			// the written graph can still be parsed
+			assertEquals(DotGraph.readDot(new StringReader(expected.toString())),
+					DotGraph.readDot(new StringReader(actual.toString())));
+		}
+	}
+
+	@Test
+	public void testParallelFilteredDump() throws ParsingException, IOException {
+		Collection<CFG> cfgs = cfgs();
+		File root = folder.getRoot();
+		FileManager manager = new FileManager(root.toString());
+		try (CFGDumper dumper = new CFGDumper(manager, cfg -> !cfg.getDescriptor().getName().startsWith("g"), 4)) {
+			for (CFG cfg : cfgs)
+				dumper.dump("sub/", cfg, st -> "");
+			dumper.finish();
+		}
+
+		Set<String> expected = new TreeSet<>();
+		for (CFG cfg : cfgs)
+			if (!cfg.getDescriptor().getName().startsWith("g"))
+				expected.add("sub/" + cfg.getDescriptor().getFullSignatureWithParNames().replace(' ', '_')
+						.replace("::", ".") + ".dot");
+		assertTrue(expected.size() < cfgs.size());
+		assertEquals(expected, manager.createdFiles());
+
+		for (String name : expected)
+			try (Reader reader = new FileReader(new File(root, name))) {
+				assertTrue(DotGraph.readDot(reader) != null);
+			}
+	}
+}
@@ -0,0 +1,116 @@
+package it.unive.lisa.outputs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import it.unive.lisa.checks.warnings.Warning;
+import it.unive.lisa.outputs.JsonReport.JsonWarning;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class JsonReportTest {
+
+	private final JsonReport report = new JsonReport(
+			Arrays.asList(new Warning("second \"quoted\""), new Warning("first"), new Warning("third\nline")),
+			Arrays.asList("b.dot", "a.dot"));
+
+	@Test
+	public void testDumpFormatIsUnchanged() throws IOException {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.configure(SerializationFeature.INDENT_OUTPUT, true);
+		// reports without an archive have no archive field
+		mapper.setSerializationInclusion(Include.NON_NULL);
+		StringWriter expected = new StringWriter();
+		mapper.writeValue(expected, report);
+
+		StringWriter actual = new StringWriter();
+		report.dump(actual);
+		assertEquals(expected.toString(), actual.toString());
+
+		expected = new StringWriter();
+		mapper.writeValue(expected, new JsonReport());
+		actual = new StringWriter();
+		new JsonReport().dump(actual);
+		assertEquals(expected.toString(), actual.toString());
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		StringWriter json = new StringWriter();
+		report.dump(json);
+		assertEquals(report, JsonReport.read(new StringReader(json.toString())));
+
+		StringWriter ndjson = new StringWriter();
+		report.dump(ndjson, true);
+		String[] lines = ndjson.toString().split("\n");
+		assertEquals(5, lines.length);
+		assertEquals("{\"message\":\"[GENERIC] first\"}", lines[0]);
+		assertEquals("{\"file\":\"a.dot\"}", lines[3]);
+		assertEquals(report, JsonReport.read(new StringReader(ndjson.toString())));
+
+		JsonReport archived = new JsonReport(Arrays.asList(new Warning("first")), Arrays.asList("a.dot"), "out.zip");
+		json = new StringWriter();
+		archived.dump(json);
+		assertEquals(archived, JsonReport.read(new StringReader(json.toString())));
+		ndjson = new StringWriter();
+		archived.dump(ndjson, true);
+		assertEquals(archived, JsonReport.read(new StringReader(ndjson.toString())));
+	}
+
+	@Test
+	public void testStreamingWriter() throws IOException {
+		StringWriter json = new StringWriter();
+		try (JsonReportWriter writer = new JsonReportWriter(json, false)) {
+			// warnings are written in the order they are produced
+			writer.write(new Warning("third\nline"));
+			writer.write(new Warning("second \"quoted\""));
+			writer.write(new Warning("first"));
+			writer.writeFiles(Arrays.asList("a.dot", "b.dot"));
+		}
+
+		List<String> messages = new ArrayList<>();
+		List<String> files = new ArrayList<>();
+		JsonReport.read(new StringReader(json.toString()), w -> messages.add(w.getMessage()), files::add);
+		assertEquals(Arrays.asList("[GENERIC] third\nline", "[GENERIC] second \"quoted\"", "[GENERIC] first"),
+				messages);
+		assertEquals(Arrays.asList("a.dot", "b.dot"), files);
+		assertEquals(report, JsonReport.read(new StringReader(json.toString())));
+	}
+
+	@Test
+	public void testEmptyStreamingWriter() throws IOException {
+		StringWriter json = new StringWriter();
+		new JsonReportWriter(json, false).close();
+		assertEquals(new JsonReport(), JsonReport.read(new StringReader(json.toString())));
+
+		StringWriter ndjson = new StringWriter();
+		new JsonReportWriter(ndjson, true).close();
+		assertEquals(new JsonReport(), JsonReport.read(new StringReader(ndjson.toString())));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testWarningAfterFiles() throws IOException {
+		try (JsonReportWriter writer = new JsonReportWriter(new StringWriter(), true)) {
+			writer.writeFiles(Arrays.asList("a.dot"));
+			writer.write(new JsonWarning(new Warning("late")));
+		}
+	}
+
+	@Test
+	public void testUnknownFieldsAreIgnored() throws IOException {
+		String json = "{\"version\" : {\"major\" : 1}, \"warnings\" : [ {\"message\" : \"first\", \"level\" : [1, 2]} ],"
+				+ " \"files\" : [ \"a.dot\" ]}";
+		JsonReport read = JsonReport.read(new StringReader(json));
+		assertEquals(1, read.getWarnings().size());
+		assertEquals("first", read.getWarnings().iterator().next().getMessage());
+		assertTrue(read.getFiles().contains("a.dot"));
+	}
+}
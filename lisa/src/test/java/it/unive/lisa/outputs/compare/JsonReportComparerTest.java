@@ -0,0 +1,148 @@
+package it.unive.lisa.outputs.compare;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.checks.warnings.Warning;
+import it.unive.lisa.outputs.JsonReport;
+import it.unive.lisa.outputs.compare.JsonReportComparer.DiffReporter;
+import it.unive.lisa.outputs.compare.JsonReportComparer.REPORTED_COMPONENT;
+import it.unive.lisa.outputs.compare.JsonReportComparer.REPORT_TYPE;
+import it.unive.lisa.util.file.FileManager;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JsonReportComparerTest {
+
+	private static final File SOURCE = new File("imp-testcases/sign");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File first;
+
+	private File second;
+
+	private JsonReport report;
+
+	private static class Collector implements DiffReporter {
+		private final List<String> diffs = new ArrayList<>();
+
+		@Override
+		public void report(REPORTED_COMPONENT component, REPORT_TYPE type, Collection<?> reported) {
+			if (type != REPORT_TYPE.COMMON)
+				diffs.add(component + " " + type + " " + reported);
+		}
+
+		@Override
+		public void fileDiff(String first, String second, String message) {
+			diffs.add(new File(first).getName() + ": " + message);
+		}
+	}
+
+	@Before
+	public void setup() throws IOException {
+		first = folder.newFolder("first");
+		second = folder.newFolder("second");
+		FileUtils.copyDirectory(SOURCE, first);
+		FileUtils.copyDirectory(SOURCE, second);
+		try (Reader reader = new FileReader(new File(SOURCE, "report.json"))) {
+			report = JsonReport.read(reader);
+		}
+	}
+
+	private File someDot(File root) {
+		return new File(root, report.getFiles().iterator().next());
+	}
+
+	@Test
+	public void testIdentical() throws IOException {
+		for (int threads : Arrays.asList(1, 4)) {
+			Collector collector = new Collector();
+			assertTrue(JsonReportComparer.compare(report, report, first, second, collector, threads));
+			assertEquals(Collections.emptyList(), collector.diffs);
+		}
+	}
+
+	@Test
+	public void testReorderedGraphsMatch() throws IOException {
+		// swapping two node declarations changes the bytes but not the graph
+		Path dot = someDot(second).toPath();
+		List<String> lines = new ArrayList<>(Files.readAllLines(dot, StandardCharsets.UTF_8));
+		Collections.swap(lines, 1, 2);
+		Files.write(dot, lines, StandardCharsets.UTF_8);
+
+		for (int threads : Arrays.asList(1, 4)) {
+			Collector collector = new Collector();
+			assertTrue(JsonReportComparer.compare(report, report, first, second, collector, threads));
+			assertEquals(Collections.emptyList(), collector.diffs);
+		}
+	}
+
+	@Test
+	public void testDifferentGraphs() throws IOException {
+		Path dot = someDot(second).toPath();
+		String content = new String(Files.readAllBytes(dot), StandardCharsets.UTF_8);
+		Files.write(dot, content.replace("c: +", "c: -").getBytes(StandardCharsets.UTF_8));
+
+		for (int threads : Arrays.asList(1, 4)) {
+			Collector collector = new Collector();
+			assertFalse(JsonReportComparer.compare(report, report, first, second, collector, threads));
+			assertEquals(Collections.singletonList(dot.toFile().getName() + ": Graphs are different"),
+					collector.diffs);
+		}
+	}
+
+	@Test
+	public void testArchivedFiles() throws IOException {
+		FileManager manager = new FileManager(second.toString(), FileManager.DEFAULT_ARCHIVE);
+		for (String name : report.getFiles()) {
+			File file = new File(second, name);
+			try (Writer writer = manager.mkOutputFile(name)) {
+				writer.write(FileUtils.readFileToString(file, StandardCharsets.UTF_8).replace("c: +", "c: -"));
+			}
+			FileUtils.forceDelete(file);
+		}
+		manager.close();
+
+		JsonReport archived = new JsonReport(Collections.emptyList(), manager.createdFiles(), manager.getArchive());
+		assertEquals(report.getFiles(), archived.getFiles());
+		assertEquals(FileManager.DEFAULT_ARCHIVE, archived.getArchive());
+
+		Collector collector = new Collector();
+		assertFalse(JsonReportComparer.compare(report, archived, first, second, collector, 4));
+		assertEquals(1, collector.diffs.size());
+		assertTrue(collector.diffs.get(0).endsWith(": Graphs are different"));
+
+		collector = new Collector();
+		assertTrue(JsonReportComparer.compare(archived, archived, second, second, collector, 4));
+		assertEquals(Collections.emptyList(), collector.diffs);
+	}
+
+	@Test
+	public void testDifferentWarnings() throws IOException {
+		JsonReport left = new JsonReport(Arrays.asList(new Warning("a"), new Warning("b")), report.getFiles());
+		JsonReport right = new JsonReport(Arrays.asList(new Warning("b"), new Warning("c")), report.getFiles());
+		Collector collector = new Collector();
+		assertFalse(JsonReportComparer.compare(left, right, first, second, collector, 4));
+		assertEquals(Arrays.asList("WARNINGS ONLY_FIRST [[GENERIC] a]", "WARNINGS ONLY_SECOND [[GENERIC] c]"),
+				collector.diffs);
+	}
+}
@@ -1,8 +1,18 @@
 package it.unive.lisa.program.cfg;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.CFGWithAnalysisResults;
 import it.unive.lisa.analysis.SimpleAbstractState;
 import it.unive.lisa.analysis.impl.heap.MonolithicHeap;
 import it.unive.lisa.analysis.impl.numeric.Sign;
@@ -12,8 +22,25 @@ import it.unive.lisa.imp.IMPFrontend;
 import it.unive.lisa.imp.ParsingException;
 import it.unive.lisa.program.CompilationUnit;
 import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.outputs.JsonMetricsSink;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration;
+import it.unive.lisa.util.datastructures.graph.FixpointConfiguration.InternalStates;
 import it.unive.lisa.util.datastructures.graph.FixpointException;
+import it.unive.lisa.util.datastructures.graph.FixpointMetrics;
+import it.unive.lisa.util.datastructures.graph.FixpointMetrics.NodeMetrics;
+import it.unive.lisa.util.datastructures.graph.InMemoryMetricsSink;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.Test;
 
 public class FixpointTest {
@@ -62,4 +89,211 @@ public class FixpointTest {
 			fail("The fixpoint computation has thrown an exception");
 		}
 	}
+
+	@Test
+	public void testMetrics() throws ParsingException, FixpointException {
+		Program p = IMPFrontend.processText("class loop { foo() { def x = 0; while (x < 10) { x = x + 1; } } }");
+		CFG cfg = p.getAllCFGs().iterator().next();
+		InMemoryMetricsSink sink = new InMemoryMetricsSink();
+		cfg.fixpoint(mkState(), mkCallGraph(), new FixpointConfiguration().setMetricsSink(sink));
+
+		List<FixpointMetrics<?>> recorded = sink.getMetrics();
+		assertEquals(1, recorded.size());
+		FixpointMetrics<?> metrics = recorded.get(0);
+		assertTrue(metrics.isCompleted());
+		assertEquals(cfg.toString(), metrics.getGraph());
+		assertEquals(cfg.getNodes().size(), metrics.getNodes().size());
+		// the loop forces some nodes to be evaluated more than once
+		assertTrue(metrics.getEvaluations() > cfg.getNodes().size());
+		assertTrue(metrics.getLubs() > 0);
+		assertTrue(metrics.getTotalNanos() >= metrics.getSemanticsNanos() + metrics.getEntryStateNanos());
+		for (NodeMetrics node : metrics.getNodes().values()) {
+			assertTrue(node.getEvaluations() > 0);
+			assertTrue(node.getStateSize() > 0);
+		}
+
+		sink.clear();
+		cfg.fixpoint(mkState(), mkCallGraph());
+		assertTrue(sink.getMetrics().isEmpty());
+	}
+
+	// computed expressions are compared regardless of the collection holding
+	// them, since lubs change it
+	private static void assertEqualStates(AnalysisState<?, ?, ?> expected, AnalysisState<?, ?, ?> actual) {
+		assertEquals(expected.getState(), actual.getState());
+		assertEquals(new HashSet<>(expected.getComputedExpressions()), new HashSet<>(actual.getComputedExpressions()));
+	}
+
+	@Test
+	public void testSparseResults() throws ParsingException, FixpointException {
+		Program p = IMPFrontend.processText("class sparse { foo(y) { def x = 0; def z = y; "
+				+ "while (x < 10) { x = x + 1; z = z - x; } if (z > 0) { z = 1; } return x + z; } }");
+		CFG cfg = p.getAllCFGs().iterator().next();
+		CFGWithAnalysisResults<?, ?, ?> full = cfg.fixpoint(mkState(), mkCallGraph(), new FixpointConfiguration());
+		CFGWithAnalysisResults<?, ?, ?> sparse = cfg.fixpoint(mkState(), mkCallGraph(),
+				new FixpointConfiguration().setSparseResults(true)
+						.setRetainedStatements(st -> st.toString().equals("z = 1")));
+
+		for (Statement node : cfg.getNodes()) {
+			assertEqualStates(full.getAnalysisStateAt(node), sparse.getAnalysisStateAt(node));
+			if (node instanceof Assignment) {
+				Expression right = ((Assignment) node).getRight();
+				assertEqualStates(full.getAnalysisStateAt(right), sparse.getAnalysisStateAt(right));
+			}
+
+			// retained states are stored, while the other ones are recomputed
+			// and then cached
+			assertSame(sparse.getAnalysisStateAt(node), sparse.getAnalysisStateAt(node));
+		}
+	}
+
+	@Test
+	public void testSparseResultsCache() throws ParsingException, FixpointException {
+		StringBuilder body = new StringBuilder("def x = 0; ");
+		for (int i = 0; i < 100; i++)
+			body.append("x = x + 1; ");
+		Program p = IMPFrontend.processText("class chain { foo() { " + body + "return x; } }");
+		CFG cfg = p.getAllCFGs().iterator().next();
+		CFGWithAnalysisResults<?, ?, ?> full = cfg.fixpoint(mkState(), mkCallGraph(), new FixpointConfiguration());
+		CFGWithAnalysisResults<?, ?, ?> sparse = cfg.fixpoint(mkState(), mkCallGraph(),
+				new FixpointConfiguration().setSparseResults(true));
+
+		List<Statement> chain = new ArrayList<>();
+		for (Statement node : cfg.getNodes())
+			if (!cfg.getEntrypoints().contains(node) && !cfg.followersOf(node).isEmpty())
+				chain.add(node);
+		assertEquals(100, chain.size());
+
+		List<AnalysisState<?, ?, ?>> first = new ArrayList<>();
+		for (Statement node : chain) {
+			first.add(sparse.getAnalysisStateAt(node));
+			assertEqualStates(full.getAnalysisStateAt(node), first.get(first.size() - 1));
+		}
+
+		// recently recomputed states are cached, while older ones have been
+		// evicted and are recomputed again
+		Statement last = chain.get(chain.size() - 1);
+		assertSame(first.get(first.size() - 1), sparse.getAnalysisStateAt(last));
+		AnalysisState<?, ?, ?> again = sparse.getAnalysisStateAt(chain.get(0));
+		assertNotSame(first.get(0), again);
+		assertEqualStates(first.get(0), again);
+	}
+
+	@Test
+	public void testConcurrentLazyResults() throws Exception {
+		Program p = IMPFrontend.processText("class lazy { foo() { def x = 0; while (x < 10) { x = x + 1; } } "
+				+ "bar() { def y = 1; return y; } }");
+		p.validateAndFinalize();
+		IntraproceduralCallGraph cg = mkCallGraph();
+		cg.build(p);
+		InMemoryMetricsSink sink = new InMemoryMetricsSink();
+		cg.lazyFixpoint(mkState(), new FixpointConfiguration().setResidentResults(1).setMetricsSink(sink));
+
+		List<CFG> cfgs = new ArrayList<>(p.getAllCFGs());
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<CFGWithAnalysisResults<?, ?, ?>>> requests = new ArrayList<>();
+			for (int i = 0; i < 16; i++)
+				requests.add(executor.submit(() -> cg.getAnalysisResultsOf(cfgs.get(0))));
+			// concurrent requests for the same results wait for a single
+			// computation
+			CFGWithAnalysisResults<?, ?, ?> first = requests.get(0).get();
+			for (Future<CFGWithAnalysisResults<?, ?, ?>> request : requests)
+				assertSame(first, request.get());
+			assertEquals(1, sink.getMetrics().size());
+
+			// evicted results are recomputed
+			assertNotSame(cg.getAnalysisResultsOf(cfgs.get(1)), first);
+			assertNotSame(first, executor.submit(() -> cg.getAnalysisResultsOf(cfgs.get(0))).get());
+			assertEquals(3, sink.getMetrics().size());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testDeduplicatedStates() throws ParsingException, FixpointException {
+		Program p = IMPFrontend.processText("class dedup { foo() { def x = 1; x = 1; x = 1; x = 2; return x; } }");
+		CFG cfg = p.getAllCFGs().iterator().next();
+		InMemoryMetricsSink sink = new InMemoryMetricsSink();
+		CFGWithAnalysisResults<?, ?, ?> full = cfg.fixpoint(mkState(), mkCallGraph(),
+				new FixpointConfiguration().setMetricsSink(sink));
+		assertEquals(-1, sink.getMetrics().get(0).getStoredStates());
+
+		sink.clear();
+		CFGWithAnalysisResults<?, ?, ?> dedup = cfg.fixpoint(mkState(), mkCallGraph(),
+				new FixpointConfiguration().setMetricsSink(sink).setDeduplicateStates(true));
+
+		List<Statement> assignments = new ArrayList<>();
+		for (Statement node : cfg.getNodes()) {
+			assertEqualStates(full.getAnalysisStateAt(node), dedup.getAnalysisStateAt(node));
+			if (node instanceof Assignment)
+				assignments.add(node);
+		}
+
+		// the assignments of the same value yield equal states, that are now
+		// shared
+		int shared = 0;
+		for (Statement first : assignments)
+			for (Statement second : assignments)
+				if (first != second && dedup.getAnalysisStateAt(first).equals(dedup.getAnalysisStateAt(second))) {
+					assertSame(dedup.getAnalysisStateAt(first), dedup.getAnalysisStateAt(second));
+					assertNotSame(full.getAnalysisStateAt(first), full.getAnalysisStateAt(second));
+					shared++;
+				}
+		assertTrue(shared > 0);
+
+		FixpointMetrics<?> metrics = sink.getMetrics().get(0);
+		assertTrue(metrics.getStoredStates() > metrics.getDistinctStates());
+		assertTrue(metrics.getSavedSize() > 0);
+	}
+
+	@Test
+	public void testInternalStates() throws ParsingException, FixpointException {
+		Program p = IMPFrontend.processText("class internal { foo(y) { def x = 0; "
+				+ "while (x < 10) { x = x + 1; y = y - x; } return x + y; } }");
+		CFG cfg = p.getAllCFGs().iterator().next();
+		CFGWithAnalysisResults<?, ?, ?> tracked = cfg.fixpoint(mkState(), mkCallGraph(),
+				new FixpointConfiguration());
+		CFGWithAnalysisResults<?, ?, ?> deferred = cfg.fixpoint(mkState(), mkCallGraph(),
+				new FixpointConfiguration().setInternalStates(InternalStates.AFTER_CONVERGENCE));
+		CFGWithAnalysisResults<?, ?, ?> none = cfg.fixpoint(mkState(), mkCallGraph(),
+				new FixpointConfiguration().setInternalStates(InternalStates.NEVER));
+
+		for (Statement node : cfg.getNodes()) {
+			assertEqualStates(tracked.getAnalysisStateAt(node), deferred.getAnalysisStateAt(node));
+			assertEqualStates(tracked.getAnalysisStateAt(node), none.getAnalysisStateAt(node));
+			if (node instanceof Assignment) {
+				Expression right = ((Assignment) node).getRight();
+				assertEqualStates(tracked.getAnalysisStateAt(right), deferred.getAnalysisStateAt(right));
+				assertNull(none.getAnalysisStateAt(right));
+			}
+		}
+	}
+
+	@Test
+	public void testJsonMetrics() throws ParsingException, FixpointException, IOException {
+		Program p = IMPFrontend.processText("class loop { foo() { def x = 0; while (x < 10) { x = x + 1; } } }");
+		CFG cfg = p.getAllCFGs().iterator().next();
+		StringWriter writer = new StringWriter();
+		try (JsonMetricsSink sink = new JsonMetricsSink(writer)) {
+			FixpointConfiguration conf = new FixpointConfiguration().setMetricsSink(sink);
+			cfg.fixpoint(mkState(), mkCallGraph(), conf);
+			cfg.fixpoint(mkState(), mkCallGraph(), conf);
+		}
+
+		JsonNode json = new ObjectMapper().readTree(writer.toString());
+		assertEquals(2, json.size());
+		for (JsonNode metrics : json) {
+			assertEquals(cfg.toString(), metrics.get("graph").asText());
+			assertTrue(metrics.get("completed").asBoolean());
+			assertEquals(cfg.getNodes().size(), metrics.get("nodes").size());
+			long evaluations = 0;
+			for (JsonNode node : metrics.get("nodes")) {
+				assertFalse(node.get("location").asText().isEmpty());
+				evaluations += node.get("evaluations").asLong();
+			}
+			assertEquals(metrics.get("evaluations").asLong(), evaluations);
+		}
+	}
 }
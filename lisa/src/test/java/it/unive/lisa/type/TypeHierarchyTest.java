@@ -0,0 +1,127 @@
+package it.unive.lisa.type;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class TypeHierarchyTest {
+
+	// only direct supertypes are known to each type, so that the hierarchy
+	// has to compute the transitive closure by itself
+	private static class Node implements Type {
+		private final String name;
+		private final Set<Type> parents;
+
+		private Node(String name, Type... parents) {
+			this.name = name;
+			this.parents = new HashSet<>(Arrays.asList(parents));
+		}
+
+		@Override
+		public boolean canBeAssignedTo(Type other) {
+			return this == other || parents.contains(other);
+		}
+
+		@Override
+		public Type commonSupertype(Type other) {
+			return Untyped.INSTANCE;
+		}
+
+		@Override
+		public Collection<Type> allInstances() {
+			return Collections.singleton(this);
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private final Node object = new Node("object");
+	private final Node shape = new Node("shape", object);
+	private final Node circle = new Node("circle", shape);
+	private final Node square = new Node("square", shape);
+	private final Node other = new Node("other", object);
+	private final Node unregistered = new Node("unregistered", shape);
+
+	private final ExternalSetCache<Type> cache = new ExternalSetCache<>();
+	private final TypeHierarchy hierarchy = new TypeHierarchy(Arrays.asList(object, shape, circle, square, other),
+			cache);
+
+	@Test
+	public void testIds() {
+		assertEquals(5, hierarchy.size());
+		Set<Integer> ids = new HashSet<>();
+		for (Type t : Arrays.asList(object, shape, circle, square, other)) {
+			int id = hierarchy.idOf(t);
+			assertTrue(id >= 0 && id < hierarchy.size());
+			ids.add(id);
+		}
+		assertEquals(5, ids.size());
+		assertEquals(-1, hierarchy.idOf(unregistered));
+	}
+
+	@Test
+	public void testClosure() {
+		assertTrue(hierarchy.canBeAssignedTo(circle, circle));
+		assertTrue(hierarchy.canBeAssignedTo(circle, shape));
+		assertTrue(hierarchy.canBeAssignedTo(circle, object));
+		assertFalse(hierarchy.canBeAssignedTo(circle, square));
+		assertFalse(hierarchy.canBeAssignedTo(shape, circle));
+		assertFalse(hierarchy.canBeAssignedTo(circle, other));
+		// unregistered types fall back to their own method
+		assertTrue(hierarchy.canBeAssignedTo(unregistered, shape));
+		assertFalse(hierarchy.canBeAssignedTo(unregistered, object));
+	}
+
+	@Test
+	public void testNonReflexiveTypes() {
+		TypeHierarchy withVoid = new TypeHierarchy(Arrays.asList(VoidType.INSTANCE, object, shape), cache);
+		assertFalse(withVoid.canBeAssignedTo(VoidType.INSTANCE, VoidType.INSTANCE));
+		assertFalse(withVoid.canBeAssignedTo(VoidType.INSTANCE, object));
+		assertFalse(withVoid.canBeAssignedTo(shape, VoidType.INSTANCE));
+		assertTrue(withVoid.canBeAssignedTo(shape, object));
+		assertFalse(withVoid.anyAssignableTo(cache.mkSingletonSet(VoidType.INSTANCE), VoidType.INSTANCE));
+	}
+
+	@Test
+	public void testCommonSupertype() {
+		assertSame(shape, hierarchy.commonSupertype(circle, square));
+		assertSame(shape, hierarchy.commonSupertype(square, circle));
+		assertSame(shape, hierarchy.commonSupertype(circle, shape));
+		assertSame(object, hierarchy.commonSupertype(circle, other));
+		assertSame(circle, hierarchy.commonSupertype(circle, circle));
+		assertSame(Untyped.INSTANCE, hierarchy.commonSupertype(circle, unregistered));
+	}
+
+	@Test
+	public void testAssignable() {
+		ExternalSet<Type> candidates = cache.mkSet(Arrays.asList(circle, square, other, unregistered));
+		assertEquals(cache.mkSet(Arrays.asList(circle, square, unregistered)),
+				hierarchy.assignableTo(candidates, shape));
+		assertEquals(cache.mkSet(Arrays.asList(circle, square, other)), hierarchy.assignableTo(candidates, object));
+		assertTrue(hierarchy.anyAssignableTo(candidates, shape));
+		assertTrue(hierarchy.anyAssignableTo(cache.mkSingletonSet(unregistered), shape));
+		assertFalse(hierarchy.anyAssignableTo(cache.mkSingletonSet(other), shape));
+	}
+
+	@Test
+	public void testAllInstances() {
+		ExternalSet<Type> instances = hierarchy.allInstances(circle);
+		assertEquals(cache.mkSingletonSet(circle), instances);
+		instances.add(square);
+		// the cached set is not affected by modifications
+		assertEquals(cache.mkSingletonSet(circle), hierarchy.allInstances(circle));
+	}
+}